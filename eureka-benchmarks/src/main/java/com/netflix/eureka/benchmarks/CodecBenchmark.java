@@ -0,0 +1,80 @@
+package com.netflix.eureka.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import com.netflix.discovery.converters.wrappers.EncoderDecoderWrapper;
+import com.netflix.eureka.benchmarks.RegistryFixture.EntityType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Encoding and decoding throughput of each {@link com.netflix.discovery.converters.wrappers.CodecWrappers} codec,
+ * for each registry entity type, at different registry sizes. The documents are written to, and read from, byte
+ * streams, as on the wire.
+ * <p>
+ * Run with the JMH gc profiler ({@code -prof gc}) for the allocation per operation. The payload sizes are printed
+ * by {@link PayloadSizeReport}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CodecBenchmark {
+
+    @Param({"LegacyJacksonJson", "JacksonJson", "JacksonJsonMini", "JacksonJsonStreaming", "JacksonSmile",
+            "JacksonSmileMini", "XStreamJson", "XStreamXml", "JacksonXml", "JacksonXmlMini", "StaxXml"})
+    public String codecName;
+
+    @Param({"InstanceInfo", "Application", "Applications", "Delta"})
+    public EntityType entityType;
+
+    @Param({"1000", "10000"})
+    public int instanceCount;
+
+    @Param({"100"})
+    public int applicationCount;
+
+    private EncoderDecoderWrapper codec;
+    private Object entity;
+    private byte[] encoded;
+    private ByteArrayOutputStream outputStream;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        codec = RegistryFixture.getCodec(codecName);
+        entity = RegistryFixture.createEntity(entityType, instanceCount, applicationCount);
+
+        outputStream = new ByteArrayOutputStream();
+        codec.encode(entity, outputStream);
+        encoded = outputStream.toByteArray();
+
+        RegistryFixture.verifyConformance(codecName, entity, decode());
+    }
+
+    @Benchmark
+    public int encode() throws IOException {
+        outputStream.reset();
+        codec.encode(entity, outputStream);
+        return outputStream.size();
+    }
+
+    @Benchmark
+    public Object decode() throws IOException {
+        return codec.decode(new ByteArrayInputStream(encoded), entityType.getType());
+    }
+}
@@ -0,0 +1,145 @@
+package com.netflix.eureka.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.util.GZIPThresholdOutputStream;
+import com.netflix.discovery.util.InstanceInfoGenerator;
+import com.netflix.discovery.util.PooledGZIPInputStream;
+import com.netflix.discovery.util.PooledGZIPOutputStream;
+import com.netflix.eureka.PeerAwareInstanceRegistryImpl.Action;
+import com.netflix.eureka.cluster.protocol.ReplicationInstance;
+import com.netflix.eureka.cluster.protocol.ReplicationInstanceResponse;
+import com.netflix.eureka.cluster.protocol.ReplicationList;
+import com.netflix.eureka.cluster.protocol.ReplicationListResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time spent per request on the gzip encoding of the peer replication entities, the heartbeat batches sent by
+ * {@link com.netflix.eureka.cluster.DynamicGZIPContentEncodingFilter} and the responses to them, as
+ * compressed by {@link com.netflix.eureka.GZIPContentEncodingContainerFilter}. As the benchmark runs on a single
+ * thread, the average time is the CPU time of a request.
+ * <p>
+ * The {@code Jdk} compression is the one of the jersey filters, with a new {@link GZIPOutputStream}, and its
+ * native deflater, per request. {@code Pooled} reuses the deflaters, and {@code Threshold} also sends the entities
+ * below 1KB uncompressed. Run with the JMH gc profiler ({@code -prof gc}) for the allocation per request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GZipBenchmark {
+
+    private static final int THRESHOLD = 1024;
+
+    public enum Entity {HeartbeatBatch, HeartbeatBatchResponse}
+
+    public enum Compression {Jdk, Pooled, Threshold}
+
+    @Param({"HeartbeatBatch", "HeartbeatBatchResponse"})
+    public Entity entity;
+
+    @Param({"Jdk", "Pooled", "Threshold"})
+    public Compression compression;
+
+    @Param({"1", "6"})
+    public int level;
+
+    @Param({"1", "250"})
+    public int batchSize;
+
+    private byte[] encoded;
+    private byte[] compressed;
+    private boolean sentUncompressed;
+    private ByteArrayOutputStream outputStream;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ReplicationList replicationList = new ReplicationList();
+        ReplicationListResponse replicationListResponse = new ReplicationListResponse();
+        Iterator<InstanceInfo> instanceIt = InstanceInfoGenerator.newBuilder(batchSize, 10).build().serviceIterator();
+        while (instanceIt.hasNext()) {
+            InstanceInfo instance = instanceIt.next();
+            replicationList.addReplicationInstance(new ReplicationInstance(instance.getAppName(), instance.getId(),
+                    instance.getLastDirtyTimestamp(), null, instance.getStatus().name(), null, Action.Heartbeat));
+            replicationListResponse.addResponse(new ReplicationInstanceResponse(200, null));
+        }
+        ObjectMapper mapper = new ObjectMapper();
+        encoded = mapper.writeValueAsBytes(entity == Entity.HeartbeatBatch ? replicationList : replicationListResponse);
+
+        outputStream = new ByteArrayOutputStream();
+        compress();
+        compressed = outputStream.toByteArray();
+        sentUncompressed = compression == Compression.Threshold && encoded.length < THRESHOLD;
+    }
+
+    @Benchmark
+    public int compress() throws IOException {
+        outputStream.reset();
+        OutputStream out;
+        switch (compression) {
+            case Jdk:
+                out = new LevelGZIPOutputStream(outputStream, level);
+                break;
+            case Pooled:
+                out = new PooledGZIPOutputStream(outputStream, level);
+                break;
+            default:
+                out = new GZIPThresholdOutputStream(level, THRESHOLD) {
+                    @Override
+                    protected OutputStream openTarget(boolean compressed, long contentLength) {
+                        return outputStream;
+                    }
+                };
+        }
+        out.write(encoded);
+        out.close();
+        return outputStream.size();
+    }
+
+    @Benchmark
+    public int decompress() throws IOException {
+        if (sentUncompressed) {
+            return compressed.length;
+        }
+        ByteArrayInputStream source = new ByteArrayInputStream(compressed);
+        InputStream in = compression == Compression.Jdk ? new GZIPInputStream(source) : new PooledGZIPInputStream(source);
+        byte[] buffer = new byte[1024];
+        int total = 0;
+        int count;
+        while ((count = in.read(buffer)) != -1) {
+            total += count;
+        }
+        in.close();
+        return total;
+    }
+
+    private static class LevelGZIPOutputStream extends GZIPOutputStream {
+        LevelGZIPOutputStream(OutputStream out, int level) throws IOException {
+            super(out);
+            def.setLevel(level);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.netflix.eureka.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.netflix.discovery.converters.wrappers.EncoderDecoderWrapper;
+import com.netflix.discovery.util.PooledGZIPInputStream;
+import com.netflix.eureka.benchmarks.RegistryFixture.EntityType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Decoding of gzip encoded registry fetch responses, as the client does it, with a new {@link GZIPInputStream}
+ * per response ({@code Jdk}), or with the pooled inflaters and buffers of {@link PooledGZIPInputStream}
+ * ({@code Pooled}). The {@code inflate} benchmark reads the decompressed bytes only, {@code decode} also decodes
+ * the registry from them.
+ * <p>
+ * Run with the JMH gc profiler ({@code -prof gc}) to compare the allocation per response, and so the GC load,
+ * of the two.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GZipInflateBenchmark {
+
+    public enum Decompression {Jdk, Pooled}
+
+    @Param({"Jdk", "Pooled"})
+    public Decompression decompression;
+
+    @Param({"Applications", "Delta"})
+    public EntityType entityType;
+
+    @Param({"1000", "10000"})
+    public int instanceCount;
+
+    private EncoderDecoderWrapper codec;
+    private byte[] compressed;
+    private final byte[] readBuffer = new byte[4 * 1024];
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        codec = RegistryFixture.getCodec("JacksonJson");
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        GZIPOutputStream gos = new GZIPOutputStream(bos);
+        codec.encode(RegistryFixture.createEntity(entityType, instanceCount, 100), gos);
+        gos.close();
+        compressed = bos.toByteArray();
+    }
+
+    @Benchmark
+    public long inflate() throws IOException {
+        InputStream in = open();
+        long total = 0;
+        int count;
+        while ((count = in.read(readBuffer)) != -1) {
+            total += count;
+        }
+        in.close();
+        return total;
+    }
+
+    @Benchmark
+    public Object decode() throws IOException {
+        InputStream in = open();
+        try {
+            return codec.decode(in, entityType.getType());
+        } finally {
+            in.close();
+        }
+    }
+
+    private InputStream open() throws IOException {
+        ByteArrayInputStream source = new ByteArrayInputStream(compressed);
+        return decompression == Decompression.Jdk ? new GZIPInputStream(source) : new PooledGZIPInputStream(source);
+    }
+}
@@ -0,0 +1,44 @@
+package com.netflix.eureka.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+import com.netflix.discovery.converters.wrappers.EncoderDecoderWrapper;
+import com.netflix.eureka.benchmarks.RegistryFixture.EntityType;
+
+/**
+ * Prints the size in bytes, raw and gzip compressed, of the documents each codec produces for the entities
+ * benchmarked by {@link CodecBenchmark}. The registry sizes can be given as arguments.
+ */
+public final class PayloadSizeReport {
+
+    private static final int APPLICATION_COUNT = 100;
+
+    private PayloadSizeReport() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        String[] instanceCounts = args.length == 0 ? new String[]{"1000", "10000"} : args;
+
+        System.out.printf("%-22s %-13s %10s %12s %12s%n", "codec", "entity", "instances", "bytes", "gzip bytes");
+        for (String instanceCount : instanceCounts) {
+            for (EntityType entityType : EntityType.values()) {
+                Object entity = RegistryFixture.createEntity(entityType, Integer.parseInt(instanceCount), APPLICATION_COUNT);
+                for (String codecName : RegistryFixture.CODEC_NAMES) {
+                    EncoderDecoderWrapper codec = RegistryFixture.getCodec(codecName);
+                    ByteArrayOutputStream raw = new ByteArrayOutputStream();
+                    codec.encode(entity, raw);
+
+                    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+                    GZIPOutputStream gzipStream = new GZIPOutputStream(compressed);
+                    raw.writeTo(gzipStream);
+                    gzipStream.close();
+
+                    System.out.printf("%-22s %-13s %10s %12d %12d%n",
+                            codecName, entityType, instanceCount, raw.size(), compressed.size());
+                }
+            }
+        }
+    }
+}
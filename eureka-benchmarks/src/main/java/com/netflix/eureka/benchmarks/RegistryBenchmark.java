@@ -0,0 +1,120 @@
+package com.netflix.eureka.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+import com.netflix.appinfo.MyDataCenterInstanceConfig;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.discovery.util.InstanceInfoGenerator;
+import com.netflix.eureka.AbstractInstanceRegistry;
+import com.netflix.eureka.DefaultEurekaServerConfig;
+import com.netflix.eureka.EurekaServerConfigurationManager;
+import com.netflix.eureka.lease.Lease;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time and allocation of building the {@link Applications} of the server registry, which the response cache does
+ * for every full registry key it loads. The registry is filled once with the instances of
+ * {@link InstanceInfoGenerator}, and holds no remote regions.
+ * <p>
+ * As the registry hands out a snapshot that is only rebuilt after a change, the status of one instance of each of
+ * {@code changedApplications} applications is flipped before every call, so that the applications are rebuilt from
+ * their leases. With all applications changed, this is the cost of a full build.
+ * <p>
+ * Run with the JMH gc profiler ({@code -prof gc}) for the allocation per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RegistryBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int instanceCount;
+
+    @Param({"100"})
+    public int applicationCount;
+
+    @Param({"1", "100"})
+    public int changedApplications;
+
+    private AbstractInstanceRegistry registry;
+    private final List<InstanceInfo> changedInstances = new ArrayList<>();
+    private InstanceStatus nextStatus = InstanceStatus.OUT_OF_SERVICE;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        EurekaServerConfigurationManager.getInstance().setConfiguration(new DefaultEurekaServerConfig());
+        new ApplicationInfoManager(new MyDataCenterInstanceConfig(), InstanceInfoGenerator.takeOne());
+
+        registry = new BenchmarkRegistry();
+        Iterator<InstanceInfo> instances = InstanceInfoGenerator.newBuilder(instanceCount, applicationCount)
+                .withMetaData(true)
+                .build()
+                .serviceIterator();
+        Map<String, InstanceInfo> instanceByApp = new LinkedHashMap<>();
+        while (instances.hasNext()) {
+            InstanceInfo instance = instances.next();
+            registry.register(instance, Lease.DEFAULT_DURATION_IN_SECS, false);
+            if (!instanceByApp.containsKey(instance.getAppName())) {
+                instanceByApp.put(instance.getAppName(), instance);
+            }
+        }
+        for (InstanceInfo instance : instanceByApp.values()) {
+            if (changedInstances.size() < changedApplications) {
+                changedInstances.add(instance);
+            }
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void changeRegistry() {
+        for (InstanceInfo instance : changedInstances) {
+            registry.statusUpdate(instance.getAppName(), instance.getId(), nextStatus,
+                    String.valueOf(instance.getLastDirtyTimestamp()), false);
+        }
+        nextStatus = nextStatus == InstanceStatus.UP ? InstanceStatus.OUT_OF_SERVICE : InstanceStatus.UP;
+    }
+
+    @Benchmark
+    public Applications getApplications() {
+        return registry.getApplications();
+    }
+
+    private static class BenchmarkRegistry extends AbstractInstanceRegistry {
+
+        BenchmarkRegistry() {
+            postInit();
+        }
+
+        @Override
+        public boolean isLeaseExpirationEnabled() {
+            return false;
+        }
+
+        @Override
+        public InstanceInfo getNextServerFromEureka(String virtualHostname, boolean secure) {
+            return null;
+        }
+    }
+}
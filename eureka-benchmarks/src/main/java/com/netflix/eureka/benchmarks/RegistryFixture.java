@@ -0,0 +1,155 @@
+package com.netflix.eureka.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.converters.wrappers.CodecWrappers;
+import com.netflix.discovery.converters.wrappers.CodecWrappers.JacksonJson;
+import com.netflix.discovery.converters.wrappers.CodecWrappers.JacksonJsonMini;
+import com.netflix.discovery.converters.wrappers.CodecWrappers.JacksonJsonStreaming;
+import com.netflix.discovery.converters.wrappers.CodecWrappers.JacksonSmile;
+import com.netflix.discovery.converters.wrappers.CodecWrappers.JacksonSmileMini;
+import com.netflix.discovery.converters.wrappers.CodecWrappers.JacksonXml;
+import com.netflix.discovery.converters.wrappers.CodecWrappers.JacksonXmlMini;
+import com.netflix.discovery.converters.wrappers.CodecWrappers.LegacyJacksonJson;
+import com.netflix.discovery.converters.wrappers.CodecWrappers.StaxXml;
+import com.netflix.discovery.converters.wrappers.CodecWrappers.XStreamJson;
+import com.netflix.discovery.converters.wrappers.CodecWrappers.XStreamXml;
+import com.netflix.discovery.converters.wrappers.EncoderDecoderWrapper;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.discovery.util.EurekaEntityComparators;
+import com.netflix.discovery.util.InstanceInfoGenerator;
+
+/**
+ * Registry entities generated by {@link InstanceInfoGenerator}, and the codecs they are encoded with, shared by
+ * the benchmarks and reports of this module.
+ */
+public final class RegistryFixture {
+
+    /**
+     * The entity types a codec must handle.
+     */
+    public enum EntityType {
+        InstanceInfo(InstanceInfo.class),
+        Application(Application.class),
+        Applications(Applications.class),
+        Delta(Applications.class);
+
+        private final Class<?> type;
+
+        EntityType(Class<?> type) {
+            this.type = type;
+        }
+
+        public Class<?> getType() {
+            return type;
+        }
+    }
+
+    public static final List<String> CODEC_NAMES = Arrays.asList(
+            CodecWrappers.getCodecName(LegacyJacksonJson.class),
+            CodecWrappers.getCodecName(JacksonJson.class),
+            CodecWrappers.getCodecName(JacksonJsonMini.class),
+            CodecWrappers.getCodecName(JacksonJsonStreaming.class),
+            CodecWrappers.getCodecName(JacksonSmile.class),
+            CodecWrappers.getCodecName(JacksonSmileMini.class),
+            CodecWrappers.getCodecName(XStreamJson.class),
+            CodecWrappers.getCodecName(XStreamXml.class),
+            CodecWrappers.getCodecName(JacksonXml.class),
+            CodecWrappers.getCodecName(JacksonXmlMini.class),
+            CodecWrappers.getCodecName(StaxXml.class)
+    );
+
+    private static final List<String> COMPACT_CODEC_NAMES = Arrays.asList(
+            CodecWrappers.getCodecName(JacksonJsonMini.class),
+            CodecWrappers.getCodecName(JacksonSmileMini.class),
+            CodecWrappers.getCodecName(JacksonXmlMini.class)
+    );
+
+    /**
+     * Share of the instances of the registry that a delta holds.
+     */
+    private static final int DELTA_RATIO = 10;
+
+    private RegistryFixture() {
+    }
+
+    public static EncoderDecoderWrapper getCodec(String codecName) {
+        EncoderDecoderWrapper codec = (EncoderDecoderWrapper) CodecWrappers.getEncoder(codecName);
+        if (codec == null) {
+            throw new IllegalArgumentException("Unknown codec " + codecName);
+        }
+        return codec;
+    }
+
+    public static Object createEntity(EntityType entityType, int instanceCount, int applicationCount) {
+        InstanceInfoGenerator generator = InstanceInfoGenerator.newBuilder(instanceCount, applicationCount)
+                .withMetaData(true)
+                .build();
+        switch (entityType) {
+            case InstanceInfo:
+                return generator.serviceIterator().next();
+            case Application:
+                return generator.toApplications().getRegisteredApplications().get(0);
+            case Applications:
+                Applications applications = generator.toApplications();
+                applications.setVersion(1L);
+                return applications;
+            case Delta:
+                Applications delta = generator.takeDelta(Math.max(1, instanceCount / DELTA_RATIO));
+                delta.setVersion(2L);
+                return delta;
+            default:
+                throw new IllegalArgumentException("Unsupported entity type " + entityType);
+        }
+    }
+
+    /**
+     * Checks that the entity decoded by the codec has the content of the original one. The compact codecs only
+     * carry the subset of the instance fields compared by {@link EurekaEntityComparators#equalMini}.
+     *
+     * @throws IllegalStateException if the codec does not reproduce the entity
+     */
+    public static void verifyConformance(String codecName, Object original, Object decoded) {
+        boolean compact = COMPACT_CODEC_NAMES.contains(codecName);
+        Map<String, InstanceInfo> originalInstances = instancesById(original);
+        Map<String, InstanceInfo> decodedInstances = instancesById(decoded);
+        boolean conformant = originalInstances.size() == decodedInstances.size();
+        for (InstanceInfo instance : originalInstances.values()) {
+            if (!conformant) {
+                break;
+            }
+            InstanceInfo decodedInstance = decodedInstances.get(instance.getId());
+            conformant = decodedInstance != null && (compact
+                    ? EurekaEntityComparators.equalMini(instance, decodedInstance)
+                    : EurekaEntityComparators.equal(instance, decodedInstance));
+        }
+        if (!conformant) {
+            throw new IllegalStateException(codecName + " does not decode the " + original.getClass().getSimpleName()
+                    + " it encoded");
+        }
+    }
+
+    private static Map<String, InstanceInfo> instancesById(Object entity) {
+        List<InstanceInfo> instances = new ArrayList<>();
+        if (entity instanceof InstanceInfo) {
+            instances.add((InstanceInfo) entity);
+        } else if (entity instanceof Application) {
+            instances.addAll(((Application) entity).getInstances());
+        } else {
+            for (Application application : ((Applications) entity).getRegisteredApplications()) {
+                instances.addAll(application.getInstances());
+            }
+        }
+        Map<String, InstanceInfo> byId = new HashMap<>();
+        for (InstanceInfo instance : instances) {
+            byId.put(instance.getId(), instance);
+        }
+        return byId;
+    }
+}
@@ -0,0 +1,128 @@
+package com.netflix.eureka.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.converters.wrappers.CodecWrappers.JacksonJson;
+import com.netflix.discovery.util.InstanceInfoGenerator;
+
+/**
+ * Load test of the lease renewals of a running eureka server, to compare the renewals per second it sustains
+ * with the renewal fast path ({@code eureka.renewalFastPath.enabled}) on and off.
+ * <p>
+ * The instances of {@link InstanceInfoGenerator} are registered first, and then renewed round robin by the client
+ * threads, the requests of the first sixth of the run being left out as warm up. The rate is also given per core
+ * of the server, for the number of cores the server is pinned to (for example with taskset), which should leave
+ * enough cores to this load test for the server to be the bottleneck. Arguments, all optional:
+ * <pre>
+ *     serviceUrl instanceCount clientThreads durationSecs serverCores
+ * </pre>
+ */
+public final class RenewalLoadTest {
+
+    private static final int APPLICATION_COUNT = 100;
+
+    private RenewalLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String serviceUrl = args.length > 0 ? args[0] : "http://localhost:8080/eureka/v2/";
+        int instanceCount = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int clientThreads = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+        long durationMs = TimeUnit.SECONDS.toMillis(args.length > 3 ? Long.parseLong(args[3]) : 60);
+        int serverCores = args.length > 4 ? Integer.parseInt(args[4]) : 1;
+
+        final List<InstanceInfo> instances = new ArrayList<>(instanceCount);
+        Iterator<InstanceInfo> instanceIt = InstanceInfoGenerator.newBuilder(instanceCount, APPLICATION_COUNT)
+                .build()
+                .serviceIterator();
+        JacksonJson codec = new JacksonJson();
+        while (instanceIt.hasNext()) {
+            InstanceInfo instance = instanceIt.next();
+            int status = send("POST", serviceUrl + "apps/" + instance.getAppName(), codec.encode(instance));
+            if (status != 204) {
+                throw new IllegalStateException("Registration of " + instance.getId() + " failed with status " + status);
+            }
+            instances.add(instance);
+        }
+        System.out.printf("Registered %d instances at %s%n", instances.size(), serviceUrl);
+
+        final String baseUrl = serviceUrl;
+        final long warmUpEnd = System.currentTimeMillis() + durationMs / 6;
+        final long end = System.currentTimeMillis() + durationMs;
+        final AtomicLong renewals = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(clientThreads);
+        for (int t = 0; t < clientThreads; t++) {
+            final int first = t;
+            final int step = clientThreads;
+            executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = first; System.currentTimeMillis() < end; i += step) {
+                        InstanceInfo instance = instances.get(i % instances.size());
+                        int status;
+                        try {
+                            status = send("PUT", baseUrl + "apps/" + instance.getAppName() + '/' + instance.getId()
+                                    + "?status=" + instance.getStatus()
+                                    + "&lastDirtyTimestamp=" + instance.getLastDirtyTimestamp(), null);
+                        } catch (IOException e) {
+                            status = -1;
+                        }
+                        if (System.currentTimeMillis() >= warmUpEnd) {
+                            (status == 200 ? renewals : failures).incrementAndGet();
+                        }
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(durationMs * 2, TimeUnit.MILLISECONDS);
+
+        double measuredSecs = (end - warmUpEnd) / 1000.0;
+        double renewalsPerSec = renewals.get() / measuredSecs;
+        System.out.printf("%-24s %12s %12s %16s%n", "", "renewals/s", "failures", "renewals/s/core");
+        System.out.printf("%-24s %12.0f %12d %16.0f%n",
+                clientThreads + " client threads", renewalsPerSec, failures.get(), renewalsPerSec / serverCores);
+    }
+
+    private static int send(String method, String url, String jsonBody) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod(method);
+        if (jsonBody != null) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            OutputStream out = connection.getOutputStream();
+            try {
+                out.write(jsonBody.getBytes("UTF-8"));
+            } finally {
+                out.close();
+            }
+        }
+        int status = connection.getResponseCode();
+        // read the response to the end, so the connection is kept alive for the next request
+        InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        if (in != null) {
+            try {
+                byte[] buffer = new byte[1024];
+                while (in.read(buffer) != -1) {
+                    // discard
+                }
+            } finally {
+                in.close();
+            }
+        }
+        return status;
+    }
+}
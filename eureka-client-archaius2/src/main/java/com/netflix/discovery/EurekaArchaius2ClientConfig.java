@@ -34,6 +34,26 @@ public class EurekaArchaius2ClientConfig implements EurekaClientConfig {
         return config.getInteger("client.refresh.interval", 30);
     }
 
+    public boolean shouldAdaptRegistryFetchInterval() {
+        return config.getBoolean("client.refresh.adaptive", false);
+    }
+
+    public int getRegistryFetchMinIntervalSeconds() {
+        return config.getInteger("client.refresh.minInterval", 5);
+    }
+
+    public int getRegistryFetchMaxIntervalSeconds() {
+        return config.getInteger("client.refresh.maxInterval", 120);
+    }
+
+    public int getRegistryFetchChurnThreshold() {
+        return config.getInteger("client.refresh.churnThreshold", 10);
+    }
+
+    public int getRegistryFetchJitterPercent() {
+        return config.getInteger("client.refresh.jitterPercent", 10);
+    }
+
     public int getInstanceInfoReplicationIntervalSeconds() {
         return config.getInteger("appinfo.replicate.interval", 30);
     }
@@ -78,6 +98,30 @@ public class EurekaArchaius2ClientConfig implements EurekaClientConfig {
         return config.getString("eurekaServer.backupRegistry", null);
     }
 
+    public String getRegistryCacheFile() {
+        return config.getString("registryCache.file", null);
+    }
+
+    public int getRegistryCachePersistIntervalSeconds() {
+        return config.getInteger("registryCache.persistIntervalSeconds", 60);
+    }
+
+    public int getRegistryCacheMaxAgeSeconds() {
+        return config.getInteger("registryCache.maxAgeSeconds", 180);
+    }
+
+    public boolean shouldShareRegistryCache() {
+        return config.getBoolean("registryCache.shared", false);
+    }
+
+    public boolean shouldCompactRegistry() {
+        return config.getBoolean("registry.compact", false);
+    }
+
+    public boolean shouldUseBinaryRegistryEncoding() {
+        return config.getBoolean("registry.binaryEncoding", false);
+    }
+
     public int getEurekaServerTotalConnections() {
         return config.getInteger("eurekaServer.maxTotalConnections", 200);
     }
@@ -121,6 +165,18 @@ public class EurekaArchaius2ClientConfig implements EurekaClientConfig {
     public boolean shouldDisableDelta() {
         return config.getBoolean("disableDelta", false);
     }
+
+    public boolean shouldUseDeltaLongPolling() {
+        return config.getBoolean("deltaLongPoll.enabled", false);
+    }
+
+    public int getDeltaLongPollTimeoutSeconds() {
+        return config.getInteger("deltaLongPoll.timeout", 5);
+    }
+
+    public boolean shouldUseConditionalRegistryFetch() {
+        return config.getBoolean("conditionalFetch.enabled", false);
+    }
     
     public String fetchRegistryForRemoteRegions() {
         return config.getString("fetchRemoteRegionsRegistry", null);
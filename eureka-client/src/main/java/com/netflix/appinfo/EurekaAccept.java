@@ -6,9 +6,13 @@ import java.util.Map;
 import com.netflix.discovery.converters.wrappers.CodecWrappers;
 import com.netflix.discovery.converters.wrappers.CodecWrappers.JacksonJson;
 import com.netflix.discovery.converters.wrappers.CodecWrappers.JacksonJsonMini;
+import com.netflix.discovery.converters.wrappers.CodecWrappers.JacksonJsonStreaming;
+import com.netflix.discovery.converters.wrappers.CodecWrappers.JacksonSmile;
+import com.netflix.discovery.converters.wrappers.CodecWrappers.JacksonSmileMini;
 import com.netflix.discovery.converters.wrappers.CodecWrappers.JacksonXml;
 import com.netflix.discovery.converters.wrappers.CodecWrappers.JacksonXmlMini;
 import com.netflix.discovery.converters.wrappers.CodecWrappers.LegacyJacksonJson;
+import com.netflix.discovery.converters.wrappers.CodecWrappers.StaxXml;
 import com.netflix.discovery.converters.wrappers.CodecWrappers.XStreamJson;
 import com.netflix.discovery.converters.wrappers.CodecWrappers.XStreamXml;
 import com.netflix.discovery.converters.wrappers.DecoderWrapper;
@@ -26,12 +30,16 @@ public enum EurekaAccept {
     static {
         decoderNameToAcceptMap.put(CodecWrappers.getCodecName(LegacyJacksonJson.class), full);
         decoderNameToAcceptMap.put(CodecWrappers.getCodecName(JacksonJson.class), full);
+        decoderNameToAcceptMap.put(CodecWrappers.getCodecName(JacksonJsonStreaming.class), full);
+        decoderNameToAcceptMap.put(CodecWrappers.getCodecName(JacksonSmile.class), full);
         decoderNameToAcceptMap.put(CodecWrappers.getCodecName(XStreamJson.class), full);
         decoderNameToAcceptMap.put(CodecWrappers.getCodecName(XStreamXml.class), full);
         decoderNameToAcceptMap.put(CodecWrappers.getCodecName(JacksonXml.class), full);
+        decoderNameToAcceptMap.put(CodecWrappers.getCodecName(StaxXml.class), full);
 
         decoderNameToAcceptMap.put(CodecWrappers.getCodecName(JacksonJsonMini.class), compact);
         decoderNameToAcceptMap.put(CodecWrappers.getCodecName(JacksonXmlMini.class), compact);
+        decoderNameToAcceptMap.put(CodecWrappers.getCodecName(JacksonSmileMini.class), compact);
     }
 
     public static EurekaAccept getClientAccept(DecoderWrapper decoderWrapper) {
@@ -33,8 +33,10 @@ import com.google.inject.ProvidedBy;
 import com.netflix.appinfo.providers.EurekaConfigBasedInstanceInfoProvider;
 import com.netflix.config.DynamicPropertyFactory;
 import com.netflix.discovery.converters.Auto;
+import com.netflix.discovery.converters.EncodedFragments;
 import com.netflix.discovery.converters.EurekaJacksonCodec.InstanceInfoSerializer;
 import com.netflix.discovery.provider.Serializer;
+import com.netflix.discovery.util.CompactStringMap;
 import com.netflix.discovery.util.StringCache;
 import com.thoughtworks.xstream.annotations.XStreamAlias;
 import com.thoughtworks.xstream.annotations.XStreamOmitField;
@@ -100,6 +102,10 @@ public class InstanceInfo {
     private String secureVipAddressUnresolved;
     @XStreamOmitField
     private String healthCheckExplicitUrl;
+    @XStreamOmitField
+    private volatile InstanceUrlTemplates urlTemplates;
+    @XStreamOmitField
+    private volatile EncodedFragments encodedFragments;
     @Deprecated
     private volatile int countryId = DEFAULT_COUNTRY_ID; // Defaults to US
     private volatile boolean isSecurePortEnabled = false;
@@ -235,6 +241,7 @@ public class InstanceInfo {
         this.secureVipAddressUnresolved = ii.secureVipAddressUnresolved;
 
         this.healthCheckExplicitUrl = ii.healthCheckExplicitUrl;
+        this.urlTemplates = ii.urlTemplates;
 
         this.countryId = ii.countryId;
         this.isSecurePortEnabled = ii.isSecurePortEnabled;
@@ -333,6 +340,7 @@ public class InstanceInfo {
         }
 
         public Builder(InstanceInfo instanceInfo) {
+            instanceInfo.expand();
             result = instanceInfo;
         }
 
@@ -746,6 +754,7 @@ public class InstanceInfo {
             if (!isInitialized()) {
                 throw new IllegalStateException("name is required!");
             }
+            result.invalidateEncodedFragments();
             return result;
         }
 
@@ -930,6 +939,7 @@ public class InstanceInfo {
      */
     public void setLeaseInfo(LeaseInfo info) {
         leaseInfo = info;
+        invalidateEncodedFragments();
     }
 
     /**
@@ -988,6 +998,7 @@ public class InstanceInfo {
      */
     public void setLastUpdatedTimestamp() {
         this.lastUpdatedTimestamp = System.currentTimeMillis();
+        invalidateEncodedFragments();
     }
 
     /**
@@ -996,7 +1007,8 @@ public class InstanceInfo {
      * @return home page {@link java.net.URL}
      */
     public String getHomePageUrl() {
-        return homePageUrl;
+        InstanceUrlTemplates templates = urlTemplates;
+        return templates == null ? homePageUrl : templates.homePageUrl(this);
     }
 
     /**
@@ -1005,7 +1017,8 @@ public class InstanceInfo {
      * @return status page {@link java.net.URL}
      */
     public String getStatusPageUrl() {
-        return statusPageUrl;
+        InstanceUrlTemplates templates = urlTemplates;
+        return templates == null ? statusPageUrl : templates.statusPageUrl(this);
     }
 
     /**
@@ -1019,9 +1032,11 @@ public class InstanceInfo {
     @JsonIgnore
     public Set<String> getHealthCheckUrls() {
         Set<String> healthCheckUrlSet = new LinkedHashSet<String>();
+        String healthCheckUrl = getHealthCheckUrl();
         if (this.isUnsecurePortEnabled && healthCheckUrl != null && !healthCheckUrl.isEmpty()) {
             healthCheckUrlSet.add(healthCheckUrl);
         }
+        String secureHealthCheckUrl = getSecureHealthCheckUrl();
         if (this.isSecurePortEnabled && secureHealthCheckUrl != null && !secureHealthCheckUrl.isEmpty()) {
             healthCheckUrlSet.add(secureHealthCheckUrl);
         }
@@ -1029,11 +1044,13 @@ public class InstanceInfo {
     }
 
     public String getHealthCheckUrl() {
-        return healthCheckUrl;
+        InstanceUrlTemplates templates = urlTemplates;
+        return templates == null ? healthCheckUrl : templates.healthCheckUrl(this);
     }
 
     public String getSecureHealthCheckUrl() {
-        return secureHealthCheckUrl;
+        InstanceUrlTemplates templates = urlTemplates;
+        return templates == null ? secureHealthCheckUrl : templates.secureHealthCheckUrl(this);
     }
 
     /**
@@ -1074,6 +1091,7 @@ public class InstanceInfo {
      */
     public void setLastDirtyTimestamp(Long lastDirtyTimestamp) {
         this.lastDirtyTimestamp = lastDirtyTimestamp;
+        invalidateEncodedFragments();
     }
 
     /**
@@ -1101,6 +1119,7 @@ public class InstanceInfo {
     public synchronized void setStatusWithoutDirty(InstanceStatus status) {
         if (this.status != status) {
             this.status = status;
+            invalidateEncodedFragments();
         }
     }
 
@@ -1114,6 +1133,7 @@ public class InstanceInfo {
     public synchronized void setOverriddenStatus(InstanceStatus status) {
         if (this.overriddenstatus != status) {
             this.overriddenstatus = status;
+            invalidateEncodedFragments();
         }
     }
 
@@ -1164,6 +1184,7 @@ public class InstanceInfo {
     public synchronized void setIsDirty() {
         isInstanceInfoDirty = true;
         lastDirtyTimestamp = System.currentTimeMillis();
+        invalidateEncodedFragments();
     }
 
 
@@ -1188,12 +1209,17 @@ public class InstanceInfo {
      */
     public void setIsCoordinatingDiscoveryServer() {
         String instanceId = getId();
+        Boolean coordinating;
         if ((instanceId != null)
                 && (instanceId.equals(ApplicationInfoManager.getInstance()
                 .getInfo().getId()))) {
-            isCoordinatingDiscoveryServer = Boolean.TRUE;
+            coordinating = Boolean.TRUE;
         } else {
-            isCoordinatingDiscoveryServer = Boolean.FALSE;
+            coordinating = Boolean.FALSE;
+        }
+        if (!coordinating.equals(isCoordinatingDiscoveryServer)) {
+            isCoordinatingDiscoveryServer = coordinating;
+            invalidateEncodedFragments();
         }
     }
 
@@ -1227,6 +1253,35 @@ public class InstanceInfo {
      */
     public void setActionType(ActionType actionType) {
         this.actionType = actionType;
+        invalidateEncodedFragments();
+    }
+
+    /**
+     * Returns the encoded forms of this instance kept for the JSON codecs, which write them in place of
+     * encoding the instance again. Only the server keeps them, for the instances of its registry.
+     *
+     * @return the encoded forms of this instance, or null if they are not kept.
+     */
+    @JsonIgnore
+    public EncodedFragments getEncodedFragments() {
+        return encodedFragments;
+    }
+
+    /**
+     * Sets whether the encoded forms of this instance are kept (see {@link #getEncodedFragments()}). The
+     * kept forms are dropped whenever the instance changes.
+     *
+     * @param enabled true to keep the encoded forms, false otherwise.
+     */
+    @JsonIgnore
+    public void setEncodedFragmentsEnabled(boolean enabled) {
+        encodedFragments = enabled ? new EncodedFragments() : null;
+    }
+
+    private void invalidateEncodedFragments() {
+        if (encodedFragments != null) {
+            encodedFragments = new EncodedFragments();
+        }
     }
 
     /**
@@ -1257,6 +1312,44 @@ public class InstanceInfo {
         // Deleted from the discovery server
     }
 
+    /**
+     * Replaces the URLs of this instance with shared templates, and its metadata and data center
+     * information with the given compact equivalents. Used by {@link InstanceInfoCompactor}.
+     */
+    synchronized void compact(InstanceUrlTemplates templates, Map<String, String> compactMetadata,
+                              DataCenterInfo sharedDataCenterInfo) {
+        if (templates != null) {
+            this.urlTemplates = templates;
+            this.homePageUrl = null;
+            this.statusPageUrl = null;
+            this.healthCheckUrl = null;
+            this.secureHealthCheckUrl = null;
+        }
+        this.metadata = compactMetadata;
+        this.dataCenterInfo = sharedDataCenterInfo;
+    }
+
+    /**
+     * Restores the URLs and a mutable metadata map of a compacted instance.
+     */
+    synchronized void expand() {
+        InstanceUrlTemplates templates = urlTemplates;
+        if (templates != null) {
+            this.homePageUrl = templates.homePageUrl(this);
+            this.statusPageUrl = templates.statusPageUrl(this);
+            this.healthCheckUrl = templates.healthCheckUrl(this);
+            this.secureHealthCheckUrl = templates.secureHealthCheckUrl(this);
+            this.urlTemplates = null;
+        }
+        if (metadata instanceof CompactStringMap) {
+            this.metadata = new ConcurrentHashMap<String, String>(metadata);
+        }
+    }
+
+    boolean isCompact() {
+        return urlTemplates != null || metadata instanceof CompactStringMap;
+    }
+
     /**
      * Register application specific metadata to be sent to the discovery
      * server.
@@ -1266,6 +1359,7 @@ public class InstanceInfo {
      */
     synchronized void registerRuntimeMetadata(
             Map<String, String> runtimeMetadata) {
+        expand();
         metadata.putAll(runtimeMetadata);
         setIsDirty();
     }
@@ -0,0 +1,67 @@
+package com.netflix.appinfo;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.netflix.appinfo.DataCenterInfo.Name;
+import com.netflix.discovery.util.CompactStringMap;
+
+/**
+ * Reduces the heap footprint of {@link InstanceInfo} objects held in a client side registry copy.
+ * <p>
+ * A compacted instance:
+ * <ul>
+ *     <li>keeps its home page, status page and health check URLs as {@link InstanceUrlTemplates}, shared by
+ *     all instances with the same URL layout, and expands them on access,</li>
+ *     <li>keeps its metadata in an immutable {@link CompactStringMap},</li>
+ *     <li>shares a single {@link MyDataCenterInfo} object per data center name, if it is not in Amazon.</li>
+ * </ul>
+ * Compaction is done in place, before the instance is published to other threads. A compacted instance
+ * reports the same values through its getters, so it is encoded to the same document. Passing it to
+ * {@link InstanceInfo.Builder#Builder(InstanceInfo)} restores the mutable representation.
+ */
+public final class InstanceInfoCompactor {
+
+    private static final Map<Name, MyDataCenterInfo> SHARED_DATA_CENTER_INFOS = new EnumMap<Name, MyDataCenterInfo>(Name.class);
+
+    static {
+        for (Name name : Name.values()) {
+            SHARED_DATA_CENTER_INFOS.put(name, new MyDataCenterInfo(name));
+        }
+    }
+
+    private InstanceInfoCompactor() {
+    }
+
+    /**
+     * @return the given instance, compacted
+     */
+    public static InstanceInfo compact(InstanceInfo info) {
+        if (info == null || info.isCompact()) {
+            return info;
+        }
+        InstanceUrlTemplates templates = InstanceUrlTemplates.of(
+                info,
+                info.getHomePageUrl(),
+                info.getStatusPageUrl(),
+                info.getHealthCheckUrl(),
+                info.getSecureHealthCheckUrl()
+        );
+        Map<String, String> metadata = info.getMetadata() == null ? null : CompactStringMap.copyOf(info.getMetadata());
+        info.compact(templates, metadata, sharedDataCenterInfo(info.getDataCenterInfo()));
+        return info;
+    }
+
+    private static DataCenterInfo sharedDataCenterInfo(DataCenterInfo dataCenterInfo) {
+        if (dataCenterInfo == null || dataCenterInfo.getName() == null) {
+            return dataCenterInfo;
+        }
+        // the decoders represent non Amazon data centers with MyDataCenterInfo or anonymous classes, that
+        // carry nothing but the name
+        Class<?> type = dataCenterInfo.getClass();
+        if (type == MyDataCenterInfo.class || type.isAnonymousClass()) {
+            return SHARED_DATA_CENTER_INFOS.get(dataCenterInfo.getName());
+        }
+        return dataCenterInfo;
+    }
+}
@@ -0,0 +1,233 @@
+package com.netflix.appinfo;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.netflix.discovery.util.StringCache;
+
+/**
+ * The home page, status page and health check URLs of an instance, stored as templates to be expanded
+ * with the host name (or IP address) and ports of the instance.
+ * <p>
+ * The URLs of instances of an application typically differ only by host and port, so the templates
+ * of these instances are equal, and are shared through a pool. A compacted {@link InstanceInfo} holds
+ * a reference to its templates instead of four URL strings.
+ */
+final class InstanceUrlTemplates {
+
+    // caps the pool, should the registry hold an unusual number of distinct URL layouts
+    private static final int MAX_POOL_SIZE = 16 * 1024;
+
+    private static final ConcurrentMap<InstanceUrlTemplates, InstanceUrlTemplates> POOL =
+            new ConcurrentHashMap<InstanceUrlTemplates, InstanceUrlTemplates>();
+
+    private final UrlTemplate homePage;
+    private final UrlTemplate statusPage;
+    private final UrlTemplate healthCheck;
+    private final UrlTemplate secureHealthCheck;
+
+    private InstanceUrlTemplates(UrlTemplate homePage, UrlTemplate statusPage,
+                                 UrlTemplate healthCheck, UrlTemplate secureHealthCheck) {
+        this.homePage = homePage;
+        this.statusPage = statusPage;
+        this.healthCheck = healthCheck;
+        this.secureHealthCheck = secureHealthCheck;
+    }
+
+    String homePageUrl(InstanceInfo info) {
+        return UrlTemplate.expand(homePage, info);
+    }
+
+    String statusPageUrl(InstanceInfo info) {
+        return UrlTemplate.expand(statusPage, info);
+    }
+
+    String healthCheckUrl(InstanceInfo info) {
+        return UrlTemplate.expand(healthCheck, info);
+    }
+
+    String secureHealthCheckUrl(InstanceInfo info) {
+        return UrlTemplate.expand(secureHealthCheck, info);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof InstanceUrlTemplates)) {
+            return false;
+        }
+        InstanceUrlTemplates that = (InstanceUrlTemplates) o;
+        return UrlTemplate.equal(homePage, that.homePage)
+                && UrlTemplate.equal(statusPage, that.statusPage)
+                && UrlTemplate.equal(healthCheck, that.healthCheck)
+                && UrlTemplate.equal(secureHealthCheck, that.secureHealthCheck);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = homePage != null ? homePage.hashCode() : 0;
+        result = 31 * result + (statusPage != null ? statusPage.hashCode() : 0);
+        result = 31 * result + (healthCheck != null ? healthCheck.hashCode() : 0);
+        result = 31 * result + (secureHealthCheck != null ? secureHealthCheck.hashCode() : 0);
+        return result;
+    }
+
+    /**
+     * @return the shared templates of the given URLs, or null if any of them cannot be expressed relative
+     *         to the host and ports of the instance
+     */
+    static InstanceUrlTemplates of(InstanceInfo info, String homePageUrl, String statusPageUrl,
+                                   String healthCheckUrl, String secureHealthCheckUrl) {
+        UrlTemplate homePage = UrlTemplate.parse(homePageUrl, info);
+        UrlTemplate statusPage = UrlTemplate.parse(statusPageUrl, info);
+        UrlTemplate healthCheck = UrlTemplate.parse(healthCheckUrl, info);
+        UrlTemplate secureHealthCheck = UrlTemplate.parse(secureHealthCheckUrl, info);
+        if (homePage == UrlTemplate.INVALID || statusPage == UrlTemplate.INVALID
+                || healthCheck == UrlTemplate.INVALID || secureHealthCheck == UrlTemplate.INVALID) {
+            return null;
+        }
+        InstanceUrlTemplates templates = new InstanceUrlTemplates(homePage, statusPage, healthCheck, secureHealthCheck);
+        InstanceUrlTemplates pooled = POOL.get(templates);
+        if (pooled != null) {
+            return pooled;
+        }
+        if (POOL.size() >= MAX_POOL_SIZE) {
+            return templates;
+        }
+        pooled = POOL.putIfAbsent(templates, templates);
+        return pooled == null ? templates : pooled;
+    }
+
+    /**
+     * A URL of the form {@code <scheme>://<host>[:<port>]<path>}, where the host is the host name or
+     * the IP address of the instance, and the port one of its ports.
+     */
+    static final class UrlTemplate {
+
+        static final UrlTemplate INVALID = new UrlTemplate(null, 0, 0, null);
+
+        static final int HOST_NAME = 1;
+        static final int HOST_IP = 2;
+
+        static final int NO_PORT = 0;
+        static final int PORT = 1;
+        static final int SECURE_PORT = 2;
+
+        private static final int MAX_PORT_DIGITS = 5;
+
+        private final String scheme;
+        private final int host;
+        private final int port;
+        private final String path;
+
+        private UrlTemplate(String scheme, int host, int port, String path) {
+            this.scheme = scheme;
+            this.host = host;
+            this.port = port;
+            this.path = path;
+        }
+
+        /**
+         * @return the template of the URL, null for a null URL, or {@link #INVALID}
+         */
+        static UrlTemplate parse(String url, InstanceInfo info) {
+            if (url == null) {
+                return null;
+            }
+            int schemeEnd = url.indexOf("://");
+            if (schemeEnd <= 0) {
+                return INVALID;
+            }
+            int hostStart = schemeEnd + 3;
+            int host;
+            int hostEnd;
+            if (startsWith(url, hostStart, info.getHostName())) {
+                host = HOST_NAME;
+                hostEnd = hostStart + info.getHostName().length();
+            } else if (startsWith(url, hostStart, info.getIPAddr())) {
+                host = HOST_IP;
+                hostEnd = hostStart + info.getIPAddr().length();
+            } else {
+                return INVALID;
+            }
+
+            int port = NO_PORT;
+            int pathStart = hostEnd;
+            if (hostEnd < url.length() && url.charAt(hostEnd) == ':') {
+                int portEnd = hostEnd + 1;
+                while (portEnd < url.length() && Character.isDigit(url.charAt(portEnd))) {
+                    portEnd++;
+                }
+                int digits = portEnd - hostEnd - 1;
+                if (digits == 0 || digits > MAX_PORT_DIGITS) {
+                    return INVALID;
+                }
+                int portValue = Integer.parseInt(url.substring(hostEnd + 1, portEnd));
+                if (portValue == info.getPort()) {
+                    port = PORT;
+                } else if (portValue == info.getSecurePort()) {
+                    port = SECURE_PORT;
+                } else {
+                    return INVALID;
+                }
+                pathStart = portEnd;
+            }
+            if (pathStart < url.length() && "/?#".indexOf(url.charAt(pathStart)) < 0) {
+                return INVALID;
+            }
+            return new UrlTemplate(
+                    StringCache.intern(url.substring(0, hostStart)),
+                    host,
+                    port,
+                    StringCache.intern(url.substring(pathStart))
+            );
+        }
+
+        static String expand(UrlTemplate template, InstanceInfo info) {
+            if (template == null) {
+                return null;
+            }
+            StringBuilder sb = new StringBuilder(64);
+            sb.append(template.scheme);
+            sb.append(template.host == HOST_NAME ? info.getHostName() : info.getIPAddr());
+            if (template.port == PORT) {
+                sb.append(':').append(info.getPort());
+            } else if (template.port == SECURE_PORT) {
+                sb.append(':').append(info.getSecurePort());
+            }
+            sb.append(template.path);
+            return sb.toString();
+        }
+
+        static boolean equal(UrlTemplate first, UrlTemplate second) {
+            return first == null ? second == null : first.equals(second);
+        }
+
+        private static boolean startsWith(String url, int offset, String prefix) {
+            return prefix != null && !prefix.isEmpty() && url.startsWith(prefix, offset);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof UrlTemplate)) {
+                return false;
+            }
+            UrlTemplate that = (UrlTemplate) o;
+            return host == that.host && port == that.port && scheme.equals(that.scheme) && path.equals(that.path);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = scheme.hashCode();
+            result = 31 * result + host;
+            result = 31 * result + port;
+            result = 31 * result + path.hashCode();
+            return result;
+        }
+    }
+}
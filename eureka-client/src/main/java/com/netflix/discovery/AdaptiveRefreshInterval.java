@@ -0,0 +1,104 @@
+package com.netflix.discovery;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Computes the delay between registry fetches from what the previous fetches returned:
+ * <ul>
+ *     <li>an empty delta lengthens the interval by half, up to the maximum interval</li>
+ *     <li>a delta with at least the churn threshold of changed instances halves the interval, down to the minimum</li>
+ *     <li>any other delta, or a full fetch, brings the interval back to the configured one</li>
+ * </ul>
+ * A Retry-After hint received from a server that rejected a fetch delays the next fetch accordingly, unless another
+ * server answered the fetch. A random jitter is added to each delay, so that clients started at the same time do not
+ * keep fetching in lockstep.
+ */
+public class AdaptiveRefreshInterval implements TimedSupervisorTask.DelayPolicy {
+
+    // upper bound for server provided hints, as a multiple of the maximum interval
+    private static final int MAX_RETRY_AFTER_FACTOR = 5;
+
+    private final long baseIntervalMs;
+    private final long minIntervalMs;
+    private final long maxIntervalMs;
+    private final int churnThreshold;
+    private final int jitterPercent;
+    private final Random random = new Random();
+
+    private final AtomicLong currentIntervalMs;
+    private final AtomicLong retryAfterMs = new AtomicLong(0);
+
+    public AdaptiveRefreshInterval(long baseIntervalMs, long minIntervalMs, long maxIntervalMs,
+                                   int churnThreshold, int jitterPercent) {
+        this.minIntervalMs = Math.min(minIntervalMs, baseIntervalMs);
+        this.maxIntervalMs = Math.max(maxIntervalMs, baseIntervalMs);
+        this.baseIntervalMs = baseIntervalMs;
+        this.churnThreshold = Math.max(1, churnThreshold);
+        this.jitterPercent = Math.max(0, Math.min(100, jitterPercent));
+        this.currentIntervalMs = new AtomicLong(baseIntervalMs);
+    }
+
+    public static AdaptiveRefreshInterval fromConfig(EurekaClientConfig clientConfig) {
+        return new AdaptiveRefreshInterval(
+                TimeUnit.SECONDS.toMillis(clientConfig.getRegistryFetchIntervalSeconds()),
+                TimeUnit.SECONDS.toMillis(clientConfig.getRegistryFetchMinIntervalSeconds()),
+                TimeUnit.SECONDS.toMillis(clientConfig.getRegistryFetchMaxIntervalSeconds()),
+                clientConfig.getRegistryFetchChurnThreshold(),
+                clientConfig.getRegistryFetchJitterPercent()
+        );
+    }
+
+    /**
+     * Called after a delta with the given number of changed instances was applied.
+     */
+    public void onDelta(int changedInstances) {
+        retryAfterMs.set(0);
+        long current = currentIntervalMs.get();
+        long next;
+        if (changedInstances == 0) {
+            next = Math.min(maxIntervalMs, current + current / 2);
+        } else if (changedInstances >= churnThreshold) {
+            next = Math.max(minIntervalMs, current / 2);
+        } else {
+            next = baseIntervalMs;
+        }
+        currentIntervalMs.compareAndSet(current, next);
+    }
+
+    /**
+     * Called after the full registry was fetched.
+     */
+    public void onFullFetch() {
+        retryAfterMs.set(0);
+        currentIntervalMs.set(baseIntervalMs);
+    }
+
+    /**
+     * Called when a server asked the client to come back later.
+     */
+    public void onRetryAfter(long delayMs) {
+        long capped = Math.min(delayMs, maxIntervalMs * MAX_RETRY_AFTER_FACTOR);
+        long current;
+        do {
+            current = retryAfterMs.get();
+        } while (capped > current && !retryAfterMs.compareAndSet(current, capped));
+    }
+
+    public long getCurrentIntervalMs() {
+        return currentIntervalMs.get();
+    }
+
+    @Override
+    public long nextDelayMillis() {
+        long delay = Math.max(currentIntervalMs.get(), retryAfterMs.getAndSet(0));
+        if (jitterPercent > 0) {
+            long jitterRange = delay * jitterPercent / 100;
+            if (jitterRange > 0) {
+                delay += (long) ((random.nextDouble() * 2 - 1) * jitterRange);
+            }
+        }
+        return Math.max(1, delay);
+    }
+}
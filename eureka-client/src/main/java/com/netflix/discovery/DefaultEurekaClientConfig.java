@@ -115,6 +115,36 @@ public class DefaultEurekaClientConfig implements EurekaClientConfig {
                 namespace + "client.refresh.interval", 30).get();
     }
 
+    @Override
+    public boolean shouldAdaptRegistryFetchInterval() {
+        return configInstance.getBooleanProperty(
+                namespace + "client.refresh.adaptive", false).get();
+    }
+
+    @Override
+    public int getRegistryFetchMinIntervalSeconds() {
+        return configInstance.getIntProperty(
+                namespace + "client.refresh.minInterval", 5).get();
+    }
+
+    @Override
+    public int getRegistryFetchMaxIntervalSeconds() {
+        return configInstance.getIntProperty(
+                namespace + "client.refresh.maxInterval", 120).get();
+    }
+
+    @Override
+    public int getRegistryFetchChurnThreshold() {
+        return configInstance.getIntProperty(
+                namespace + "client.refresh.churnThreshold", 10).get();
+    }
+
+    @Override
+    public int getRegistryFetchJitterPercent() {
+        return configInstance.getIntProperty(
+                namespace + "client.refresh.jitterPercent", 10).get();
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -222,6 +252,43 @@ public class DefaultEurekaClientConfig implements EurekaClientConfig {
                 null).get();
     }
 
+    @Nullable
+    @Override
+    public String getRegistryCacheFile() {
+        return configInstance.getStringProperty(namespace + "registryCache.file",
+                null).get();
+    }
+
+    @Override
+    public int getRegistryCachePersistIntervalSeconds() {
+        return configInstance.getIntProperty(namespace + "registryCache.persistIntervalSeconds",
+                60).get();
+    }
+
+    @Override
+    public int getRegistryCacheMaxAgeSeconds() {
+        return configInstance.getIntProperty(namespace + "registryCache.maxAgeSeconds",
+                180).get();
+    }
+
+    @Override
+    public boolean shouldShareRegistryCache() {
+        return configInstance.getBooleanProperty(namespace + "registryCache.shared",
+                false).get();
+    }
+
+    @Override
+    public boolean shouldCompactRegistry() {
+        return configInstance.getBooleanProperty(namespace + "registry.compact",
+                false).get();
+    }
+
+    @Override
+    public boolean shouldUseBinaryRegistryEncoding() {
+        return configInstance.getBooleanProperty(namespace + "registry.binaryEncoding",
+                false).get();
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -348,6 +415,24 @@ public class DefaultEurekaClientConfig implements EurekaClientConfig {
                 false).get();
     }
 
+    @Override
+    public boolean shouldUseDeltaLongPolling() {
+        return configInstance.getBooleanProperty(namespace + "deltaLongPoll.enabled",
+                false).get();
+    }
+
+    @Override
+    public int getDeltaLongPollTimeoutSeconds() {
+        return configInstance.getIntProperty(namespace + "deltaLongPoll.timeout",
+                5).get();
+    }
+
+    @Override
+    public boolean shouldUseConditionalRegistryFetch() {
+        return configInstance.getBooleanProperty(namespace + "conditionalFetch.enabled",
+                false).get();
+    }
+
     @Nullable
     @Override
     public String fetchRegistryForRemoteRegions() {
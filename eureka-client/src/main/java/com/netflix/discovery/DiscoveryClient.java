@@ -19,15 +19,19 @@ package com.netflix.discovery;
 import javax.annotation.Nullable;
 import javax.annotation.PreDestroy;
 import javax.inject.Singleton;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.UriBuilder;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
@@ -46,7 +50,6 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -64,12 +67,20 @@ import com.netflix.appinfo.HealthCheckHandler;
 import com.netflix.appinfo.InstanceInfo;
 import com.netflix.appinfo.InstanceInfo.ActionType;
 import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+import com.netflix.appinfo.InstanceInfoCompactor;
 import com.netflix.discovery.converters.wrappers.CodecWrappers;
+import com.netflix.discovery.converters.wrappers.CodecWrappers.JacksonSmile;
+import com.netflix.discovery.converters.wrappers.DecoderWrapper;
+import com.netflix.discovery.converters.wrappers.StreamingDecoderWrapper;
 import com.netflix.discovery.provider.DiscoveryJerseyProvider;
 import com.netflix.discovery.shared.Application;
 import com.netflix.discovery.shared.Applications;
+import com.netflix.discovery.shared.ApplicationsBuilder;
+import com.netflix.discovery.shared.ApplicationsStreamListener;
 import com.netflix.discovery.shared.EurekaJerseyClient;
 import com.netflix.discovery.shared.EurekaJerseyClient.EurekaJerseyClientBuilder;
+import com.netflix.discovery.shared.RenewalList;
+import com.netflix.discovery.shared.RenewalListResponse;
 import com.netflix.discovery.util.ThresholdLevelsMetric;
 import com.netflix.eventbus.spi.EventBus;
 import com.netflix.servo.annotations.DataSourceType;
@@ -79,7 +90,6 @@ import com.netflix.servo.monitor.Stopwatch;
 import com.sun.jersey.api.client.ClientResponse;
 import com.sun.jersey.api.client.WebResource;
 import com.sun.jersey.api.client.filter.ClientFilter;
-import com.sun.jersey.api.client.filter.GZIPContentEncodingFilter;
 import com.sun.jersey.client.apache4.ApacheHttpClient4;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -123,6 +133,7 @@ public class DiscoveryClient implements EurekaClient {
     private static final String COMMA_STRING = VALUE_DELIMITER;
     private static final String DISCOVERY_APPID = "DISCOVERY";
     private static final String UNKNOWN = "UNKNOWN";
+    private static final String RENEWALS_URL_PATH = "renewals";
 
     private static final Pattern REDIRECT_PATH_REGEX = Pattern.compile("(.*/v2/)apps(/.*)?$");
 
@@ -166,24 +177,38 @@ public class DiscoveryClient implements EurekaClient {
     private final Provider<HealthCheckHandler> healthCheckHandlerProvider;
     private final Provider<HealthCheckCallback> healthCheckCallbackProvider;
     private final AtomicReference<List<String>> eurekaServiceUrls = new AtomicReference<List<String>>();
-    private final AtomicReference<Applications> localRegionApps = new AtomicReference<Applications>();
-    private final Lock fetchRegistryUpdateLock = new ReentrantLock();
+    // registry state, possibly shared with other clients in this JVM
+    private final SharedRegistryCache sharedRegistry;
+    private final AtomicReference<Applications> localRegionApps;
+    private final Lock fetchRegistryUpdateLock;
     // monotonically increasing generation counter to ensure stale threads do not reset registry to an older version
     private final AtomicLong fetchRegistryGeneration;
     private final ApplicationInfoManager applicationInfoManager;
     private final InstanceInfo instanceInfo;
     private final EurekaAccept clientAccept;
     private EurekaJerseyClient discoveryJerseyClient;
+    // set if the configured decoder can stream the registry, instead of building an intermediate Applications object
+    private StreamingDecoderWrapper registryStreamDecoder;
+    // set if the registry is requested in the binary encoding
+    private StreamingDecoderWrapper binaryStreamDecoder;
     private final AtomicReference<String> remoteRegionsToFetch;
     private final InstanceRegionChecker instanceRegionChecker;
     private final AtomicReference<String> lastQueryRedirect = new AtomicReference<String>();
+    // Entity tags of the full registry and of the delta the local registry was last built from
+    private final AtomicReference<String> lastFullRegistryETag = new AtomicReference<String>();
+    private final AtomicReference<String> lastDeltaETag = new AtomicReference<String>();
     private final AtomicReference<String> lastRegisterRedirect = new AtomicReference<String>();
     private final ApacheHttpClient4 discoveryApacheClient;
     private final EventBus eventBus;
     private final Provider<BackupRegistry> backupRegistryProvider;
+    // local copy of the registry for warm starts, null if not configured
+    private final FileBackupRegistry registryCache;
+    private volatile long registryCachePersistedGeneration = 0;
+    private volatile long lastRegistryCachePersistTimestamp = -1;
+    // adapts the registry fetch interval to the registry churn, null if the interval is fixed
+    private final AdaptiveRefreshInterval refreshInterval;
 
     private volatile HealthCheckHandler healthCheckHandler;
-    private volatile Map<String, Applications> remoteRegionVsApps = new ConcurrentHashMap<String, Applications>();
     private volatile InstanceInfo.InstanceStatus lastRemoteInstanceStatus = InstanceInfo.InstanceStatus.UNKNOWN;
 
     private String appPathIdentifier;
@@ -198,7 +223,7 @@ public class DiscoveryClient implements EurekaClient {
     private final ThresholdLevelsMetric registryStalenessMonitor;
 
     private enum Action {
-        Register, Cancel, Renew, Refresh, Refresh_Delta
+        Register, Cancel, Renew, Renew_Batch, Refresh, Refresh_Delta
     }
 
     public static class DiscoveryClientOptionalArgs {
@@ -317,7 +342,18 @@ public class DiscoveryClient implements EurekaClient {
             scheduler.scheduleWithFixedDelay(getServiceUrlUpdateTask(zone),
                     clientConfig.getEurekaServiceUrlPollIntervalSeconds(),
                     clientConfig.getEurekaServiceUrlPollIntervalSeconds(), TimeUnit.SECONDS);
-            localRegionApps.set(new Applications());
+            if (clientConfig.shouldFetchRegistry() && clientConfig.shouldShareRegistryCache()) {
+                sharedRegistry = SharedRegistryCache.forConfig(eurekaServiceUrls.get(), clientConfig);
+            } else {
+                sharedRegistry = SharedRegistryCache.newPrivateCache();
+            }
+            localRegionApps = sharedRegistry.localRegionApps;
+            fetchRegistryUpdateLock = sharedRegistry.fetchRegistryUpdateLock;
+            fetchRegistryGeneration = sharedRegistry.fetchRegistryGeneration;
+            String registryCacheFile = clientConfig.getRegistryCacheFile();
+            registryCache = registryCacheFile == null ? null : new FileBackupRegistry(new File(registryCacheFile));
+            refreshInterval = clientConfig.shouldAdaptRegistryFetchInterval()
+                    ? AdaptiveRefreshInterval.fromConfig(clientConfig) : null;
 
             heartbeatExecutor = new ThreadPoolExecutor(
                     1, clientConfig.getHeartbeatExecutorThreadPoolSize(), 0, TimeUnit.SECONDS,
@@ -327,8 +363,6 @@ public class DiscoveryClient implements EurekaClient {
                     1, clientConfig.getCacheRefreshExecutorThreadPoolSize(), 0, TimeUnit.SECONDS,
                     new SynchronousQueue<Runnable>());  // use direct handoff
 
-            fetchRegistryGeneration = new AtomicLong(0);
-
             instanceInfo = myInfo;
             if (myInfo != null) {
                 appPathIdentifier = instanceInfo.getAppName() + "/"
@@ -349,6 +383,13 @@ public class DiscoveryClient implements EurekaClient {
                     CodecWrappers.getEncoder(clientConfig.getEncoderName()),
                     CodecWrappers.resolveDecoder(clientConfig.getDecoderName(), clientConfig.getClientDataAccept())
             );
+            DecoderWrapper registryDecoder = discoveryJerseyProvider.getDecoder();
+            if (registryDecoder instanceof StreamingDecoderWrapper) {
+                registryStreamDecoder = (StreamingDecoderWrapper) registryDecoder;
+            }
+            if (clientConfig.shouldUseBinaryRegistryEncoding()) {
+                binaryStreamDecoder = (StreamingDecoderWrapper) CodecWrappers.getDecoder(JacksonSmile.class);
+            }
 
             clientAccept = EurekaAccept.fromString(clientConfig.getClientDataAccept());
 
@@ -384,8 +425,7 @@ public class DiscoveryClient implements EurekaClient {
             if (enableGZIPContentEncodingFilter) {
                 // compressed only if there exists a 'Content-Encoding' header
                 // whose value is "gzip"
-                discoveryApacheClient.addFilter(new GZIPContentEncodingFilter(
-                        false));
+                discoveryApacheClient.addFilter(new PooledGZIPContentEncodingFilter());
             }
 
             // always enable client identity headers
@@ -403,11 +443,16 @@ public class DiscoveryClient implements EurekaClient {
         } catch (Throwable e) {
             throw new RuntimeException("Failed to initialize DiscoveryClient!", e);
         }
-        if (clientConfig.shouldFetchRegistry() && !fetchRegistry(false)) {
-            fetchRegistryFromBackup();
+        boolean isRegistryOwner = sharedRegistry.join(this);
+        // a client attached to a shared registry that has not been fetched yet fetches it as well
+        if (clientConfig.shouldFetchRegistry() && (isRegistryOwner || fetchRegistryGeneration.get() == 0)) {
+            boolean isLoadedFromCache = loadRegistryFromCache();
+            if (!fetchRegistry(false) && !isLoadedFromCache) {
+                fetchRegistryFromBackup();
+            }
         }
 
-        initScheduledTasks();
+        initScheduledTasks(isRegistryOwner);
         try {
             Monitors.registerObject(this);
         } catch (Throwable e) {
@@ -446,14 +491,14 @@ public class DiscoveryClient implements EurekaClient {
         if (instanceRegionChecker.isLocalRegion(region)) {
             return localRegionApps.get();
         } else {
-            return remoteRegionVsApps.get(region);
+            return sharedRegistry.remoteRegionVsApps.get(region);
         }
     }
 
     public Set<String> getAllKnownRegions() {
         String localRegion = instanceRegionChecker.getLocalRegion();
-        if (!remoteRegionVsApps.isEmpty()) {
-            Set<String> regions = remoteRegionVsApps.keySet();
+        if (!sharedRegistry.remoteRegionVsApps.isEmpty()) {
+            Set<String> regions = sharedRegistry.remoteRegionVsApps.keySet();
             Set<String> toReturn = new HashSet<String>(regions);
             toReturn.add(localRegion);
             return toReturn;
@@ -546,7 +591,7 @@ public class DiscoveryClient implements EurekaClient {
         if (instanceRegionChecker.isLocalRegion(region)) {
             applications = this.localRegionApps.get();
         } else {
-            applications = remoteRegionVsApps.get(region);
+            applications = sharedRegistry.remoteRegionVsApps.get(region);
             if (null == applications) {
                 logger.debug("No applications are defined for region {}, so returning an empty instance list for vip "
                         + "address {}.", region, vipAddress);
@@ -658,6 +703,10 @@ public class DiscoveryClient implements EurekaClient {
         Applications apps = null;
         try {
             response = makeRemoteCall(Action.Refresh);
+            if (response.getStatus() == Status.NOT_MODIFIED.getStatusCode()) {
+                // the local registry is the one last fetched
+                return getApplications();
+            }
             apps = response.getEntity(Applications.class);
             logger.debug(PREFIX + appPathIdentifier + " -  refresh status: "
                     + response.getStatus());
@@ -742,6 +791,30 @@ public class DiscoveryClient implements EurekaClient {
         return true;
     }
 
+    /**
+     * Renews the leases of many instances in one request, such as those of the logical instances a sidecar
+     * registers for its host, trying the eureka servers in turn until one of them answers.
+     *
+     * @param renewals
+     *            the renewals of the instances.
+     * @return the status code of each renewal, in order, where a 404 means the instance must register again,
+     *         or null if no eureka server could be reached.
+     */
+    public RenewalListResponse renew(RenewalList renewals) {
+        ClientResponse response = null;
+        try {
+            response = makeRemoteCall(Action.Renew_Batch, renewals);
+            logger.debug("{} - Batch heartbeat of {} instances status: {}", PREFIX + appPathIdentifier,
+                    renewals.getRenewalList().size(), response.getStatus());
+            return response.getEntity(RenewalListResponse.class);
+        } catch (Throwable e) {
+            logger.error("{} - was unable to send batch heartbeat!", PREFIX + appPathIdentifier, e);
+            return null;
+        } finally {
+            closeResponse(response);
+        }
+    }
+
     /**
      * Get the list of all eureka service urls from properties file for the eureka client to talk to.
      *
@@ -846,6 +919,8 @@ public class DiscoveryClient implements EurekaClient {
         }
 
         cancelScheduledTasks();
+        persistRegistryCache(true);
+        sharedRegistry.leave(this);
 
         // If APPINFO was registered
         if (instanceInfo != null && shouldRegister(instanceInfo)) {
@@ -947,6 +1022,9 @@ public class DiscoveryClient implements EurekaClient {
         // Update remote status based on refreshed data held in the cache
         updateInstanceRemoteStatus();
 
+        // Notify the other clients sharing the registry
+        sharedRegistry.notifyRefreshed(this);
+
         // registry was fetched successfully, so return true
         return true;
     }
@@ -985,7 +1063,7 @@ public class DiscoveryClient implements EurekaClient {
     private String getReconcileHashCode(Applications applications) {
         TreeMap<String, AtomicInteger> instanceCountMap = new TreeMap<String, AtomicInteger>();
         if (isFetchingRemoteRegionRegistries()) {
-            for (Applications remoteApp : remoteRegionVsApps.values()) {
+            for (Applications remoteApp : sharedRegistry.remoteRegionVsApps.values()) {
                 remoteApp.populateInstanceCountMap(instanceCountMap);
             }
         }
@@ -1010,16 +1088,29 @@ public class DiscoveryClient implements EurekaClient {
         ClientResponse response = makeRemoteCall(Action.Refresh);
         logger.info("Getting all instance registry info from the eureka server");
 
+        if (response.getStatus() == Status.NOT_MODIFIED.getStatusCode()) {
+            logger.info("The registry did not change since it was last fetched");
+            if (refreshInterval != null) {
+                refreshInterval.onFullFetch();
+            }
+            return response;
+        }
+
         Applications apps = null;
         if (response.getStatus() == Status.OK.getStatusCode()) {
-            apps = response.getEntity(Applications.class);
+            apps = readApplications(response);
         }
 
         if (apps == null) {
             logger.error("The application is null for some reason. Not storing this information");
         } else if (fetchRegistryGeneration.compareAndSet(currentUpdateGeneration, currentUpdateGeneration + 1)) {
             localRegionApps.set(this.filterAndShuffle(apps));
+            lastFullRegistryETag.set(getETag(response));
+            lastDeltaETag.set(null);
             logger.debug("Got full registry with apps hashcode {}", apps.getAppsHashCode());
+            if (refreshInterval != null) {
+                refreshInterval.onFullFetch();
+            }
         } else {
             logger.warn("Not updating applications as another thread is updating it already");
         }
@@ -1044,8 +1135,20 @@ public class DiscoveryClient implements EurekaClient {
         long currentUpdateGeneration = fetchRegistryGeneration.get();
         ClientResponse response = makeRemoteCall(Action.Refresh_Delta);
 
+        if (response.getStatus() == Status.NOT_MODIFIED.getStatusCode()) {
+            logger.debug("The delta did not change since it was last applied");
+            if (refreshInterval != null) {
+                refreshInterval.onDelta(0);
+            }
+            return response;
+        }
+
         Applications delta = null;
         if (response.getStatus() == Status.OK.getStatusCode()) {
+            StreamingDecoderWrapper streamDecoder = getStreamDecoder(response);
+            if (streamDecoder != null) {
+                return streamAndUpdateDelta(response, streamDecoder, currentUpdateGeneration, applications);
+            }
             delta = response.getEntity(Applications.class);
         }
         if (delta == null) {
@@ -1059,6 +1162,7 @@ public class DiscoveryClient implements EurekaClient {
             if (fetchRegistryUpdateLock.tryLock()) {
                 try {
                     updateDelta(delta);
+                    onDeltaApplied(response);
                     reconcileHashCode = getReconcileHashCode(applications);
                 } finally {
                     fetchRegistryUpdateLock.unlock();
@@ -1070,7 +1174,8 @@ public class DiscoveryClient implements EurekaClient {
             // There is a diff in number of instances for some reason
             if ((!reconcileHashCode.equals(delta.getAppsHashCode()))
                     || clientConfig.shouldLogDeltaDiff()) {
-                response = reconcileAndLogDifference(response, delta, reconcileHashCode);  // this makes a remoteCall
+                response = reconcileAndLogDifference(response, delta.getVersion(), delta.getAppsHashCode(),
+                        reconcileHashCode);  // this makes a remoteCall
             }
         } else {
             logger.warn("Not updating application delta as another thread is updating it already");
@@ -1080,6 +1185,125 @@ public class DiscoveryClient implements EurekaClient {
         return response;
     }
 
+    /**
+     * Applies the delta to the local registry while it is being read from the response stream, without
+     * building an intermediate {@link Applications} object. The update generation is advanced and the update lock
+     * is held for the duration of the read. If the stream breaks in the middle, the local registry may be partially
+     * updated, so the full registry is fetched instead.
+     *
+     * @return the client response
+     * @throws Throwable on error
+     */
+    private ClientResponse streamAndUpdateDelta(ClientResponse response, StreamingDecoderWrapper streamDecoder,
+                                                long currentUpdateGeneration, Applications applications) throws Throwable {
+        if (!fetchRegistryGeneration.compareAndSet(currentUpdateGeneration, currentUpdateGeneration + 1)) {
+            logger.warn("Not updating application delta as another thread is updating it already");
+            return response;
+        }
+        if (!fetchRegistryUpdateLock.tryLock()) {
+            logger.warn("Cannot acquire update lock, aborting getAndUpdateDelta");
+            return response;
+        }
+        DeltaStreamListener deltaListener = new DeltaStreamListener();
+        String reconcileHashCode = "";
+        boolean isComplete = false;
+        try {
+            InputStream inputStream = response.getEntityInputStream();
+            try {
+                streamDecoder.decodeApplications(inputStream, deltaListener);
+                isComplete = true;
+            } catch (IOException e) {
+                logger.warn("Cannot read the delta update stream after applying {} instances", deltaListener.deltaCount, e);
+            } finally {
+                inputStream.close();
+            }
+            if (isComplete) {
+                logger.debug("The total number of instances fetched by the delta processor : {}",
+                        deltaListener.deltaCount);
+                completeDeltaUpdate(deltaListener.versionDelta);
+                onDeltaApplied(response);
+                if (refreshInterval != null) {
+                    refreshInterval.onDelta(deltaListener.deltaCount);
+                }
+                reconcileHashCode = getReconcileHashCode(applications);
+            }
+        } finally {
+            fetchRegistryUpdateLock.unlock();
+        }
+        if (!isComplete) {
+            this.closeResponse(response);
+            return getAndStoreFullRegistry();
+        }
+        logger.debug("Got delta update with apps hashcode {}", deltaListener.appsHashCode);
+        // There is a diff in number of instances for some reason
+        if ((!reconcileHashCode.equals(deltaListener.appsHashCode))
+                || clientConfig.shouldLogDeltaDiff()) {
+            response = reconcileAndLogDifference(response, deltaListener.versionDelta, deltaListener.appsHashCode,
+                    reconcileHashCode);  // this makes a remoteCall
+        }
+        return response;
+    }
+
+    /**
+     * Once a delta is applied the local registry no longer is the full registry last fetched, but it is up to
+     * date with the delta, which needs not be fetched again until it changes.
+     */
+    private void onDeltaApplied(ClientResponse response) {
+        lastFullRegistryETag.set(null);
+        lastDeltaETag.set(getETag(response));
+    }
+
+    private static String getETag(ClientResponse response) {
+        return response.getHeaders().getFirst(HttpHeaders.ETAG);
+    }
+
+    /**
+     * @return the entity tag to send with a registry fetch, so that the server answers with a 304 Not Modified
+     *         if the registry did not change, or null if the fetch is not conditional
+     */
+    private String getIfNoneMatch(Action action) {
+        if (!clientConfig.shouldUseConditionalRegistryFetch()) {
+            return null;
+        }
+        return action == Action.Refresh ? lastFullRegistryETag.get() : lastDeltaETag.get();
+    }
+
+    /**
+     * @return the decoder that can stream the registry in the format of the response, or null if there is none
+     */
+    private StreamingDecoderWrapper getStreamDecoder(ClientResponse response) {
+        MediaType type = response.getType();
+        if (type == null) {
+            return null;
+        }
+        if (registryStreamDecoder != null && registryStreamDecoder.support(type)) {
+            return registryStreamDecoder;
+        }
+        if (binaryStreamDecoder != null && binaryStreamDecoder.support(type)) {
+            return binaryStreamDecoder;
+        }
+        return null;
+    }
+
+    /**
+     * Reads the registry from the response. If the decoder of the response format supports it, instances are
+     * streamed directly into the resulting {@link Applications} object.
+     */
+    private Applications readApplications(ClientResponse response) throws IOException {
+        StreamingDecoderWrapper streamDecoder = getStreamDecoder(response);
+        if (streamDecoder == null) {
+            return response.getEntity(Applications.class);
+        }
+        ApplicationsBuilder builder = new ApplicationsBuilder();
+        InputStream inputStream = response.getEntityInputStream();
+        try {
+            streamDecoder.decodeApplications(inputStream, builder);
+        } finally {
+            inputStream.close();
+        }
+        return builder.build();
+    }
+
     /**
      * Logs the total number of non-filtered instances stored locally.
      */
@@ -1105,8 +1329,10 @@ public class DiscoveryClient implements EurekaClient {
      *
      * @param response
      *            the HTTP response after getting the full registry.
-     * @param delta
-     *            the last delta registry information received from the eureka
+     * @param deltaVersion
+     *            the version of the last delta received from the eureka server.
+     * @param deltaAppsHashCode
+     *            the apps hashcode of the last delta received from the eureka
      *            server.
      * @param reconcileHashCode
      *            the hashcode generated by the server for reconciliation.
@@ -1114,11 +1340,11 @@ public class DiscoveryClient implements EurekaClient {
      * @throws Throwable
      *             on any error.
      */
-    private ClientResponse reconcileAndLogDifference(ClientResponse response,
-                                                     Applications delta, String reconcileHashCode) throws Throwable {
+    private ClientResponse reconcileAndLogDifference(ClientResponse response, Long deltaVersion,
+                                                     String deltaAppsHashCode, String reconcileHashCode) throws Throwable {
         logger.warn(
                 "The Reconcile hashcodes do not match, client : {}, server : {}. Getting the full registry",
-                reconcileHashCode, delta.getAppsHashCode());
+                reconcileHashCode, deltaAppsHashCode);
 
         RECONCILE_HASH_CODES_MISMATCH.increment();
 
@@ -1126,7 +1352,7 @@ public class DiscoveryClient implements EurekaClient {
 
         long currentUpdateGeneration = fetchRegistryGeneration.get();
         response = makeRemoteCall(Action.Refresh);
-        Applications serverApps = response.getEntity(Applications.class);
+        Applications serverApps = readApplications(response);
 
         try {
             Map<String, List<String>> reconcileDiffMap = getApplications().getReconcileMapDiff(serverApps);
@@ -1145,11 +1371,11 @@ public class DiscoveryClient implements EurekaClient {
 
         if (fetchRegistryGeneration.compareAndSet(currentUpdateGeneration, currentUpdateGeneration + 1)) {
             localRegionApps.set(this.filterAndShuffle(serverApps));
-            getApplications().setVersion(delta.getVersion());
+            getApplications().setVersion(deltaVersion);
             logger.warn(
                     "The Reconcile hashcodes after complete sync up, client : {}, server : {}.",
                     getApplications().getReconcileHashCode(),
-                    delta.getAppsHashCode());
+                    deltaAppsHashCode);
         } else {
             logger.warn("Not setting the applications map as another thread has advanced the update generation");
         }
@@ -1169,66 +1395,129 @@ public class DiscoveryClient implements EurekaClient {
         int deltaCount = 0;
         for (Application app : delta.getRegisteredApplications()) {
             for (InstanceInfo instance : app.getInstances()) {
-                Applications applications = getApplications();
-                String instanceRegion = instanceRegionChecker.getInstanceRegion(instance);
-                if (!instanceRegionChecker.isLocalRegion(instanceRegion)) {
-                    Applications remoteApps = remoteRegionVsApps.get(instanceRegion);
-                    if (null == remoteApps) {
-                        remoteApps = new Applications();
-                        remoteRegionVsApps.put(instanceRegion, remoteApps);
-                    }
-                    applications = remoteApps;
-                }
-
                 ++deltaCount;
-                if (ActionType.ADDED.equals(instance.getActionType())) {
-                    Application existingApp = applications
-                            .getRegisteredApplications(instance.getAppName());
-                    if (existingApp == null) {
-                        applications.addApplication(app);
-                    }
-                    logger.debug("Added instance {} to the existing apps in region {}",
-                            instance.getId(), instanceRegion);
-                    applications.getRegisteredApplications(
-                            instance.getAppName()).addInstance(instance);
-                } else if (ActionType.MODIFIED.equals(instance.getActionType())) {
-                    Application existingApp = applications
-                            .getRegisteredApplications(instance.getAppName());
-                    if (existingApp == null) {
-                        applications.addApplication(app);
-                    }
-                    logger.debug("Modified instance {} to the existing apps ",
-                            instance.getId());
-
-                    applications.getRegisteredApplications(
-                            instance.getAppName()).addInstance(instance);
-
-                } else if (ActionType.DELETED.equals(instance.getActionType())) {
-                    Application existingApp = applications
-                            .getRegisteredApplications(instance.getAppName());
-                    if (existingApp == null) {
-                        applications.addApplication(app);
-                    }
-                    logger.debug("Deleted instance {} to the existing apps ",
-                            instance.getId());
-                    applications.getRegisteredApplications(
-                            instance.getAppName()).removeInstance(instance);
-                }
+                updateDeltaInstance(app, instance);
             }
         }
         logger.debug(
                 "The total number of instances fetched by the delta processor : {}",
                 deltaCount);
 
-        getApplications().setVersion(delta.getVersion());
+        completeDeltaUpdate(delta.getVersion());
+        if (refreshInterval != null) {
+            refreshInterval.onDelta(deltaCount);
+        }
+    }
+
+    /**
+     * Applies a single instance change from the delta to the local or respective remote region registry.
+     *
+     * @param app
+     *            the delta application the instance belongs to, added to the
+     *            registry if it does not have the application yet.
+     * @param instance
+     *            the changed instance.
+     */
+    private void updateDeltaInstance(Application app, InstanceInfo instance) {
+        if (clientConfig.shouldCompactRegistry()) {
+            InstanceInfoCompactor.compact(instance);
+        }
+        Applications applications = getApplications();
+        String instanceRegion = instanceRegionChecker.getInstanceRegion(instance);
+        if (!instanceRegionChecker.isLocalRegion(instanceRegion)) {
+            Applications remoteApps = sharedRegistry.remoteRegionVsApps.get(instanceRegion);
+            if (null == remoteApps) {
+                remoteApps = new Applications();
+                sharedRegistry.remoteRegionVsApps.put(instanceRegion, remoteApps);
+            }
+            applications = remoteApps;
+        }
+
+        if (ActionType.ADDED.equals(instance.getActionType())) {
+            Application existingApp = applications
+                    .getRegisteredApplications(instance.getAppName());
+            if (existingApp == null) {
+                applications.addApplication(app);
+            }
+            logger.debug("Added instance {} to the existing apps in region {}",
+                    instance.getId(), instanceRegion);
+            applications.getRegisteredApplications(
+                    instance.getAppName()).addInstance(instance);
+        } else if (ActionType.MODIFIED.equals(instance.getActionType())) {
+            Application existingApp = applications
+                    .getRegisteredApplications(instance.getAppName());
+            if (existingApp == null) {
+                applications.addApplication(app);
+            }
+            logger.debug("Modified instance {} to the existing apps ",
+                    instance.getId());
+
+            applications.getRegisteredApplications(
+                    instance.getAppName()).addInstance(instance);
+
+        } else if (ActionType.DELETED.equals(instance.getActionType())) {
+            Application existingApp = applications
+                    .getRegisteredApplications(instance.getAppName());
+            if (existingApp == null) {
+                applications.addApplication(app);
+            }
+            logger.debug("Deleted instance {} to the existing apps ",
+                    instance.getId());
+            applications.getRegisteredApplications(
+                    instance.getAppName()).removeInstance(instance);
+        }
+    }
+
+    /**
+     * Stamps the local and remote region registries with the delta version, and reshuffles them.
+     */
+    private void completeDeltaUpdate(Long deltaVersion) {
+        getApplications().setVersion(deltaVersion);
         getApplications().shuffleInstances(clientConfig.shouldFilterOnlyUpInstances());
 
-        for (Applications applications : remoteRegionVsApps.values()) {
-            applications.setVersion(delta.getVersion());
+        for (Applications applications : sharedRegistry.remoteRegionVsApps.values()) {
+            applications.setVersion(deltaVersion);
             applications.shuffleInstances(clientConfig.shouldFilterOnlyUpInstances());
         }
     }
 
+    /**
+     * Applies the delta instances to the registry one by one, as they are decoded from the response stream.
+     */
+    private class DeltaStreamListener implements ApplicationsStreamListener {
+
+        private final Map<String, Application> deltaApps = new HashMap<String, Application>();
+        private Long versionDelta = Long.valueOf(-1);
+        private String appsHashCode;
+        private int deltaCount;
+
+        @Override
+        public void onVersionDelta(Long versionDelta) {
+            this.versionDelta = versionDelta;
+        }
+
+        @Override
+        public void onAppsHashCode(String appsHashCode) {
+            this.appsHashCode = appsHashCode;
+        }
+
+        @Override
+        public void onApplication(String appName) {
+            // Applications are added to the registry on their first instance
+        }
+
+        @Override
+        public void onInstance(String appName, InstanceInfo instanceInfo) {
+            Application app = deltaApps.get(appName);
+            if (app == null) {
+                app = new Application(appName);
+                deltaApps.put(appName, app);
+            }
+            ++deltaCount;
+            updateDeltaInstance(app, instanceInfo);
+        }
+    }
+
     /**
      * Makes remote calls with the corresponding action(register,renew etc).
      *
@@ -1239,23 +1528,40 @@ public class DiscoveryClient implements EurekaClient {
      *             on any error.
      */
     private ClientResponse makeRemoteCall(Action action) throws Throwable {
+        return makeRemoteCall(action, null);
+    }
+
+    /**
+     * Makes remote calls with the corresponding action, sending the given entity.
+     *
+     * @param action
+     *            the action to be performed on eureka server.
+     * @param requestEntity
+     *            the entity of the actions that do not send the instance info of this client, such as the
+     *            renewals of {@link Action#Renew_Batch}; null for the others.
+     * @return ClientResponse the HTTP response object.
+     * @throws Throwable
+     *             on any error.
+     */
+    private ClientResponse makeRemoteCall(Action action, @Nullable Object requestEntity) throws Throwable {
         ClientResponse response;
         if (isQueryAction(action)) {
-            response = makeRemoteCallToRedirectedServer(lastQueryRedirect, action);
+            response = makeRemoteCallToRedirectedServer(lastQueryRedirect, action, requestEntity);
         } else {
-            response = makeRemoteCallToRedirectedServer(lastRegisterRedirect, action);
+            response = makeRemoteCallToRedirectedServer(lastRegisterRedirect, action, requestEntity);
         }
         if (response == null) {
-            response = makeRemoteCall(action, 0);
+            response = makeRemoteCall(action, requestEntity, 0);
         }
         return response;
     }
 
-    private ClientResponse makeRemoteCallToRedirectedServer(AtomicReference<String> lastRedirect, Action action) {
+    private ClientResponse makeRemoteCallToRedirectedServer(AtomicReference<String> lastRedirect, Action action,
+                                                            Object requestEntity) {
         String lastRedirectUrl = lastRedirect.get();
         if (lastRedirectUrl != null) {
             try {
-                ClientResponse clientResponse = makeRemoteCall(action, lastRedirectUrl);
+                ClientResponse clientResponse = makeRemoteCall(action, requestEntity, lastRedirectUrl);
                 int status = clientResponse.getStatus();
                 if (status >= 200 && status < 300) {
                     return clientResponse;
@@ -1288,16 +1594,16 @@ public class DiscoveryClient implements EurekaClient {
      * @throws Throwable
      *             on any error.
      */
-    private ClientResponse makeRemoteCall(Action action, int serviceUrlIndex) throws Throwable {
+    private ClientResponse makeRemoteCall(Action action, Object requestEntity, int serviceUrlIndex) throws Throwable {
         String serviceUrl;
         try {
             serviceUrl = eurekaServiceUrls.get().get(serviceUrlIndex);
-            return makeRemoteCallWithFollowRedirect(action, serviceUrl);
+            return makeRemoteCallWithFollowRedirect(action, requestEntity, serviceUrl);
         } catch (Throwable t) {
             if (eurekaServiceUrls.get().size() > ++serviceUrlIndex) {
                 logger.warn("Trying backup: " + eurekaServiceUrls.get().get(serviceUrlIndex));
                 SERVER_RETRY_COUNTER.increment();
-                return makeRemoteCall(action, serviceUrlIndex);
+                return makeRemoteCall(action, requestEntity, serviceUrlIndex);
             } else {
                 ALL_SERVER_FAILURE_COUNT.increment();
                 logger.error("Can't contact any eureka nodes - possibly a security group issue?", t);
@@ -1306,10 +1612,11 @@ public class DiscoveryClient implements EurekaClient {
         }
     }
 
-    private ClientResponse makeRemoteCallWithFollowRedirect(Action action, String serviceUrl) throws Throwable {
+    private ClientResponse makeRemoteCallWithFollowRedirect(Action action, Object requestEntity, String serviceUrl)
+            throws Throwable {
         URI targetUrl = new URI(serviceUrl);
         for (int followRedirectCount = 0; followRedirectCount < MAX_FOLLOWED_REDIRECTS; followRedirectCount++) {
-            ClientResponse clientResponse = makeRemoteCall(action, targetUrl.toString());
+            ClientResponse clientResponse = makeRemoteCall(action, requestEntity, targetUrl.toString());
             if (clientResponse.getStatus() != 302) {
                 if (followRedirectCount > 0) {
                     if (isQueryAction(action)) {
@@ -1353,17 +1660,17 @@ public class DiscoveryClient implements EurekaClient {
      * @throws Throwable
      *             on any error.
      */
-    private ClientResponse makeRemoteCall(Action action, String serviceUrl) throws Throwable {
+    private ClientResponse makeRemoteCall(Action action, Object requestEntity, String serviceUrl) throws Throwable {
         String urlPath = null;
         Stopwatch tracer = null;
         ClientResponse response = null;
         logger.debug("Discovery Client talking to the server {}, action {}", serviceUrl, action);
         try {
             // If the application is unknown do not register/renew/cancel but
-            // refresh
+            // refresh, or renew the instances of the batch, which are not this one
             if ((UNKNOWN.equals(instanceInfo.getAppName())
                     && (!Action.Refresh.equals(action)) && (!Action.Refresh_Delta
-                    .equals(action)))) {
+                    .equals(action)) && (!Action.Renew_Batch.equals(action)))) {
                 return null;
             }
             WebResource r = discoveryApacheClient.resource(serviceUrl);
@@ -1383,6 +1690,14 @@ public class DiscoveryClient implements EurekaClient {
                                     instanceInfo.getLastDirtyTimestamp().toString())
                             .put(ClientResponse.class);
                     break;
+                case Renew_Batch:
+                    tracer = RENEW_TIMER.start();
+                    urlPath = RENEWALS_URL_PATH;
+                    response = r.path(urlPath)
+                            .type(MediaType.APPLICATION_JSON_TYPE)
+                            .accept(MediaType.APPLICATION_JSON_TYPE)
+                            .post(ClientResponse.class, requestEntity);
+                    break;
                 case Refresh:
                     tracer = REFRESH_TIMER.start();
                     final String vipAddress = clientConfig.getRegistryRefreshSingleVipAddress();
@@ -1391,7 +1706,7 @@ public class DiscoveryClient implements EurekaClient {
                     if (!Strings.isNullOrEmpty(remoteRegionsToFetchStr)) {
                         urlPath += "?regions=" + remoteRegionsToFetchStr;
                     }
-                    response = getUrl(serviceUrl + urlPath);
+                    response = getUrl(serviceUrl + urlPath, getIfNoneMatch(action));
                     break;
                 case Refresh_Delta:
                     tracer = REFRESH_DELTA_TIMER.start();
@@ -1400,7 +1715,10 @@ public class DiscoveryClient implements EurekaClient {
                     if (!Strings.isNullOrEmpty(remoteRegionsToFetchStr)) {
                         urlPath += "?regions=" + remoteRegionsToFetchStr;
                     }
-                    response = getUrl(serviceUrl + urlPath);
+                    if (clientConfig.shouldUseDeltaLongPolling()) {
+                        urlPath = appendLongPollParams(urlPath);
+                    }
+                    response = getUrl(serviceUrl + urlPath, getIfNoneMatch(action));
                     break;
                 case Register:
                     tracer = REGISTER_TIMER.start();
@@ -1433,6 +1751,9 @@ public class DiscoveryClient implements EurekaClient {
                 logger.warn("Action: " + action + "  => returned status of "
                         + response.getStatus() + " from " + serviceUrl
                         + urlPath);
+                if (refreshInterval != null && (action == Action.Refresh || action == Action.Refresh_Delta)) {
+                    handleRetryAfter(response);
+                }
                 throw new RuntimeException("Bad status: "
                         + response.getStatus());
             }
@@ -1447,6 +1768,47 @@ public class DiscoveryClient implements EurekaClient {
         }
     }
 
+    /**
+     * Passes the Retry-After hint of a server that rejected a registry fetch on to the fetch scheduling. Only the
+     * delay in seconds form of the header is supported.
+     */
+    private void handleRetryAfter(ClientResponse response) {
+        if (response.getStatus() != Status.SERVICE_UNAVAILABLE.getStatusCode()
+                && response.getStatus() != 429) {
+            return;
+        }
+        String retryAfter = response.getHeaders().getFirst("Retry-After");
+        if (retryAfter == null) {
+            return;
+        }
+        try {
+            long retryAfterSeconds = Long.parseLong(retryAfter.trim());
+            if (retryAfterSeconds > 0) {
+                refreshInterval.onRetryAfter(TimeUnit.SECONDS.toMillis(retryAfterSeconds));
+            }
+        } catch (NumberFormatException e) {
+            logger.debug("Ignoring Retry-After header {}", retryAfter);
+        }
+    }
+
+    /**
+     * Adds the version of the last applied delta and the time the server may hold the request for, so that the
+     * server answers only once a newer delta is available. Nothing is added until a delta version is known.
+     */
+    private String appendLongPollParams(String urlPath) {
+        Long knownVersion = getApplications().getVersion();
+        if (knownVersion == null || knownVersion <= 0) {
+            return urlPath;
+        }
+        long waitMs = TimeUnit.SECONDS.toMillis(Math.min(
+                clientConfig.getDeltaLongPollTimeoutSeconds(),
+                clientConfig.getEurekaServerReadTimeoutSeconds() - 1));
+        if (waitMs <= 0) {
+            return urlPath;
+        }
+        return urlPath + (urlPath.contains("?") ? "&" : "?") + "knownVersion=" + knownVersion + "&waitMs=" + waitMs;
+    }
+
     /**
      * Close HTTP response object and its respective resources.
      *
@@ -1466,22 +1828,10 @@ public class DiscoveryClient implements EurekaClient {
     /**
      * Initializes all scheduled tasks.
      */
-    private void initScheduledTasks() {
-        if (clientConfig.shouldFetchRegistry()) {
-            // registry cache refresh timer
-            int registryFetchIntervalSeconds = clientConfig.getRegistryFetchIntervalSeconds();
-            int expBackOffBound = clientConfig.getCacheRefreshExecutorExponentialBackOffBound();
-            scheduler.schedule(
-                    new TimedSupervisorTask(
-                            "cacheRefresh",
-                            scheduler,
-                            cacheRefreshExecutor,
-                            registryFetchIntervalSeconds,
-                            TimeUnit.SECONDS,
-                            expBackOffBound,
-                            new CacheRefreshThread()
-                    ),
-                    registryFetchIntervalSeconds, TimeUnit.SECONDS);
+    private void initScheduledTasks(boolean isRegistryOwner) {
+        // only the owner of a shared registry refreshes it
+        if (clientConfig.shouldFetchRegistry() && isRegistryOwner) {
+            scheduleCacheRefreshTask();
         }
 
         if (shouldRegister(instanceInfo)) {
@@ -1532,6 +1882,51 @@ public class DiscoveryClient implements EurekaClient {
         }
     }
 
+    private void scheduleCacheRefreshTask() {
+        // registry cache refresh timer
+        int registryFetchIntervalSeconds = clientConfig.getRegistryFetchIntervalSeconds();
+        int expBackOffBound = clientConfig.getCacheRefreshExecutorExponentialBackOffBound();
+        // a long-polled fetch may be held by the server on top of the regular fetch time
+        int registryFetchTimeoutSeconds = registryFetchIntervalSeconds;
+        if (clientConfig.shouldUseDeltaLongPolling()) {
+            registryFetchTimeoutSeconds += clientConfig.getEurekaServerReadTimeoutSeconds();
+        }
+        scheduler.schedule(
+                new TimedSupervisorTask(
+                        "cacheRefresh",
+                        scheduler,
+                        cacheRefreshExecutor,
+                        registryFetchTimeoutSeconds,
+                        registryFetchIntervalSeconds,
+                        TimeUnit.SECONDS,
+                        expBackOffBound,
+                        new CacheRefreshThread(),
+                        refreshInterval
+                ),
+                refreshInterval == null
+                        ? TimeUnit.SECONDS.toMillis(registryFetchIntervalSeconds)
+                        : refreshInterval.nextDelayMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Called when this client takes over the refresh of a shared registry from a client that shut down.
+     */
+    void onRegistryCacheOwnershipTaken() {
+        if (clientConfig.shouldFetchRegistry() && !scheduler.isShutdown()) {
+            scheduleCacheRefreshTask();
+        }
+    }
+
+    /**
+     * Called after the owner of a shared registry refreshed it.
+     */
+    void onSharedRegistryRefreshed() {
+        lastSuccessfulRegistryFetchTimestamp = System.currentTimeMillis();
+        onCacheRefreshed();
+        updateInstanceRemoteStatus();
+    }
+
     private void cancelScheduledTasks() {
         if (instanceInfoReplicator != null) {
             instanceInfoReplicator.stop();
@@ -1804,6 +2199,8 @@ public class DiscoveryClient implements EurekaClient {
         } else if (Action.Refresh_Delta == action
                 && (httpStatus == 403 || httpStatus == 404)) {
             return true;
+        } else if ((Action.Refresh == action || Action.Refresh_Delta == action) && httpStatus == 304) {
+            return true;
         } else {
             return false;
         }
@@ -1835,11 +2232,18 @@ public class DiscoveryClient implements EurekaClient {
         return instanceToReturn;
     }
 
-    private ClientResponse getUrl(String fullServiceUrl) {
-        ClientResponse cr = discoveryApacheClient.resource(fullServiceUrl)
-                .accept(MediaType.APPLICATION_JSON_TYPE)
-                .header(EurekaAccept.HTTP_X_EUREKA_ACCEPT, clientAccept.name())
-                .get(ClientResponse.class);
+    private ClientResponse getUrl(String fullServiceUrl, @Nullable String ifNoneMatch) {
+        // servers without the binary encoding, and resources that do not provide it, fall back to JSON
+        MediaType[] acceptedTypes = binaryStreamDecoder == null
+                ? new MediaType[]{MediaType.APPLICATION_JSON_TYPE}
+                : new MediaType[]{JacksonSmile.SMILE_MEDIA_TYPE, MediaType.APPLICATION_JSON_TYPE};
+        WebResource.Builder requestBuilder = discoveryApacheClient.resource(fullServiceUrl)
+                .accept(acceptedTypes)
+                .header(EurekaAccept.HTTP_X_EUREKA_ACCEPT, clientAccept.name());
+        if (ifNoneMatch != null) {
+            requestBuilder.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        ClientResponse cr = requestBuilder.get(ClientResponse.class);
 
         return cr;
     }
@@ -1939,6 +2343,7 @@ public class DiscoveryClient implements EurekaClient {
                 boolean success = fetchRegistry(remoteRegionsModified);
                 if (success) {
                     lastSuccessfulRegistryFetchTimestamp = System.currentTimeMillis();
+                    persistRegistryCache(false);
                 }
 
                 if (logger.isDebugEnabled()) {
@@ -1947,7 +2352,7 @@ public class DiscoveryClient implements EurekaClient {
                     allAppsHashCodes.append(localRegionApps.get().getAppsHashCode());
                     allAppsHashCodes.append(", is fetching remote regions? ");
                     allAppsHashCodes.append(isFetchingRemoteRegionRegistries);
-                    for (Map.Entry<String, Applications> entry : remoteRegionVsApps.entrySet()) {
+                    for (Map.Entry<String, Applications> entry : sharedRegistry.remoteRegionVsApps.entrySet()) {
                         allAppsHashCodes.append(", Remote region: ");
                         allAppsHashCodes.append(entry.getKey());
                         allAppsHashCodes.append(" , apps hashcode: ");
@@ -1973,6 +2378,10 @@ public class DiscoveryClient implements EurekaClient {
             if (null == backupRegistryInstance) { // backward compatibility with the old protected method, in case it is being used.
                 backupRegistryInstance = backupRegistryProvider.get();
             }
+            if (registryCache != null
+                    && (null == backupRegistryInstance || backupRegistryInstance instanceof NotImplementedRegistryImpl)) {
+                backupRegistryInstance = registryCache;
+            }
 
             if (null != backupRegistryInstance) {
                 Applications apps = null;
@@ -1999,6 +2408,71 @@ public class DiscoveryClient implements EurekaClient {
         }
     }
 
+    /**
+     * Loads the registry from the local registry cache file ahead of the first fetch, if the file is recent enough
+     * for the client to catch up with a delta fetch.
+     *
+     * @return true if the registry was loaded
+     */
+    private boolean loadRegistryFromCache() {
+        if (registryCache == null) {
+            return false;
+        }
+        if (isFetchingRemoteRegionRegistries()) {
+            // the file holds the local region only, the delta catch up would fail the hash check of all regions
+            logger.info("The registry cache file {} is not used, as remote regions are fetched too", registryCache.getFile());
+            return false;
+        }
+        long registryAgeMs = registryCache.getRegistryAgeMs();
+        if (registryAgeMs < 0) {
+            return false;
+        }
+        if (registryAgeMs > clientConfig.getRegistryCacheMaxAgeSeconds() * 1000L) {
+            logger.info("The registry cache file {} is {}ms old, which is too old for a delta catch up; fetching the full registry",
+                    registryCache.getFile(), registryAgeMs);
+            return false;
+        }
+        try {
+            Applications apps = registryCache.fetchRegistry();
+            if (apps == null || apps.getVersion() == null || apps.getVersion() == -1) {
+                return false;
+            }
+            localRegionApps.set(this.filterAndShuffle(apps));
+            logTotalInstances();
+            return true;
+        } catch (Throwable e) {
+            logger.warn("Cannot load the registry from the registry cache file {}", registryCache.getFile(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Writes the registry to the local registry cache file, if it was updated since the last write. Unless forced,
+     * the file is written at most once per {@link EurekaClientConfig#getRegistryCachePersistIntervalSeconds()}.
+     */
+    private void persistRegistryCache(boolean force) {
+        if (registryCache == null) {
+            return;
+        }
+        synchronized (registryCache) {
+            long generation = fetchRegistryGeneration.get();
+            long now = System.currentTimeMillis();
+            if (generation == registryCachePersistedGeneration) {
+                return;
+            }
+            if (!force && now - lastRegistryCachePersistTimestamp < clientConfig.getRegistryCachePersistIntervalSeconds() * 1000L) {
+                return;
+            }
+            try {
+                registryCache.persist(getApplications());
+                registryCachePersistedGeneration = generation;
+                lastRegistryCachePersistTimestamp = now;
+            } catch (Throwable e) {
+                logger.warn("Cannot write the registry to the registry cache file {}", registryCache.getFile(), e);
+            }
+        }
+    }
+
     /**
      * @deprecated Use injection to provide {@link BackupRegistry} implementation.
      */
@@ -2060,13 +2534,16 @@ public class DiscoveryClient implements EurekaClient {
      */
     private Applications filterAndShuffle(Applications apps) {
         if (apps != null) {
+            if (clientConfig.shouldCompactRegistry()) {
+                compactInstances(apps);
+            }
             if (isFetchingRemoteRegionRegistries()) {
                 Map<String, Applications> remoteRegionVsApps = new ConcurrentHashMap<String, Applications>();
                 apps.shuffleAndIndexInstances(remoteRegionVsApps, clientConfig, instanceRegionChecker);
                 for (Applications applications : remoteRegionVsApps.values()) {
                     applications.shuffleInstances(clientConfig.shouldFilterOnlyUpInstances());
                 }
-                this.remoteRegionVsApps = remoteRegionVsApps;
+                sharedRegistry.remoteRegionVsApps = remoteRegionVsApps;
             } else {
                 apps.shuffleInstances(clientConfig.shouldFilterOnlyUpInstances());
             }
@@ -2074,6 +2551,14 @@ public class DiscoveryClient implements EurekaClient {
         return apps;
     }
 
+    private static void compactInstances(Applications apps) {
+        for (Application app : apps.getRegisteredApplications()) {
+            for (InstanceInfo instance : app.getInstancesAsIsFromEureka()) {
+                InstanceInfoCompactor.compact(instance);
+            }
+        }
+    }
+
     private boolean isFetchingRemoteRegionRegistries() {
         return null != remoteRegionsToFetch.get();
     }
@@ -2149,4 +2634,31 @@ public class DiscoveryClient implements EurekaClient {
         registryStalenessMonitor.update(delay);
         return delay;
     }
+
+    @com.netflix.servo.annotations.Monitor(name = METRIC_REGISTRY_PREFIX + "fetchInterval",
+            description = "Current interval between registry fetches, in milliseconds", type = DataSourceType.GAUGE)
+    public long getRegistryFetchInterval() {
+        return refreshInterval == null
+                ? TimeUnit.SECONDS.toMillis(clientConfig.getRegistryFetchIntervalSeconds())
+                : refreshInterval.getCurrentIntervalMs();
+    }
+
+    @com.netflix.servo.annotations.Monitor(name = METRIC_REGISTRY_PREFIX + "cacheFileLoadTime",
+            description = "How long it took to load the registry from the local registry cache file", type = DataSourceType.GAUGE)
+    public long getRegistryCacheLoadTime() {
+        return registryCache == null ? 0 : Math.max(0, registryCache.getLastLoadTimeMs());
+    }
+
+    @com.netflix.servo.annotations.Monitor(name = METRIC_REGISTRY_PREFIX + "cacheFileLoadedRegistryAge",
+            description = "How old the registry loaded from the local registry cache file was", type = DataSourceType.GAUGE)
+    public long getRegistryCacheLoadedRegistryAge() {
+        return registryCache == null ? 0 : Math.max(0, registryCache.getLastLoadedRegistryAgeMs());
+    }
+
+    @com.netflix.servo.annotations.Monitor(name = METRIC_REGISTRY_PREFIX + "cacheFileAge",
+            description = "How much time has passed since the registry was last written to the local registry cache file",
+            type = DataSourceType.GAUGE)
+    public long getRegistryCacheAge() {
+        return registryCache == null ? 0 : Math.max(0, registryCache.getRegistryAgeMs());
+    }
 }
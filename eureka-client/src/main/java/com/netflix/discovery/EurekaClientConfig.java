@@ -61,6 +61,51 @@ public interface EurekaClientConfig {
      */
     int getRegistryFetchIntervalSeconds();
 
+    /**
+     * Indicates whether the interval between registry fetches should adapt to
+     * the registry changes. The interval is lengthened while the deltas are empty
+     * and shortened while many instances change, within
+     * {@link #getRegistryFetchMinIntervalSeconds()} and
+     * {@link #getRegistryFetchMaxIntervalSeconds()}. Server Retry-After hints are
+     * honored, and a jitter of {@link #getRegistryFetchJitterPercent()} is added.
+     *
+     * @return true if the fetch interval should adapt, false to fetch at the
+     *         fixed {@link #getRegistryFetchIntervalSeconds()}.
+     */
+    boolean shouldAdaptRegistryFetchInterval();
+
+    /**
+     * Gets the shortest interval(in seconds) between registry fetches when the
+     * fetch interval adapts to the registry changes.
+     *
+     * @return the minimum fetch interval in seconds.
+     */
+    int getRegistryFetchMinIntervalSeconds();
+
+    /**
+     * Gets the longest interval(in seconds) between registry fetches when the
+     * fetch interval adapts to the registry changes.
+     *
+     * @return the maximum fetch interval in seconds.
+     */
+    int getRegistryFetchMaxIntervalSeconds();
+
+    /**
+     * Gets the number of changed instances in a delta from which the fetch
+     * interval is shortened, when it adapts to the registry changes.
+     *
+     * @return the number of changed instances considered as high churn.
+     */
+    int getRegistryFetchChurnThreshold();
+
+    /**
+     * Gets the random jitter, as a percentage of the interval, added to the
+     * delay between registry fetches when it adapts to the registry changes.
+     *
+     * @return the jitter percentage.
+     */
+    int getRegistryFetchJitterPercent();
+
     /**
      * Indicates how often(in seconds) to replicate instance changes to be
      * replicated to the eureka server.
@@ -164,6 +209,88 @@ public interface EurekaClientConfig {
      */
     String getBackupRegistryImpl();
 
+    /**
+     * Gets the local file in which the client keeps a compressed copy of the last
+     * fetched registry.
+     *
+     * <p>
+     * When set, the registry is persisted to this file periodically, and the file
+     * is loaded at startup so that the client can catch up with a delta fetch
+     * instead of fetching the full registry. The file is also used as the
+     * {@link BackupRegistry} if no other implementation is configured.
+     * </p>
+     *
+     * @return the path of the registry cache file, or null if the cache is disabled.
+     */
+    @Nullable
+    String getRegistryCacheFile();
+
+    /**
+     * Indicates how often(in seconds) the registry is written to the
+     * {@link #getRegistryCacheFile()}. The file is only written if the registry
+     * was updated since it was last written.
+     *
+     * @return the interval in seconds between writes of the registry cache file.
+     */
+    int getRegistryCachePersistIntervalSeconds();
+
+    /**
+     * Gets the maximum age(in seconds) of the {@link #getRegistryCacheFile()} for
+     * it to be used at startup ahead of the first fetch. This should not exceed
+     * the time for which the eureka server retains the delta information, as older
+     * files cannot be caught up with a delta fetch.
+     *
+     * <p>
+     * Older files are only used as a backup if the eureka servers cannot be reached.
+     * </p>
+     *
+     * @return the maximum age in seconds of the registry cache file used at startup.
+     */
+    int getRegistryCacheMaxAgeSeconds();
+
+    /**
+     * Indicates whether this client should share its registry with the other
+     * clients in the JVM that fetch the same registry, that is clients with the
+     * same eureka service urls, regions and registry filtering configuration.
+     *
+     * <p>
+     * Only one of the clients sharing the registry fetches it, and all of them
+     * read the same copy.
+     * </p>
+     *
+     * @return true if the registry should be shared, false otherwise.
+     */
+    boolean shouldShareRegistryCache();
+
+    /**
+     * Indicates whether the instances of the fetched registry should be
+     * compacted, to reduce the heap used by the local registry copy.
+     *
+     * <p>
+     * Compacted instances share their URL templates and data center
+     * information, and hold their metadata in immutable maps. They return the
+     * same values, but expand their URLs each time they are accessed.
+     * </p>
+     *
+     * @return true if the registry instances should be compacted, false
+     *         otherwise.
+     */
+    boolean shouldCompactRegistry();
+
+    /**
+     * Indicates whether the registry should be fetched in the binary (Smile)
+     * encoding, when the eureka server supports it.
+     *
+     * <p>
+     * The binary documents are smaller and cheaper to encode and decode than
+     * JSON. Servers that do not support the binary encoding answer with JSON.
+     * </p>
+     *
+     * @return true if the binary encoding should be requested, false
+     *         otherwise.
+     */
+    boolean shouldUseBinaryRegistryEncoding();
+
     /**
      * Gets the total number of connections that is allowed from eureka client
      * to all eureka servers.
@@ -356,6 +483,53 @@ public interface EurekaClientConfig {
      */
     boolean shouldDisableDelta();
 
+    /**
+     * Indicates whether delta fetches should long-poll the eureka server. When enabled the client sends the
+     * version of the last delta it applied, and the server holds the request until a newer delta is available
+     * or {@link #getDeltaLongPollTimeoutSeconds()} elapses. Changes are then delivered as soon as the server
+     * sees them rather than on the next fetch cycle, and idle polls no longer return the same delta again.
+     *
+     * <p>
+     * With long polling enabled {@link #getRegistryFetchIntervalSeconds()} is the pause between the end of one
+     * held request and the start of the next one, so it can be lowered accordingly. Servers that do not allow
+     * long polling answer immediately, as for a regular delta fetch.
+     * </p>
+     * <p>
+     * <em>The changes are not effective at runtime.</em>
+     * </p>
+     *
+     * @return true if the delta fetches should be long-polled, false otherwise.
+     */
+    boolean shouldUseDeltaLongPolling();
+
+    /**
+     * Indicates how long (in seconds) the eureka server may hold a long-polled delta request. The value is
+     * capped below {@link #getEurekaServerReadTimeoutSeconds()} so that held requests do not time out.
+     *
+     * <p>
+     * <em>The changes are effective at runtime at the next registry fetch cycle as specified by
+     * {@link #getRegistryFetchIntervalSeconds()}</em>
+     * </p>
+     *
+     * @return the long poll timeout in seconds.
+     */
+    int getDeltaLongPollTimeoutSeconds();
+
+    /**
+     * Indicates whether registry fetches should be conditional. When enabled the client sends back the entity tag
+     * of the last full registry or delta it got, and the eureka server answers with a 304 Not Modified and no
+     * body if it has nothing newer, so that polls in idle periods cost a few hundred bytes. Servers that do not
+     * support conditional fetches answer with the payload, as for a regular fetch.
+     *
+     * <p>
+     * <em>The changes are effective at runtime at the next registry fetch cycle as specified by
+     * {@link #getRegistryFetchIntervalSeconds()}</em>
+     * </p>
+     *
+     * @return true if the registry fetches should be conditional, false otherwise.
+     */
+    boolean shouldUseConditionalRegistryFetch();
+
     /**
      * Comma separated list of regions for which the eureka registry information will be fetched. It is mandatory to
      * define the availability zones for each of these regions as returned by {@link #getAvailabilityZones(String)}.
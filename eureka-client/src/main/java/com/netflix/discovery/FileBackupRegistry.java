@@ -0,0 +1,169 @@
+package com.netflix.discovery;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.converters.wrappers.CodecWrappers;
+import com.netflix.discovery.converters.wrappers.EncoderWrapper;
+import com.netflix.discovery.converters.wrappers.StreamingDecoderWrapper;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.discovery.shared.ApplicationsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link BackupRegistry} that keeps the last known registry in a gzip compressed JSON file on the local disk.
+ * The file is replaced atomically on each write, so a reader never sees a partially written registry.
+ * <p>
+ * The file holds the local region registry only. The registry version is kept in it, so that a client started
+ * from it can catch up with a delta fetch.
+ * The age of the registry is the age of the file.
+ */
+public class FileBackupRegistry implements BackupRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileBackupRegistry.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final File file;
+    private final EncoderWrapper encoder = CodecWrappers.getEncoder(CodecWrappers.JacksonJson.class);
+    private final StreamingDecoderWrapper decoder =
+            (StreamingDecoderWrapper) CodecWrappers.getDecoder(CodecWrappers.JacksonJson.class);
+
+    private volatile long lastLoadTimeMs = -1;
+    private volatile long lastLoadedRegistryAgeMs = -1;
+
+    public FileBackupRegistry(File file) {
+        this.file = file;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * @return the age of the registry held in the file in milliseconds, or -1 if there is no file
+     */
+    public long getRegistryAgeMs() {
+        long lastModified = file.lastModified();
+        return lastModified == 0 ? -1 : Math.max(0, System.currentTimeMillis() - lastModified);
+    }
+
+    /**
+     * @return how long it took to load the registry from the file the last time, or -1 if it was never loaded
+     */
+    public long getLastLoadTimeMs() {
+        return lastLoadTimeMs;
+    }
+
+    /**
+     * @return the age of the registry at the time it was last loaded, or -1 if it was never loaded
+     */
+    public long getLastLoadedRegistryAgeMs() {
+        return lastLoadedRegistryAgeMs;
+    }
+
+    /**
+     * Loads the registry from the file.
+     *
+     * @return the registry, or null if there is no file or it cannot be read
+     */
+    @Override
+    public Applications fetchRegistry() {
+        if (!file.isFile()) {
+            logger.info("No registry cache file found at {}", file);
+            return null;
+        }
+        long registryAge = getRegistryAgeMs();
+        long startTime = System.currentTimeMillis();
+        ApplicationsBuilder builder = new ApplicationsBuilder();
+        try {
+            InputStream fileStream = new FileInputStream(file);
+            try {
+                decoder.decodeApplications(
+                        new GZIPInputStream(new BufferedInputStream(fileStream, BUFFER_SIZE), BUFFER_SIZE), builder);
+            } finally {
+                fileStream.close();
+            }
+        } catch (IOException e) {
+            logger.warn("Cannot read the registry cache file {}", file, e);
+            return null;
+        }
+        Applications applications = builder.build();
+        lastLoadTimeMs = System.currentTimeMillis() - startTime;
+        lastLoadedRegistryAgeMs = registryAge;
+        logger.info("Loaded {} applications from the registry cache file {} in {}ms; the registry is {}ms old",
+                builder.size(), file, lastLoadTimeMs, registryAge);
+        return applications;
+    }
+
+    /**
+     * The file holds the local region registry only, which cannot stand for a registry including remote regions.
+     *
+     * @return the registry if no remote region is asked for, null otherwise
+     */
+    @Override
+    public Applications fetchRegistry(String[] includeRemoteRegions) {
+        if (includeRemoteRegions != null && includeRemoteRegions.length > 0) {
+            logger.info("The registry cache file {} does not hold the remote regions", file);
+            return null;
+        }
+        return fetchRegistry();
+    }
+
+    /**
+     * Writes the registry to the file, replacing the previous content.
+     */
+    public void persist(Applications applications) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Cannot create directory " + parent);
+        }
+        File tmpFile = new File(file.getPath() + ".tmp");
+        OutputStream fileStream = new FileOutputStream(tmpFile);
+        try {
+            OutputStream outputStream = new GZIPOutputStream(new BufferedOutputStream(fileStream, BUFFER_SIZE), BUFFER_SIZE);
+            encoder.encode(copyOf(applications), outputStream);
+            outputStream.close();
+        } finally {
+            fileStream.close();
+        }
+        try {
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * The client side {@link Application} objects serialize their shuffled, and possibly filtered, instance lists.
+     * The file must hold all instances, so that a client started from it computes the same reconcile hash code
+     * as the server.
+     */
+    private static Applications copyOf(Applications applications) {
+        Applications copy = new Applications();
+        for (Application application : applications.getRegisteredApplications()) {
+            Application appCopy = new Application(application.getName());
+            for (InstanceInfo instanceInfo : application.getInstancesAsIsFromEureka()) {
+                appCopy.addInstance(instanceInfo);
+            }
+            copy.addApplication(appCopy);
+        }
+        copy.setVersion(applications.getVersion());
+        copy.setAppsHashCode(applications.getAppsHashCode());
+        return copy;
+    }
+}
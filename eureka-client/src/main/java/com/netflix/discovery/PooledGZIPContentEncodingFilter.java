@@ -0,0 +1,43 @@
+package com.netflix.discovery;
+
+import javax.ws.rs.core.HttpHeaders;
+import java.io.IOException;
+
+import com.netflix.discovery.util.PooledGZIPInputStream;
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientRequest;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.filter.ClientFilter;
+
+/**
+ * Same as the jersey {@link com.sun.jersey.api.client.filter.GZIPContentEncodingFilter} with no request entity
+ * compression, except that gzip encoded response entities are decompressed with a {@link PooledGZIPInputStream}.
+ * The codecs read the registry from the decompressing stream directly, as it comes from the connection.
+ */
+public class PooledGZIPContentEncodingFilter extends ClientFilter {
+
+    @Override
+    public ClientResponse handle(ClientRequest request) throws ClientHandlerException {
+        if (!request.getHeaders().containsKey(HttpHeaders.ACCEPT_ENCODING)) {
+            request.getHeaders().add(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        }
+
+        ClientResponse response = getNext().handle(request);
+
+        if (response.hasEntity() &&
+                response.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)) {
+            String encodings = response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+
+            if (encodings.equals("gzip")) {
+                response.getHeaders().remove(HttpHeaders.CONTENT_ENCODING);
+                try {
+                    response.setEntityInputStream(new PooledGZIPInputStream(response.getEntityInputStream()));
+                } catch (IOException ex) {
+                    throw new ClientHandlerException(ex);
+                }
+            }
+        }
+
+        return response;
+    }
+}
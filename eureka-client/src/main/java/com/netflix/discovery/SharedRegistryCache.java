@@ -0,0 +1,139 @@
+package com.netflix.discovery;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.netflix.discovery.shared.Applications;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The registry data of a {@link DiscoveryClient}, which can be shared by all clients in a JVM that fetch the same
+ * registry, that is clients with the same service URLs, regions and registry filtering configuration.
+ * <p>
+ * The first client attached to a shared cache owns it: it is the only one running the periodic registry refresh,
+ * and it notifies the other clients after each refresh. When the owner shuts down, the next attached client
+ * takes over the refresh. The cache is discarded when the last client is detached.
+ * <p>
+ * Clients that do not share their registry get a private cache with themselves as the only client.
+ */
+class SharedRegistryCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(SharedRegistryCache.class);
+
+    // guarded by itself, as are the clients of each cache
+    private static final Map<List<Object>, SharedRegistryCache> SHARED_CACHES = new HashMap<List<Object>, SharedRegistryCache>();
+
+    final AtomicReference<Applications> localRegionApps = new AtomicReference<Applications>(new Applications());
+    volatile Map<String, Applications> remoteRegionVsApps = new ConcurrentHashMap<String, Applications>();
+    // monotonically increasing generation counter to ensure stale threads do not reset registry to an older version
+    final AtomicLong fetchRegistryGeneration = new AtomicLong(0);
+    final Lock fetchRegistryUpdateLock = new ReentrantLock();
+
+    private final List<Object> key;
+    private final List<DiscoveryClient> clients = new ArrayList<DiscoveryClient>();
+
+    private SharedRegistryCache(List<Object> key) {
+        this.key = key;
+    }
+
+    static SharedRegistryCache newPrivateCache() {
+        return new SharedRegistryCache(null);
+    }
+
+    /**
+     * Gets the cache shared by the clients with the given configuration, creating it if needed. The client
+     * must {@link #join(DiscoveryClient)} it once it is ready to receive refresh notifications.
+     */
+    static SharedRegistryCache forConfig(List<String> serviceUrls, EurekaClientConfig clientConfig) {
+        List<Object> key = Arrays.<Object>asList(
+                new TreeSet<String>(serviceUrls),
+                clientConfig.getRegion(),
+                clientConfig.fetchRegistryForRemoteRegions(),
+                clientConfig.getRegistryRefreshSingleVipAddress(),
+                clientConfig.shouldFilterOnlyUpInstances(),
+                clientConfig.getClientDataAccept()
+        );
+        synchronized (SHARED_CACHES) {
+            SharedRegistryCache cache = SHARED_CACHES.get(key);
+            if (cache == null) {
+                cache = new SharedRegistryCache(key);
+                SHARED_CACHES.put(key, cache);
+            }
+            return cache;
+        }
+    }
+
+    /**
+     * @return true if the client became the owner of this cache
+     */
+    boolean join(DiscoveryClient client) {
+        synchronized (SHARED_CACHES) {
+            if (key != null && !SHARED_CACHES.containsKey(key)) {
+                // Discarded after the last client left, while this client was being created
+                SHARED_CACHES.put(key, this);
+            }
+            clients.add(client);
+            if (clients.size() > 1) {
+                logger.info("Sharing the registry cache with {} other client(s)", clients.size() - 1);
+            }
+            return clients.get(0) == client;
+        }
+    }
+
+    void leave(DiscoveryClient client) {
+        DiscoveryClient newOwner = null;
+        synchronized (SHARED_CACHES) {
+            boolean wasOwner = !clients.isEmpty() && clients.get(0) == client;
+            clients.remove(client);
+            if (clients.isEmpty()) {
+                if (key != null && SHARED_CACHES.get(key) == this) {
+                    SHARED_CACHES.remove(key);
+                }
+            } else if (wasOwner) {
+                newOwner = clients.get(0);
+            }
+        }
+        if (newOwner != null) {
+            logger.info("Handing over the shared registry cache refresh to the next client");
+            newOwner.onRegistryCacheOwnershipTaken();
+        }
+    }
+
+    /**
+     * Called by the owner after each successful registry refresh.
+     */
+    void notifyRefreshed(DiscoveryClient owner) {
+        List<DiscoveryClient> others;
+        synchronized (SHARED_CACHES) {
+            if (clients.size() < 2) {
+                return;
+            }
+            others = new ArrayList<DiscoveryClient>(clients);
+        }
+        for (DiscoveryClient client : others) {
+            if (client != owner) {
+                try {
+                    client.onSharedRegistryRefreshed();
+                } catch (Throwable e) {
+                    logger.warn("Shared registry refresh notification failed", e);
+                }
+            }
+        }
+    }
+
+    int getClientCount() {
+        synchronized (SHARED_CACHES) {
+            return clients.size();
+        }
+    }
+}
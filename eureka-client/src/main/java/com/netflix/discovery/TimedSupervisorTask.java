@@ -34,19 +34,43 @@ public class TimedSupervisorTask extends TimerTask {
     private final ScheduledExecutorService scheduler;
     private final ThreadPoolExecutor executor;
     private final long timeoutMillis;
+    private final long intervalMillis;
     private final Runnable task;
+    private final DelayPolicy delayPolicy;
 
     private final AtomicLong delay;
     private final long maxDelay;
 
     public TimedSupervisorTask(String name, ScheduledExecutorService scheduler, ThreadPoolExecutor executor,
                                int timeout, TimeUnit timeUnit, int expBackOffBound, Runnable task) {
+        this(name, scheduler, executor, timeout, timeout, timeUnit, expBackOffBound, task);
+    }
+
+    /**
+     * Same as the other constructor, but with the delay between the end of a subtask and the start of the next
+     * one decoupled from the subtask timeout. This is needed for subtasks that are expected to block for longer
+     * than the interval at which they are rescheduled, e.g. long-polling fetches.
+     */
+    public TimedSupervisorTask(String name, ScheduledExecutorService scheduler, ThreadPoolExecutor executor,
+                               int timeout, int interval, TimeUnit timeUnit, int expBackOffBound, Runnable task) {
+        this(name, scheduler, executor, timeout, interval, timeUnit, expBackOffBound, task, null);
+    }
+
+    /**
+     * Same as the other constructors, but with the delay after a subtask that completed in time provided by the
+     * given {@link DelayPolicy} instead of being fixed to the interval. Timeouts still back off exponentially.
+     */
+    public TimedSupervisorTask(String name, ScheduledExecutorService scheduler, ThreadPoolExecutor executor,
+                               int timeout, int interval, TimeUnit timeUnit, int expBackOffBound, Runnable task,
+                               DelayPolicy delayPolicy) {
         this.scheduler = scheduler;
         this.executor = executor;
         this.timeoutMillis = timeUnit.toMillis(timeout);
+        this.intervalMillis = timeUnit.toMillis(interval);
         this.task = task;
-        this.delay = new AtomicLong(timeoutMillis);
-        this.maxDelay = timeoutMillis * expBackOffBound;
+        this.delayPolicy = delayPolicy;
+        this.delay = new AtomicLong(intervalMillis);
+        this.maxDelay = Math.max(intervalMillis, timeoutMillis) * expBackOffBound;
 
         // Initialize the counters and register.
         timeoutCounter = Monitors.newCounter("timeouts");
@@ -62,7 +86,7 @@ public class TimedSupervisorTask extends TimerTask {
             future = executor.submit(task);
             threadPoolLevelGauge.set((long) executor.getActiveCount());
             future.get(timeoutMillis, TimeUnit.MILLISECONDS);  // block until done or timeout
-            delay.set(timeoutMillis);
+            delay.set(delayPolicy == null ? intervalMillis : delayPolicy.nextDelayMillis());
             threadPoolLevelGauge.set((long) executor.getActiveCount());
         } catch (TimeoutException e) {
             logger.error("task supervisor timed out", e);
@@ -85,4 +109,11 @@ public class TimedSupervisorTask extends TimerTask {
             scheduler.schedule(this, delay.get(), TimeUnit.MILLISECONDS);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Provides the delay before the next run, after a subtask completed in time.
+     */
+    public interface DelayPolicy {
+        long nextDelayMillis();
+    }
+}
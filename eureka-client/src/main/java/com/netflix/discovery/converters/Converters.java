@@ -32,6 +32,7 @@ import com.netflix.appinfo.InstanceInfo;
 import com.netflix.appinfo.InstanceInfo.InstanceStatus;
 import com.netflix.appinfo.InstanceInfo.PortType;
 import com.netflix.appinfo.LeaseInfo;
+import com.netflix.discovery.converters.jackson.StringInterningAmazonInfoBuilder;
 import com.netflix.discovery.shared.Application;
 import com.netflix.discovery.shared.Applications;
 import com.netflix.discovery.util.StringCache;
@@ -499,11 +500,7 @@ public final class Converters {
                     if (info.getName() == Name.Amazon) {
                         Map<String, String> metadataMap = (Map<String, String>) context
                                 .convertAnother(info, Map.class);
-                        Map<String, String> metadataMapInter = new HashMap<String, String>(metadataMap.size());
-                        for (Map.Entry<String, String> entry : metadataMap.entrySet()) {
-                            metadataMapInter.put(StringCache.intern(entry.getKey()), StringCache.intern(entry.getValue()));
-                        }
-                        ((AmazonInfo) info).setMetadata(metadataMapInter);
+                        ((AmazonInfo) info).setMetadata(StringInterningAmazonInfoBuilder.internMetadata(metadataMap));
                     }
                 }
 
@@ -0,0 +1,60 @@
+package com.netflix.discovery.converters;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.json.JsonGeneratorImpl;
+
+/**
+ * Encoded forms of an entity, one per encoder, from which documents holding the entity can be assembled
+ * without encoding it again. Used by the server for the {@link com.netflix.appinfo.InstanceInfo}s of its
+ * registry (see {@link com.netflix.appinfo.InstanceInfo#getEncodedFragments()}).
+ * <p>
+ * A holder is only ever added to. Its owner replaces it with an empty one whenever the entity changes, so a
+ * fragment of an outdated state, put into a replaced holder by a concurrent encoder, is never read back.
+ */
+public final class EncodedFragments {
+
+    private static final Object[] EMPTY = new Object[0];
+
+    private volatile Object[] keysAndFragments = EMPTY;
+
+    /**
+     * @param encoderKey identity of the encoder, and of its configuration, that produced the fragment
+     * @return the fragment or null if the entity was not encoded by this encoder yet
+     */
+    public String get(Object encoderKey) {
+        Object[] current = keysAndFragments;
+        for (int i = 0; i < current.length; i += 2) {
+            if (current[i] == encoderKey) {
+                return (String) current[i + 1];
+            }
+        }
+        return null;
+    }
+
+    public boolean isEmpty() {
+        return keysAndFragments.length == 0;
+    }
+
+    public synchronized void put(Object encoderKey, String fragment) {
+        Object[] current = keysAndFragments;
+        for (int i = 0; i < current.length; i += 2) {
+            if (current[i] == encoderKey) {
+                return;
+            }
+        }
+        Object[] updated = new Object[current.length + 2];
+        System.arraycopy(current, 0, updated, 0, current.length);
+        updated[current.length] = encoderKey;
+        updated[current.length + 1] = fragment;
+        keysAndFragments = updated;
+    }
+
+    /**
+     * Fragments are written with {@link JsonGenerator#writeRawValue(String)}, which only textual JSON
+     * generators support. Fragments are encoded without indentation, so pretty printed documents are
+     * excluded as well.
+     */
+    public static boolean canSplice(JsonGenerator jgen) {
+        return jgen instanceof JsonGeneratorImpl && jgen.getPrettyPrinter() == null;
+    }
+}
@@ -3,6 +3,7 @@ package com.netflix.discovery.converters;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.StringWriter;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
@@ -38,6 +39,7 @@ import com.netflix.appinfo.InstanceInfo.PortType;
 import com.netflix.appinfo.LeaseInfo;
 import com.netflix.discovery.DiscoveryManager;
 import com.netflix.discovery.EurekaClientConfig;
+import com.netflix.discovery.converters.jackson.StringInterningAmazonInfoBuilder;
 import com.netflix.discovery.shared.Application;
 import com.netflix.discovery.shared.Applications;
 import com.netflix.discovery.util.StringCache;
@@ -264,11 +266,11 @@ public class EurekaJacksonCodec {
             while (metaNamesIt.hasNext()) {
                 String key = metaNamesIt.next();
                 String value = metaNode.get(key).asText();
-                metaData.put(StringCache.intern(key), StringCache.intern(value));
+                metaData.put(key, value);
             }
 
             AmazonInfo amazonInfo = new AmazonInfo();
-            amazonInfo.setMetadata(metaData);
+            amazonInfo.setMetadata(StringInterningAmazonInfoBuilder.internMetadata(metaData));
 
             return amazonInfo;
         }
@@ -320,6 +322,24 @@ public class EurekaJacksonCodec {
 
         @Override
         public void serialize(InstanceInfo info, JsonGenerator jgen, SerializerProvider provider) throws IOException {
+            EncodedFragments fragments = info.getEncodedFragments();
+            if (fragments == null || !EncodedFragments.canSplice(jgen)) {
+                serializeInstance(info, jgen, provider);
+                return;
+            }
+            String fragment = fragments.get(this);
+            if (fragment == null) {
+                StringWriter writer = new StringWriter();
+                JsonGenerator fragmentGenerator = jgen.getCodec().getFactory().createGenerator(writer);
+                serializeInstance(info, fragmentGenerator, provider);
+                fragmentGenerator.close();
+                fragment = writer.toString();
+                fragments.put(this, fragment);
+            }
+            jgen.writeRawValue(fragment);
+        }
+
+        protected void serializeInstance(InstanceInfo info, JsonGenerator jgen, SerializerProvider provider) throws IOException {
             jgen.writeStartObject();
 
             jgen.writeStringField(ELEM_HOST, info.getHostName());
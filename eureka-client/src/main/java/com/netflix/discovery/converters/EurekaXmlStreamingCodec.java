@@ -0,0 +1,608 @@
+package com.netflix.discovery.converters;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.ctc.wstx.stax.WstxInputFactory;
+import com.ctc.wstx.stax.WstxOutputFactory;
+import com.netflix.appinfo.AmazonInfo;
+import com.netflix.appinfo.DataCenterInfo;
+import com.netflix.appinfo.DataCenterInfo.Name;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.InstanceInfo.ActionType;
+import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+import com.netflix.appinfo.InstanceInfo.PortType;
+import com.netflix.appinfo.LeaseInfo;
+import com.netflix.appinfo.MyDataCenterInfo;
+import com.netflix.discovery.converters.jackson.StringInterningAmazonInfoBuilder;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.discovery.shared.ApplicationsBuilder;
+import com.netflix.discovery.shared.ApplicationsStreamListener;
+import com.netflix.discovery.util.StringCache;
+import com.thoughtworks.xstream.io.xml.XmlFriendlyNameCoder;
+
+/**
+ * XML codec for {@link InstanceInfo}, {@link Application} and {@link Applications}, written directly against the
+ * StAX API, with the Woodstox parser and generator. The entities are created straight from the parsed element
+ * text, with no reflection or intermediate DOM involved.
+ * <p>
+ * The documents are the ones produced by the XStream converters in {@link Converters}, without the indentation,
+ * and element names are escaped with the same name coder as {@link XmlXStream}. Other types are handled by
+ * {@link XmlXStream}.
+ */
+public class EurekaXmlStreamingCodec {
+
+    private static final String ROOT_INSTANCE = "instance";
+    private static final String ROOT_APPLICATION = "application";
+    private static final String ROOT_APPLICATIONS = "applications";
+
+    private static final String ATTR_CLASS = "class";
+    private static final String ATTR_ENABLED = "enabled";
+
+    private static final String AMAZON_INFO_CLASS = "com.netflix.appinfo.AmazonInfo";
+    private static final String DEFAULT_DATA_CENTER_INFO_CLASS = "com.netflix.appinfo.InstanceInfo$DefaultDataCenterInfo";
+    private static final String EMPTY_MAP_CLASS = "java.util.Collections$EmptyMap";
+
+    private final XMLInputFactory inputFactory;
+    private final XMLOutputFactory outputFactory;
+
+    private final XmlFriendlyNameCoder nameCoder;
+    private final String versionKey;
+    private final String appsHashCodeKey;
+
+    private final XmlXStream fallbackCodec = XmlXStream.getInstance();
+
+    public EurekaXmlStreamingCodec() {
+        this(XmlXStream.initializeNameCoder());
+    }
+
+    public EurekaXmlStreamingCodec(XmlFriendlyNameCoder nameCoder) {
+        this.nameCoder = nameCoder;
+        this.versionKey = nameCoder.encodeNode("versions_delta");
+        this.appsHashCodeKey = nameCoder.encodeNode("apps_hashcode");
+
+        inputFactory = new WstxInputFactory();
+        inputFactory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        outputFactory = new WstxOutputFactory();
+    }
+
+    public <T> T readValue(Class<T> type, InputStream entityStream) throws IOException {
+        if (!isRegistryType(type)) {
+            return type.cast(fallbackCodec.fromXML(entityStream));
+        }
+        try {
+            XMLStreamReader reader = inputFactory.createXMLStreamReader(entityStream);
+            try {
+                return type.cast(readRoot(type, reader));
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Cannot decode " + type.getSimpleName() + " XML document", e);
+        }
+    }
+
+    public <T> T readValue(Class<T> type, String text) throws IOException {
+        if (!isRegistryType(type)) {
+            return type.cast(fallbackCodec.fromXML(text));
+        }
+        try {
+            XMLStreamReader reader = inputFactory.createXMLStreamReader(new StringReader(text));
+            try {
+                return type.cast(readRoot(type, reader));
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Cannot decode " + type.getSimpleName() + " XML document", e);
+        }
+    }
+
+    public <T> void writeTo(T object, OutputStream entityStream) throws IOException {
+        if (!isRegistryType(object.getClass())) {
+            fallbackCodec.toXML(object, entityStream);
+            return;
+        }
+        try {
+            XMLStreamWriter writer = outputFactory.createXMLStreamWriter(entityStream, "UTF-8");
+            try {
+                writeRoot(object, writer);
+            } finally {
+                writer.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Cannot encode " + object.getClass().getSimpleName() + " as XML", e);
+        }
+    }
+
+    public <T> String writeToString(T object) throws IOException {
+        if (!isRegistryType(object.getClass())) {
+            return fallbackCodec.toXML(object);
+        }
+        StringWriter stringWriter = new StringWriter();
+        try {
+            XMLStreamWriter writer = outputFactory.createXMLStreamWriter(stringWriter);
+            try {
+                writeRoot(object, writer);
+            } finally {
+                writer.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Cannot encode " + object.getClass().getSimpleName() + " as XML", e);
+        }
+        return stringWriter.toString();
+    }
+
+    /**
+     * Decodes an {@link Applications} document, delivering its content to the given listener as it is parsed.
+     */
+    public void readApplications(InputStream entityStream, ApplicationsStreamListener listener) throws IOException {
+        try {
+            XMLStreamReader reader = inputFactory.createXMLStreamReader(entityStream);
+            try {
+                startRoot(reader, ROOT_APPLICATIONS);
+                readApplicationsBody(reader, listener);
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Cannot decode Applications XML document", e);
+        }
+    }
+
+    private static boolean isRegistryType(Class<?> type) {
+        return InstanceInfo.class.equals(type) || Application.class.equals(type) || Applications.class.equals(type);
+    }
+
+    // ========================
+    // decoding
+    // ========================
+
+    private Object readRoot(Class<?> type, XMLStreamReader reader) throws XMLStreamException {
+        if (InstanceInfo.class.equals(type)) {
+            startRoot(reader, ROOT_INSTANCE);
+            return readInstanceInfo(reader);
+        }
+        if (Application.class.equals(type)) {
+            startRoot(reader, ROOT_APPLICATION);
+            return readApplication(reader);
+        }
+        startRoot(reader, ROOT_APPLICATIONS);
+        ApplicationsBuilder builder = new ApplicationsBuilder();
+        readApplicationsBody(reader, builder);
+        return builder.build();
+    }
+
+    private static void startRoot(XMLStreamReader reader, String rootName) throws XMLStreamException {
+        reader.nextTag();
+        if (!rootName.equals(reader.getLocalName())) {
+            throw new XMLStreamException("Root element '" + reader.getLocalName() + "' does not match expected ('"
+                    + rootName + "')", reader.getLocation());
+        }
+    }
+
+    private void readApplicationsBody(XMLStreamReader reader, ApplicationsStreamListener listener) throws XMLStreamException {
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            String elementName = reader.getLocalName();
+            if (versionKey.equals(elementName)) {
+                listener.onVersionDelta(Long.valueOf(reader.getElementText().trim()));
+            } else if (appsHashCodeKey.equals(elementName)) {
+                listener.onAppsHashCode(reader.getElementText());
+            } else if (ROOT_APPLICATION.equals(elementName)) {
+                streamApplication(reader, listener);
+            } else {
+                skipElement(reader);
+            }
+        }
+    }
+
+    private void streamApplication(XMLStreamReader reader, ApplicationsStreamListener listener) throws XMLStreamException {
+        String appName = null;
+        // Only used if the instances precede the application name in the document
+        List<InstanceInfo> pending = null;
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            String elementName = reader.getLocalName();
+            if ("name".equals(elementName)) {
+                appName = reader.getElementText();
+                listener.onApplication(appName);
+                if (pending != null) {
+                    for (InstanceInfo instanceInfo : pending) {
+                        listener.onInstance(appName, instanceInfo);
+                    }
+                    pending = null;
+                }
+            } else if (ROOT_INSTANCE.equals(elementName)) {
+                InstanceInfo instanceInfo = readInstanceInfo(reader);
+                if (appName != null) {
+                    listener.onInstance(appName, instanceInfo);
+                } else {
+                    if (pending == null) {
+                        pending = new ArrayList<>();
+                    }
+                    pending.add(instanceInfo);
+                }
+            } else {
+                skipElement(reader);
+            }
+        }
+        if (appName == null) {
+            throw new XMLStreamException("Application XML element with no name", reader.getLocation());
+        }
+    }
+
+    private Application readApplication(XMLStreamReader reader) throws XMLStreamException {
+        String appName = null;
+        List<InstanceInfo> instances = new ArrayList<>();
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            String elementName = reader.getLocalName();
+            if ("name".equals(elementName)) {
+                appName = reader.getElementText();
+            } else if (ROOT_INSTANCE.equals(elementName)) {
+                instances.add(readInstanceInfo(reader));
+            } else {
+                skipElement(reader);
+            }
+        }
+        Application application = new Application(appName);
+        for (InstanceInfo instanceInfo : instances) {
+            application.addInstance(instanceInfo);
+        }
+        return application;
+    }
+
+    /**
+     * Missing elements get the defaults of {@link InstanceInfo.Builder}, which the XStream converter decodes with.
+     */
+    private InstanceInfo readInstanceInfo(XMLStreamReader reader) throws XMLStreamException {
+        String appName = null;
+        String appGroupName = null;
+        String ipAddr = null;
+        String sid = null;
+        int port = 0;
+        boolean portEnabled = true;
+        int securePort = 0;
+        boolean securePortEnabled = false;
+        String homePageUrl = null;
+        String statusPageUrl = null;
+        String healthCheckUrl = null;
+        String secureHealthCheckUrl = null;
+        String vipAddress = null;
+        String secureVipAddress = null;
+        int countryId = InstanceInfo.DEFAULT_COUNTRY_ID;
+        DataCenterInfo dataCenterInfo = null;
+        String hostName = null;
+        InstanceStatus status = InstanceStatus.UP;
+        InstanceStatus overriddenStatus = InstanceStatus.UNKNOWN;
+        LeaseInfo leaseInfo = null;
+        Boolean isCoordinatingDiscoveryServer = Boolean.FALSE;
+        HashMap<String, String> metadata = null;
+        Long lastUpdatedTimestamp = null;
+        Long lastDirtyTimestamp = null;
+        ActionType actionType = null;
+        String asgName = null;
+
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "hostName":
+                    hostName = reader.getElementText();
+                    break;
+                case "app":
+                    appName = reader.getElementText();
+                    break;
+                case "appGroupName":
+                    appGroupName = reader.getElementText();
+                    break;
+                case "ipAddr":
+                    ipAddr = reader.getElementText();
+                    break;
+                case "sid":
+                    sid = reader.getElementText();
+                    break;
+                case "status":
+                    status = InstanceStatus.toEnum(reader.getElementText());
+                    break;
+                case "overriddenstatus":
+                    overriddenStatus = InstanceStatus.toEnum(reader.getElementText());
+                    break;
+                case "port":
+                    portEnabled = !"false".equals(reader.getAttributeValue(null, ATTR_ENABLED));
+                    port = Integer.parseInt(reader.getElementText().trim());
+                    break;
+                case "securePort":
+                    securePortEnabled = "true".equals(reader.getAttributeValue(null, ATTR_ENABLED));
+                    securePort = Integer.parseInt(reader.getElementText().trim());
+                    break;
+                case "countryId":
+                    countryId = Integer.parseInt(reader.getElementText().trim());
+                    break;
+                case "dataCenterInfo":
+                    dataCenterInfo = readDataCenterInfo(reader);
+                    break;
+                case "leaseInfo":
+                    leaseInfo = readLeaseInfo(reader);
+                    break;
+                case "metadata":
+                    metadata = readStringMap(reader);
+                    break;
+                case "homePageUrl":
+                    homePageUrl = reader.getElementText();
+                    break;
+                case "statusPageUrl":
+                    statusPageUrl = reader.getElementText();
+                    break;
+                case "healthCheckUrl":
+                    healthCheckUrl = reader.getElementText();
+                    break;
+                case "secureHealthCheckUrl":
+                    secureHealthCheckUrl = reader.getElementText();
+                    break;
+                case "vipAddress":
+                    vipAddress = reader.getElementText();
+                    break;
+                case "secureVipAddress":
+                    secureVipAddress = reader.getElementText();
+                    break;
+                case "isCoordinatingDiscoveryServer":
+                    isCoordinatingDiscoveryServer = Boolean.valueOf(reader.getElementText().trim());
+                    break;
+                case "lastUpdatedTimestamp":
+                    lastUpdatedTimestamp = Long.valueOf(reader.getElementText().trim());
+                    break;
+                case "lastDirtyTimestamp":
+                    lastDirtyTimestamp = Long.valueOf(reader.getElementText().trim());
+                    break;
+                case "actionType":
+                    actionType = ActionType.valueOf(reader.getElementText().trim());
+                    break;
+                case "asgName":
+                    asgName = reader.getElementText();
+                    break;
+                default:
+                    skipElement(reader);
+            }
+        }
+        long now = System.currentTimeMillis();
+        return new InstanceInfo(appName, appGroupName, ipAddr, sid, port, portEnabled, securePort, securePortEnabled,
+                homePageUrl, statusPageUrl, healthCheckUrl, secureHealthCheckUrl, vipAddress, secureVipAddress,
+                countryId, dataCenterInfo, hostName, status, overriddenStatus, leaseInfo, isCoordinatingDiscoveryServer,
+                metadata, lastUpdatedTimestamp == null ? now : lastUpdatedTimestamp,
+                lastDirtyTimestamp == null ? now : lastDirtyTimestamp, actionType, asgName);
+    }
+
+    private DataCenterInfo readDataCenterInfo(XMLStreamReader reader) throws XMLStreamException {
+        String name = null;
+        HashMap<String, String> metadata = null;
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            String elementName = reader.getLocalName();
+            if ("name".equals(elementName)) {
+                name = reader.getElementText().trim();
+            } else if ("metadata".equals(elementName)) {
+                metadata = readStringMap(reader);
+            } else {
+                skipElement(reader);
+            }
+        }
+        if (name == null) {
+            return null;
+        }
+        if (Name.Amazon.name().equalsIgnoreCase(name)) {
+            AmazonInfo amazonInfo = new AmazonInfo();
+            if (metadata != null) {
+                amazonInfo.setMetadata(StringInterningAmazonInfoBuilder.internMetadata(metadata));
+            }
+            return amazonInfo;
+        }
+        return new MyDataCenterInfo(Name.valueOf(name));
+    }
+
+    private static LeaseInfo readLeaseInfo(XMLStreamReader reader) throws XMLStreamException {
+        LeaseInfo.Builder builder = LeaseInfo.Builder.newBuilder();
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            String elementName = reader.getLocalName();
+            long value;
+            try {
+                value = Long.parseLong(reader.getElementText().trim());
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            switch (elementName) {
+                case "renewalIntervalInSecs":
+                    builder.setRenewalIntervalInSecs((int) value);
+                    break;
+                case "durationInSecs":
+                    builder.setDurationInSecs((int) value);
+                    break;
+                case "registrationTimestamp":
+                    builder.setRegistrationTimestamp(value);
+                    break;
+                case "lastRenewalTimestamp":
+                    builder.setRenewalTimestamp(value);
+                    break;
+                case "evictionTimestamp":
+                    builder.setEvictionTimestamp(value);
+                    break;
+                case "serviceUpTimestamp":
+                    builder.setServiceUpTimestamp(value);
+                    break;
+                default:
+            }
+        }
+        return builder.build();
+    }
+
+    private HashMap<String, String> readStringMap(XMLStreamReader reader) throws XMLStreamException {
+        HashMap<String, String> map = new HashMap<>();
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            String key = StringCache.intern(nameCoder.decodeNode(reader.getLocalName()));
+            map.put(key, reader.getElementText());
+        }
+        return map;
+    }
+
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    // ========================
+    // encoding
+    // ========================
+
+    private void writeRoot(Object object, XMLStreamWriter writer) throws XMLStreamException {
+        if (object instanceof InstanceInfo) {
+            writer.writeStartElement(ROOT_INSTANCE);
+            writeInstanceInfo((InstanceInfo) object, writer);
+        } else if (object instanceof Application) {
+            writer.writeStartElement(ROOT_APPLICATION);
+            writeApplication((Application) object, writer);
+        } else {
+            writer.writeStartElement(ROOT_APPLICATIONS);
+            writeApplications((Applications) object, writer);
+        }
+        writer.writeEndElement();
+        writer.writeEndDocument();
+    }
+
+    private void writeApplications(Applications applications, XMLStreamWriter writer) throws XMLStreamException {
+        writeElement(writer, versionKey, applications.getVersion() == null ? null : applications.getVersion().toString());
+        writeElement(writer, appsHashCodeKey, applications.getAppsHashCode());
+        for (Application application : applications.getRegisteredApplications()) {
+            writer.writeStartElement(ROOT_APPLICATION);
+            writeApplication(application, writer);
+            writer.writeEndElement();
+        }
+    }
+
+    private void writeApplication(Application application, XMLStreamWriter writer) throws XMLStreamException {
+        writeElement(writer, "name", application.getName());
+        for (InstanceInfo instanceInfo : application.getInstances()) {
+            writer.writeStartElement(ROOT_INSTANCE);
+            writeInstanceInfo(instanceInfo, writer);
+            writer.writeEndElement();
+        }
+    }
+
+    private void writeInstanceInfo(InstanceInfo info, XMLStreamWriter writer) throws XMLStreamException {
+        writeElement(writer, "hostName", info.getHostName());
+        writeElement(writer, "app", info.getAppName());
+        writeElement(writer, "ipAddr", info.getIPAddr());
+        if (!("unknown".equals(info.getSID()) || "na".equals(info.getSID()))) {
+            writeElement(writer, "sid", info.getSID());
+        }
+        if (info.getStatus() != null) {
+            writeElement(writer, "status", info.getStatus().name());
+        }
+        if (info.getOverriddenStatus() != null) {
+            writeElement(writer, "overriddenstatus", info.getOverriddenStatus().name());
+        }
+
+        writer.writeStartElement("port");
+        writer.writeAttribute(ATTR_ENABLED, String.valueOf(info.isPortEnabled(PortType.UNSECURE)));
+        writer.writeCharacters(String.valueOf(info.getPort()));
+        writer.writeEndElement();
+
+        writer.writeStartElement("securePort");
+        writer.writeAttribute(ATTR_ENABLED, String.valueOf(info.isPortEnabled(PortType.SECURE)));
+        writer.writeCharacters(String.valueOf(info.getSecurePort()));
+        writer.writeEndElement();
+
+        writeElement(writer, "countryId", String.valueOf(info.getCountryId()));
+
+        if (info.getDataCenterInfo() != null) {
+            writeDataCenterInfo(info.getDataCenterInfo(), writer);
+        }
+        if (info.getLeaseInfo() != null) {
+            writeLeaseInfo(info.getLeaseInfo(), writer);
+        }
+        if (info.getMetadata() != null) {
+            writeStringMap("metadata", info.getMetadata(), writer);
+        }
+
+        // The @Auto annotated fields, in the order of their declaration in InstanceInfo
+        writeElement(writer, "appGroupName", info.getAppGroupName());
+        writeElement(writer, "homePageUrl", info.getHomePageUrl());
+        writeElement(writer, "statusPageUrl", info.getStatusPageUrl());
+        writeElement(writer, "healthCheckUrl", info.getHealthCheckUrl());
+        writeElement(writer, "secureHealthCheckUrl", info.getSecureHealthCheckUrl());
+        writeElement(writer, "vipAddress", info.getVIPAddress());
+        writeElement(writer, "secureVipAddress", info.getSecureVipAddress());
+        if (info.isCoordinatingDiscoveryServer() != null) {
+            writeElement(writer, "isCoordinatingDiscoveryServer", info.isCoordinatingDiscoveryServer().toString());
+        }
+        writeElement(writer, "lastUpdatedTimestamp", String.valueOf(info.getLastUpdatedTimestamp()));
+        if (info.getLastDirtyTimestamp() != null) {
+            writeElement(writer, "lastDirtyTimestamp", info.getLastDirtyTimestamp().toString());
+        }
+        if (info.getActionType() != null) {
+            writeElement(writer, "actionType", info.getActionType().name());
+        }
+        writeElement(writer, "asgName", info.getASGName());
+    }
+
+    private void writeDataCenterInfo(DataCenterInfo dataCenterInfo, XMLStreamWriter writer) throws XMLStreamException {
+        boolean isAmazon = dataCenterInfo.getName() == Name.Amazon;
+        writer.writeStartElement("dataCenterInfo");
+        writer.writeAttribute(ATTR_CLASS, isAmazon ? AMAZON_INFO_CLASS : DEFAULT_DATA_CENTER_INFO_CLASS);
+        if (dataCenterInfo.getName() != null) {
+            writeElement(writer, "name", dataCenterInfo.getName().name());
+        }
+        if (isAmazon && dataCenterInfo instanceof AmazonInfo && ((AmazonInfo) dataCenterInfo).getMetadata() != null) {
+            writeStringMap("metadata", ((AmazonInfo) dataCenterInfo).getMetadata(), writer);
+        }
+        writer.writeEndElement();
+    }
+
+    private static void writeLeaseInfo(LeaseInfo leaseInfo, XMLStreamWriter writer) throws XMLStreamException {
+        writer.writeStartElement("leaseInfo");
+        writeElement(writer, "renewalIntervalInSecs", String.valueOf(leaseInfo.getRenewalIntervalInSecs()));
+        writeElement(writer, "durationInSecs", String.valueOf(leaseInfo.getDurationInSecs()));
+        writeElement(writer, "registrationTimestamp", String.valueOf(leaseInfo.getRegistrationTimestamp()));
+        writeElement(writer, "lastRenewalTimestamp", String.valueOf(leaseInfo.getRenewalTimestamp()));
+        writeElement(writer, "evictionTimestamp", String.valueOf(leaseInfo.getEvictionTimestamp()));
+        writeElement(writer, "serviceUpTimestamp", String.valueOf(leaseInfo.getServiceUpTimestamp()));
+        writer.writeEndElement();
+    }
+
+    private void writeStringMap(String elementName, Map<String, String> map, XMLStreamWriter writer) throws XMLStreamException {
+        writer.writeStartElement(elementName);
+        if (map.isEmpty()) {
+            // for backward compatibility, as with the XStream converters
+            writer.writeAttribute(ATTR_CLASS, EMPTY_MAP_CLASS);
+        }
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            writeElement(writer, nameCoder.encodeNode(entry.getKey()), entry.getValue());
+        }
+        writer.writeEndElement();
+    }
+
+    private static void writeElement(XMLStreamWriter writer, String elementName, String value) throws XMLStreamException {
+        if (value != null) {
+            writer.writeStartElement(elementName);
+            writer.writeCharacters(value);
+            writer.writeEndElement();
+        }
+    }
+}
@@ -58,7 +58,7 @@ public class XmlXStream extends XStream {
         return s_instance;
     }
 
-    private static XmlFriendlyNameCoder initializeNameCoder() {
+    static XmlFriendlyNameCoder initializeNameCoder() {
         EurekaClientConfig clientConfig = DiscoveryManager
                 .getInstance().getEurekaClientConfig();
         if (clientConfig == null) {
@@ -4,15 +4,22 @@ import javax.ws.rs.core.MediaType;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.introspect.Annotated;
 import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
@@ -25,6 +32,9 @@ import com.fasterxml.jackson.dataformat.xml.XmlMapper;
 import com.netflix.appinfo.DataCenterInfo;
 import com.netflix.appinfo.InstanceInfo;
 import com.netflix.discovery.converters.KeyFormatter;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.discovery.shared.ApplicationsStreamListener;
 
 /**
  * @author Tomasz Bak
@@ -35,16 +45,30 @@ public class EurekaJacksonCodecNG {
             Arrays.asList("instance-id", "public-ipv4", "public-hostname", "local-ipv4", "availability-zone")
     );
 
-    private final ObjectMapper jsonMapper = new ObjectMapper();
+    private final ObjectMapper jsonMapper;
 
     private final XmlMapper xmlMapper;
 
+    private final ObjectReader instanceInfoJsonReader;
+
+    private final String versionKey;
+    private final String appsHashCodeKey;
+
     public EurekaJacksonCodecNG() {
         this(KeyFormatter.defaultKeyFormatter(), false);
     }
 
     public EurekaJacksonCodecNG(final KeyFormatter keyFormatter, boolean compact) {
+        this(keyFormatter, compact, null);
+    }
+
+    /**
+     * @param jsonFactory factory backing the JSON mapper, which may be one of a binary encoding of the JSON data
+     *                    model, like Smile; null for plain JSON
+     */
+    public EurekaJacksonCodecNG(final KeyFormatter keyFormatter, boolean compact, JsonFactory jsonFactory) {
         // JSON
+        jsonMapper = new ObjectMapper(jsonFactory);
         SimpleModule jsonModule = new SimpleModule();
         jsonModule.setSerializerModifier(EurekaJacksonModifiers.createJsonSerializerModifier(keyFormatter));
         jsonModule.setDeserializerModifier(EurekaJacksonModifiers.createJsonDeserializerModifier(keyFormatter, compact));
@@ -74,6 +98,11 @@ public class EurekaJacksonCodecNG {
             addMiniConfig(jsonMapper);
             addMiniConfig(xmlMapper);
         }
+
+        // Streaming decoder; instances are nested inside the Applications document, so there is no root wrapper to unwrap
+        instanceInfoJsonReader = jsonMapper.reader(InstanceInfo.class).without(DeserializationFeature.UNWRAP_ROOT_VALUE);
+        versionKey = keyFormatter.formatKey("versions_delta");
+        appsHashCodeKey = keyFormatter.formatKey("apps_hashcode");
     }
 
     public ObjectMapper getJsonMapper() {
@@ -92,6 +121,131 @@ public class EurekaJacksonCodecNG {
         getMapper(mediaType).writeValue(entityStream, object);
     }
 
+    /**
+     * Decodes an {@link Applications} document, delivering its content to the given listener as it is parsed.
+     * JSON documents are streamed, with only one {@link InstanceInfo} being decoded at a time. XML documents
+     * are decoded in full first, and their content is replayed to the listener.
+     */
+    public void readApplications(InputStream entityStream, MediaType mediaType, ApplicationsStreamListener listener) throws IOException {
+        if (!mediaType.equals(MediaType.APPLICATION_JSON_TYPE)) {
+            replayApplications(readValue(Applications.class, entityStream, mediaType), listener);
+            return;
+        }
+        readApplications(entityStream, listener);
+    }
+
+    /**
+     * Streams an {@link Applications} document in the format of the factory the codec was created with, such as
+     * Smile, as {@link #readApplications(InputStream, MediaType, ApplicationsStreamListener)} does for JSON.
+     */
+    public void readApplications(InputStream entityStream, ApplicationsStreamListener listener) throws IOException {
+        JsonParser jp = jsonMapper.getFactory().createParser(entityStream);
+        try {
+            nextToken(jp, JsonToken.START_OBJECT);
+            nextToken(jp, JsonToken.FIELD_NAME);
+            nextToken(jp, JsonToken.START_OBJECT);
+            while (jp.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = jp.getCurrentName();
+                JsonToken token = jp.nextToken();
+                if (versionKey.equals(fieldName)) {
+                    if (token == JsonToken.VALUE_STRING) {
+                        listener.onVersionDelta(Long.valueOf(jp.getText()));
+                    } else if (token == JsonToken.VALUE_NUMBER_INT) {
+                        listener.onVersionDelta(jp.getLongValue());
+                    } else {
+                        throw new JsonParseException("Invalid versionDelta JSON subdocument structure", jp.getCurrentLocation());
+                    }
+                } else if (appsHashCodeKey.equals(fieldName)) {
+                    listener.onAppsHashCode(token == JsonToken.VALUE_NULL ? null : jp.getText());
+                } else if ("application".equals(fieldName)) {
+                    if (token == JsonToken.START_ARRAY) {
+                        while (jp.nextToken() != JsonToken.END_ARRAY) {
+                            streamApplication(jp, listener);
+                        }
+                    } else if (token != JsonToken.VALUE_NULL) {
+                        streamApplication(jp, listener);
+                    }
+                } else {
+                    jp.skipChildren();
+                }
+            }
+        } finally {
+            jp.close();
+        }
+    }
+
+    private void streamApplication(JsonParser jp, ApplicationsStreamListener listener) throws IOException {
+        if (jp.getCurrentToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException("Invalid application JSON subdocument structure", jp.getCurrentLocation());
+        }
+        String appName = null;
+        // Only used if the instances precede the application name in the document
+        List<InstanceInfo> pending = null;
+        while (jp.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = jp.getCurrentName();
+            JsonToken token = jp.nextToken();
+            if ("name".equals(fieldName)) {
+                appName = jp.getText();
+                listener.onApplication(appName);
+                if (pending != null) {
+                    for (InstanceInfo instanceInfo : pending) {
+                        listener.onInstance(appName, instanceInfo);
+                    }
+                    pending = null;
+                }
+            } else if ("instance".equals(fieldName)) {
+                if (token == JsonToken.VALUE_NULL) {
+                    continue;
+                }
+                boolean isArray = token == JsonToken.START_ARRAY;
+                if (isArray) {
+                    token = jp.nextToken();
+                }
+                while (token == JsonToken.START_OBJECT) {
+                    InstanceInfo instanceInfo = instanceInfoJsonReader.readValue(jp);
+                    if (appName != null) {
+                        listener.onInstance(appName, instanceInfo);
+                    } else {
+                        if (pending == null) {
+                            pending = new ArrayList<>();
+                        }
+                        pending.add(instanceInfo);
+                    }
+                    token = isArray ? jp.nextToken() : null;
+                }
+                if (isArray && token != JsonToken.END_ARRAY) {
+                    throw new JsonParseException("Invalid instance JSON subdocument structure", jp.getCurrentLocation());
+                }
+            } else {
+                jp.skipChildren();
+            }
+        }
+        if (appName == null) {
+            throw new JsonParseException("Application JSON subdocument with no name", jp.getCurrentLocation());
+        }
+    }
+
+    private static void nextToken(JsonParser jp, JsonToken expected) throws IOException {
+        if (jp.nextToken() != expected) {
+            throw new JsonParseException("Expected " + expected + " in Applications JSON document, got " + jp.getCurrentToken(),
+                    jp.getCurrentLocation());
+        }
+    }
+
+    private static void replayApplications(Applications applications, ApplicationsStreamListener listener) {
+        if (applications == null) {
+            return;
+        }
+        for (Application application : applications.getRegisteredApplications()) {
+            listener.onApplication(application.getName());
+            for (InstanceInfo instanceInfo : application.getInstancesAsIsFromEureka()) {
+                listener.onInstance(application.getName(), instanceInfo);
+            }
+        }
+        listener.onVersionDelta(applications.getVersion());
+        listener.onAppsHashCode(applications.getAppsHashCode());
+    }
+
     private void addMiniConfig(ObjectMapper mapper) {
         mapper.addMixInAnnotations(InstanceInfo.class, MiniInstanceInfoMixIn.class);
         bindAmazonInfoFilter(mapper);
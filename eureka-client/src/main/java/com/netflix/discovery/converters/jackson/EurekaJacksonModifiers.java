@@ -15,6 +15,7 @@ import com.netflix.discovery.converters.jackson.ApplicationsBeanSerializers.Appl
 import com.netflix.discovery.converters.jackson.ApplicationsBeanSerializers.ApplicationsXmlBeanSerializer;
 import com.netflix.discovery.converters.jackson.InstanceInfoBeanDeserializers.InstanceInfoJsonBeanDeserializer;
 import com.netflix.discovery.converters.jackson.InstanceInfoBeanDeserializers.InstanceInfoXmlBeanDeserializer;
+import com.netflix.discovery.converters.jackson.InstanceInfoBeanSerializers.InstanceInfoFragmentSerializer;
 import com.netflix.discovery.converters.jackson.InstanceInfoBeanSerializers.InstanceInfoJsonBeanSerializer;
 import com.netflix.discovery.converters.jackson.InstanceInfoBeanSerializers.InstanceInfoXmlBeanSerializer;
 import com.netflix.discovery.shared.Applications;
@@ -58,6 +59,7 @@ final class EurekaJacksonModifiers {
     }
 
     public static BeanSerializerModifier createJsonSerializerModifier(final KeyFormatter keyFormatter) {
+        final Object instanceFragmentKey = new Object();
         return new BeanSerializerModifier() {
             @Override
             public JsonSerializer<?> modifySerializer(SerializationConfig config,
@@ -66,7 +68,8 @@ final class EurekaJacksonModifiers {
                     return new ApplicationsJsonBeanSerializer((BeanSerializerBase) serializer, keyFormatter);
                 }
                 if (beanDesc.getBeanClass().isAssignableFrom(InstanceInfo.class)) {
-                    return new InstanceInfoJsonBeanSerializer((BeanSerializerBase) serializer);
+                    return new InstanceInfoFragmentSerializer(
+                            new InstanceInfoJsonBeanSerializer((BeanSerializerBase) serializer), instanceFragmentKey);
                 }
                 return serializer;
             }
@@ -0,0 +1,695 @@
+package com.netflix.discovery.converters.jackson;
+
+import javax.ws.rs.core.MediaType;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.netflix.appinfo.AmazonInfo;
+import com.netflix.appinfo.DataCenterInfo;
+import com.netflix.appinfo.DataCenterInfo.Name;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.InstanceInfo.ActionType;
+import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+import com.netflix.appinfo.InstanceInfo.PortType;
+import com.netflix.appinfo.LeaseInfo;
+import com.netflix.appinfo.MyDataCenterInfo;
+import com.netflix.discovery.converters.EncodedFragments;
+import com.netflix.discovery.converters.KeyFormatter;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.discovery.shared.ApplicationsBuilder;
+import com.netflix.discovery.shared.ApplicationsStreamListener;
+
+/**
+ * JSON codec for {@link InstanceInfo}, {@link Application} and {@link Applications}, written directly against
+ * Jackson's streaming {@link JsonParser} and {@link JsonGenerator}. Fields are dispatched with a switch on their
+ * names and the entities are created straight from the parsed values, so there is no reflection, bean
+ * introspection, or intermediate tree nodes involved.
+ * <p>
+ * The encoded documents are the same as the ones produced by {@link EurekaJacksonCodecNG}, and the decoder accepts
+ * the output of all JSON codecs, including the legacy ones with numbers and booleans encoded as strings.
+ * Other types are handled by {@link EurekaJacksonCodecNG}.
+ */
+public class EurekaJsonStreamingCodec {
+
+    private static final String ROOT_INSTANCE = "instance";
+    private static final String ROOT_APPLICATION = "application";
+    private static final String ROOT_APPLICATIONS = "applications";
+
+    private static final String DEFAULT_DATA_CENTER_INFO_CLASS = DataCenterTypeInfoResolver.MY_DATA_CENTER_INFO_TYPE_MARKER;
+    private static final String AMAZON_INFO_CLASS = AmazonInfo.class.getName();
+
+    private final JsonFactory jsonFactory;
+
+    private final String versionKey;
+    private final String appsHashCodeKey;
+
+    private final EurekaJacksonCodecNG fallbackCodec;
+
+    public EurekaJsonStreamingCodec() {
+        this(KeyFormatter.defaultKeyFormatter());
+    }
+
+    public EurekaJsonStreamingCodec(KeyFormatter keyFormatter) {
+        this(keyFormatter, new JsonFactory());
+    }
+
+    /**
+     * @param jsonFactory factory of the parsers and generators. A binary format factory, like the Smile one,
+     *                    encodes the same data model in its own format, in which case the {@link String} based
+     *                    methods are not supported.
+     */
+    public EurekaJsonStreamingCodec(KeyFormatter keyFormatter, JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+        this.versionKey = keyFormatter.formatKey("versions_delta");
+        this.appsHashCodeKey = keyFormatter.formatKey("apps_hashcode");
+        this.fallbackCodec = new EurekaJacksonCodecNG(keyFormatter, false, jsonFactory.copy());
+    }
+
+    public <T> T readValue(Class<T> type, InputStream entityStream) throws IOException {
+        if (!isRegistryType(type)) {
+            return fallbackCodec.readValue(type, entityStream, MediaType.APPLICATION_JSON_TYPE);
+        }
+        JsonParser jp = jsonFactory.createParser(entityStream);
+        try {
+            return type.cast(readRoot(type, jp));
+        } finally {
+            jp.close();
+        }
+    }
+
+    public <T> T readValue(Class<T> type, String text) throws IOException {
+        if (!isRegistryType(type)) {
+            return fallbackCodec.getJsonMapper().readValue(text, type);
+        }
+        JsonParser jp = jsonFactory.createParser(text);
+        try {
+            return type.cast(readRoot(type, jp));
+        } finally {
+            jp.close();
+        }
+    }
+
+    public <T> void writeTo(T object, OutputStream entityStream) throws IOException {
+        if (!isRegistryType(object.getClass())) {
+            fallbackCodec.writeTo(object, entityStream, MediaType.APPLICATION_JSON_TYPE);
+            return;
+        }
+        JsonGenerator jgen = jsonFactory.createGenerator(entityStream, JsonEncoding.UTF8);
+        try {
+            writeRoot(object, jgen);
+        } finally {
+            jgen.close();
+        }
+    }
+
+    public <T> String writeToString(T object) throws IOException {
+        if (!isRegistryType(object.getClass())) {
+            return fallbackCodec.getJsonMapper().writeValueAsString(object);
+        }
+        StringWriter writer = new StringWriter();
+        JsonGenerator jgen = jsonFactory.createGenerator(writer);
+        try {
+            writeRoot(object, jgen);
+        } finally {
+            jgen.close();
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Decodes an {@link Applications} document, delivering its content to the given listener as it is parsed.
+     */
+    public void readApplications(InputStream entityStream, ApplicationsStreamListener listener) throws IOException {
+        JsonParser jp = jsonFactory.createParser(entityStream);
+        try {
+            startRoot(jp, ROOT_APPLICATIONS);
+            readApplicationsBody(jp, listener);
+        } finally {
+            jp.close();
+        }
+    }
+
+    private static boolean isRegistryType(Class<?> type) {
+        return InstanceInfo.class.equals(type) || Application.class.equals(type) || Applications.class.equals(type);
+    }
+
+    // ========================
+    // decoding
+    // ========================
+
+    private Object readRoot(Class<?> type, JsonParser jp) throws IOException {
+        if (InstanceInfo.class.equals(type)) {
+            startRoot(jp, ROOT_INSTANCE);
+            return readInstanceInfo(jp);
+        }
+        if (Application.class.equals(type)) {
+            startRoot(jp, ROOT_APPLICATION);
+            return readApplication(jp);
+        }
+        startRoot(jp, ROOT_APPLICATIONS);
+        ApplicationsBuilder builder = new ApplicationsBuilder();
+        readApplicationsBody(jp, builder);
+        return builder.build();
+    }
+
+    private static void startRoot(JsonParser jp, String rootName) throws IOException {
+        if (jp.nextToken() != JsonToken.START_OBJECT || jp.nextToken() != JsonToken.FIELD_NAME) {
+            throw new JsonParseException("Expected a JSON object with a '" + rootName + "' root field", jp.getCurrentLocation());
+        }
+        if (!rootName.equals(jp.getCurrentName())) {
+            throw new JsonParseException("Root name '" + jp.getCurrentName() + "' does not match expected ('"
+                    + rootName + "')", jp.getCurrentLocation());
+        }
+        if (jp.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException("Invalid " + rootName + " JSON document structure", jp.getCurrentLocation());
+        }
+    }
+
+    private void readApplicationsBody(JsonParser jp, ApplicationsStreamListener listener) throws IOException {
+        while (jp.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = jp.getCurrentName();
+            JsonToken token = jp.nextToken();
+            if (versionKey.equals(fieldName)) {
+                if (token == JsonToken.VALUE_STRING) {
+                    listener.onVersionDelta(Long.valueOf(jp.getText()));
+                } else if (token == JsonToken.VALUE_NUMBER_INT) {
+                    listener.onVersionDelta(jp.getLongValue());
+                } else if (token != JsonToken.VALUE_NULL) {
+                    throw new JsonParseException("Invalid versionDelta JSON subdocument structure", jp.getCurrentLocation());
+                }
+            } else if (appsHashCodeKey.equals(fieldName)) {
+                listener.onAppsHashCode(token == JsonToken.VALUE_NULL ? null : jp.getText());
+            } else if (ROOT_APPLICATION.equals(fieldName)) {
+                if (token == JsonToken.START_ARRAY) {
+                    while (jp.nextToken() == JsonToken.START_OBJECT) {
+                        streamApplication(jp, listener);
+                    }
+                } else if (token == JsonToken.START_OBJECT) {
+                    streamApplication(jp, listener);
+                }
+            } else {
+                jp.skipChildren();
+            }
+        }
+    }
+
+    private void streamApplication(JsonParser jp, ApplicationsStreamListener listener) throws IOException {
+        String appName = null;
+        // Only used if the instances precede the application name in the document
+        List<InstanceInfo> pending = null;
+        while (jp.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = jp.getCurrentName();
+            JsonToken token = jp.nextToken();
+            if ("name".equals(fieldName)) {
+                appName = jp.getText();
+                listener.onApplication(appName);
+                if (pending != null) {
+                    for (InstanceInfo instanceInfo : pending) {
+                        listener.onInstance(appName, instanceInfo);
+                    }
+                    pending = null;
+                }
+            } else if (ROOT_INSTANCE.equals(fieldName)) {
+                boolean isArray = token == JsonToken.START_ARRAY;
+                if (isArray) {
+                    token = jp.nextToken();
+                }
+                while (token == JsonToken.START_OBJECT) {
+                    InstanceInfo instanceInfo = readInstanceInfo(jp);
+                    if (appName != null) {
+                        listener.onInstance(appName, instanceInfo);
+                    } else {
+                        if (pending == null) {
+                            pending = new ArrayList<>();
+                        }
+                        pending.add(instanceInfo);
+                    }
+                    token = isArray ? jp.nextToken() : null;
+                }
+            } else {
+                jp.skipChildren();
+            }
+        }
+        if (appName == null) {
+            throw new JsonParseException("Application JSON subdocument with no name", jp.getCurrentLocation());
+        }
+    }
+
+    private Application readApplication(JsonParser jp) throws IOException {
+        String appName = null;
+        List<InstanceInfo> instances = new ArrayList<>();
+        while (jp.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = jp.getCurrentName();
+            JsonToken token = jp.nextToken();
+            if ("name".equals(fieldName)) {
+                appName = jp.getText();
+            } else if (ROOT_INSTANCE.equals(fieldName)) {
+                boolean isArray = token == JsonToken.START_ARRAY;
+                if (isArray) {
+                    token = jp.nextToken();
+                }
+                while (token == JsonToken.START_OBJECT) {
+                    instances.add(readInstanceInfo(jp));
+                    token = isArray ? jp.nextToken() : null;
+                }
+            } else {
+                jp.skipChildren();
+            }
+        }
+        Application application = new Application(appName);
+        for (InstanceInfo instanceInfo : instances) {
+            application.addInstance(instanceInfo);
+        }
+        return application;
+    }
+
+    private static InstanceInfo readInstanceInfo(JsonParser jp) throws IOException {
+        String appName = null;
+        String appGroupName = null;
+        String ipAddr = null;
+        String sid = null;
+        int port = 0;
+        boolean portEnabled = false;
+        int securePort = 0;
+        boolean securePortEnabled = false;
+        String homePageUrl = null;
+        String statusPageUrl = null;
+        String healthCheckUrl = null;
+        String secureHealthCheckUrl = null;
+        String vipAddress = null;
+        String secureVipAddress = null;
+        int countryId = 0;
+        DataCenterInfo dataCenterInfo = null;
+        String hostName = null;
+        InstanceStatus status = null;
+        InstanceStatus overriddenStatus = null;
+        LeaseInfo leaseInfo = null;
+        Boolean isCoordinatingDiscoveryServer = null;
+        HashMap<String, String> metadata = null;
+        Long lastUpdatedTimestamp = null;
+        Long lastDirtyTimestamp = null;
+        ActionType actionType = null;
+        String asgName = null;
+
+        while (jp.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = jp.getCurrentName();
+            JsonToken token = jp.nextToken();
+            if (token == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (fieldName) {
+                case "hostName":
+                    hostName = jp.getText();
+                    break;
+                case "app":
+                    appName = jp.getText();
+                    break;
+                case "appGroupName":
+                    appGroupName = jp.getText();
+                    break;
+                case "ipAddr":
+                    ipAddr = jp.getText();
+                    break;
+                case "sid":
+                    sid = jp.getText();
+                    break;
+                case "status":
+                    status = InstanceStatus.toEnum(jp.getText());
+                    break;
+                case "overriddenstatus":
+                    overriddenStatus = InstanceStatus.toEnum(jp.getText());
+                    break;
+                case "port":
+                case "securePort":
+                    boolean secure = "securePort".equals(fieldName);
+                    if (token != JsonToken.START_OBJECT) {
+                        if (secure) {
+                            securePort = jp.getValueAsInt();
+                        } else {
+                            port = jp.getValueAsInt();
+                        }
+                        break;
+                    }
+                    while (jp.nextToken() == JsonToken.FIELD_NAME) {
+                        String portField = jp.getCurrentName();
+                        jp.nextToken();
+                        if ("$".equals(portField)) {
+                            if (secure) {
+                                securePort = jp.getValueAsInt();
+                            } else {
+                                port = jp.getValueAsInt();
+                            }
+                        } else if ("@enabled".equals(portField)) {
+                            if (secure) {
+                                securePortEnabled = jp.getValueAsBoolean();
+                            } else {
+                                portEnabled = jp.getValueAsBoolean();
+                            }
+                        } else {
+                            jp.skipChildren();
+                        }
+                    }
+                    break;
+                case "countryId":
+                    countryId = jp.getValueAsInt();
+                    break;
+                case "dataCenterInfo":
+                    dataCenterInfo = readDataCenterInfo(jp);
+                    break;
+                case "leaseInfo":
+                    leaseInfo = readLeaseInfo(jp);
+                    break;
+                case "metadata":
+                    metadata = readStringMap(jp);
+                    break;
+                case "homePageUrl":
+                    homePageUrl = jp.getText();
+                    break;
+                case "statusPageUrl":
+                    statusPageUrl = jp.getText();
+                    break;
+                case "healthCheckUrl":
+                    healthCheckUrl = jp.getText();
+                    break;
+                case "secureHealthCheckUrl":
+                    secureHealthCheckUrl = jp.getText();
+                    break;
+                case "vipAddress":
+                    vipAddress = jp.getText();
+                    break;
+                case "secureVipAddress":
+                    secureVipAddress = jp.getText();
+                    break;
+                case "isCoordinatingDiscoveryServer":
+                    isCoordinatingDiscoveryServer = jp.getValueAsBoolean();
+                    break;
+                case "lastUpdatedTimestamp":
+                    lastUpdatedTimestamp = jp.getValueAsLong();
+                    break;
+                case "lastDirtyTimestamp":
+                    lastDirtyTimestamp = jp.getValueAsLong();
+                    break;
+                case "actionType":
+                    actionType = ActionType.valueOf(jp.getText());
+                    break;
+                case "asgName":
+                    asgName = jp.getText();
+                    break;
+                default:
+                    jp.skipChildren();
+            }
+        }
+        return new InstanceInfo(appName, appGroupName, ipAddr, sid, port, portEnabled, securePort, securePortEnabled,
+                homePageUrl, statusPageUrl, healthCheckUrl, secureHealthCheckUrl, vipAddress, secureVipAddress,
+                countryId, dataCenterInfo, hostName, status, overriddenStatus, leaseInfo, isCoordinatingDiscoveryServer,
+                metadata, lastUpdatedTimestamp, lastDirtyTimestamp, actionType, asgName);
+    }
+
+    private static DataCenterInfo readDataCenterInfo(JsonParser jp) throws IOException {
+        String className = null;
+        String name = null;
+        HashMap<String, String> metadata = null;
+        while (jp.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = jp.getCurrentName();
+            JsonToken token = jp.nextToken();
+            if (token == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (fieldName) {
+                case "@class":
+                    className = jp.getText();
+                    break;
+                case "name":
+                    name = jp.getText();
+                    break;
+                case "metadata":
+                    metadata = readStringMap(jp);
+                    break;
+                default:
+                    jp.skipChildren();
+            }
+        }
+        boolean isAmazon = className == null ? Name.Amazon.name().equals(name) : AMAZON_INFO_CLASS.equals(className);
+        if (isAmazon) {
+            if (metadata == null) {
+                return new AmazonInfo(Name.Amazon.name(), null);
+            }
+            return new StringInterningAmazonInfoBuilder().withMetadata(metadata).build();
+        }
+        if (className != null && !DEFAULT_DATA_CENTER_INFO_CLASS.equals(className)) {
+            throw new JsonParseException("Unsupported data center info type " + className, jp.getCurrentLocation());
+        }
+        return new MyDataCenterInfo(name == null ? null : Name.valueOf(name));
+    }
+
+    private static LeaseInfo readLeaseInfo(JsonParser jp) throws IOException {
+        int renewalIntervalInSecs = 0;
+        int durationInSecs = 0;
+        long registrationTimestamp = 0;
+        Long lastRenewalTimestamp = null;
+        long lastRenewalTimestampLegacy = 0;
+        long evictionTimestamp = 0;
+        long serviceUpTimestamp = 0;
+        while (jp.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = jp.getCurrentName();
+            JsonToken token = jp.nextToken();
+            if (token == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (fieldName) {
+                case "renewalIntervalInSecs":
+                    renewalIntervalInSecs = jp.getValueAsInt();
+                    break;
+                case "durationInSecs":
+                    durationInSecs = jp.getValueAsInt();
+                    break;
+                case "registrationTimestamp":
+                    registrationTimestamp = jp.getValueAsLong();
+                    break;
+                case "lastRenewalTimestamp":
+                    lastRenewalTimestamp = jp.getValueAsLong();
+                    break;
+                case "renewalTimestamp":
+                    lastRenewalTimestampLegacy = jp.getValueAsLong();
+                    break;
+                case "evictionTimestamp":
+                    evictionTimestamp = jp.getValueAsLong();
+                    break;
+                case "serviceUpTimestamp":
+                    serviceUpTimestamp = jp.getValueAsLong();
+                    break;
+                default:
+                    jp.skipChildren();
+            }
+        }
+        return new LeaseInfo(renewalIntervalInSecs, durationInSecs, registrationTimestamp, lastRenewalTimestamp,
+                lastRenewalTimestampLegacy, evictionTimestamp, serviceUpTimestamp);
+    }
+
+    private static HashMap<String, String> readStringMap(JsonParser jp) throws IOException {
+        if (jp.getCurrentToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException("Expected a JSON object with string values", jp.getCurrentLocation());
+        }
+        HashMap<String, String> map = new HashMap<>();
+        while (jp.nextToken() == JsonToken.FIELD_NAME) {
+            String key = jp.getCurrentName();
+            JsonToken token = jp.nextToken();
+            if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+                jp.skipChildren();
+            } else {
+                map.put(key, token == JsonToken.VALUE_NULL ? null : jp.getText());
+            }
+        }
+        return map;
+    }
+
+    // ========================
+    // encoding
+    // ========================
+
+    private void writeRoot(Object object, JsonGenerator jgen) throws IOException {
+        jgen.writeStartObject();
+        if (object instanceof InstanceInfo) {
+            jgen.writeFieldName(ROOT_INSTANCE);
+            writeInstance((InstanceInfo) object, jgen);
+        } else if (object instanceof Application) {
+            jgen.writeFieldName(ROOT_APPLICATION);
+            writeApplication((Application) object, jgen);
+        } else {
+            jgen.writeFieldName(ROOT_APPLICATIONS);
+            writeApplications((Applications) object, jgen);
+        }
+        jgen.writeEndObject();
+    }
+
+    private void writeApplications(Applications applications, JsonGenerator jgen) throws IOException {
+        jgen.writeStartObject();
+        // single element lists are written unwrapped, as by EurekaJacksonCodecNG
+        List<Application> registeredApplications = applications.getRegisteredApplications();
+        jgen.writeFieldName(ROOT_APPLICATION);
+        if (registeredApplications.size() == 1) {
+            writeApplication(registeredApplications.get(0), jgen);
+        } else {
+            jgen.writeStartArray();
+            for (Application application : registeredApplications) {
+                writeApplication(application, jgen);
+            }
+            jgen.writeEndArray();
+        }
+        if (applications.getVersion() != null) {
+            jgen.writeStringField(versionKey, Long.toString(applications.getVersion()));
+        }
+        if (applications.getAppsHashCode() != null) {
+            jgen.writeStringField(appsHashCodeKey, applications.getAppsHashCode());
+        }
+        jgen.writeEndObject();
+    }
+
+    private void writeApplication(Application application, JsonGenerator jgen) throws IOException {
+        jgen.writeStartObject();
+        writeStringField(jgen, "name", application.getName());
+        List<InstanceInfo> instances = application.getInstances();
+        jgen.writeFieldName(ROOT_INSTANCE);
+        if (instances.size() == 1) {
+            writeInstance(instances.get(0), jgen);
+        } else {
+            jgen.writeStartArray();
+            for (InstanceInfo instanceInfo : instances) {
+                writeInstance(instanceInfo, jgen);
+            }
+            jgen.writeEndArray();
+        }
+        jgen.writeEndObject();
+    }
+
+    /**
+     * Writes the kept encoded form of the instance, if there is one (see {@link InstanceInfo#getEncodedFragments()}).
+     */
+    private void writeInstance(InstanceInfo info, JsonGenerator jgen) throws IOException {
+        EncodedFragments fragments = info.getEncodedFragments();
+        if (fragments == null || !EncodedFragments.canSplice(jgen)) {
+            writeInstanceInfo(info, jgen);
+            return;
+        }
+        String fragment = fragments.get(this);
+        if (fragment == null) {
+            StringWriter writer = new StringWriter();
+            JsonGenerator fragmentGenerator = jsonFactory.createGenerator(writer);
+            writeInstanceInfo(info, fragmentGenerator);
+            fragmentGenerator.close();
+            fragment = writer.toString();
+            fragments.put(this, fragment);
+        }
+        jgen.writeRawValue(fragment);
+    }
+
+    private static void writeInstanceInfo(InstanceInfo info, JsonGenerator jgen) throws IOException {
+        jgen.writeStartObject();
+        writeStringField(jgen, "hostName", info.getHostName());
+        writeStringField(jgen, "app", info.getAppName());
+        writeStringField(jgen, "ipAddr", info.getIPAddr());
+        if (info.getStatus() != null) {
+            jgen.writeStringField("status", info.getStatus().name());
+        }
+        if (info.getOverriddenStatus() != null) {
+            jgen.writeStringField("overriddenstatus", info.getOverriddenStatus().name());
+        }
+
+        jgen.writeFieldName("port");
+        jgen.writeStartObject();
+        jgen.writeNumberField("$", info.getPort());
+        jgen.writeStringField("@enabled", Boolean.toString(info.isPortEnabled(PortType.UNSECURE)));
+        jgen.writeEndObject();
+
+        jgen.writeFieldName("securePort");
+        jgen.writeStartObject();
+        jgen.writeNumberField("$", info.getSecurePort());
+        jgen.writeStringField("@enabled", Boolean.toString(info.isPortEnabled(PortType.SECURE)));
+        jgen.writeEndObject();
+
+        jgen.writeNumberField("countryId", info.getCountryId());
+        if (info.getDataCenterInfo() != null) {
+            jgen.writeFieldName("dataCenterInfo");
+            writeDataCenterInfo(info.getDataCenterInfo(), jgen);
+        }
+        if (info.getLeaseInfo() != null) {
+            jgen.writeFieldName("leaseInfo");
+            writeLeaseInfo(info.getLeaseInfo(), jgen);
+        }
+        if (info.getMetadata() != null) {
+            jgen.writeFieldName("metadata");
+            writeStringMap(info.getMetadata(), jgen);
+        }
+        writeStringField(jgen, "homePageUrl", info.getHomePageUrl());
+        writeStringField(jgen, "statusPageUrl", info.getStatusPageUrl());
+        writeStringField(jgen, "healthCheckUrl", info.getHealthCheckUrl());
+        writeStringField(jgen, "secureHealthCheckUrl", info.getSecureHealthCheckUrl());
+        writeStringField(jgen, "vipAddress", info.getVIPAddress());
+        writeStringField(jgen, "secureVipAddress", info.getSecureVipAddress());
+        if (info.isCoordinatingDiscoveryServer() != null) {
+            jgen.writeBooleanField("isCoordinatingDiscoveryServer", info.isCoordinatingDiscoveryServer());
+        }
+        jgen.writeNumberField("lastUpdatedTimestamp", info.getLastUpdatedTimestamp());
+        if (info.getLastDirtyTimestamp() != null) {
+            jgen.writeNumberField("lastDirtyTimestamp", info.getLastDirtyTimestamp());
+        }
+        if (info.getActionType() != null) {
+            jgen.writeStringField("actionType", info.getActionType().name());
+        }
+        writeStringField(jgen, "asgName", info.getASGName());
+        writeStringField(jgen, "appGroupName", info.getAppGroupName());
+        jgen.writeEndObject();
+    }
+
+    private static void writeDataCenterInfo(DataCenterInfo dataCenterInfo, JsonGenerator jgen) throws IOException {
+        jgen.writeStartObject();
+        boolean isAmazon = dataCenterInfo instanceof AmazonInfo;
+        jgen.writeStringField("@class", isAmazon ? AMAZON_INFO_CLASS : DEFAULT_DATA_CENTER_INFO_CLASS);
+        if (dataCenterInfo.getName() != null) {
+            jgen.writeStringField("name", dataCenterInfo.getName().name());
+        }
+        if (isAmazon && ((AmazonInfo) dataCenterInfo).getMetadata() != null) {
+            jgen.writeFieldName("metadata");
+            writeStringMap(((AmazonInfo) dataCenterInfo).getMetadata(), jgen);
+        }
+        jgen.writeEndObject();
+    }
+
+    private static void writeLeaseInfo(LeaseInfo leaseInfo, JsonGenerator jgen) throws IOException {
+        jgen.writeStartObject();
+        jgen.writeNumberField("renewalIntervalInSecs", leaseInfo.getRenewalIntervalInSecs());
+        jgen.writeNumberField("durationInSecs", leaseInfo.getDurationInSecs());
+        jgen.writeNumberField("registrationTimestamp", leaseInfo.getRegistrationTimestamp());
+        jgen.writeNumberField("lastRenewalTimestamp", leaseInfo.getRenewalTimestamp());
+        jgen.writeNumberField("evictionTimestamp", leaseInfo.getEvictionTimestamp());
+        jgen.writeNumberField("serviceUpTimestamp", leaseInfo.getServiceUpTimestamp());
+        jgen.writeEndObject();
+    }
+
+    private static void writeStringMap(Map<String, String> map, JsonGenerator jgen) throws IOException {
+        jgen.writeStartObject();
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            jgen.writeStringField(entry.getKey(), entry.getValue());
+        }
+        jgen.writeEndObject();
+    }
+
+    private static void writeStringField(JsonGenerator jgen, String fieldName, String value) throws IOException {
+        if (value != null) {
+            jgen.writeStringField(fieldName, value);
+        }
+    }
+}
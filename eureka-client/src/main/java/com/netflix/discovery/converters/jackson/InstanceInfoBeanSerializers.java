@@ -1,15 +1,23 @@
 package com.netflix.discovery.converters.jackson;
 
 import java.io.IOException;
+import java.io.StringWriter;
 
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
 import com.fasterxml.jackson.databind.ser.BeanSerializer;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
 import com.fasterxml.jackson.databind.ser.std.BeanSerializerBase;
 import com.fasterxml.jackson.dataformat.xml.ser.ToXmlGenerator;
 import com.fasterxml.jackson.dataformat.xml.ser.XmlBeanSerializer;
 import com.netflix.appinfo.InstanceInfo;
 import com.netflix.appinfo.InstanceInfo.PortType;
+import com.netflix.discovery.converters.EncodedFragments;
 
 /**
  * @author Tomasz Bak
@@ -71,4 +79,72 @@ final class InstanceInfoBeanSerializers {
             xgen.writeEndObject();
         }
     }
+
+    /**
+     * Writes the kept encoded form of an instance (see {@link InstanceInfo#getEncodedFragments()}) in place of
+     * encoding it with the wrapped bean serializer. The wrapped serializer cannot be extended for this, as
+     * {@link BeanSerializer#serialize(Object, JsonGenerator, SerializerProvider)} is final.
+     */
+    static class InstanceInfoFragmentSerializer extends JsonSerializer<Object>
+            implements ResolvableSerializer, ContextualSerializer {
+
+        private final JsonSerializer<Object> delegate;
+        private final Object fragmentKey;
+
+        InstanceInfoFragmentSerializer(JsonSerializer<Object> delegate, Object fragmentKey) {
+            this.delegate = delegate;
+            this.fragmentKey = fragmentKey;
+        }
+
+        @Override
+        public void resolve(SerializerProvider provider) throws JsonMappingException {
+            if (delegate instanceof ResolvableSerializer) {
+                ((ResolvableSerializer) delegate).resolve(provider);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property) throws JsonMappingException {
+            if (!(delegate instanceof ContextualSerializer)) {
+                return this;
+            }
+            JsonSerializer<?> contextual = ((ContextualSerializer) delegate).createContextual(provider, property);
+            if (contextual == delegate) {
+                return this;
+            }
+            // A differently configured serializer must not share the fragments of this one
+            return new InstanceInfoFragmentSerializer((JsonSerializer<Object>) contextual, new Object());
+        }
+
+        @Override
+        public Class<Object> handledType() {
+            return delegate.handledType();
+        }
+
+        @Override
+        public void serialize(Object value, JsonGenerator jgen, SerializerProvider provider) throws IOException {
+            EncodedFragments fragments = ((InstanceInfo) value).getEncodedFragments();
+            if (fragments == null || !EncodedFragments.canSplice(jgen)) {
+                delegate.serialize(value, jgen, provider);
+                return;
+            }
+            String fragment = fragments.get(fragmentKey);
+            if (fragment == null) {
+                StringWriter writer = new StringWriter();
+                JsonGenerator fragmentGenerator = jgen.getCodec().getFactory().createGenerator(writer);
+                delegate.serialize(value, fragmentGenerator, provider);
+                fragmentGenerator.close();
+                fragment = writer.toString();
+                fragments.put(fragmentKey, fragment);
+            }
+            jgen.writeRawValue(fragment);
+        }
+
+        @Override
+        public void serializeWithType(Object value, JsonGenerator jgen, SerializerProvider provider,
+                                      TypeSerializer typeSer) throws IOException {
+            delegate.serializeWithType(value, jgen, provider, typeSer);
+        }
+    }
 }
@@ -7,15 +7,18 @@ import java.util.Set;
 
 import com.netflix.appinfo.AmazonInfo;
 import com.netflix.appinfo.AmazonInfo.MetaDataKey;
-import com.netflix.appinfo.DataCenterInfo.Name;
+import com.netflix.discovery.util.CompactStringMap;
 import com.netflix.discovery.util.StringCache;
 
 /**
  * Amazon instance info builder that is doing key names interning, together with
  * value interning for selected keys (see {@link StringInterningAmazonInfoBuilder#VALUE_INTERN_KEYS}).
  *
- * The amount of string objects that is interned here is very limited in scope, and is done by calling
- * {@link String#intern()}, with no custom build string cache.
+ * The metadata is kept in an immutable {@link CompactStringMap}, and the interning is done with the
+ * {@link StringCache}, so the keys and the values repeated across instances (AMI, availability zone,
+ * instance type, etc.) are shared by all {@link AmazonInfo} objects. The JSON and XML decoders of
+ * {@link com.netflix.discovery.converters.EurekaJacksonCodec} and {@link com.netflix.discovery.converters.Converters}
+ * store the decoded metadata with {@link #internMetadata(Map)} as well.
  *
  * @author Tomasz Bak
  */
@@ -33,30 +36,27 @@ public class StringInterningAmazonInfoBuilder {
         VALUE_INTERN_KEYS = keys;
     }
 
-    private HashMap<String, String> metadata;
+    private Map<String, String> metadata;
 
     public StringInterningAmazonInfoBuilder withName(String name) {
         return this;
     }
 
     public StringInterningAmazonInfoBuilder withMetadata(HashMap<String, String> metadata) {
-        if (metadata.isEmpty()) {
-            this.metadata = metadata;
-            return this;
-        }
-        this.metadata = new HashMap<>();
-        for (Map.Entry<String, String> entry : metadata.entrySet()) {
-            String key = entry.getKey().intern();
-            String value = entry.getValue();
-            if (VALUE_INTERN_KEYS.contains(key)) {
-                value = StringCache.intern(value);
-            }
-            this.metadata.put(key, value);
-        }
+        this.metadata = internMetadata(metadata);
         return this;
     }
 
     public AmazonInfo build() {
-        return new AmazonInfo(Name.Amazon.name(), metadata);
+        AmazonInfo amazonInfo = new AmazonInfo();
+        amazonInfo.setMetadata(metadata);
+        return amazonInfo;
+    }
+
+    /**
+     * @return an immutable copy of the given metadata, with interned keys and shared values
+     */
+    public static Map<String, String> internMetadata(Map<String, String> metadata) {
+        return metadata == null ? null : CompactStringMap.copyOf(metadata, VALUE_INTERN_KEYS);
     }
 }
@@ -1,16 +1,24 @@
 package com.netflix.discovery.converters.wrappers;
 
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
 import com.netflix.appinfo.EurekaAccept;
 import com.netflix.discovery.converters.EurekaJacksonCodec;
+import com.netflix.discovery.converters.EurekaXmlStreamingCodec;
 import com.netflix.discovery.converters.JsonXStream;
 import com.netflix.discovery.converters.KeyFormatter;
 import com.netflix.discovery.converters.XmlXStream;
 import com.netflix.discovery.converters.jackson.EurekaJacksonCodecNG;
+import com.netflix.discovery.converters.jackson.EurekaJsonStreamingCodec;
+import com.netflix.discovery.shared.ApplicationsStreamListener;
 
 import javax.ws.rs.core.MediaType;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -84,6 +92,12 @@ public final class CodecWrappers {
             return new JacksonJson();
         } else if (getCodecName(JacksonJsonMini.class).equals(name)) {
             return new JacksonJsonMini();
+        } else if (getCodecName(JacksonJsonStreaming.class).equals(name)) {
+            return new JacksonJsonStreaming();
+        } else if (getCodecName(JacksonSmile.class).equals(name)) {
+            return new JacksonSmile();
+        } else if (getCodecName(JacksonSmileMini.class).equals(name)) {
+            return new JacksonSmileMini();
         } else if (getCodecName(LegacyJacksonJson.class).equals(name)) {
             return new LegacyJacksonJson();
         } else if (getCodecName(XStreamJson.class).equals(name)) {
@@ -94,6 +108,8 @@ public final class CodecWrappers {
             return new JacksonXmlMini();
         } else if (getCodecName(XStreamXml.class).equals(name)) {
             return new XStreamXml();
+        } else if (getCodecName(StaxXml.class).equals(name)) {
+            return new StaxXml();
         } else {
             return null;
         }
@@ -103,7 +119,7 @@ public final class CodecWrappers {
     // wrapper definitions
     // ========================
 
-    public static class JacksonJson implements EncoderDecoderWrapper {
+    public static class JacksonJson implements EncoderDecoderWrapper, StreamingDecoderWrapper {
 
         protected final EurekaJacksonCodecNG codec = new EurekaJacksonCodecNG();
 
@@ -136,9 +152,14 @@ public final class CodecWrappers {
         public <T> T decode(InputStream inputStream, Class<T> type) throws IOException {
             return codec.getJsonMapper().readValue(inputStream, type);
         }
+
+        @Override
+        public void decodeApplications(InputStream inputStream, ApplicationsStreamListener listener) throws IOException {
+            codec.readApplications(inputStream, MediaType.APPLICATION_JSON_TYPE, listener);
+        }
     }
 
-    public static class JacksonJsonMini implements EncoderDecoderWrapper {
+    public static class JacksonJsonMini implements EncoderDecoderWrapper, StreamingDecoderWrapper {
 
         protected final EurekaJacksonCodecNG codec = new EurekaJacksonCodecNG(KeyFormatter.defaultKeyFormatter(), true);
 
@@ -171,6 +192,164 @@ public final class CodecWrappers {
         public <T> T decode(InputStream inputStream, Class<T> type) throws IOException {
             return codec.getJsonMapper().readValue(inputStream, type);
         }
+
+        @Override
+        public void decodeApplications(InputStream inputStream, ApplicationsStreamListener listener) throws IOException {
+            codec.readApplications(inputStream, MediaType.APPLICATION_JSON_TYPE, listener);
+        }
+    }
+
+    /**
+     * Same wire format as {@link JacksonJson}, with the registry entities encoded and decoded by hand on top of
+     * the Jackson streaming API (see {@link EurekaJsonStreamingCodec}).
+     */
+    public static class JacksonJsonStreaming implements EncoderDecoderWrapper, StreamingDecoderWrapper {
+
+        protected final EurekaJsonStreamingCodec codec = new EurekaJsonStreamingCodec();
+
+        @Override
+        public String codecName() {
+            return CodecWrappers.getCodecName(this.getClass());
+        }
+
+        @Override
+        public boolean support(MediaType mediaType) {
+            return mediaType.equals(MediaType.APPLICATION_JSON_TYPE);
+        }
+
+        @Override
+        public <T> String encode(T object) throws IOException {
+            return codec.writeToString(object);
+        }
+
+        @Override
+        public <T> void encode(T object, OutputStream outputStream) throws IOException {
+            codec.writeTo(object, outputStream);
+        }
+
+        @Override
+        public <T> T decode(String textValue, Class<T> type) throws IOException {
+            return codec.readValue(type, textValue);
+        }
+
+        @Override
+        public <T> T decode(InputStream inputStream, Class<T> type) throws IOException {
+            return codec.readValue(type, inputStream);
+        }
+
+        @Override
+        public void decodeApplications(InputStream inputStream, ApplicationsStreamListener listener) throws IOException {
+            codec.readApplications(inputStream, listener);
+        }
+    }
+
+    /**
+     * Binary encoding of the {@link JacksonJson} data model, in the Smile format. The documents are smaller, and
+     * faster to encode and decode than JSON text. Property names and short string values, that repeat a lot in
+     * registry documents, are written once and then back referenced.
+     * <p>
+     * The {@link String} based methods carry the binary document as ISO-8859-1 characters, one character per byte.
+     */
+    public static class JacksonSmile implements EncoderDecoderWrapper, StreamingDecoderWrapper {
+
+        public static final String SMILE_CONTENT_TYPE = "application/x-jackson-smile";
+        public static final MediaType SMILE_MEDIA_TYPE = MediaType.valueOf(SMILE_CONTENT_TYPE);
+
+        protected final EurekaJsonStreamingCodec codec = new EurekaJsonStreamingCodec(
+                KeyFormatter.defaultKeyFormatter(),
+                new SmileFactory().configure(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES, true)
+        );
+
+        @Override
+        public String codecName() {
+            return CodecWrappers.getCodecName(this.getClass());
+        }
+
+        @Override
+        public boolean support(MediaType mediaType) {
+            return isSmile(mediaType);
+        }
+
+        @Override
+        public <T> String encode(T object) throws IOException {
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            codec.writeTo(object, os);
+            return new String(os.toByteArray(), StandardCharsets.ISO_8859_1);
+        }
+
+        @Override
+        public <T> void encode(T object, OutputStream outputStream) throws IOException {
+            codec.writeTo(object, outputStream);
+        }
+
+        @Override
+        public <T> T decode(String textValue, Class<T> type) throws IOException {
+            return codec.readValue(type, new ByteArrayInputStream(textValue.getBytes(StandardCharsets.ISO_8859_1)));
+        }
+
+        @Override
+        public <T> T decode(InputStream inputStream, Class<T> type) throws IOException {
+            return codec.readValue(type, inputStream);
+        }
+
+        @Override
+        public void decodeApplications(InputStream inputStream, ApplicationsStreamListener listener) throws IOException {
+            codec.readApplications(inputStream, listener);
+        }
+
+        public static boolean isSmile(MediaType mediaType) {
+            return mediaType != null
+                    && SMILE_MEDIA_TYPE.getType().equalsIgnoreCase(mediaType.getType())
+                    && SMILE_MEDIA_TYPE.getSubtype().equalsIgnoreCase(mediaType.getSubtype());
+        }
+    }
+
+    /**
+     * The compact profile of {@link JacksonJsonMini}, in the Smile format of {@link JacksonSmile}. The documents
+     * can be decoded with either of the Smile codecs.
+     */
+    public static class JacksonSmileMini implements EncoderDecoderWrapper, StreamingDecoderWrapper {
+
+        protected final EurekaJacksonCodecNG codec = new EurekaJacksonCodecNG(
+                KeyFormatter.defaultKeyFormatter(),
+                true,
+                new SmileFactory().configure(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES, true)
+        );
+
+        @Override
+        public String codecName() {
+            return CodecWrappers.getCodecName(this.getClass());
+        }
+
+        @Override
+        public boolean support(MediaType mediaType) {
+            return JacksonSmile.isSmile(mediaType);
+        }
+
+        @Override
+        public <T> String encode(T object) throws IOException {
+            return new String(codec.getJsonMapper().writeValueAsBytes(object), StandardCharsets.ISO_8859_1);
+        }
+
+        @Override
+        public <T> void encode(T object, OutputStream outputStream) throws IOException {
+            codec.getJsonMapper().writeValue(outputStream, object);
+        }
+
+        @Override
+        public <T> T decode(String textValue, Class<T> type) throws IOException {
+            return codec.getJsonMapper().readValue(textValue.getBytes(StandardCharsets.ISO_8859_1), type);
+        }
+
+        @Override
+        public <T> T decode(InputStream inputStream, Class<T> type) throws IOException {
+            return codec.getJsonMapper().readValue(inputStream, type);
+        }
+
+        @Override
+        public void decodeApplications(InputStream inputStream, ApplicationsStreamListener listener) throws IOException {
+            codec.readApplications(inputStream, listener);
+        }
     }
 
     public static class JacksonXml implements EncoderDecoderWrapper {
@@ -350,4 +529,48 @@ public final class CodecWrappers {
             return (T) codec.fromXML(inputStream, type);
         }
     }
+
+    /**
+     * Same wire format as {@link XStreamXml}, without the indentation, with the registry entities encoded and
+     * decoded by hand on top of the StAX API (see {@link EurekaXmlStreamingCodec}).
+     */
+    public static class StaxXml implements EncoderDecoderWrapper, StreamingDecoderWrapper {
+
+        protected final EurekaXmlStreamingCodec codec = new EurekaXmlStreamingCodec();
+
+        @Override
+        public String codecName() {
+            return CodecWrappers.getCodecName(this.getClass());
+        }
+
+        @Override
+        public boolean support(MediaType mediaType) {
+            return mediaType.equals(MediaType.APPLICATION_XML_TYPE);
+        }
+
+        @Override
+        public <T> String encode(T object) throws IOException {
+            return codec.writeToString(object);
+        }
+
+        @Override
+        public <T> void encode(T object, OutputStream outputStream) throws IOException {
+            codec.writeTo(object, outputStream);
+        }
+
+        @Override
+        public <T> T decode(String textValue, Class<T> type) throws IOException {
+            return codec.readValue(type, textValue);
+        }
+
+        @Override
+        public <T> T decode(InputStream inputStream, Class<T> type) throws IOException {
+            return codec.readValue(type, inputStream);
+        }
+
+        @Override
+        public void decodeApplications(InputStream inputStream, ApplicationsStreamListener listener) throws IOException {
+            codec.readApplications(inputStream, listener);
+        }
+    }
 }
@@ -0,0 +1,15 @@
+package com.netflix.discovery.converters.wrappers;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.netflix.discovery.shared.Applications;
+import com.netflix.discovery.shared.ApplicationsStreamListener;
+
+/**
+ * A decoder that can deliver an {@link Applications} document incrementally, as it is being parsed.
+ */
+public interface StreamingDecoderWrapper extends DecoderWrapper {
+
+    void decodeApplications(InputStream inputStream, ApplicationsStreamListener listener) throws IOException;
+}
@@ -33,6 +33,7 @@ import java.lang.reflect.Type;
 import java.util.concurrent.ConcurrentHashMap;
 
 import com.netflix.discovery.converters.wrappers.CodecWrappers;
+import com.netflix.discovery.converters.wrappers.CodecWrappers.JacksonSmile;
 import com.netflix.discovery.converters.wrappers.CodecWrappers.LegacyJacksonJson;
 import com.netflix.discovery.converters.wrappers.DecoderWrapper;
 import com.netflix.discovery.converters.wrappers.EncoderWrapper;
@@ -64,6 +65,7 @@ public class DiscoveryJerseyProvider implements MessageBodyWriter,
 
     private final EncoderWrapper encoder;
     private final DecoderWrapper decoder;
+    private final DecoderWrapper binaryDecoder = CodecWrappers.getDecoder(JacksonSmile.class);
 
     public DiscoveryJerseyProvider() {
         this(null, null);
@@ -116,9 +118,14 @@ public class DiscoveryJerseyProvider implements MessageBodyWriter,
                            MultivaluedMap headers, InputStream inputStream)
             throws IOException, WebApplicationException {
 
-        if (decoder.support(mediaType)) {
+        DecoderWrapper codecDecoder = decoder.support(mediaType) ? decoder : null;
+        if (codecDecoder == null && binaryDecoder.support(mediaType)) {
+            // registry fetches may be answered in the binary format whatever the configured decoder
+            codecDecoder = binaryDecoder;
+        }
+        if (codecDecoder != null) {
             try {
-                return decoder.decode(inputStream, serializableClass);
+                return codecDecoder.decode(inputStream, serializableClass);
             } catch (Error e) {
                 LOGGER.error("Unexpected error occurred during de-serialization of discovery data, doing connection "
                         + "cleanup.", e);
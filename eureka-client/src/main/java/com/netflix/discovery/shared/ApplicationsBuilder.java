@@ -0,0 +1,71 @@
+package com.netflix.discovery.shared;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.netflix.appinfo.InstanceInfo;
+
+/**
+ * An {@link ApplicationsStreamListener} that assembles an {@link Applications} object directly
+ * from the streamed instances. Each decoded {@link InstanceInfo} is attached to its final
+ * {@link Application} immediately, so no intermediate lists of applications or instances are
+ * kept while a large registry is being read.
+ * <p>
+ * This class is not thread safe; an instance is meant to be used for a single decode.
+ */
+public class ApplicationsBuilder implements ApplicationsStreamListener {
+
+    private final Map<String, Application> applications = new LinkedHashMap<String, Application>();
+
+    private Long versionDelta = Long.valueOf(-1);
+    private String appsHashCode;
+
+    @Override
+    public void onVersionDelta(Long versionDelta) {
+        this.versionDelta = versionDelta;
+    }
+
+    @Override
+    public void onAppsHashCode(String appsHashCode) {
+        this.appsHashCode = appsHashCode;
+    }
+
+    @Override
+    public void onApplication(String appName) {
+        getOrCreateApplication(appName);
+    }
+
+    @Override
+    public void onInstance(String appName, InstanceInfo instanceInfo) {
+        getOrCreateApplication(appName).addInstance(instanceInfo);
+    }
+
+    /**
+     * @return number of applications received so far
+     */
+    public int size() {
+        return applications.size();
+    }
+
+    /**
+     * Creates the {@link Applications} object out of the received content.
+     */
+    public Applications build() {
+        Applications result = new Applications();
+        for (Application application : applications.values()) {
+            result.addApplication(application);
+        }
+        result.setVersion(versionDelta);
+        result.setAppsHashCode(appsHashCode);
+        return result;
+    }
+
+    private Application getOrCreateApplication(String appName) {
+        Application application = applications.get(appName);
+        if (application == null) {
+            application = new Application(appName);
+            applications.put(appName, application);
+        }
+        return application;
+    }
+}
@@ -0,0 +1,37 @@
+package com.netflix.discovery.shared;
+
+import com.netflix.appinfo.InstanceInfo;
+
+/**
+ * Receives the content of an {@link Applications} document as it is being parsed, so that
+ * a consumer can build or update its registry without an intermediate {@link Applications}
+ * object graph being materialized first.
+ * <p>
+ * The header callbacks may be delivered before or after the instances, depending on the
+ * field order in the encoded document.
+ */
+public interface ApplicationsStreamListener {
+
+    /**
+     * Called once with the registry version ({@link Applications#getVersion()}).
+     */
+    void onVersionDelta(Long versionDelta);
+
+    /**
+     * Called once with the registry hash code ({@link Applications#getAppsHashCode()}).
+     */
+    void onAppsHashCode(String appsHashCode);
+
+    /**
+     * Called for each application entry, before any of its instances are delivered.
+     */
+    void onApplication(String appName);
+
+    /**
+     * Called for each instance, as soon as it has been decoded.
+     *
+     * @param appName name of the enclosing application entry
+     * @param instanceInfo decoded instance
+     */
+    void onInstance(String appName, InstanceInfo instanceInfo);
+}
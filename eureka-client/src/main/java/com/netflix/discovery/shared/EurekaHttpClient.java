@@ -16,14 +16,32 @@ public interface EurekaHttpClient {
 
     HttpResponse<InstanceInfo> sendHeartBeat(String appName, String id, InstanceInfo info, InstanceStatus overriddenStatus);
 
+    HttpResponse<RenewalListResponse> sendHeartBeats(RenewalList renewals);
+
     HttpResponse<Void> statusUpdate(String appName, String id, InstanceStatus newStatus, InstanceInfo info);
 
     HttpResponse<Void> deleteStatusOverride(String appName, String id, InstanceInfo info);
 
     HttpResponse<Applications> getApplications();
 
+    /**
+     * A conditional fetch of the registry.
+     *
+     * @param ifNoneMatch the entity tag of the registry last fetched, or null for an unconditional fetch
+     * @return a 304 Not Modified with no entity if the registry did not change since
+     */
+    HttpResponse<Applications> getApplications(String ifNoneMatch);
+
     HttpResponse<Applications> getDelta();
 
+    /**
+     * A conditional fetch of the delta.
+     *
+     * @param ifNoneMatch the entity tag of the delta last applied, or null for an unconditional fetch
+     * @return a 304 Not Modified with no entity if the delta did not change since
+     */
+    HttpResponse<Applications> getDelta(String ifNoneMatch);
+
     HttpResponse<InstanceInfo> getInstance(String appName, String id);
 
     void shutdown();
@@ -31,14 +49,20 @@ public interface EurekaHttpClient {
     class HttpResponse<T> {
         private final int statusCode;
         private final T entity;
+        private final String eTag;
 
         public HttpResponse(int statusCode) {
             this(statusCode, null);
         }
 
         public HttpResponse(int statusCode, T entity) {
+            this(statusCode, entity, null);
+        }
+
+        public HttpResponse(int statusCode, T entity, String eTag) {
             this.statusCode = statusCode;
             this.entity = entity;
+            this.eTag = eTag;
         }
 
         public int getStatusCode() {
@@ -49,6 +73,13 @@ public interface EurekaHttpClient {
             return entity;
         }
 
+        /**
+         * @return the entity tag of the response, to send back in a conditional fetch, or null if there is none
+         */
+        public String getETag() {
+            return eTag;
+        }
+
         public static <T> HttpResponse<T> responseWith(int status) {
             return new HttpResponse<>(status, null);
         }
@@ -56,6 +87,10 @@ public interface EurekaHttpClient {
         public static <T> HttpResponse<T> responseWith(int status, T entity) {
             return new HttpResponse<>(status, entity);
         }
+
+        public static <T> HttpResponse<T> responseWith(int status, T entity, String eTag) {
+            return new HttpResponse<>(status, entity, eTag);
+        }
     }
 
 }
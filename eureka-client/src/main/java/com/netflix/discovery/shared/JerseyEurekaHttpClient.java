@@ -1,5 +1,6 @@
 package com.netflix.discovery.shared;
 
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response.Status;
 
@@ -95,6 +96,34 @@ public abstract class JerseyEurekaHttpClient implements EurekaHttpClient {
         }
     }
 
+    @Override
+    public HttpResponse<RenewalListResponse> sendHeartBeats(RenewalList renewals) {
+        String urlPath = "renewals";
+        ClientResponse response = null;
+        try {
+            Builder resourceBuilder = getJerseyApacheClient().resource(serviceUrl).path(urlPath).getRequestBuilder();
+            addExtraHeaders(resourceBuilder);
+            response = resourceBuilder
+                    .type(MediaType.APPLICATION_JSON_TYPE)
+                    .accept(MediaType.APPLICATION_JSON_TYPE)
+                    .post(ClientResponse.class, renewals);
+
+            RenewalListResponse renewalResponse = null;
+            if (response.getStatus() == Status.OK.getStatusCode() && response.hasEntity()) {
+                renewalResponse = response.getEntity(RenewalListResponse.class);
+            }
+            return HttpResponse.responseWith(response.getStatus(), renewalResponse);
+        } finally {
+            if (logger.isDebugEnabled()) {
+                logger.debug("[heartbeats] Jersey HTTP POST {} with {} renewals; statusCode={}", urlPath,
+                        renewals.getRenewalList().size(), response == null ? "N/A" : response.getStatus());
+            }
+            if (response != null) {
+                response.close();
+            }
+        }
+    }
+
     @Override
     public HttpResponse<Void> statusUpdate(String appName, String id, InstanceStatus newStatus, InstanceInfo info) {
         String urlPath = "apps/" + appName + "/" + id + "/status";
@@ -142,18 +171,21 @@ public abstract class JerseyEurekaHttpClient implements EurekaHttpClient {
 
     @Override
     public HttpResponse<Applications> getApplications() {
+        return getApplications(null);
+    }
+
+    @Override
+    public HttpResponse<Applications> getApplications(String ifNoneMatch) {
         String urlPath = "apps/";
         ClientResponse response = null;
         try {
             Builder requestBuilder = getJerseyApacheClient().resource(serviceUrl).path(urlPath).getRequestBuilder();
             addExtraHeaders(requestBuilder);
-            response = requestBuilder.accept(MediaType.APPLICATION_JSON_TYPE).get(ClientResponse.class);
-
-            Applications applications = null;
-            if (response.getStatus() == Status.OK.getStatusCode() && response.hasEntity()) {
-                applications = response.getEntity(Applications.class);
+            if (ifNoneMatch != null) {
+                requestBuilder.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
             }
-            return HttpResponse.responseWith(response.getStatus(), applications);
+            response = requestBuilder.accept(MediaType.APPLICATION_JSON_TYPE).get(ClientResponse.class);
+            return applicationsResponse(response);
         } finally {
             if (logger.isDebugEnabled()) {
                 logger.debug("[getApplications] Jersey HTTP GET {}; statusCode=", urlPath, response == null ? "N/A" : response.getStatus());
@@ -166,18 +198,21 @@ public abstract class JerseyEurekaHttpClient implements EurekaHttpClient {
 
     @Override
     public HttpResponse<Applications> getDelta() {
+        return getDelta(null);
+    }
+
+    @Override
+    public HttpResponse<Applications> getDelta(String ifNoneMatch) {
         String urlPath = "apps/delta";
         ClientResponse response = null;
         try {
             Builder requestBuilder = getJerseyApacheClient().resource(serviceUrl).path(urlPath).getRequestBuilder();
             addExtraHeaders(requestBuilder);
-            response = requestBuilder.accept(MediaType.APPLICATION_JSON_TYPE).get(ClientResponse.class);
-
-            Applications applications = null;
-            if (response.getStatus() == Status.OK.getStatusCode() && response.hasEntity()) {
-                applications = response.getEntity(Applications.class);
+            if (ifNoneMatch != null) {
+                requestBuilder.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
             }
-            return HttpResponse.responseWith(response.getStatus(), applications);
+            response = requestBuilder.accept(MediaType.APPLICATION_JSON_TYPE).get(ClientResponse.class);
+            return applicationsResponse(response);
         } finally {
             if (logger.isDebugEnabled()) {
                 logger.debug("[getDelta] Jersey HTTP GET {}; statusCode=", urlPath, response == null ? "N/A" : response.getStatus());
@@ -212,6 +247,18 @@ public abstract class JerseyEurekaHttpClient implements EurekaHttpClient {
         }
     }
 
+    /**
+     * A 304 Not Modified has no entity, and leaves the registry the entity tag was sent for up to date.
+     */
+    private static HttpResponse<Applications> applicationsResponse(ClientResponse response) {
+        Applications applications = null;
+        if (response.getStatus() == Status.OK.getStatusCode() && response.hasEntity()) {
+            applications = response.getEntity(Applications.class);
+        }
+        return HttpResponse.responseWith(response.getStatus(), applications,
+                response.getHeaders().getFirst(HttpHeaders.ETAG));
+    }
+
     @Override
     public void shutdown() {
         getJerseyApacheClient().destroy();
@@ -0,0 +1,75 @@
+package com.netflix.discovery.shared;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+
+/**
+ * The lease renewal of one instance in a {@link RenewalList}, with the same parameters as a single heartbeat.
+ */
+public class Renewal {
+
+    private final String appName;
+    private final String id;
+    private final InstanceStatus status;
+    private final Long lastDirtyTimestamp;
+
+    @JsonCreator
+    public Renewal(@JsonProperty("appName") String appName,
+                   @JsonProperty("id") String id,
+                   @JsonProperty("status") InstanceStatus status,
+                   @JsonProperty("lastDirtyTimestamp") Long lastDirtyTimestamp) {
+        this.appName = appName;
+        this.id = id;
+        this.status = status;
+        this.lastDirtyTimestamp = lastDirtyTimestamp;
+    }
+
+    public Renewal(InstanceInfo info) {
+        this(info.getAppName(), info.getId(), info.getStatus(), info.getLastDirtyTimestamp());
+    }
+
+    public String getAppName() {
+        return appName;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public InstanceStatus getStatus() {
+        return status;
+    }
+
+    public Long getLastDirtyTimestamp() {
+        return lastDirtyTimestamp;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+
+        Renewal that = (Renewal) o;
+
+        if (appName != null ? !appName.equals(that.appName) : that.appName != null)
+            return false;
+        if (id != null ? !id.equals(that.id) : that.id != null)
+            return false;
+        if (status != that.status)
+            return false;
+        return !(lastDirtyTimestamp != null ? !lastDirtyTimestamp.equals(that.lastDirtyTimestamp) : that.lastDirtyTimestamp != null);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = appName != null ? appName.hashCode() : 0;
+        result = 31 * result + (id != null ? id.hashCode() : 0);
+        result = 31 * result + (status != null ? status.hashCode() : 0);
+        result = 31 * result + (lastDirtyTimestamp != null ? lastDirtyTimestamp.hashCode() : 0);
+        return result;
+    }
+}
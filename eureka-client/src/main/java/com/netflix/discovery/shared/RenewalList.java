@@ -0,0 +1,53 @@
+package com.netflix.discovery.shared;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonRootName;
+import com.netflix.discovery.provider.Serializer;
+
+/**
+ * The lease renewals of many instances sent in one request, such as those of the logical instances a sidecar
+ * registers for its host. The server answers with a {@link RenewalListResponse}.
+ */
+@JsonRootName("renewalList")
+@Serializer("jackson") // For backwards compatibility with DiscoveryJerseyProvider
+public class RenewalList {
+    private final List<Renewal> renewalList;
+
+    public RenewalList() {
+        this.renewalList = new ArrayList<>();
+    }
+
+    @JsonCreator
+    public RenewalList(@JsonProperty("renewalList") List<Renewal> renewalList) {
+        this.renewalList = renewalList;
+    }
+
+    public void addRenewal(Renewal renewal) {
+        renewalList.add(renewal);
+    }
+
+    public List<Renewal> getRenewalList() {
+        return renewalList;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+
+        RenewalList that = (RenewalList) o;
+
+        return !(renewalList != null ? !renewalList.equals(that.renewalList) : that.renewalList != null);
+    }
+
+    @Override
+    public int hashCode() {
+        return renewalList != null ? renewalList.hashCode() : 0;
+    }
+}
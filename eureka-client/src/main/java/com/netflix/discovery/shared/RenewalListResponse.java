@@ -0,0 +1,53 @@
+package com.netflix.discovery.shared;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonRootName;
+import com.netflix.discovery.provider.Serializer;
+
+/**
+ * The results of the renewals of a {@link RenewalList}, as the HTTP status codes a single heartbeat of each
+ * instance would have got, in the order of the renewals. A 404 means the instance must register again.
+ */
+@JsonRootName("renewalListResponse")
+@Serializer("jackson") // For backwards compatibility with DiscoveryJerseyProvider
+public class RenewalListResponse {
+    private final List<Integer> statusCodeList;
+
+    public RenewalListResponse() {
+        this.statusCodeList = new ArrayList<>();
+    }
+
+    @JsonCreator
+    public RenewalListResponse(@JsonProperty("statusCodeList") List<Integer> statusCodeList) {
+        this.statusCodeList = statusCodeList;
+    }
+
+    public void addStatusCode(int statusCode) {
+        statusCodeList.add(statusCode);
+    }
+
+    public List<Integer> getStatusCodeList() {
+        return statusCodeList;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+
+        RenewalListResponse that = (RenewalListResponse) o;
+
+        return !(statusCodeList != null ? !statusCodeList.equals(that.statusCodeList) : that.statusCodeList != null);
+    }
+
+    @Override
+    public int hashCode() {
+        return statusCodeList != null ? statusCodeList.hashCode() : 0;
+    }
+}
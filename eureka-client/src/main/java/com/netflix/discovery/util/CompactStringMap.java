@@ -0,0 +1,132 @@
+package com.netflix.discovery.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable {@link Map} of strings, that keeps its keys and values interleaved in a single array.
+ * <p>
+ * The metadata maps attached to registry entities hold a handful of entries each, and in a {@link java.util.HashMap}
+ * most of their heap goes to the table and the entry objects, not to the strings. This map has no per entry
+ * overhead, and looks up keys with a linear scan, which for maps of this size is as fast as hashing. Keys and
+ * values are passed through {@link StringCache}, so strings repeated across instances are shared.
+ */
+public final class CompactStringMap extends AbstractMap<String, String> {
+
+    private static final CompactStringMap EMPTY = new CompactStringMap(new String[0]);
+
+    private final String[] keysAndValues;
+
+    private CompactStringMap(String[] keysAndValues) {
+        this.keysAndValues = keysAndValues;
+    }
+
+    @Override
+    public int size() {
+        return keysAndValues.length / 2;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public String get(Object key) {
+        int idx = indexOf(key);
+        return idx < 0 ? null : keysAndValues[idx + 1];
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<Entry<String, String>>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new Iterator<Entry<String, String>>() {
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < keysAndValues.length;
+                    }
+
+                    @Override
+                    public Entry<String, String> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        Entry<String, String> entry = new SimpleImmutableEntry<>(keysAndValues[next], keysAndValues[next + 1]);
+                        next += 2;
+                        return entry;
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException("CompactStringMap is immutable");
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return CompactStringMap.this.size();
+            }
+        };
+    }
+
+    private int indexOf(Object key) {
+        if (key == null) {
+            return -1;
+        }
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            if (key.equals(keysAndValues[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return a compact copy of the given map, or the map itself if it is already compact. Entries with
+     *         a null key or value are dropped.
+     */
+    public static CompactStringMap copyOf(Map<String, String> map) {
+        return copyOf(map, null);
+    }
+
+    /**
+     * Like {@link #copyOf(Map)}, but only the values of the given keys are passed through {@link StringCache}.
+     * Values unique to each map, like identifiers or addresses, would only evict the shared ones from the cache.
+     *
+     * @param pooledValueKeys keys with values shared by many maps, or null to pool all values
+     */
+    public static CompactStringMap copyOf(Map<String, String> map, Set<String> pooledValueKeys) {
+        if (map instanceof CompactStringMap) {
+            return (CompactStringMap) map;
+        }
+        if (map == null || map.isEmpty()) {
+            return EMPTY;
+        }
+        String[] keysAndValues = new String[map.size() * 2];
+        int idx = 0;
+        for (Entry<String, String> entry : map.entrySet()) {
+            if (entry.getKey() != null && entry.getValue() != null && idx < keysAndValues.length) {
+                String key = StringCache.intern(entry.getKey());
+                keysAndValues[idx++] = key;
+                keysAndValues[idx++] = pooledValueKeys == null || pooledValueKeys.contains(key)
+                        ? StringCache.intern(entry.getValue())
+                        : entry.getValue();
+            }
+        }
+        if (idx < keysAndValues.length) {
+            String[] trimmed = new String[idx];
+            System.arraycopy(keysAndValues, 0, trimmed, 0, idx);
+            keysAndValues = trimmed;
+        }
+        return new CompactStringMap(keysAndValues);
+    }
+}
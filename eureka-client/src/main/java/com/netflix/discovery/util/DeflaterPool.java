@@ -0,0 +1,61 @@
+package com.netflix.discovery.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+
+/**
+ * A bounded pool of raw (no zlib header) {@link Deflater}s, and of the output buffers they are drained to, the
+ * compressing counterpart of {@link InflaterPool}.
+ * <p>
+ * A new {@link Deflater} allocates a native compression state several times larger than the one of an
+ * {@link java.util.zip.Inflater}, which is only freed when the object is finalized, unless {@link Deflater#end()}
+ * is called. {@link PooledGZIPOutputStream} reuses them for each gzip encoded payload. The compression level is
+ * set on every acquisition, so that deflaters of any level share the pool. Objects released to a full pool are
+ * discarded.
+ */
+public final class DeflaterPool {
+
+    public static final int BUFFER_SIZE = 8 * 1024;
+
+    private static final int POOL_SIZE = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+    private static final BlockingQueue<Deflater> deflaters = new ArrayBlockingQueue<>(POOL_SIZE);
+    private static final BlockingQueue<byte[]> buffers = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private DeflaterPool() {
+    }
+
+    /**
+     * @param level
+     *            the compression level, from {@link Deflater#BEST_SPEED} to {@link Deflater#BEST_COMPRESSION}, or
+     *            {@link Deflater#DEFAULT_COMPRESSION}.
+     */
+    public static Deflater acquireDeflater(int level) {
+        Deflater deflater = deflaters.poll();
+        if (deflater == null) {
+            return new Deflater(level, true);
+        }
+        // effective from the first deflate call, as the deflater was reset on release
+        deflater.setLevel(level);
+        return deflater;
+    }
+
+    public static void releaseDeflater(Deflater deflater) {
+        deflater.reset();
+        if (!deflaters.offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    public static byte[] acquireBuffer() {
+        byte[] buffer = buffers.poll();
+        return buffer == null ? new byte[BUFFER_SIZE] : buffer;
+    }
+
+    public static void releaseBuffer(byte[] buffer) {
+        if (buffer.length == BUFFER_SIZE) {
+            buffers.offer(buffer);
+        }
+    }
+}
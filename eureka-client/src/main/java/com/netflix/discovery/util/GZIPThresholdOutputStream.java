@@ -0,0 +1,117 @@
+package com.netflix.discovery.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An HTTP entity stream that gzip encodes the entity only if it is at least as large as a given threshold, small
+ * entities not being worth the CPU time, nor the gzip header and trailer.
+ * <p>
+ * The entity is held back until the threshold is reached, or the stream is finished, so the decision is taken
+ * before anything is written. The target stream is only then obtained, with {@link #openTarget(boolean, long)},
+ * at which point the implementations can still set the Content-Encoding and Content-Length headers.
+ */
+public abstract class GZIPThresholdOutputStream extends OutputStream {
+
+    private final int level;
+    private final int threshold;
+
+    private ByteArrayOutputStream pending;
+    private OutputStream out;
+    private PooledGZIPOutputStream gzipOut;
+    private boolean finished;
+
+    /**
+     * @param level
+     *            the gzip compression level.
+     * @param threshold
+     *            the size, in bytes, from which the entity is compressed; 0 to compress all entities.
+     */
+    protected GZIPThresholdOutputStream(int level, int threshold) {
+        this.level = level;
+        this.threshold = threshold;
+        this.pending = new ByteArrayOutputStream(Math.min(Math.max(threshold, 32), DeflaterPool.BUFFER_SIZE));
+    }
+
+    /**
+     * Open the stream the entity is written to.
+     *
+     * @param compressed
+     *            true if the entity will be gzip encoded.
+     * @param contentLength
+     *            the length of the entity, or -1 when it is compressed.
+     * @return the target stream, which is closed by {@link #close()}, but not by {@link #finish()}
+     */
+    protected abstract OutputStream openTarget(boolean compressed, long contentLength) throws IOException;
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (finished) {
+            throw new IOException("Stream already finished");
+        }
+        if (out != null) {
+            out.write(b, off, len);
+            return;
+        }
+        pending.write(b, off, len);
+        if (pending.size() >= threshold) {
+            open(true);
+        }
+    }
+
+    /**
+     * Writes the entity held back, uncompressed if it is below the threshold, and completes the gzip encoding
+     * otherwise.
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        if (out == null) {
+            open(pending.size() >= threshold);
+        }
+        finished = true;
+        if (gzipOut != null) {
+            gzipOut.finish();
+        }
+    }
+
+    /**
+     * @return true if the entity is being compressed, which is only known once the threshold is reached or the
+     *         stream is finished
+     */
+    public boolean isCompressed() {
+        return gzipOut != null;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        // held back entities are not flushed, as that would commit them uncompressed
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        finish();
+        out.close();
+    }
+
+    private void open(boolean compressed) throws IOException {
+        if (compressed) {
+            gzipOut = new PooledGZIPOutputStream(openTarget(true, -1), level);
+            out = gzipOut;
+        } else {
+            out = openTarget(false, pending.size());
+        }
+        pending.writeTo(out);
+        pending = null;
+    }
+}
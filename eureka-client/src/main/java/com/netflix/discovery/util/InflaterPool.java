@@ -0,0 +1,49 @@
+package com.netflix.discovery.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Inflater;
+
+/**
+ * A bounded pool of raw (no zlib header) {@link Inflater}s, and of the input buffers feeding them.
+ * <p>
+ * A new {@link Inflater} allocates a native decompression window, which is only freed when the object is
+ * finalized, unless {@link Inflater#end()} is called. Reusing them, as {@link PooledGZIPInputStream} does for
+ * each gzip encoded response, takes this cost, and the finalizer backlog, out of the registry fetch path.
+ * Objects released to a full pool are discarded.
+ */
+public final class InflaterPool {
+
+    public static final int BUFFER_SIZE = 8 * 1024;
+
+    private static final int POOL_SIZE = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+    private static final BlockingQueue<Inflater> inflaters = new ArrayBlockingQueue<>(POOL_SIZE);
+    private static final BlockingQueue<byte[]> buffers = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private InflaterPool() {
+    }
+
+    public static Inflater acquireInflater() {
+        Inflater inflater = inflaters.poll();
+        return inflater == null ? new Inflater(true) : inflater;
+    }
+
+    public static void releaseInflater(Inflater inflater) {
+        inflater.reset();
+        if (!inflaters.offer(inflater)) {
+            inflater.end();
+        }
+    }
+
+    public static byte[] acquireBuffer() {
+        byte[] buffer = buffers.poll();
+        return buffer == null ? new byte[BUFFER_SIZE] : buffer;
+    }
+
+    public static void releaseBuffer(byte[] buffer) {
+        if (buffer.length == BUFFER_SIZE) {
+            buffers.offer(buffer);
+        }
+    }
+}
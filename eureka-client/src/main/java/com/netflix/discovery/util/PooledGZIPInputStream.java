@@ -0,0 +1,211 @@
+package com.netflix.discovery.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * A replacement for {@link java.util.zip.GZIPInputStream} that takes its {@link Inflater} and input buffer from
+ * {@link InflaterPool}, and returns them as soon as the end of the compressed data is reached, or the stream is
+ * closed. The decompressed content is inflated straight into the buffers of the reader, with no intermediate
+ * copy.
+ * <p>
+ * Only the first gzip member of the stream is read, which is all an HTTP response body with the gzip content
+ * encoding holds.
+ */
+public class PooledGZIPInputStream extends InputStream {
+
+    private static final int GZIP_MAGIC = 0x8b1f;
+
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+
+    private final InputStream in;
+    private final CRC32 crc = new CRC32();
+
+    private Inflater inflater;
+    private byte[] buffer;
+    private int bufferLength;
+
+    private boolean eos;
+    private boolean closed;
+    private byte[] singleByte;
+
+    public PooledGZIPInputStream(InputStream in) throws IOException {
+        this.in = in;
+        this.inflater = InflaterPool.acquireInflater();
+        this.buffer = InflaterPool.acquireBuffer();
+        try {
+            readHeader();
+        } catch (IOException e) {
+            release();
+            throw e;
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (singleByte == null) {
+            singleByte = new byte[1];
+        }
+        return read(singleByte, 0, 1) == -1 ? -1 : singleByte[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return 0;
+        }
+        if (eos) {
+            return -1;
+        }
+        try {
+            while (true) {
+                int count = inflater.inflate(b, off, len);
+                if (count > 0) {
+                    crc.update(b, off, count);
+                    return count;
+                }
+                if (inflater.finished()) {
+                    readTrailer();
+                    eos = true;
+                    release();
+                    return -1;
+                }
+                if (inflater.needsDictionary()) {
+                    throw new ZipException("Unexpected preset dictionary in gzip stream");
+                }
+                if (inflater.needsInput()) {
+                    fill();
+                }
+            }
+        } catch (DataFormatException e) {
+            String message = e.getMessage();
+            throw new ZipException(message == null ? "Invalid gzip data format" : message);
+        }
+    }
+
+    @Override
+    public int available() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        return eos ? 0 : 1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            release();
+            in.close();
+        }
+    }
+
+    private void fill() throws IOException {
+        bufferLength = in.read(buffer, 0, buffer.length);
+        if (bufferLength == -1) {
+            throw new EOFException("Unexpected end of gzip stream");
+        }
+        inflater.setInput(buffer, 0, bufferLength);
+    }
+
+    private void release() {
+        if (inflater != null) {
+            InflaterPool.releaseInflater(inflater);
+            InflaterPool.releaseBuffer(buffer);
+            inflater = null;
+            buffer = null;
+        }
+    }
+
+    private void readHeader() throws IOException {
+        if (readUShort() != GZIP_MAGIC) {
+            throw new ZipException("Not in gzip format");
+        }
+        if (readUByte() != 8) {
+            throw new ZipException("Unsupported compression method");
+        }
+        int flags = readUByte();
+        // modification time, extra flags and operating system
+        skipBytes(6);
+        if ((flags & FEXTRA) != 0) {
+            skipBytes(readUShort());
+        }
+        if ((flags & FNAME) != 0) {
+            skipZeroTerminated();
+        }
+        if ((flags & FCOMMENT) != 0) {
+            skipZeroTerminated();
+        }
+        if ((flags & FHCRC) != 0) {
+            skipBytes(2);
+        }
+    }
+
+    private void readTrailer() throws IOException {
+        long expectedCrc = readTrailerUInt();
+        long expectedSize = readTrailerUInt();
+        if (expectedCrc != crc.getValue()) {
+            throw new ZipException("Corrupt gzip trailer: CRC mismatch");
+        }
+        if (expectedSize != (inflater.getBytesWritten() & 0xffffffffL)) {
+            throw new ZipException("Corrupt gzip trailer: size mismatch");
+        }
+    }
+
+    /**
+     * The trailer bytes may be partially left unconsumed in the input buffer by the inflater.
+     */
+    private long readTrailerUInt() throws IOException {
+        long value = 0;
+        for (int i = 0; i < 4; i++) {
+            int remaining = inflater.getRemaining();
+            int next;
+            if (remaining > 0) {
+                next = buffer[bufferLength - remaining] & 0xff;
+                inflater.setInput(buffer, bufferLength - remaining + 1, remaining - 1);
+            } else {
+                next = readUByte();
+            }
+            value |= ((long) next) << (8 * i);
+        }
+        return value;
+    }
+
+    private int readUByte() throws IOException {
+        int b = in.read();
+        if (b == -1) {
+            throw new EOFException("Unexpected end of gzip stream");
+        }
+        return b;
+    }
+
+    private int readUShort() throws IOException {
+        return readUByte() | (readUByte() << 8);
+    }
+
+    private void skipBytes(int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            readUByte();
+        }
+    }
+
+    private void skipZeroTerminated() throws IOException {
+        while (readUByte() != 0) {
+            // skip up to and including the terminating zero byte
+        }
+    }
+}
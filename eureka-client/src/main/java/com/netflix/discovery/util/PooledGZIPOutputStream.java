@@ -0,0 +1,149 @@
+package com.netflix.discovery.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * A replacement for {@link java.util.zip.GZIPOutputStream} that takes its {@link Deflater} and output buffer from
+ * {@link DeflaterPool}, at a given compression level, and returns them as soon as the stream is finished or
+ * closed. {@link #finish()} completes the gzip member without closing the underlying stream.
+ */
+public class PooledGZIPOutputStream extends OutputStream {
+
+    private static final byte[] HEADER = {
+            0x1f, (byte) 0x8b, // magic number
+            8,                 // deflate compression method
+            0,                 // flags
+            0, 0, 0, 0,        // modification time
+            0,                 // extra flags
+            0                  // operating system
+    };
+
+    private final OutputStream out;
+    private final CRC32 crc = new CRC32();
+
+    private Deflater deflater;
+    private byte[] buffer;
+
+    private boolean finished;
+    private boolean closed;
+
+    public PooledGZIPOutputStream(OutputStream out) throws IOException {
+        this(out, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    public PooledGZIPOutputStream(OutputStream out, int level) throws IOException {
+        this.out = out;
+        this.deflater = DeflaterPool.acquireDeflater(level);
+        this.buffer = DeflaterPool.acquireBuffer();
+        try {
+            out.write(HEADER);
+        } catch (IOException e) {
+            release();
+            throw e;
+        }
+    }
+
+    /**
+     * Compresses a whole payload at once.
+     */
+    public static byte[] compress(byte[] content, int level) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(Math.max(64, content.length / 4));
+        PooledGZIPOutputStream gos = new PooledGZIPOutputStream(bos, level);
+        try {
+            gos.write(content);
+        } finally {
+            gos.close();
+        }
+        return bos.toByteArray();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (closed || finished) {
+            throw new IOException(closed ? "Stream closed" : "Gzip stream already finished");
+        }
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return;
+        }
+        crc.update(b, off, len);
+        deflater.setInput(b, off, len);
+        while (!deflater.needsInput()) {
+            deflate();
+        }
+    }
+
+    /**
+     * Writes the remaining compressed data and the gzip trailer, and releases the deflater, leaving the
+     * underlying stream open.
+     */
+    public void finish() throws IOException {
+        if (finished || closed) {
+            return;
+        }
+        finished = true;
+        try {
+            deflater.finish();
+            while (!deflater.finished()) {
+                deflate();
+            }
+            byte[] trailer = new byte[8];
+            putUInt(trailer, 0, crc.getValue());
+            putUInt(trailer, 4, deflater.getBytesRead());
+            out.write(trailer);
+        } finally {
+            release();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            try {
+                finish();
+            } finally {
+                closed = true;
+                release();
+                out.close();
+            }
+        }
+    }
+
+    private void deflate() throws IOException {
+        int count = deflater.deflate(buffer, 0, buffer.length);
+        if (count > 0) {
+            out.write(buffer, 0, count);
+        }
+    }
+
+    private void release() {
+        if (deflater != null) {
+            DeflaterPool.releaseDeflater(deflater);
+            DeflaterPool.releaseBuffer(buffer);
+            deflater = null;
+            buffer = null;
+        }
+    }
+
+    private static void putUInt(byte[] bytes, int offset, long value) {
+        for (int i = 0; i < 4; i++) {
+            bytes[offset + i] = (byte) (value >> (8 * i));
+        }
+    }
+}
@@ -1,73 +1,129 @@
 package com.netflix.discovery.util;
 
-import java.lang.ref.WeakReference;
-import java.util.Map;
-import java.util.WeakHashMap;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.netflix.servo.annotations.DataSourceType;
+import com.netflix.servo.monitor.Monitors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
- * An alternative to {@link String#intern()} with no capacity constraints.
+ * An alternative to {@link String#intern()}, backed by a fixed size, lock free table.
+ * <p>
+ * Each string is mapped by its hash code to a single slot of the table. A lookup returns the string held
+ * in the slot if it is equal to the requested one, otherwise the requested string replaces it. Colliding strings
+ * thus evict each other instead of being chained, which keeps the memory used by the cache bounded, and makes
+ * a hit a single volatile read with no locking, allocation or write. Strings that are frequently decoded, like
+ * application names or VIP addresses, stay in the table and are shared by all the objects that reference them.
+ * <p>
+ * Only misses are counted, as counting hits would make every lookup of a frequently decoded string write to
+ * the same shared counter.
  *
  * @author Tomasz Bak
  */
 public class StringCache {
 
+    private static final Logger logger = LoggerFactory.getLogger(StringCache.class);
+
     public static final int LENGTH_LIMIT = 38;
 
-    private static final StringCache INSTANCE = new StringCache();
+    public static final int DEFAULT_CAPACITY = 8 * 1024;
+
+    /**
+     * Capacity of the cache used by {@link #intern(String)}, sized for the distinct names of a large registry.
+     */
+    public static final int SHARED_CAPACITY = 64 * 1024;
+
+    // miss counters are striped by table slot, and padded to avoid false sharing between the stripes
+    private static final int COUNTER_STRIPES = 16;
+    private static final int COUNTER_PADDING = 8;
+
+    private static final StringCache INSTANCE = new StringCache(LENGTH_LIMIT, SHARED_CAPACITY);
+
+    static {
+        try {
+            Monitors.registerObject("StringCache", INSTANCE);
+        } catch (Throwable e) {
+            logger.warn("Cannot register the string cache metrics", e);
+        }
+    }
 
-    private final ReadWriteLock lock = new ReentrantReadWriteLock();
-    private final Map<String, WeakReference<String>> cache = new WeakHashMap<String, WeakReference<String>>();
+    private final AtomicReferenceArray<String> table;
+    private final int mask;
     private final int lengthLimit;
+    private final AtomicLongArray misses = new AtomicLongArray(COUNTER_STRIPES * COUNTER_PADDING);
 
     public StringCache() {
         this(LENGTH_LIMIT);
     }
 
     public StringCache(int lengthLimit) {
+        this(lengthLimit, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity number of slots in the table, rounded up to a power of two
+     */
+    public StringCache(int lengthLimit, int capacity) {
         this.lengthLimit = lengthLimit;
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.table = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
     }
 
     public String cachedValueOf(final String str) {
-        if (str != null && (lengthLimit < 0 || str.length() <= lengthLimit)) {
-            // Return value from cache if available
-            try {
-                lock.readLock().lock();
-                WeakReference<String> ref = cache.get(str);
-                if (ref != null) {
-                    return ref.get();
-                }
-            } finally {
-                lock.readLock().unlock();
-            }
-
-            // Update cache with new content
-            try {
-                lock.writeLock().lock();
-                WeakReference<String> ref = cache.get(str);
-                if (ref != null) {
-                    return ref.get();
-                }
-                cache.put(str, new WeakReference<>(str));
-            } finally {
-                lock.writeLock().unlock();
-            }
+        if (str == null || (lengthLimit >= 0 && str.length() > lengthLimit)) {
             return str;
         }
+        int hash = str.hashCode();
+        int index = (hash ^ (hash >>> 16)) & mask;
+        String cached = table.get(index);
+        if (cached != null && cached.equals(str)) {
+            return cached;
+        }
+        table.lazySet(index, str);
+        misses.incrementAndGet((index & (COUNTER_STRIPES - 1)) * COUNTER_PADDING);
         return str;
     }
 
+    /**
+     * @return number of occupied slots
+     */
+    @com.netflix.servo.annotations.Monitor(name = "size", description = "Number of strings in the cache",
+            type = DataSourceType.GAUGE)
     public int size() {
-        try {
-            lock.readLock().lock();
-            return cache.size();
-        } finally {
-            lock.readLock().unlock();
+        int size = 0;
+        for (int i = 0; i < table.length(); i++) {
+            if (table.get(i) != null) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    public int capacity() {
+        return table.length();
+    }
+
+    @com.netflix.servo.annotations.Monitor(name = "misses", description = "Lookups that added a string to the cache",
+            type = DataSourceType.COUNTER)
+    public long getMissCount() {
+        long sum = 0;
+        for (int stripe = 0; stripe < COUNTER_STRIPES; stripe++) {
+            sum += misses.get(stripe * COUNTER_PADDING);
         }
+        return sum;
     }
 
     public static String intern(String original) {
         return INSTANCE.cachedValueOf(original);
     }
+
+    /**
+     * @return the cache used by {@link #intern(String)}
+     */
+    public static StringCache getInstance() {
+        return INSTANCE;
+    }
 }
@@ -0,0 +1,78 @@
+package com.netflix.appinfo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.netflix.discovery.converters.jackson.EurekaJacksonCodecNG;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.discovery.util.InstanceInfoGenerator;
+
+/**
+ * Reports the heap retained by a large decoded registry, with and without {@link InstanceInfoCompactor}
+ * applied to its instances, and the cost of compacting it.
+ */
+public class InstanceInfoCompactorLoadTester {
+
+    private final EurekaJacksonCodecNG codec = new EurekaJacksonCodecNG();
+    private final String encodedRegistry;
+    private final int instanceCount;
+
+    public InstanceInfoCompactorLoadTester(int instanceCount, int appCount) throws Exception {
+        Applications applications = InstanceInfoGenerator.newBuilder(instanceCount, appCount)
+                .withMetaData(true).withAsg(true).build().toApplications();
+        this.encodedRegistry = codec.getJsonMapper().writeValueAsString(applications);
+        this.instanceCount = instanceCount;
+    }
+
+    public void runRetainedHeapTest(int copies, boolean compact) throws Exception {
+        long before = usedHeap();
+        List<Applications> retained = new ArrayList<>();
+        for (int i = 0; i < copies; i++) {
+            Applications applications = codec.getJsonMapper().readValue(encodedRegistry, Applications.class);
+            if (compact) {
+                compact(applications);
+            }
+            retained.add(applications);
+        }
+        long after = usedHeap();
+        System.out.printf("Retained heap per registry (compact=%s): %.2f [MB], %d [bytes/instance]\n",
+                compact, (after - before) / (copies * 1024f * 1024f), (after - before) / ((long) copies * instanceCount));
+        retained.clear();
+    }
+
+    public void runCompactionTimeTest(int loops) throws Exception {
+        long total = 0;
+        for (int i = 0; i < loops; i++) {
+            Applications applications = codec.getJsonMapper().readValue(encodedRegistry, Applications.class);
+            long start = System.nanoTime();
+            compact(applications);
+            total += System.nanoTime() - start;
+        }
+        System.out.printf("Compacted a registry in %.2f [ms] on average\n", total / (loops * 1000000.0));
+    }
+
+    private static void compact(Applications applications) {
+        for (Application application : applications.getRegisteredApplications()) {
+            for (InstanceInfo instance : application.getInstancesAsIsFromEureka()) {
+                InstanceInfoCompactor.compact(instance);
+            }
+        }
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(200);
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    public static void main(String[] args) throws Exception {
+        InstanceInfoCompactorLoadTester loadTester = new InstanceInfoCompactorLoadTester(50000, 1000);
+        loadTester.runCompactionTimeTest(5);
+        loadTester.runRetainedHeapTest(3, false);
+        loadTester.runRetainedHeapTest(3, true);
+    }
+}
@@ -0,0 +1,77 @@
+package com.netflix.appinfo;
+
+import java.util.Iterator;
+
+import com.netflix.appinfo.DataCenterInfo.Name;
+import com.netflix.discovery.converters.jackson.EurekaJacksonCodecNG;
+import com.netflix.discovery.util.CompactStringMap;
+import com.netflix.discovery.util.EurekaEntityComparators;
+import com.netflix.discovery.util.InstanceInfoGenerator;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class InstanceInfoCompactorTest {
+
+    private final EurekaJacksonCodecNG codec = new EurekaJacksonCodecNG();
+
+    private final Iterator<InstanceInfo> instances =
+            InstanceInfoGenerator.newBuilder(4, 1).withMetaData(true).build().serviceIterator();
+
+    @Test
+    public void testCompactedInstanceHasSameContent() throws Exception {
+        InstanceInfo original = instances.next();
+        InstanceInfo compacted = copyOf(original);
+        String encoded = codec.getJsonMapper().writeValueAsString(compacted);
+        InstanceInfoCompactor.compact(compacted);
+
+        assertThat(compacted.getMetadata(), is(instanceOf(CompactStringMap.class)));
+        assertThat(EurekaEntityComparators.equal(original, compacted), is(true));
+        assertThat(compacted.getHealthCheckUrls(), is(equalTo(original.getHealthCheckUrls())));
+        assertThat(codec.getJsonMapper().writeValueAsString(compacted), is(equalTo(encoded)));
+    }
+
+    @Test
+    public void testInstancesShareDataCenterInfo() throws Exception {
+        InstanceInfo first = InstanceInfoCompactor.compact(
+                new InstanceInfo.Builder(copyOf(instances.next())).setDataCenterInfo(new MyDataCenterInfo(Name.MyOwn)).build());
+        InstanceInfo second = InstanceInfoCompactor.compact(
+                new InstanceInfo.Builder(copyOf(instances.next())).setDataCenterInfo(new MyDataCenterInfo(Name.MyOwn)).build());
+
+        assertThat(first.getDataCenterInfo(), is(sameInstance(second.getDataCenterInfo())));
+    }
+
+    @Test
+    public void testUrlsNotRelativeToHostAreKept() throws Exception {
+        InstanceInfo original = new InstanceInfo.Builder(copyOf(instances.next()))
+                .setHomePageUrlForDeser("http://some.other.host:9090/home")
+                .build();
+        InstanceInfo compacted = InstanceInfoCompactor.compact(copyOf(original));
+
+        assertThat(compacted.getHomePageUrl(), is(equalTo("http://some.other.host:9090/home")));
+        assertThat(EurekaEntityComparators.equal(original, compacted), is(true));
+    }
+
+    @Test
+    public void testBuilderRestoresMutableInstance() throws Exception {
+        InstanceInfo original = instances.next();
+        InstanceInfo compacted = InstanceInfoCompactor.compact(copyOf(original));
+
+        InstanceInfo modified = new InstanceInfo.Builder(compacted).add("newKey", "newValue").build();
+
+        assertThat(modified.getMetadata(), is(not(instanceOf(CompactStringMap.class))));
+        assertThat(modified.getMetadata().get("newKey"), is(equalTo("newValue")));
+        assertThat(modified.getHomePageUrl(), is(equalTo(original.getHomePageUrl())));
+        assertThat(modified.getSecureHealthCheckUrl(), is(equalTo(original.getSecureHealthCheckUrl())));
+    }
+
+    private InstanceInfo copyOf(InstanceInfo instanceInfo) throws Exception {
+        String encoded = codec.getJsonMapper().writeValueAsString(instanceInfo);
+        return codec.getJsonMapper().readValue(encoded, InstanceInfo.class);
+    }
+}
@@ -0,0 +1,63 @@
+package com.netflix.discovery;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AdaptiveRefreshIntervalTest {
+
+    @Test
+    public void testIntervalFollowsChurn() throws Exception {
+        AdaptiveRefreshInterval interval = new AdaptiveRefreshInterval(30000, 5000, 60000, 10, 0);
+
+        interval.onDelta(0);
+        assertEquals(45000, interval.getCurrentIntervalMs());
+        interval.onDelta(0);
+        assertEquals(60000, interval.getCurrentIntervalMs());
+        interval.onDelta(0);
+        assertEquals(60000, interval.getCurrentIntervalMs());
+
+        interval.onDelta(3);
+        assertEquals(30000, interval.getCurrentIntervalMs());
+
+        interval.onDelta(10);
+        assertEquals(15000, interval.getCurrentIntervalMs());
+        interval.onDelta(50);
+        assertEquals(7500, interval.getCurrentIntervalMs());
+        interval.onDelta(50);
+        assertEquals(5000, interval.getCurrentIntervalMs());
+
+        interval.onFullFetch();
+        assertEquals(30000, interval.getCurrentIntervalMs());
+        assertEquals(30000, interval.nextDelayMillis());
+    }
+
+    @Test
+    public void testRetryAfterDelaysNextFetchOnce() throws Exception {
+        AdaptiveRefreshInterval interval = new AdaptiveRefreshInterval(30000, 5000, 60000, 10, 0);
+
+        interval.onRetryAfter(90000);
+        interval.onRetryAfter(40000);
+        assertEquals(90000, interval.nextDelayMillis());
+        assertEquals(30000, interval.nextDelayMillis());
+
+        // capped to a multiple of the maximum interval
+        interval.onRetryAfter(Long.MAX_VALUE);
+        assertEquals(300000, interval.nextDelayMillis());
+
+        // a successful fetch discards the hint
+        interval.onRetryAfter(90000);
+        interval.onDelta(3);
+        assertEquals(30000, interval.nextDelayMillis());
+    }
+
+    @Test
+    public void testJitterStaysWithinBounds() throws Exception {
+        AdaptiveRefreshInterval interval = new AdaptiveRefreshInterval(30000, 5000, 60000, 10, 10);
+        for (int i = 0; i < 100; i++) {
+            long delay = interval.nextDelayMillis();
+            assertTrue(delay >= 27000 && delay <= 33000);
+        }
+    }
+}
@@ -121,6 +121,38 @@ public class DiscoveryClientRegistryTest extends AbstractDiscoveryClientTester {
         }
     }
 
+    @Test
+    public void testConditionalRegistryFetchKeepsTheLocalRegistry() throws Exception {
+        final String disableDeltaPropName = "eureka.disableDelta";
+        final String conditionalFetchPropName = "eureka.conditionalFetch.enabled";
+        final String fetchRegistryIntervalPropName = "eureka.client.refresh.interval";
+        final int fetchRegistryIntervalOrigValue =
+                (Integer) ConfigurationManager.getConfigInstance().getProperty(fetchRegistryIntervalPropName);
+
+        try {
+            shutdownDiscoveryClient();  // shutdown and restart to pick up new configs
+            ConfigurationManager.getConfigInstance().setProperty(disableDeltaPropName, "true");
+            ConfigurationManager.getConfigInstance().setProperty(conditionalFetchPropName, "true");
+            ConfigurationManager.getConfigInstance().setProperty(fetchRegistryIntervalPropName, 3);
+            mockLocalEurekaServer.setRegistryETag("W/\"registry-1\"");
+            setupDiscoveryClient();
+
+            Applications fetched = client.getApplications();
+            Assert.assertEquals(0, mockLocalEurekaServer.notModifiedCount.get());
+
+            // let the test run for just over 6 seconds to get two registry fetches
+            Thread.sleep(7 * 1000);
+
+            // the second fetch is only answered with a 304 if the entity tag was kept after the first one
+            Assert.assertEquals(2, mockLocalEurekaServer.notModifiedCount.get());
+            Assert.assertSame("The local registry was replaced on a 304.", fetched, client.getApplications());
+        } finally {
+            ConfigurationManager.getConfigInstance().setProperty(fetchRegistryIntervalPropName, fetchRegistryIntervalOrigValue);
+            ConfigurationManager.getConfigInstance().clearProperty(conditionalFetchPropName);
+            ConfigurationManager.getConfigInstance().clearProperty(disableDeltaPropName);
+        }
+    }
+
     @Test
     public void testGetInvalidVIP() throws Exception {
         List<InstanceInfo> instancesByVipAddress = client.getInstancesByVipAddress("XYZ", false);
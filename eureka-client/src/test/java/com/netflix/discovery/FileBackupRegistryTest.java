@@ -0,0 +1,61 @@
+package com.netflix.discovery;
+
+import java.io.File;
+
+import com.netflix.discovery.shared.Applications;
+import com.netflix.discovery.util.EurekaEntityComparators;
+import com.netflix.discovery.util.InstanceInfoGenerator;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class FileBackupRegistryTest {
+
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void testPersistAndLoad() throws Exception {
+        File file = new File(tempFolder.getRoot(), "cache/registry.json.gz");
+        FileBackupRegistry registry = new FileBackupRegistry(file);
+        assertThat(registry.fetchRegistry(), is(nullValue()));
+        assertThat(registry.getRegistryAgeMs(), is(equalTo(-1L)));
+
+        Applications applications = InstanceInfoGenerator.newBuilder(6, 2).withMetaData(true).build().toApplications();
+        applications.setVersion(12L);
+        applications.setAppsHashCode(applications.getReconcileHashCode());
+        registry.persist(applications);
+
+        Applications loaded = registry.fetchRegistry();
+        assertThat(EurekaEntityComparators.equal(applications, loaded), is(true));
+        assertThat(loaded.getVersion(), is(equalTo(12L)));
+        assertThat(loaded.getAppsHashCode(), is(equalTo(applications.getAppsHashCode())));
+        assertTrue(registry.getRegistryAgeMs() >= 0);
+        assertTrue(registry.getLastLoadTimeMs() >= 0);
+    }
+
+    @Test
+    public void testRemoteRegionsAreNotServed() throws Exception {
+        FileBackupRegistry registry = new FileBackupRegistry(new File(tempFolder.getRoot(), "registry.json.gz"));
+        Applications applications = InstanceInfoGenerator.newBuilder(6, 2).build().toApplications();
+        applications.setVersion(12L);
+        registry.persist(applications);
+
+        assertThat(registry.fetchRegistry(new String[]{"us-west-2"}), is(nullValue()));
+        assertThat(registry.fetchRegistry(new String[0]).getVersion(), is(equalTo(12L)));
+    }
+
+    @Test
+    public void testCorruptedFileIsIgnored() throws Exception {
+        File file = tempFolder.newFile("registry.json.gz");
+        FileBackupRegistry registry = new FileBackupRegistry(file);
+
+        assertThat(registry.fetchRegistry(), is(nullValue()));
+    }
+}
@@ -45,6 +45,7 @@ public class MockRemoteEurekaServer extends ExternalResource {
     private Server server;
     private final AtomicBoolean sentDelta = new AtomicBoolean();
     private final AtomicBoolean sentRegistry = new AtomicBoolean();
+    private volatile String registryETag;
 
     public final List<String> registrationStatuses = new ArrayList<String>();
 
@@ -53,6 +54,7 @@ public class MockRemoteEurekaServer extends ExternalResource {
     public final AtomicLong getFullRegistryCount = new AtomicLong(0);
     public final AtomicLong getSingleVipCount = new AtomicLong(0);
     public final AtomicLong getDeltaCount = new AtomicLong(0);
+    public final AtomicLong notModifiedCount = new AtomicLong(0);
 
     @Override
     protected void before() throws Throwable {
@@ -90,6 +92,7 @@ public class MockRemoteEurekaServer extends ExternalResource {
         remoteRegionApps.clear();
         remoteRegionAppsDelta.clear();
         applicationDeltaMap.clear();
+        registryETag = null;
     }
 
     public boolean isSentDelta() {
@@ -100,6 +103,13 @@ public class MockRemoteEurekaServer extends ExternalResource {
         return sentRegistry.get();
     }
 
+    /**
+     * Serve the full registry with the given entity tag, and answer the fetches conditional on it with a 304.
+     */
+    public void setRegistryETag(String registryETag) {
+        this.registryETag = registryETag;
+    }
+
     public void addRemoteRegionApps(String appName, Application app) {
         remoteRegionApps.put(appName, app);
     }
@@ -165,6 +175,13 @@ public class MockRemoteEurekaServer extends ExternalResource {
                     apps.setAppsHashCode(getDeltaAppsHashCode(includeRemote));
                     sendOkResponseWithContent((Request) request, response, apps);
                     handled = true;
+                } else if (pathInfo.equals("apps/") && registryETag != null
+                        && registryETag.equals(request.getHeader("If-None-Match"))) {
+                    getFullRegistryCount.getAndIncrement();
+                    notModifiedCount.getAndIncrement();
+                    response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                    ((Request) request).setHandled(true);
+                    handled = true;
                 } else if (pathInfo.equals("apps/")) {
                     getFullRegistryCount.getAndIncrement();
 
@@ -185,6 +202,9 @@ public class MockRemoteEurekaServer extends ExternalResource {
                         System.out.println("Eureka port: " + port + ". " + System.currentTimeMillis() + ". Not including delta apps in /apps response, as delta has not been sent.");
                     }
                     apps.setAppsHashCode(apps.getReconcileHashCode());
+                    if (registryETag != null) {
+                        response.setHeader("ETag", registryETag);
+                    }
                     sendOkResponseWithContent((Request) request, response, apps);
                     sentRegistry.set(true);
                     handled = true;
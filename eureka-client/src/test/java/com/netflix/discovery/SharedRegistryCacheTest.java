@@ -0,0 +1,66 @@
+package com.netflix.discovery;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SharedRegistryCacheTest {
+
+    private static final List<String> SERVICE_URLS = Arrays.asList("http://a/eureka/v2/", "http://b/eureka/v2/");
+
+    @Test
+    public void testClientsWithSameConfigShareCache() throws Exception {
+        EurekaClientConfig config = newConfig("us-east-1");
+
+        SharedRegistryCache first = SharedRegistryCache.forConfig(SERVICE_URLS, config);
+        // service url order does not matter
+        SharedRegistryCache second = SharedRegistryCache.forConfig(
+                Arrays.asList(SERVICE_URLS.get(1), SERVICE_URLS.get(0)), config);
+        SharedRegistryCache other = SharedRegistryCache.forConfig(SERVICE_URLS, newConfig("us-west-2"));
+
+        assertSame(first, second);
+        assertNotSame(first, other);
+    }
+
+    @Test
+    public void testOwnershipHandOver() throws Exception {
+        SharedRegistryCache cache = SharedRegistryCache.forConfig(SERVICE_URLS, newConfig("eu-west-1"));
+        DiscoveryClient owner = mock(DiscoveryClient.class);
+        DiscoveryClient follower = mock(DiscoveryClient.class);
+
+        assertTrue(cache.join(owner));
+        assertFalse(cache.join(follower));
+        assertEquals(2, cache.getClientCount());
+
+        cache.notifyRefreshed(owner);
+        verify(follower).onSharedRegistryRefreshed();
+        verify(owner, never()).onSharedRegistryRefreshed();
+
+        cache.leave(owner);
+        verify(follower).onRegistryCacheOwnershipTaken();
+        assertEquals(1, cache.getClientCount());
+
+        cache.leave(follower);
+        assertEquals(0, cache.getClientCount());
+        assertNotSame(cache, SharedRegistryCache.forConfig(SERVICE_URLS, newConfig("eu-west-1")));
+    }
+
+    private static EurekaClientConfig newConfig(String region) {
+        EurekaClientConfig config = mock(EurekaClientConfig.class);
+        when(config.getRegion()).thenReturn(region);
+        when(config.shouldFilterOnlyUpInstances()).thenReturn(true);
+        when(config.getClientDataAccept()).thenReturn("full");
+        return config;
+    }
+}
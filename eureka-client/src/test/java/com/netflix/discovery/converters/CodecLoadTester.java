@@ -9,10 +9,13 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.netflix.appinfo.InstanceInfo;
 import com.netflix.discovery.converters.jackson.EurekaJacksonCodecNG;
+import com.netflix.discovery.converters.jackson.EurekaJsonStreamingCodec;
 import com.netflix.discovery.shared.Application;
 import com.netflix.discovery.shared.Applications;
 import com.netflix.discovery.util.InstanceInfoGenerator;
@@ -30,6 +33,8 @@ public class CodecLoadTester {
     private final EurekaJacksonCodec legacyJacksonCodec = new EurekaJacksonCodec();
     private final EurekaJacksonCodecNG jacksonCodecNG = new EurekaJacksonCodecNG();
     private final EurekaJacksonCodecNG jacksonCodecNgCompact = new EurekaJacksonCodecNG(KeyFormatter.defaultKeyFormatter(), true);
+    private final EurekaJsonStreamingCodec jsonStreamingCodec = new EurekaJsonStreamingCodec();
+    private final EurekaXmlStreamingCodec xmlStreamingCodec = new EurekaXmlStreamingCodec();
 
     static class FirstHolder {
         Applications value;
@@ -240,6 +245,78 @@ public class CodecLoadTester {
         };
     }
 
+    Func0 jsonStreamingAction = new Func0<Object>() {
+        @Override
+        public int call(Object object) {
+            ByteArrayOutputStream captureStream = new ByteArrayOutputStream();
+            try {
+                jsonStreamingCodec.writeTo(object, captureStream);
+                byte[] bytes = captureStream.toByteArray();
+                InputStream source = new ByteArrayInputStream(bytes);
+                Applications readValue = (Applications) jsonStreamingCodec.readValue(object.getClass(), source);
+                secondHolder.value = readValue;
+
+                return bytes.length;
+            } catch (IOException e) {
+                throw new RuntimeException("unexpected", e);
+            }
+        }
+    };
+
+    Func0 xmlStreamingAction = new Func0<Object>() {
+        @Override
+        public int call(Object object) {
+            ByteArrayOutputStream captureStream = new ByteArrayOutputStream();
+            try {
+                xmlStreamingCodec.writeTo(object, captureStream);
+                byte[] bytes = captureStream.toByteArray();
+                InputStream source = new ByteArrayInputStream(bytes);
+                Applications readValue = (Applications) xmlStreamingCodec.readValue(object.getClass(), source);
+                secondHolder.value = readValue;
+
+                return bytes.length;
+            } catch (IOException e) {
+                throw new RuntimeException("unexpected", e);
+            }
+        }
+    };
+
+    /**
+     * Runs the same full registry encode/decode cycle with each JSON codec, after a warm-up round.
+     */
+    public void runJsonCodecComparison(int loops) {
+        Map<String, Func0> actions = new LinkedHashMap<>();
+        actions.put("LegacyJacksonJson", legacyJacksonAction);
+        actions.put("JacksonJson", createJacksonNgAction(MediaType.APPLICATION_JSON_TYPE, false));
+        actions.put("JacksonJsonMini", createJacksonNgAction(MediaType.APPLICATION_JSON_TYPE, true));
+        actions.put("JacksonJsonStreaming", jsonStreamingAction);
+        runCodecComparison(loops, actions);
+    }
+
+    /**
+     * Runs the same full registry encode/decode cycle with each XML codec, after a warm-up round.
+     */
+    public void runXmlCodecComparison(int loops) {
+        Map<String, Func0> actions = new LinkedHashMap<>();
+        actions.put("XStreamXml", xstreamXmlAction);
+        actions.put("JacksonXml", createJacksonNgAction(MediaType.APPLICATION_XML_TYPE, false));
+        actions.put("StaxXml", xmlStreamingAction);
+        runCodecComparison(loops, actions);
+    }
+
+    private void runCodecComparison(int loops, Map<String, Func0> actions) {
+        for (Func0 action : actions.values()) {
+            runApplicationsLoadTest(loops, action);
+        }
+        for (Map.Entry<String, Func0> entry : actions.entrySet()) {
+            System.gc();
+            long start = System.nanoTime();
+            runApplicationsLoadTest(loops, entry.getValue());
+            long executionTime = (System.nanoTime() - start) / 1000000;
+            System.out.printf("%s: %d[ms] for %d loops\n", entry.getKey(), executionTime, loops);
+        }
+    }
+
     public void runFullSpeed() {
         int loop = 5;
         System.gc();
@@ -259,6 +336,7 @@ public class CodecLoadTester {
 //        runApplicationsLoadTest(loop, legacyJacksonAction);
 
         runApplicationsLoadTest(loop, createJacksonNgAction(MediaType.APPLICATION_XML_TYPE, false));
+//        runApplicationsLoadTest(loop, jsonStreamingAction);
 
         long executionTime = System.currentTimeMillis() - start;
         System.out.printf("Execution time: %d[ms]\n", executionTime);
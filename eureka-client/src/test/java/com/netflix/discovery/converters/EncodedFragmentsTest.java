@@ -0,0 +1,74 @@
+package com.netflix.discovery.converters;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+import com.netflix.discovery.converters.wrappers.CodecWrappers;
+import com.netflix.discovery.converters.wrappers.EncoderDecoderWrapper;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.discovery.util.InstanceInfoGenerator;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+
+public class EncodedFragmentsTest {
+
+    private final List<EncoderDecoderWrapper> jsonCodecs = Arrays.<EncoderDecoderWrapper>asList(
+            new CodecWrappers.LegacyJacksonJson(),
+            new CodecWrappers.JacksonJson(),
+            new CodecWrappers.JacksonJsonMini(),
+            new CodecWrappers.JacksonJsonStreaming()
+    );
+
+    private final Applications applications =
+            InstanceInfoGenerator.newBuilder(6, 2).withMetaData(true).build().toApplications();
+
+    @Test
+    public void testDocumentsAssembledFromFragmentsAreUnchanged() throws Exception {
+        for (EncoderDecoderWrapper codec : jsonCodecs) {
+            setFragmentsEnabled(false);
+            String expected = codec.encode(applications);
+
+            setFragmentsEnabled(true);
+            String firstEncoding = codec.encode(applications);
+            assertThat(codec.codecName(), firstInstance().getEncodedFragments().isEmpty(), is(false));
+            assertThat(codec.codecName(), firstEncoding, is(equalTo(expected)));
+            assertThat(codec.codecName(), codec.encode(applications), is(equalTo(expected)));
+        }
+    }
+
+    @Test
+    public void testChangedInstanceIsEncodedAgain() throws Exception {
+        setFragmentsEnabled(true);
+        EncoderDecoderWrapper codec = new CodecWrappers.LegacyJacksonJson();
+        String before = codec.encode(applications);
+
+        InstanceInfo instance = firstInstance();
+        instance.setStatus(instance.getStatus() == InstanceStatus.UP ? InstanceStatus.DOWN : InstanceStatus.UP);
+        assertThat(instance.getEncodedFragments().isEmpty(), is(true));
+
+        String after = codec.encode(applications);
+        assertThat(after, is(not(equalTo(before))));
+
+        setFragmentsEnabled(false);
+        assertThat(after, is(equalTo(codec.encode(applications))));
+    }
+
+    private InstanceInfo firstInstance() {
+        return applications.getRegisteredApplications().get(0).getInstances().get(0);
+    }
+
+    private void setFragmentsEnabled(boolean enabled) {
+        for (Application application : applications.getRegisteredApplications()) {
+            for (InstanceInfo instance : application.getInstances()) {
+                instance.setEncodedFragmentsEnabled(enabled);
+            }
+        }
+    }
+}
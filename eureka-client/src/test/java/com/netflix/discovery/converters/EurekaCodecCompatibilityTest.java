@@ -5,7 +5,10 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
+import com.netflix.appinfo.AmazonInfo;
+import com.netflix.appinfo.AmazonInfo.MetaDataKey;
 import com.netflix.appinfo.DataCenterInfo;
 import com.netflix.appinfo.InstanceInfo;
 import com.netflix.appinfo.MyDataCenterInfo;
@@ -15,11 +18,14 @@ import com.netflix.discovery.converters.wrappers.EncoderDecoderWrapper;
 import com.netflix.discovery.converters.wrappers.EncoderWrapper;
 import com.netflix.discovery.shared.Application;
 import com.netflix.discovery.shared.Applications;
+import com.netflix.discovery.util.CompactStringMap;
 import com.netflix.discovery.util.EurekaEntityComparators;
 import com.netflix.discovery.util.InstanceInfoGenerator;
 import org.junit.Test;
 
+import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 /**
@@ -34,6 +40,7 @@ public class EurekaCodecCompatibilityTest {
         availableJsonWrappers.add(new CodecWrappers.XStreamJson());
         availableJsonWrappers.add(new CodecWrappers.LegacyJacksonJson());
         availableJsonWrappers.add(new CodecWrappers.JacksonJson());
+        availableJsonWrappers.add(new CodecWrappers.JacksonJsonStreaming());
 
         availableXmlWrappers.add(new CodecWrappers.JacksonXml());
         availableXmlWrappers.add(new CodecWrappers.XStreamXml());
@@ -208,6 +215,35 @@ public class EurekaCodecCompatibilityTest {
         verifyAllPairs(codingAction, Applications.class, availableXmlWrappers);
     }
 
+    @Test
+    public void testAmazonInfoMetadataIsShared() throws Exception {
+        final Application application = new Application("testApp");
+        application.addInstance(infoIterator.next());
+        application.addInstance(infoIterator.next());
+
+        Action2 codingAction = new Action2() {
+            @Override
+            public void call(EncoderWrapper encodingCodec, DecoderWrapper decodingCodec) throws IOException {
+                String encodedString = encodingCodec.encode(application);
+                Application decodedValue = decodingCodec.decode(encodedString, Application.class);
+                List<InstanceInfo> instances = decodedValue.getInstances();
+                Map<String, String> first = ((AmazonInfo) instances.get(0).getDataCenterInfo()).getMetadata();
+                Map<String, String> second = ((AmazonInfo) instances.get(1).getDataCenterInfo()).getMetadata();
+
+                assertThat(first, is(instanceOf(CompactStringMap.class)));
+                String zoneKey = MetaDataKey.availabilityZone.getName();
+                assertThat(first.get(zoneKey), is(sameInstance(second.get(zoneKey))));
+            }
+        };
+
+        for (EncoderDecoderWrapper codec : availableJsonWrappers) {
+            verifyForPair(codingAction, Application.class, codec, codec);
+        }
+        for (EncoderDecoderWrapper codec : availableXmlWrappers) {
+            verifyForPair(codingAction, Application.class, codec, codec);
+        }
+    }
+
     public void verifyAllPairs(Action2 codingAction, Class<?> typeToEncode, List<EncoderDecoderWrapper> codecHolders) throws Exception {
         for (EncoderWrapper encodingCodec : codecHolders) {
             for (DecoderWrapper decodingCodec : codecHolders) {
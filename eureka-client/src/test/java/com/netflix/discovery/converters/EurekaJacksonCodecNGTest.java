@@ -1,5 +1,7 @@
 package com.netflix.discovery.converters;
 
+import javax.ws.rs.core.MediaType;
+import java.io.ByteArrayInputStream;
 import java.util.Iterator;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -12,6 +14,7 @@ import com.netflix.appinfo.LeaseInfo;
 import com.netflix.discovery.converters.jackson.EurekaJacksonCodecNG;
 import com.netflix.discovery.shared.Application;
 import com.netflix.discovery.shared.Applications;
+import com.netflix.discovery.shared.ApplicationsBuilder;
 import com.netflix.discovery.util.EurekaEntityComparators;
 import com.netflix.discovery.util.InstanceInfoGenerator;
 import org.junit.Test;
@@ -216,4 +219,49 @@ public class EurekaJacksonCodecNGTest {
         Applications decodedValue = mapper.readValue(encodedString, Applications.class);
         assertThat(EurekaEntityComparators.equal(applications, decodedValue), is(true));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testApplicationsStreamingDecodeWithJson() throws Exception {
+        doApplicationsStreamingDecode(codec, MediaType.APPLICATION_JSON_TYPE);
+    }
+
+    @Test
+    public void testApplicationsStreamingDecodeWithXml() throws Exception {
+        doApplicationsStreamingDecode(codec, MediaType.APPLICATION_XML_TYPE);
+    }
+
+    @Test
+    public void testApplicationsStreamingDecodeWithLegacyJson() throws Exception {
+        Applications applications = infoGenerator.takeDelta(3);
+        applications.setAppsHashCode("UP_3_");
+        applications.setVersion(5L);
+
+        // Legacy codec writes the header fields before the applications, and single instances unwrapped
+        byte[] encoded = EurekaJacksonCodec.getInstance().writeToString(applications).getBytes();
+
+        ApplicationsBuilder builder = new ApplicationsBuilder();
+        codec.readApplications(new ByteArrayInputStream(encoded), MediaType.APPLICATION_JSON_TYPE, builder);
+        Applications decodedValue = builder.build();
+
+        assertThat(EurekaEntityComparators.equal(applications, decodedValue), is(true));
+        assertThat(decodedValue.getAppsHashCode(), is(equalTo("UP_3_")));
+        assertThat(decodedValue.getVersion(), is(equalTo(5L)));
+    }
+
+    private void doApplicationsStreamingDecode(EurekaJacksonCodecNG codec, MediaType mediaType) throws Exception {
+        Applications applications = infoGenerator.takeDelta(3);
+        applications.setAppsHashCode("UP_3_");
+        applications.setVersion(5L);
+
+        ObjectMapper mapper = MediaType.APPLICATION_JSON_TYPE.equals(mediaType) ? codec.getJsonMapper() : codec.getXmlMapper();
+        byte[] encoded = mapper.writeValueAsBytes(applications);
+
+        ApplicationsBuilder builder = new ApplicationsBuilder();
+        codec.readApplications(new ByteArrayInputStream(encoded), mediaType, builder);
+        Applications decodedValue = builder.build();
+
+        assertThat(EurekaEntityComparators.equal(applications, decodedValue), is(true));
+        assertThat(decodedValue.getAppsHashCode(), is(equalTo("UP_3_")));
+        assertThat(decodedValue.getVersion(), is(equalTo(5L)));
+    }
+}
@@ -0,0 +1,119 @@
+package com.netflix.discovery.converters;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Iterator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.appinfo.DataCenterInfo.Name;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.MyDataCenterInfo;
+import com.netflix.discovery.converters.jackson.EurekaJacksonCodecNG;
+import com.netflix.discovery.converters.jackson.EurekaJsonStreamingCodec;
+import com.netflix.discovery.converters.wrappers.CodecWrappers.JacksonSmile;
+import com.netflix.discovery.converters.wrappers.CodecWrappers.JacksonSmileMini;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.discovery.shared.ApplicationsBuilder;
+import com.netflix.discovery.util.EurekaEntityComparators;
+import com.netflix.discovery.util.InstanceInfoGenerator;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class EurekaJsonStreamingCodecTest {
+
+    private final InstanceInfoGenerator infoGenerator = InstanceInfoGenerator.newBuilder(6, 2).withMetaData(true).build();
+
+    private final EurekaJsonStreamingCodec codec = new EurekaJsonStreamingCodec();
+    private final EurekaJacksonCodecNG codecNG = new EurekaJacksonCodecNG();
+
+    @Test
+    public void testEncodedDocumentIsSameAsJacksonNG() throws Exception {
+        Applications applications = infoGenerator.toApplications();
+        applications.setVersion(3L);
+        applications.setAppsHashCode(applications.getReconcileHashCode());
+
+        ObjectMapper treeMapper = new ObjectMapper();
+        JsonNode streamingTree = treeMapper.readTree(codec.writeToString(applications));
+        JsonNode ngTree = treeMapper.readTree(codecNG.getJsonMapper().writeValueAsString(applications));
+
+        assertThat(streamingTree, is(equalTo(ngTree)));
+    }
+
+    @Test
+    public void testInstanceInfoWithMyDataCenterInfoEncodeDecode() throws Exception {
+        InstanceInfo instanceInfo = new InstanceInfo.Builder(infoGenerator.serviceIterator().next())
+                .setDataCenterInfo(new MyDataCenterInfo(Name.MyOwn))
+                .setMetadata(Collections.<String, String>emptyMap())
+                .build();
+
+        String encoded = codec.writeToString(instanceInfo);
+        InstanceInfo decoded = codecNG.getJsonMapper().readValue(encoded, InstanceInfo.class);
+        assertThat(EurekaEntityComparators.equal(instanceInfo, decoded), is(true));
+
+        decoded = codec.readValue(InstanceInfo.class, codecNG.getJsonMapper().writeValueAsString(instanceInfo));
+        assertThat(EurekaEntityComparators.equal(instanceInfo, decoded), is(true));
+    }
+
+    @Test
+    public void testApplicationsStreamDecode() throws Exception {
+        Applications applications = infoGenerator.toApplications();
+        applications.setVersion(7L);
+        applications.setAppsHashCode(applications.getReconcileHashCode());
+
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        codec.writeTo(applications, os);
+
+        ApplicationsBuilder builder = new ApplicationsBuilder();
+        codec.readApplications(new ByteArrayInputStream(os.toByteArray()), builder);
+        Applications decoded = builder.build();
+
+        assertThat(EurekaEntityComparators.equal(applications, decoded), is(true));
+        assertThat(decoded.getVersion(), is(equalTo(7L)));
+        assertThat(decoded.getAppsHashCode(), is(equalTo(applications.getAppsHashCode())));
+    }
+
+    @Test
+    public void testSmileEncodeDecode() throws Exception {
+        Applications applications = infoGenerator.toApplications();
+        applications.setVersion(5L);
+        applications.setAppsHashCode(applications.getReconcileHashCode());
+
+        JacksonSmile smileCodec = new JacksonSmile();
+        String encoded = smileCodec.encode(applications);
+        assertThat(EurekaEntityComparators.equal(applications, smileCodec.decode(encoded, Applications.class)), is(true));
+
+        ApplicationsBuilder builder = new ApplicationsBuilder();
+        smileCodec.decodeApplications(new ByteArrayInputStream(encoded.getBytes(StandardCharsets.ISO_8859_1)), builder);
+        Applications decoded = builder.build();
+        assertThat(EurekaEntityComparators.equal(applications, decoded), is(true));
+        assertThat(decoded.getVersion(), is(equalTo(5L)));
+    }
+
+    @Test
+    public void testSmileMiniStreamDecode() throws Exception {
+        Applications applications = infoGenerator.toApplications();
+        applications.setVersion(9L);
+        applications.setAppsHashCode(applications.getReconcileHashCode());
+
+        JacksonSmileMini smileMiniCodec = new JacksonSmileMini();
+        String encoded = smileMiniCodec.encode(applications);
+
+        ApplicationsBuilder builder = new ApplicationsBuilder();
+        smileMiniCodec.decodeApplications(new ByteArrayInputStream(encoded.getBytes(StandardCharsets.ISO_8859_1)), builder);
+        Applications decoded = builder.build();
+        assertThat(decoded.getVersion(), is(equalTo(9L)));
+        assertThat(decoded.getAppsHashCode(), is(equalTo(applications.getAppsHashCode())));
+        Iterator<InstanceInfo> instanceIt = infoGenerator.serviceIterator();
+        while (instanceIt.hasNext()) {
+            InstanceInfo instanceInfo = instanceIt.next();
+            InstanceInfo decodedInfo = decoded.getRegisteredApplications(instanceInfo.getAppName()).getByInstanceId(instanceInfo.getId());
+            assertThat(EurekaEntityComparators.equalMini(instanceInfo, decodedInfo), is(true));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.netflix.discovery.converters;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Collections;
+
+import com.netflix.appinfo.DataCenterInfo.Name;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.MyDataCenterInfo;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.discovery.shared.ApplicationsBuilder;
+import com.netflix.discovery.util.EurekaEntityComparators;
+import com.netflix.discovery.util.InstanceInfoGenerator;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class EurekaXmlStreamingCodecTest {
+
+    private final InstanceInfoGenerator infoGenerator = InstanceInfoGenerator.newBuilder(6, 2).withMetaData(true).build();
+
+    private final EurekaXmlStreamingCodec codec = new EurekaXmlStreamingCodec();
+    private final XmlXStream xStream = XmlXStream.getInstance();
+
+    @Test
+    public void testApplicationsCompatibilityWithXStream() throws Exception {
+        Applications applications = infoGenerator.toApplications();
+        applications.setVersion(3L);
+        applications.setAppsHashCode(applications.getReconcileHashCode());
+
+        Applications decoded = (Applications) xStream.fromXML(codec.writeToString(applications));
+        assertThat(EurekaEntityComparators.equal(applications, decoded), is(true));
+        assertThat(decoded.getVersion(), is(equalTo(3L)));
+        assertThat(decoded.getAppsHashCode(), is(equalTo(applications.getAppsHashCode())));
+
+        decoded = codec.readValue(Applications.class, xStream.toXML(applications));
+        assertThat(EurekaEntityComparators.equal(applications, decoded), is(true));
+        assertThat(decoded.getVersion(), is(equalTo(3L)));
+        assertThat(decoded.getAppsHashCode(), is(equalTo(applications.getAppsHashCode())));
+    }
+
+    @Test
+    public void testInstanceInfoCompatibilityWithXStream() throws Exception {
+        InstanceInfo instanceInfo = new InstanceInfo.Builder(infoGenerator.serviceIterator().next())
+                .setDataCenterInfo(new MyDataCenterInfo(Name.MyOwn))
+                .setMetadata(Collections.singletonMap("escaped_key$", "value"))
+                .build();
+
+        InstanceInfo decoded = (InstanceInfo) xStream.fromXML(codec.writeToString(instanceInfo));
+        assertThat(EurekaEntityComparators.equal(instanceInfo, decoded), is(true));
+
+        decoded = codec.readValue(InstanceInfo.class, xStream.toXML(instanceInfo));
+        assertThat(EurekaEntityComparators.equal(instanceInfo, decoded), is(true));
+        assertThat(decoded.getMetadata().get("escaped_key$"), is(equalTo("value")));
+    }
+
+    @Test
+    public void testApplicationEncodeDecode() throws Exception {
+        Application application = infoGenerator.toApplications().getRegisteredApplications().get(0);
+
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        codec.writeTo(application, os);
+        Application decoded = codec.readValue(Application.class, new ByteArrayInputStream(os.toByteArray()));
+
+        assertThat(EurekaEntityComparators.equal(application, decoded), is(true));
+    }
+
+    @Test
+    public void testApplicationsStreamDecode() throws Exception {
+        Applications applications = infoGenerator.toApplications();
+        applications.setVersion(7L);
+        applications.setAppsHashCode(applications.getReconcileHashCode());
+
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        xStream.toXML(applications, os);
+
+        ApplicationsBuilder builder = new ApplicationsBuilder();
+        codec.readApplications(new ByteArrayInputStream(os.toByteArray()), builder);
+        Applications decoded = builder.build();
+
+        assertThat(EurekaEntityComparators.equal(applications, decoded), is(true));
+        assertThat(decoded.getVersion(), is(equalTo(7L)));
+    }
+}
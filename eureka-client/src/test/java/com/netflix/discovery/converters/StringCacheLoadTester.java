@@ -0,0 +1,96 @@
+package com.netflix.discovery.converters;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.netflix.discovery.converters.jackson.EurekaJacksonCodecNG;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.discovery.util.InstanceInfoGenerator;
+import com.netflix.discovery.util.StringCache;
+
+/**
+ * Decodes a large registry concurrently, and reports the decode throughput, the heap retained by the decoded
+ * registries and the {@link StringCache} hit rate. Run it against different {@link StringCache} implementations
+ * to compare them.
+ */
+public class StringCacheLoadTester {
+
+    private final EurekaJacksonCodecNG codec = new EurekaJacksonCodecNG();
+    private final String encodedRegistry;
+    private final int threads;
+
+    public StringCacheLoadTester(int instanceCount, int appCount, int threads) throws Exception {
+        Applications applications = InstanceInfoGenerator.newBuilder(instanceCount, appCount)
+                .withMetaData(true).withAsg(true).build().toApplications();
+        this.encodedRegistry = codec.getJsonMapper().writeValueAsString(applications);
+        this.threads = threads;
+    }
+
+    public void runDecodeThroughputTest(final int decodesPerThread) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Object>> tasks = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                tasks.add(new Callable<Object>() {
+                    @Override
+                    public Object call() throws Exception {
+                        Applications last = null;
+                        for (int j = 0; j < decodesPerThread; j++) {
+                            last = codec.getJsonMapper().readValue(encodedRegistry, Applications.class);
+                        }
+                        return last;
+                    }
+                });
+            }
+            long start = System.nanoTime();
+            for (Future<Object> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+            long durationMs = (System.nanoTime() - start) / 1000000;
+            System.out.printf("Decoded %d registries on %d threads in %d[ms] (%.2f registries/s)\n",
+                    threads * decodesPerThread, threads, durationMs, threads * decodesPerThread * 1000.0 / durationMs);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public void runRetainedHeapTest(int copies) throws Exception {
+        long before = usedHeap();
+        List<Applications> retained = new ArrayList<>();
+        for (int i = 0; i < copies; i++) {
+            retained.add(codec.getJsonMapper().readValue(encodedRegistry, Applications.class));
+        }
+        long after = usedHeap();
+        System.out.printf("Retained heap per decoded registry: %.2f [MB]\n",
+                (after - before) / (copies * 1024f * 1024f));
+        retained.clear();
+    }
+
+    public void printCacheStats() {
+        StringCache cache = StringCache.getInstance();
+        System.out.printf("String cache: size=%d, capacity=%d, misses=%d\n",
+                cache.size(), cache.capacity(), cache.getMissCount());
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(200);
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    public static void main(String[] args) throws Exception {
+        StringCacheLoadTester loadTester = new StringCacheLoadTester(50000, 1000, Runtime.getRuntime().availableProcessors());
+        // warm-up
+        loadTester.runDecodeThroughputTest(2);
+        loadTester.runDecodeThroughputTest(10);
+        loadTester.runRetainedHeapTest(3);
+        loadTester.printCacheStats();
+    }
+}
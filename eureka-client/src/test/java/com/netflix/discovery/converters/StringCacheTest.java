@@ -3,6 +3,9 @@ package com.netflix.discovery.converters;
 import com.netflix.discovery.util.StringCache;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -13,24 +16,39 @@ public class StringCacheTest {
     public static final int CACHE_SIZE = 100000;
 
     @Test
-    public void testVerifyStringsAreGarbageCollectedIfNotReferenced() throws Exception {
+    public void testEvictedStringsAreNotRetained() throws Exception {
         StringCache cache = new StringCache();
-        for (int i = 0; i < CACHE_SIZE; i++) {
+        String first = cache.cachedValueOf(new String("id#0"));
+        for (int i = 1; i < CACHE_SIZE; i++) {
             cache.cachedValueOf("id#" + i);
         }
-        gc();
-        // Testing GC behavior is unpredictable, so we set here low target level
-        // The tests run on desktop show that all strings are removed actually.
-        assertTrue(cache.size() < CACHE_SIZE * 0.1);
+        assertTrue(cache.size() <= cache.capacity());
+
+        // The string was evicted by the colliding ones, so the cache holds no reference to it anymore
+        assertNotSame(first, cache.cachedValueOf(new String("id#0")));
+    }
+
+    @Test
+    public void testCachedValuesAreShared() throws Exception {
+        StringCache cache = new StringCache();
+        String first = cache.cachedValueOf(new String("myApp"));
+        String second = cache.cachedValueOf(new String("myApp"));
+
+        assertSame(first, second);
+        assertEquals(1, cache.getMissCount());
     }
 
-    public static void gc() {
-        System.gc();
-        System.runFinalization();
-        try {
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-            // IGNORE
+    @Test
+    public void testCacheSizeIsBounded() throws Exception {
+        StringCache cache = new StringCache(StringCache.LENGTH_LIMIT, 1000);
+        assertEquals(1024, cache.capacity());
+        for (int i = 0; i < CACHE_SIZE; i++) {
+            String value = "id#" + i;
+            assertEquals(value, cache.cachedValueOf(value));
         }
+        assertTrue(cache.size() <= cache.capacity());
+
+        String tooLong = new String(new char[StringCache.LENGTH_LIMIT + 1]);
+        assertSame(tooLong, cache.cachedValueOf(tooLong));
     }
 }
\ No newline at end of file
@@ -0,0 +1,93 @@
+package com.netflix.discovery.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class PooledGZIPInputStreamTest {
+
+    @Test
+    public void testDecompressesGzipStreams() throws Exception {
+        Random random = new Random(1);
+        for (int size : new int[]{0, 1, InflaterPool.BUFFER_SIZE - 1, 10 * InflaterPool.BUFFER_SIZE + 7}) {
+            byte[] content = new byte[size];
+            // repeated text mixed with random bytes, so that both the compressed and raw blocks are exercised
+            for (int i = 0; i < size; i++) {
+                content[i] = i % 3 == 0 ? (byte) random.nextInt() : (byte) ('a' + i % 26);
+            }
+            assertThat("size " + size, readFully(new PooledGZIPInputStream(new ByteArrayInputStream(gzip(content)))),
+                    is(equalTo(content)));
+        }
+    }
+
+    @Test
+    public void testSkipsOptionalHeaderFields() throws Exception {
+        byte[] content = "registry".getBytes("UTF-8");
+        byte[] compressed = gzip(content);
+
+        // add FEXTRA, FNAME and FCOMMENT fields to the header
+        ByteArrayOutputStream withFields = new ByteArrayOutputStream();
+        withFields.write(compressed, 0, 3);
+        withFields.write(4 | 8 | 16);
+        withFields.write(compressed, 4, 6);
+        withFields.write(new byte[]{2, 0, 'x', 'y'});
+        withFields.write(new byte[]{'n', 'a', 'm', 'e', 0});
+        withFields.write(new byte[]{'c', 0});
+        withFields.write(compressed, 10, compressed.length - 10);
+
+        InputStream stream = new PooledGZIPInputStream(new ByteArrayInputStream(withFields.toByteArray()));
+        assertThat(readFully(stream), is(equalTo(content)));
+    }
+
+    @Test(expected = ZipException.class)
+    public void testCorruptedTrailerIsDetected() throws Exception {
+        byte[] compressed = gzip("registry".getBytes("UTF-8"));
+        compressed[compressed.length - 8] ^= 0xff;
+        readFully(new PooledGZIPInputStream(new ByteArrayInputStream(compressed)));
+    }
+
+    @Test(expected = ZipException.class)
+    public void testNonGzipContentIsRejected() throws Exception {
+        new PooledGZIPInputStream(new ByteArrayInputStream("registry".getBytes("UTF-8")));
+    }
+
+    @Test
+    public void testClosedStreamCanBeReadByNextStream() throws Exception {
+        byte[] content = "registry".getBytes("UTF-8");
+        InputStream abandoned = new PooledGZIPInputStream(new ByteArrayInputStream(gzip(content)));
+        abandoned.read();
+        abandoned.close();
+
+        InputStream next = new PooledGZIPInputStream(new ByteArrayInputStream(gzip(content)));
+        assertThat(readFully(next), is(equalTo(content)));
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        GZIPOutputStream gos = new GZIPOutputStream(bos);
+        gos.write(content);
+        gos.close();
+        return bos.toByteArray();
+    }
+
+    private static byte[] readFully(InputStream stream) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        byte[] chunk = new byte[1000];
+        int count;
+        while ((count = stream.read(chunk)) != -1) {
+            bos.write(chunk, 0, count);
+        }
+        stream.close();
+        return bos.toByteArray();
+    }
+}
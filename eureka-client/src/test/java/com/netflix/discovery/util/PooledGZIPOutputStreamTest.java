@@ -0,0 +1,105 @@
+package com.netflix.discovery.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class PooledGZIPOutputStreamTest {
+
+    @Test
+    public void testCompressesToGzipStreams() throws Exception {
+        Random random = new Random(1);
+        // the deflaters are reused from one level to the next
+        for (int level : new int[]{Deflater.BEST_SPEED, Deflater.DEFAULT_COMPRESSION, Deflater.BEST_COMPRESSION}) {
+            for (int size : new int[]{0, 1, DeflaterPool.BUFFER_SIZE - 1, 10 * DeflaterPool.BUFFER_SIZE + 7}) {
+                byte[] content = new byte[size];
+                for (int i = 0; i < size; i++) {
+                    content[i] = i % 3 == 0 ? (byte) random.nextInt() : (byte) ('a' + i % 26);
+                }
+                byte[] compressed = PooledGZIPOutputStream.compress(content, level);
+                assertThat("level " + level + ", size " + size,
+                        readFully(new GZIPInputStream(new ByteArrayInputStream(compressed))), is(equalTo(content)));
+                assertThat("level " + level + ", size " + size,
+                        readFully(new PooledGZIPInputStream(new ByteArrayInputStream(compressed))), is(equalTo(content)));
+            }
+        }
+    }
+
+    @Test
+    public void testFinishLeavesUnderlyingStreamOpen() throws Exception {
+        byte[] content = "registry".getBytes("UTF-8");
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        PooledGZIPOutputStream gos = new PooledGZIPOutputStream(bos);
+        gos.write(content);
+        gos.finish();
+        int compressedLength = bos.size();
+        bos.write("trailing".getBytes("UTF-8"));
+
+        // only the first gzip member is read
+        InputStream in = new PooledGZIPInputStream(new ByteArrayInputStream(bos.toByteArray(), 0, compressedLength));
+        assertThat(readFully(in), is(equalTo(content)));
+    }
+
+    @Test
+    public void testThresholdStreamSendsSmallEntitiesUncompressed() throws Exception {
+        byte[] small = "registry".getBytes("UTF-8");
+        final ByteArrayOutputStream target = new ByteArrayOutputStream();
+        final long[] contentLength = new long[1];
+        GZIPThresholdOutputStream out = new GZIPThresholdOutputStream(Deflater.BEST_SPEED, small.length + 1) {
+            @Override
+            protected OutputStream openTarget(boolean compressed, long length) {
+                contentLength[0] = length;
+                return target;
+            }
+        };
+        out.write(small);
+        out.close();
+
+        assertFalse(out.isCompressed());
+        assertThat(contentLength[0], is(equalTo((long) small.length)));
+        assertThat(target.toByteArray(), is(equalTo(small)));
+    }
+
+    @Test
+    public void testThresholdStreamCompressesLargeEntities() throws Exception {
+        byte[] large = new byte[3 * DeflaterPool.BUFFER_SIZE];
+        final ByteArrayOutputStream target = new ByteArrayOutputStream();
+        GZIPThresholdOutputStream out = new GZIPThresholdOutputStream(Deflater.BEST_SPEED, 1024) {
+            @Override
+            protected OutputStream openTarget(boolean compressed, long length) {
+                return target;
+            }
+        };
+        for (int i = 0; i < large.length; i += 100) {
+            out.write(large, i, Math.min(100, large.length - i));
+        }
+        out.close();
+
+        assertTrue(out.isCompressed());
+        assertThat(readFully(new GZIPInputStream(new ByteArrayInputStream(target.toByteArray()))), is(equalTo(large)));
+    }
+
+    private static byte[] readFully(InputStream stream) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        byte[] chunk = new byte[1000];
+        int count;
+        while ((count = stream.read(chunk)) != -1) {
+            bos.write(chunk, 0, count);
+        }
+        stream.close();
+        return bos.toByteArray();
+    }
+}
@@ -23,7 +23,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -34,6 +36,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -76,6 +79,14 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
             .getInstance().getConfiguration();
     private static final String[] EMPTY_STR_ARRAY = new String[0];
     private final ConcurrentHashMap<String, Map<String, Lease<InstanceInfo>>> registry = new ConcurrentHashMap<String, Map<String, Lease<InstanceInfo>>>();
+    private final RegistryIndexes indexes = new RegistryIndexes();
+
+    // Local registry snapshot, rebuilt on demand from the applications changed since the last one
+    private final AtomicLong registryVersion = new AtomicLong();
+    private final ConcurrentHashMap<String, AtomicLong> applicationVersions = new ConcurrentHashMap<String, AtomicLong>();
+    private final ConcurrentHashMap<String, ApplicationSnapshot> applicationSnapshots = new ConcurrentHashMap<String, ApplicationSnapshot>();
+    private final Object snapshotLock = new Object();
+    private volatile RegistrySnapshot registrySnapshot;
     private Timer evictionTimer = new Timer("Eureka-EvictionTimer", true);
     private volatile MeasuredRate renewsLastMin;
     protected ConcurrentMap<String, InstanceStatus> overriddenInstanceStatusMap = CacheBuilder
@@ -127,6 +138,10 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
         recentRegisteredQueue.clear();
         recentlyChangedQueue.clear();
         registry.clear();
+        indexes.clear();
+        for (String appName : applicationVersions.keySet()) {
+            applicationChanged(appName);
+        }
 
     }
 
@@ -190,6 +205,7 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
                 lease.setServiceUpTimestamp(existingLease.getServiceUpTimestamp());
             }
             gMap.put(r.getId(), lease);
+            indexes.add(lease, gMap);
             synchronized (recentRegisteredQueue) {
                 recentRegisteredQueue.add(new Pair<Long, String>(System.currentTimeMillis(), r.getAppName()
                         + "(" + r.getId() + ")"));
@@ -224,9 +240,13 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
             if (InstanceStatus.UP.equals(r.getStatus())) {
                 lease.serviceUp();
             }
+            r.setIsCoordinatingDiscoveryServer();
+            refreshLeaseInfo(lease);
             r.setActionType(ActionType.ADDED);
             recentlyChangedQueue.add(new RecentlyChangedItem(lease));
             r.setLastUpdatedTimestamp();
+            r.setEncodedFragmentsEnabled(EUREKA_SERVER_CONFIG.shouldCacheEncodedInstances());
+            applicationChanged(r.getAppName());
             invalidateCache(r.getAppName(), r.getVIPAddress(), r.getSecureVipAddress());
             logger.info("Registered instance {}/{} with status {} (replication={})",
                     r.getAppName(), r.getId(), r.getStatus(), isReplication);
@@ -279,6 +299,8 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
                 return false;
             } else {
                 leaseToCancel.cancel();
+                refreshLeaseInfo(leaseToCancel);
+                indexes.remove(leaseToCancel);
                 InstanceInfo instanceInfo = leaseToCancel.getHolder();
                 String vip = null;
                 String svip = null;
@@ -290,6 +312,7 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
                     vip = instanceInfo.getVIPAddress();
                     svip = instanceInfo.getSecureVipAddress();
                 }
+                applicationChanged(appName);
                 invalidateCache(appName, vip, svip);
                 logger.info("Cancelled instance {}/{} (replication={})", appName, id, isReplication);
                 return true;
@@ -339,10 +362,12 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
                             "The instance status {} is different from overridden instance status {} for instance {}. "
                                     + "Hence setting the status to overridden status", args);
                     instanceInfo.setStatus(overriddenInstanceStatus);
+                    applicationChanged(appName);
                 }
             }
             renewsLastMin.increment();
             leaseToRenew.renew();
+            refreshLeaseInfo(leaseToRenew);
             return true;
         }
     }
@@ -475,8 +500,10 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
                     recentlyChangedQueue
                             .add(new RecentlyChangedItem(lease));
                     info.setLastUpdatedTimestamp();
+                    applicationChanged(appName);
                     invalidateCache(appName, info.getVIPAddress(), info.getSecureVipAddress());
                 }
+                refreshLeaseInfo(lease);
                 return true;
             }
         } finally {
@@ -543,8 +570,10 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
                     recentlyChangedQueue
                             .add(new RecentlyChangedItem(lease));
                     info.setLastUpdatedTimestamp();
+                    applicationChanged(appName);
                     invalidateCache(appName, info.getVIPAddress(), info.getSecureVipAddress());
                 }
+                refreshLeaseInfo(lease);
                 return true;
             }
         } finally {
@@ -619,7 +648,7 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
                 if (app == null) {
                     app = new Application(appName);
                 }
-                app.addInstance(decorateInstanceInfo(entry.getValue()));
+                app.addInstance(entry.getValue().getHolder());
             }
         } else if (includeRemoteRegion) {
             for (RemoteRegionRegistry remoteRegistry : this.regionNameVSRemoteRegistry.values()) {
@@ -679,7 +708,8 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
      *                      included.
      *
      * @return The applications with instances from the passed remote regions as well as local region. The instances
-     * from remote regions can be only for certain whitelisted apps as explained above.
+     * from remote regions can be only for certain whitelisted apps as explained above. Without remote regions, these
+     * are the shared applications of the {@link #getRegistrySnapshot() registry snapshot}, which must not be modified.
      */
     public Applications getApplicationsFromMultipleRegions(String[] remoteRegions) {
 
@@ -693,23 +723,16 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
         } else {
             GET_ALL_CACHE_MISS.increment();
         }
-        Applications apps = new Applications();
-        apps.setVersion(1L);
-        for (Entry<String, Map<String, Lease<InstanceInfo>>> entry : registry.entrySet()) {
-            Application app = null;
-
-            if (entry.getValue() != null) {
-                for (Entry<String, Lease<InstanceInfo>> stringLeaseEntry : entry.getValue().entrySet()) {
-                    Lease<InstanceInfo> lease = stringLeaseEntry.getValue();
-                    if (app == null) {
-                        app = new Application(lease.getHolder().getAppName());
-                    }
-                    app.addInstance(decorateInstanceInfo(lease));
-                }
-            }
-            if (app != null) {
-                apps.addApplication(app);
-            }
+        RegistrySnapshot snapshot = getRegistrySnapshot();
+        if (!includeRemoteRegion) {
+            return snapshot.getApplications();
+        }
+
+        // The local applications are copied only when instances of remote regions are added to them
+        Map<String, Application> localApps = new LinkedHashMap<String, Application>();
+        Map<String, Application> copiedApps = new HashMap<String, Application>();
+        for (Application application : snapshot.getApplications().getRegisteredApplications()) {
+            localApps.put(application.getName(), application);
         }
         if (includeRemoteRegion) {
             for (String remoteRegion : remoteRegions) {
@@ -721,10 +744,17 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
                             logger.info("Application {}  fetched from the remote region {}",
                                     application.getName(), remoteRegion);
 
-                            Application appInstanceTillNow = apps.getRegisteredApplications(application.getName());
+                            Application appInstanceTillNow = copiedApps.get(application.getName());
                             if (appInstanceTillNow == null) {
                                 appInstanceTillNow = new Application(application.getName());
-                                apps.addApplication(appInstanceTillNow);
+                                Application localApp = localApps.get(application.getName());
+                                if (localApp != null) {
+                                    for (InstanceInfo instanceInfo : localApp.getInstancesAsIsFromEureka()) {
+                                        appInstanceTillNow.addInstance(instanceInfo);
+                                    }
+                                }
+                                copiedApps.put(application.getName(), appInstanceTillNow);
+                                localApps.put(application.getName(), appInstanceTillNow);
                             }
                             for (InstanceInfo instanceInfo : application.getInstances()) {
                                 appInstanceTillNow.addInstance(instanceInfo);
@@ -740,10 +770,94 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
                 }
             }
         }
+        Applications apps = new Applications();
+        apps.setVersion(1L);
+        for (Application application : localApps.values()) {
+            apps.addApplication(application);
+        }
         apps.setAppsHashCode(apps.getReconcileHashCode());
         return apps;
     }
 
+    /**
+     * Gets the current snapshot of the applications of the local region. A new snapshot is taken when the registry
+     * changed since the last one; it reuses the applications of the last one that did not change. Concurrent readers
+     * of a changed registry wait for, and share, a single new snapshot.
+     *
+     * @return the snapshot of the local region applications, with no instance from remote regions
+     */
+    public RegistrySnapshot getRegistrySnapshot() {
+        RegistrySnapshot snapshot = registrySnapshot;
+        if (snapshot != null && snapshot.getVersion() == registryVersion.get()) {
+            return snapshot;
+        }
+        synchronized (snapshotLock) {
+            // The version is read before the registry, so that a change made during the build outdates the snapshot
+            long version = registryVersion.get();
+            snapshot = registrySnapshot;
+            if (snapshot != null && snapshot.getVersion() == version) {
+                return snapshot;
+            }
+            Applications apps = new Applications();
+            apps.setVersion(1L);
+            for (Entry<String, Map<String, Lease<InstanceInfo>>> entry : registry.entrySet()) {
+                Application app = getApplicationSnapshot(entry.getKey(), entry.getValue());
+                if (app != null) {
+                    apps.addApplication(app);
+                }
+            }
+            apps.setAppsHashCode(apps.getReconcileHashCode());
+            snapshot = new RegistrySnapshot(version, apps);
+            registrySnapshot = snapshot;
+            return snapshot;
+        }
+    }
+
+    private Application getApplicationSnapshot(String appName, Map<String, Lease<InstanceInfo>> leases) {
+        long appVersion = getApplicationVersion(appName).get();
+        ApplicationSnapshot appSnapshot = applicationSnapshots.get(appName);
+        if (appSnapshot != null && appSnapshot.version == appVersion) {
+            return appSnapshot.application;
+        }
+        Application app = null;
+        if (leases != null) {
+            for (Lease<InstanceInfo> lease : leases.values()) {
+                if (app == null) {
+                    app = new Application(lease.getHolder().getAppName());
+                }
+                app.addInstance(lease.getHolder());
+            }
+        }
+        if (app == null) {
+            applicationSnapshots.remove(appName);
+        } else {
+            applicationSnapshots.put(appName, new ApplicationSnapshot(appVersion, app));
+        }
+        return app;
+    }
+
+    /**
+     * Outdates the registry snapshot, and the snapshot of the application, after the instances of the application,
+     * or their status, changed. The application version is bumped before the registry one, so that a snapshot of
+     * the newer registry version never reuses the application snapshot taken before the change.
+     */
+    private void applicationChanged(String appName) {
+        getApplicationVersion(appName).incrementAndGet();
+        registryVersion.incrementAndGet();
+    }
+
+    private AtomicLong getApplicationVersion(String appName) {
+        AtomicLong version = applicationVersions.get(appName);
+        if (version == null) {
+            AtomicLong newVersion = new AtomicLong();
+            version = applicationVersions.putIfAbsent(appName, newVersion);
+            if (version == null) {
+                version = newVersion;
+            }
+        }
+        return version;
+    }
+
     private boolean shouldFetchFromRemoteRegistry(String appName, String remoteRegion) {
         Set<String> whiteList = EUREKA_CONFIG.getRemoteRegionAppWhitelist(remoteRegion);
         if (null == whiteList) {
@@ -768,26 +882,14 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
     @Deprecated
     public Applications getApplications(boolean includeRemoteRegion) {
         GET_ALL_CACHE_MISS.increment();
+        RegistrySnapshot snapshot = getRegistrySnapshot();
+        if (!includeRemoteRegion || regionNameVSRemoteRegistry.isEmpty()) {
+            return snapshot.getApplications();
+        }
         Applications apps = new Applications();
         apps.setVersion(1L);
-        for (Entry<String, Map<String, Lease<InstanceInfo>>> entry : registry.entrySet()) {
-            Application app = null;
-
-            if (entry.getValue() != null) {
-                for (Entry<String, Lease<InstanceInfo>> stringLeaseEntry : entry.getValue().entrySet()) {
-
-                    Lease<InstanceInfo> lease = stringLeaseEntry.getValue();
-
-                    if (app == null) {
-                        app = new Application(lease.getHolder().getAppName());
-                    }
-
-                    app.addInstance(decorateInstanceInfo(lease));
-                }
-            }
-            if (app != null) {
-                apps.addApplication(app);
-            }
+        for (Application application : snapshot.getApplications().getRegisteredApplications()) {
+            apps.addApplication(application);
         }
         if (includeRemoteRegion) {
             for (RemoteRegionRegistry remoteRegistry : this.regionNameVSRemoteRegistry.values()) {
@@ -845,7 +947,7 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
                     applicationInstancesMap.put(instanceInfo.getAppName(), app);
                     apps.addApplication(app);
                 }
-                app.addInstance(decorateInstanceInfo(lease));
+                app.addInstance(lease.getHolder());
             }
 
             boolean disableTransparentFallback = EUREKA_CONFIG.disableTransparentFallbackToOtherRegion();
@@ -927,7 +1029,7 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
                     applicationInstancesMap.put(instanceInfo.getAppName(), app);
                     apps.addApplication(app);
                 }
-                app.addInstance(decorateInstanceInfo(lease));
+                app.addInstance(lease.getHolder());
             }
 
             if (includeRemoteRegion) {
@@ -997,7 +1099,7 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
         }
         if (lease != null
                 && (!isLeaseExpirationEnabled() || !lease.isExpired())) {
-            return decorateInstanceInfo(lease);
+            return lease.getHolder();
         } else if (includeRemoteRegions) {
             for (RemoteRegionRegistry remoteRegistry : this.regionNameVSRemoteRegistry.values()) {
                 Application application = remoteRegistry.getApplication(appName);
@@ -1040,23 +1142,11 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
                                                boolean includeRemoteRegions) {
         List<InstanceInfo> list = new ArrayList<InstanceInfo>();
 
-        for (Iterator<Entry<String, Map<String, Lease<InstanceInfo>>>> iter = registry
-                .entrySet().iterator(); iter.hasNext(); ) {
-
-            Map<String, Lease<InstanceInfo>> leaseMap = iter.next().getValue();
-            if (leaseMap != null) {
-                Lease<InstanceInfo> lease = leaseMap.get(id);
-
-                if (lease == null
-                        || (isLeaseExpirationEnabled() && lease.isExpired())) {
-                    continue;
-                }
-
-                if (list == Collections.EMPTY_LIST) {
-                    list = new ArrayList<InstanceInfo>();
-                }
-                list.add(decorateInstanceInfo(lease));
+        for (Lease<InstanceInfo> lease : indexes.getByInstanceId(id)) {
+            if (isLeaseExpirationEnabled() && lease.isExpired()) {
+                continue;
             }
+            list.add(lease.getHolder());
         }
         if (list.isEmpty() && includeRemoteRegions) {
             for (RemoteRegionRegistry remoteRegistry : this.regionNameVSRemoteRegistry.values()) {
@@ -1073,6 +1163,75 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
         return list;
     }
 
+    /**
+     * Gets the applications with the instances registered with the given VIP address, looked up in the registry
+     * indexes. As with {@link #getApplications()}, the instances of the remote region applications that have no
+     * instance in this region are included, unless the transparent fallback to other regions is disabled.
+     *
+     * @param vipAddress the VIP address, one of the comma separated addresses an instance is registered with
+     * @param secure true to look up the secure VIP addresses
+     * @return the matching applications, without the apps hash code set
+     */
+    public Applications getApplicationsForVip(String vipAddress, boolean secure) {
+        Applications apps = new Applications();
+        Map<String, Application> appsByName = new HashMap<String, Application>();
+        for (Lease<InstanceInfo> lease : secure ? indexes.getBySecureVip(vipAddress) : indexes.getByVip(vipAddress)) {
+            InstanceInfo instanceInfo = lease.getHolder();
+            Application app = appsByName.get(instanceInfo.getAppName());
+            if (app == null) {
+                app = new Application(instanceInfo.getAppName());
+                appsByName.put(app.getName(), app);
+                apps.addApplication(app);
+            }
+            app.addInstance(instanceInfo);
+        }
+        if (!EUREKA_CONFIG.disableTransparentFallbackToOtherRegion()) {
+            Set<String> remoteAppNames = new HashSet<String>();
+            for (RemoteRegionRegistry remoteRegistry : this.regionNameVSRemoteRegistry.values()) {
+                for (Application application : remoteRegistry.getApplications().getRegisteredApplications()) {
+                    Map<String, Lease<InstanceInfo>> leaseMap = registry.get(application.getName());
+                    boolean isLocal = leaseMap != null && !leaseMap.isEmpty();
+                    if (isLocal || !remoteAppNames.add(application.getName())) {
+                        continue;
+                    }
+                    Application appToAdd = null;
+                    for (InstanceInfo instanceInfo : application.getInstances()) {
+                        String instanceVip = secure ? instanceInfo.getSecureVipAddress() : instanceInfo.getVIPAddress();
+                        if (instanceVip != null && Arrays.asList(instanceVip.split(",")).contains(vipAddress)) {
+                            if (appToAdd == null) {
+                                appToAdd = new Application(application.getName());
+                                apps.addApplication(appToAdd);
+                            }
+                            appToAdd.addInstance(instanceInfo);
+                        }
+                    }
+                }
+            }
+        }
+        return apps;
+    }
+
+    /**
+     * @return the names of the ASGs of the instances registered in this region
+     */
+    public Set<String> getAsgNames() {
+        return indexes.getAsgNames();
+    }
+
+    /**
+     * Gets the instances registered in this region with the given ASG name, looked up in the registry indexes.
+     *
+     * @param asgName the name of the ASG
+     * @return the instances, as registered
+     */
+    public List<InstanceInfo> getInstancesByAsgName(String asgName) {
+        List<InstanceInfo> list = new ArrayList<InstanceInfo>();
+        for (Lease<InstanceInfo> lease : indexes.getByAsgName(asgName)) {
+            list.add(lease.getHolder());
+        }
+        return list;
+    }
+
     /**
      * Checks whether lease expiration is enabled.
      *
@@ -1080,29 +1239,49 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
      */
     public abstract boolean isLeaseExpirationEnabled();
 
-    private InstanceInfo decorateInstanceInfo(Lease<InstanceInfo> lease) {
+    /**
+     * Publishes the timestamps of the lease on its instance, as the {@link LeaseInfo} the instance is encoded
+     * with. Called by the operations that change the lease, so that readers of the registry can hand out the
+     * instances as they are, without allocating or writing anything.
+     */
+    private void refreshLeaseInfo(Lease<InstanceInfo> lease) {
         InstanceInfo info = lease.getHolder();
-
-        // client app settings
-        int renewalInterval = LeaseInfo.DEFAULT_LEASE_RENEWAL_INTERVAL;
-        int leaseDuration = LeaseInfo.DEFAULT_LEASE_DURATION;
-
-        // TODO: clean this up
-        if (info.getLeaseInfo() != null) {
-            renewalInterval = info.getLeaseInfo().getRenewalIntervalInSecs();
-            leaseDuration = info.getLeaseInfo().getDurationInSecs();
+        if (info == null) {
+            return;
         }
+        synchronized (lease) {
+            // client app settings
+            int renewalInterval = LeaseInfo.DEFAULT_LEASE_RENEWAL_INTERVAL;
+            int leaseDuration = LeaseInfo.DEFAULT_LEASE_DURATION;
+
+            // TODO: clean this up
+            if (info.getLeaseInfo() != null) {
+                renewalInterval = info.getLeaseInfo().getRenewalIntervalInSecs();
+                leaseDuration = info.getLeaseInfo().getDurationInSecs();
+            }
 
-        info.setLeaseInfo(LeaseInfo.Builder.newBuilder()
-                .setRegistrationTimestamp(lease.getRegistrationTimestamp())
-                .setRenewalTimestamp(lease.getLastRenewalTimestamp())
-                .setServiceUpTimestamp(lease.getServiceUpTimestamp())
-                .setRenewalIntervalInSecs(renewalInterval)
-                .setDurationInSecs(leaseDuration)
-                .setEvictionTimestamp(lease.getEvictionTimestamp()).build());
+            // An unchanged lease keeps its LeaseInfo, so that the encoded forms of the instance stay valid
+            if (!isSameLease(info.getLeaseInfo(), lease, renewalInterval, leaseDuration)) {
+                info.setLeaseInfo(LeaseInfo.Builder.newBuilder()
+                        .setRegistrationTimestamp(lease.getRegistrationTimestamp())
+                        .setRenewalTimestamp(lease.getLastRenewalTimestamp())
+                        .setServiceUpTimestamp(lease.getServiceUpTimestamp())
+                        .setRenewalIntervalInSecs(renewalInterval)
+                        .setDurationInSecs(leaseDuration)
+                        .setEvictionTimestamp(lease.getEvictionTimestamp()).build());
+            }
+        }
+    }
 
-        info.setIsCoordinatingDiscoveryServer();
-        return info;
+    private static boolean isSameLease(LeaseInfo leaseInfo, Lease<InstanceInfo> lease,
+                                       int renewalInterval, int leaseDuration) {
+        return leaseInfo != null
+                && leaseInfo.getRegistrationTimestamp() == lease.getRegistrationTimestamp()
+                && leaseInfo.getRenewalTimestamp() == lease.getLastRenewalTimestamp()
+                && leaseInfo.getServiceUpTimestamp() == lease.getServiceUpTimestamp()
+                && leaseInfo.getEvictionTimestamp() == lease.getEvictionTimestamp()
+                && leaseInfo.getRenewalIntervalInSecs() == renewalInterval
+                && leaseInfo.getDurationInSecs() == leaseDuration;
     }
 
     /**
@@ -1158,6 +1337,16 @@ public abstract class AbstractInstanceRegistry implements InstanceRegistry {
         ResponseCache.getInstance().invalidate(appName, vipAddress, secureVipAddress);
     }
 
+    private static final class ApplicationSnapshot {
+        private final long version;
+        private final Application application;
+
+        ApplicationSnapshot(long version, Application application) {
+            this.version = version;
+            this.application = application;
+        }
+    }
+
     private static final class RecentlyChangedItem {
         private long lastUpdateTime;
         private Lease<InstanceInfo> leaseInfo;
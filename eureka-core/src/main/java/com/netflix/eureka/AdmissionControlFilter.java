@@ -0,0 +1,239 @@
+package com.netflix.eureka;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.netflix.eureka.RateLimitingFilter.Target;
+import com.netflix.eureka.cluster.PeerEurekaNode;
+import com.netflix.eureka.util.EurekaMonitors;
+import com.netflix.servo.annotations.DataSourceType;
+import com.netflix.servo.annotations.Monitor;
+import com.netflix.servo.monitor.Monitors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Admission control filter, which sheds the least important requests while the server is saturated, so that
+ * the renewals and the peer replication, which keep the registry correct, are still served in time.
+ * <p>
+ * The saturation of the server is the highest of three ratios, each 1 at its configured limit:
+ * <ul>
+ * <li>
+ *     the number of requests in progress, which bounds the servlet threads in use
+ * </li>
+ * <li>
+ *     the fill ratio of the fullest peer replication queue
+ * </li>
+ * <li>
+ *     the 99th percentile of the latencies of the recent requests
+ * </li>
+ * </ul>
+ * Full registry fetches are shed once the saturation reaches 1, and delta and application fetches once it
+ * reaches {@link #DELTA_SHEDDING_SATURATION}. Registrations, renewals, status updates and replication
+ * requests are never shed. Shed requests are answered with a 503 and a Retry-After header, and counted by
+ * category in {@link EurekaMonitors}.
+ * <p>
+ * The delta long-polls are not tracked, as they are parked until the delta changes, for up to
+ * {@link EurekaServerConfig#getDeltaLongPollMaxTimeoutMs()}, and would otherwise saturate the server on their own.
+ * They are still shed as other delta fetches.
+ * <p>
+ * The requests are tracked even when the shedding is disabled (see
+ * {@link EurekaServerConfig#isAdmissionControlEnabled()}), so the saturation can be watched before turning
+ * it on.
+ */
+public class AdmissionControlFilter implements Filter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControlFilter.class);
+
+    private static final String HEADER_RETRY_AFTER = "Retry-After";
+
+    /**
+     * Saturation from which delta and application fetches are shed too.
+     */
+    static final double DELTA_SHEDDING_SATURATION = 1.5;
+
+    /**
+     * Number of recent request latencies the percentile is taken from.
+     */
+    private static final int LATENCY_SAMPLES = 1024;
+
+    /**
+     * How long the replication and latency ratios are reused before they are sampled again.
+     */
+    private static final long SAMPLE_INTERVAL_MS = 1000;
+
+    private final AtomicInteger inFlightRequests = new AtomicInteger();
+
+    private final AtomicLongArray latencySamples = new AtomicLongArray(LATENCY_SAMPLES);
+    private final AtomicInteger latencySampleCount = new AtomicInteger();
+
+    private volatile double sampledSaturation;
+    private volatile long sampleTime;
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        try {
+            Monitors.registerObject(this);
+        } catch (Throwable e) {
+            logger.warn("Cannot register the JMX monitor for the admission control filter :", e);
+        }
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        Target target = RateLimitingFilter.getTarget(request);
+        // a delta long-poll is held until the delta changes, so its duration says nothing of the load of the server
+        boolean tracked = !isDeltaLongPoll(request, target);
+        int inFlight = tracked ? inFlightRequests.incrementAndGet() : inFlightRequests.get();
+        try {
+            if (target != Target.Other && config().isAdmissionControlEnabled() && shouldShed(target, inFlight)) {
+                incrementStats(target);
+                HttpServletResponse httpResponse = (HttpServletResponse) response;
+                httpResponse.setHeader(HEADER_RETRY_AFTER, String.valueOf(config().getAdmissionControlRetryAfterSecs()));
+                httpResponse.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                return;
+            }
+            if (!tracked) {
+                chain.doFilter(request, response);
+                return;
+            }
+
+            long startTime = System.currentTimeMillis();
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                recordLatency(System.currentTimeMillis() - startTime);
+            }
+        } finally {
+            if (tracked) {
+                inFlightRequests.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * @return true if the request is a delta fetch the server holds until the delta changes, as decided by
+     *         {@link com.netflix.eureka.resources.ApplicationsResource#getContainerDifferential}
+     */
+    private static boolean isDeltaLongPoll(ServletRequest request, Target target) {
+        return target == Target.DeltaFetch
+                && request.getParameter("knownVersion") != null
+                && request.getParameter("waitMs") != null
+                && config().shouldAllowDeltaLongPolling();
+    }
+
+    private boolean shouldShed(Target target, int inFlight) {
+        double saturation = getSaturation(inFlight);
+        double sheddingSaturation = target == Target.FullFetch ? 1.0 : DELTA_SHEDDING_SATURATION;
+        if (saturation >= sheddingSaturation) {
+            logger.debug("Server saturated at {}; shedding {} request", saturation, target);
+            return true;
+        }
+        return false;
+    }
+
+    private double getSaturation(int inFlight) {
+        double saturation = 0;
+        int maxInFlight = config().getAdmissionControlMaxInFlightRequests();
+        if (maxInFlight > 0) {
+            saturation = (double) inFlight / maxInFlight;
+        }
+        return Math.max(saturation, getSampledSaturation());
+    }
+
+    /**
+     * @return the saturation of the replication and of the latency, which are too costly to compute on every
+     *         request and change slowly
+     */
+    private double getSampledSaturation() {
+        long now = System.currentTimeMillis();
+        if (now - sampleTime < SAMPLE_INTERVAL_MS) {
+            return sampledSaturation;
+        }
+        double saturation = 0;
+        double maxQueueFill = config().getAdmissionControlMaxReplicationQueueFill();
+        if (maxQueueFill > 0) {
+            saturation = getReplicationQueueFillRatio() / maxQueueFill;
+        }
+        long maxLatencyMs = config().getAdmissionControlMaxLatencyMs();
+        if (maxLatencyMs > 0) {
+            saturation = Math.max(saturation, (double) getLatencyPercentileMs() / maxLatencyMs);
+        }
+        sampledSaturation = saturation;
+        sampleTime = now;
+        return saturation;
+    }
+
+    private static double getReplicationQueueFillRatio() {
+        double fillRatio = 0;
+        for (PeerEurekaNode node : PeerAwareInstanceRegistryImpl.getInstance().getReplicaNodes()) {
+            fillRatio = Math.max(fillRatio, node.getReplicationQueueFillRatio());
+        }
+        return fillRatio;
+    }
+
+    private void recordLatency(long latencyMs) {
+        int sample = latencySampleCount.getAndIncrement();
+        latencySamples.set((sample & Integer.MAX_VALUE) % LATENCY_SAMPLES, latencyMs);
+    }
+
+    /**
+     * Get the 99th percentile of the latencies of the recent requests.
+     *
+     * @return the latency in milliseconds.
+     */
+    @Monitor(name = "admissionControlLatencyP99", type = DataSourceType.GAUGE)
+    public long getLatencyPercentileMs() {
+        int sampleCount = Math.min(LATENCY_SAMPLES, latencySampleCount.get() & Integer.MAX_VALUE);
+        if (sampleCount == 0) {
+            return 0;
+        }
+        long[] latencies = new long[sampleCount];
+        for (int i = 0; i < sampleCount; i++) {
+            latencies[i] = latencySamples.get(i);
+        }
+        Arrays.sort(latencies);
+        return latencies[(int) Math.ceil(sampleCount * 0.99) - 1];
+    }
+
+    /**
+     * Get the number of requests in progress.
+     *
+     * @return the number of requests that passed the filter and have not completed yet.
+     */
+    @Monitor(name = "admissionControlInFlightRequests", type = DataSourceType.GAUGE)
+    public int getInFlightRequests() {
+        return inFlightRequests.get();
+    }
+
+    private static void incrementStats(Target target) {
+        switch (target) {
+            case FullFetch:
+                EurekaMonitors.SHED_FULL_FETCH.increment();
+                break;
+            case DeltaFetch:
+                EurekaMonitors.SHED_DELTA_FETCH.increment();
+                break;
+            default:
+                EurekaMonitors.SHED_APPLICATION_FETCH.increment();
+        }
+    }
+
+    private static EurekaServerConfig config() {
+        return EurekaServerConfigurationManager.getInstance().getConfiguration();
+    }
+
+    @Override
+    public void destroy() {
+        Monitors.unregisterObject(this);
+    }
+}
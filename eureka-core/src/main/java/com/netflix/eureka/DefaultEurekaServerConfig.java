@@ -27,7 +27,9 @@ import java.util.Set;
 
 import com.netflix.config.ConfigurationManager;
 import com.netflix.config.DynamicBooleanProperty;
+import com.netflix.config.DynamicDoubleProperty;
 import com.netflix.config.DynamicIntProperty;
+import com.netflix.config.DynamicLongProperty;
 import com.netflix.config.DynamicPropertyFactory;
 import com.netflix.config.DynamicStringProperty;
 import com.netflix.config.DynamicStringSetProperty;
@@ -81,6 +83,23 @@ public class DefaultEurekaServerConfig implements EurekaServerConfig {
     private final DynamicIntProperty rateLimiterBurstSize = configInstance.getIntProperty(namespace + "rateLimiter.burstSize", 10);
     private final DynamicIntProperty rateLimiterRegistryFetchAverageRate = configInstance.getIntProperty(namespace + "rateLimiter.registryFetchAverageRate", 500);
     private final DynamicIntProperty rateLimiterFullFetchAverageRate = configInstance.getIntProperty(namespace + "rateLimiter.fullFetchAverageRate", 100);
+    private final DynamicBooleanProperty rateLimiterPerClientEnabled = configInstance.getBooleanProperty(namespace + "rateLimiter.perClient.enabled", false);
+    private final DynamicIntProperty rateLimiterPerClientBurstSize = configInstance.getIntProperty(namespace + "rateLimiter.perClient.burstSize", 5);
+    private final DynamicBooleanProperty rateLimiterAdaptive = configInstance.getBooleanProperty(namespace + "rateLimiter.adaptive.enabled", false);
+    private final DynamicDoubleProperty rateLimiterAdaptiveMaxCpuLoad = configInstance.getDoubleProperty(namespace + "rateLimiter.adaptive.maxCpuLoad", 0.8);
+    private final DynamicLongProperty rateLimiterAdaptiveMaxCacheLoadTimeMs = configInstance.getLongProperty(namespace + "rateLimiter.adaptive.maxCacheLoadTimeMs", 1000);
+
+    private final DynamicBooleanProperty admissionControlEnabled = configInstance.getBooleanProperty(namespace + "admissionControl.enabled", false);
+    private final DynamicIntProperty admissionControlMaxInFlightRequests = configInstance.getIntProperty(namespace + "admissionControl.maxInFlightRequests", 500);
+    private final DynamicDoubleProperty admissionControlMaxReplicationQueueFill = configInstance.getDoubleProperty(namespace + "admissionControl.maxReplicationQueueFill", 0.8);
+    private final DynamicLongProperty admissionControlMaxLatencyMs = configInstance.getLongProperty(namespace + "admissionControl.maxLatencyMs", 2000);
+    private final DynamicIntProperty admissionControlRetryAfterSecs = configInstance.getIntProperty(namespace + "admissionControl.retryAfterSecs", 5);
+
+    private final DynamicBooleanProperty renewalFastPath = configInstance.getBooleanProperty(namespace + "renewalFastPath.enabled", true);
+
+    private final DynamicIntProperty gzipCompressionLevel = configInstance.getIntProperty(namespace + "gzip.compressionLevel", 6);
+    private final DynamicIntProperty gzipMinCompressionSize = configInstance.getIntProperty(namespace + "gzip.minCompressionSize", 1024);
+    private final DynamicIntProperty responseCacheGZipCompressionLevel = configInstance.getIntProperty(namespace + "responseCache.gzipCompressionLevel", 6);
 
     private final DynamicStringProperty listAutoScalingGroupsRoleName =
             configInstance.getStringProperty(namespace + "listAutoScalingGroupsRoleName", "ListAutoScalingGroups");
@@ -327,6 +346,24 @@ public class DefaultEurekaServerConfig implements EurekaServerConfig {
                 false).get();
     }
 
+    @Override
+    public boolean shouldAllowDeltaLongPolling() {
+        return configInstance.getBooleanProperty(namespace + "deltaLongPoll.enabled",
+                false).get();
+    }
+
+    @Override
+    public long getDeltaLongPollMaxTimeoutMs() {
+        return configInstance.getLongProperty(namespace + "deltaLongPoll.maxTimeoutMs",
+                30 * 1000).get();
+    }
+
+    @Override
+    public boolean shouldCacheEncodedInstances() {
+        return configInstance.getBooleanProperty(namespace + "cacheEncodedInstances",
+                false).get();
+    }
+
     @Override
     public long getMaxIdleThreadInMinutesAgeForStatusReplication() {
         return configInstance
@@ -614,6 +651,76 @@ public class DefaultEurekaServerConfig implements EurekaServerConfig {
         return rateLimiterFullFetchAverageRate.get();
     }
 
+    @Override
+    public boolean isRateLimiterPerClientEnabled() {
+        return rateLimiterPerClientEnabled.get();
+    }
+
+    @Override
+    public int getRateLimiterPerClientBurstSize() {
+        return rateLimiterPerClientBurstSize.get();
+    }
+
+    @Override
+    public boolean isRateLimiterAdaptive() {
+        return rateLimiterAdaptive.get();
+    }
+
+    @Override
+    public double getRateLimiterAdaptiveMaxCpuLoad() {
+        return rateLimiterAdaptiveMaxCpuLoad.get();
+    }
+
+    @Override
+    public long getRateLimiterAdaptiveMaxCacheLoadTimeMs() {
+        return rateLimiterAdaptiveMaxCacheLoadTimeMs.get();
+    }
+
+    @Override
+    public boolean isAdmissionControlEnabled() {
+        return admissionControlEnabled.get();
+    }
+
+    @Override
+    public int getAdmissionControlMaxInFlightRequests() {
+        return admissionControlMaxInFlightRequests.get();
+    }
+
+    @Override
+    public double getAdmissionControlMaxReplicationQueueFill() {
+        return admissionControlMaxReplicationQueueFill.get();
+    }
+
+    @Override
+    public long getAdmissionControlMaxLatencyMs() {
+        return admissionControlMaxLatencyMs.get();
+    }
+
+    @Override
+    public int getAdmissionControlRetryAfterSecs() {
+        return admissionControlRetryAfterSecs.get();
+    }
+
+    @Override
+    public boolean shouldUseRenewalFastPath() {
+        return renewalFastPath.get();
+    }
+
+    @Override
+    public int getGZipCompressionLevel() {
+        return gzipCompressionLevel.get();
+    }
+
+    @Override
+    public int getGZipMinCompressionSize() {
+        return gzipMinCompressionSize.get();
+    }
+
+    @Override
+    public int getResponseCacheGZipCompressionLevel() {
+        return responseCacheGZipCompressionLevel.get();
+    }
+
     @Override
     public String getListAutoScalingGroupsRoleName() {
         return listAutoScalingGroupsRoleName.get();
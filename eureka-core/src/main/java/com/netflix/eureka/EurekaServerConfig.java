@@ -298,6 +298,41 @@ public interface EurekaServerConfig {
      */
     boolean shouldDisableDelta();
 
+    /**
+     * Indicates whether clients may long-poll the delta resource, i.e. ask the server to hold a delta request
+     * until the delta version moves past the version the client already has. Holding a request ties up a
+     * servlet thread for up to {@link #getDeltaLongPollMaxTimeoutMs()}.
+     * <p>
+     * <em>The changes are effective at runtime.</em>
+     * </p>
+     *
+     * @return true if delta long polling is allowed, false otherwise.
+     */
+    boolean shouldAllowDeltaLongPolling();
+
+    /**
+     * Get the upper bound on the time a long-polled delta request is held, regardless of what the client asks for.
+     * <p>
+     * <em>The changes are effective at runtime.</em>
+     * </p>
+     *
+     * @return time in milliseconds.
+     */
+    long getDeltaLongPollMaxTimeoutMs();
+
+    /**
+     * Indicates whether the JSON encoded form of each registered instance is kept with the instance, so that the
+     * payloads of the response cache are assembled from the kept forms of the instances that did not change,
+     * rather than encoding all of them again. This trades memory, a few kilobytes per instance and JSON codec,
+     * for the CPU time of filling the response cache.
+     * <p>
+     * <em>The changes are effective at runtime</em>, for the instances registered after the change.
+     * </p>
+     *
+     * @return true if the encoded forms of the instances are kept, false otherwise.
+     */
+    boolean shouldCacheEncodedInstances();
+
     /**
      * Get the idle time for which the status replication threads can stay
      * alive.
@@ -574,6 +609,100 @@ public interface EurekaServerConfig {
      */
     int getRateLimiterFullFetchAverageRate();
 
+    /**
+     * Indicates whether the registry fetches of each client are also rate limited to the client's fair share of
+     * the average rates, so that a single client fetching in a tight loop cannot use up the budget of all others.
+     * The clients are identified by their identity headers, or by their address when they send none.
+     */
+    boolean isRateLimiterPerClientEnabled();
+
+    /**
+     * Rate limiter, token bucket algorithm property. Maximum number of requests a single client can send as a
+     * burst. See also {@link #isRateLimiterPerClientEnabled()}.
+     */
+    int getRateLimiterPerClientBurstSize();
+
+    /**
+     * Indicates whether the average rates of the rate limiter are lowered while the server is under load, that is
+     * when the load of its CPUs or the time it takes to load the response cache payloads go above their limits.
+     * See also {@link #getRateLimiterAdaptiveMaxCpuLoad()} and
+     * {@link #getRateLimiterAdaptiveMaxCacheLoadTimeMs()}.
+     */
+    boolean isRateLimiterAdaptive();
+
+    /**
+     * System load average per available processor above which the average rates of an adaptive rate limiter
+     * are lowered in proportion.
+     */
+    double getRateLimiterAdaptiveMaxCpuLoad();
+
+    /**
+     * Average time, in milliseconds, to load a response cache payload above which the average rates of an
+     * adaptive rate limiter are lowered in proportion.
+     */
+    long getRateLimiterAdaptiveMaxCacheLoadTimeMs();
+
+    /**
+     * Indicates whether the server sheds registry fetches while it is saturated, answering them with a 503 and
+     * a Retry-After header. Full fetches are shed first, and delta and application fetches only under a heavier
+     * saturation; registrations, renewals and replication are never shed.
+     */
+    boolean isAdmissionControlEnabled();
+
+    /**
+     * Number of requests in progress at which the server is saturated.
+     * See also {@link #isAdmissionControlEnabled()}.
+     */
+    int getAdmissionControlMaxInFlightRequests();
+
+    /**
+     * Fill ratio, from 0 to 1, of the fullest peer replication queue at which the server is saturated, or 0 not
+     * to account for the replication. See also {@link #isAdmissionControlEnabled()}.
+     */
+    double getAdmissionControlMaxReplicationQueueFill();
+
+    /**
+     * 99th percentile of the recent request latencies, in milliseconds, at which the server is saturated, or 0
+     * not to account for the latency. See also {@link #isAdmissionControlEnabled()}.
+     */
+    long getAdmissionControlMaxLatencyMs();
+
+    /**
+     * Number of seconds after which the clients of shed requests are told to retry.
+     */
+    int getAdmissionControlRetryAfterSecs();
+
+    /**
+     * Indicates whether the lease renewals are handled by {@link RenewalFastPathFilter}, in front of the jersey
+     * resources, leaving to the resources only the renewals that need the instance to be reconciled.
+     */
+    boolean shouldUseRenewalFastPath();
+
+    /**
+     * Get the gzip compression level, from 1 (fastest) to 9 (smallest), of the request and response entities
+     * compressed as they are sent, which are the replication requests and the responses other than the cached
+     * registry payloads.
+     * <p>
+     * <em>The changes are effective at runtime.</em>
+     */
+    int getGZipCompressionLevel();
+
+    /**
+     * Get the size, in bytes, below which the request and response entities are sent uncompressed, even to
+     * clients accepting gzip. See also {@link #getGZipCompressionLevel()}.
+     * <p>
+     * <em>The changes are effective at runtime.</em>
+     */
+    int getGZipMinCompressionSize();
+
+    /**
+     * Get the gzip compression level of the registry payloads of the response cache, which are compressed once
+     * per cache fill and then sent to many clients.
+     * <p>
+     * <em>The changes are effective at runtime.</em>
+     */
+    int getResponseCacheGZipCompressionLevel();
+
     /**
      * Name of the Role used to describe auto scaling groups from third AWS accounts.
      */
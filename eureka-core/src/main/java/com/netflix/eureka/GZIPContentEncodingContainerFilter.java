@@ -0,0 +1,97 @@
+package com.netflix.eureka;
+
+import javax.ws.rs.core.HttpHeaders;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.netflix.discovery.util.GZIPThresholdOutputStream;
+import com.netflix.discovery.util.PooledGZIPInputStream;
+import com.sun.jersey.api.container.ContainerException;
+import com.sun.jersey.spi.container.ContainerRequest;
+import com.sun.jersey.spi.container.ContainerRequestFilter;
+import com.sun.jersey.spi.container.ContainerResponse;
+import com.sun.jersey.spi.container.ContainerResponseFilter;
+import com.sun.jersey.spi.container.ContainerResponseWriter;
+
+/**
+ * A replacement for the jersey {@link com.sun.jersey.api.container.filter.GZIPContentEncodingFilter}, which
+ * decompresses the gzip encoded request entities, such as the replication batches, with a
+ * {@link PooledGZIPInputStream}, and compresses the response entities with pooled deflaters.
+ * <p>
+ * The responses are compressed at the {@link EurekaServerConfig#getGZipCompressionLevel()} level, and only if
+ * they are at least {@link EurekaServerConfig#getGZipMinCompressionSize()} bytes long; smaller ones, such as the
+ * responses to replicated heartbeats, are sent as they are. The registry payloads of the response cache, which
+ * are already compressed, are left untouched.
+ */
+public class GZIPContentEncodingContainerFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    private static final String GZIP = "gzip";
+
+    @Override
+    public ContainerRequest filter(ContainerRequest request) {
+        String contentEncoding = request.getRequestHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+        if (contentEncoding != null && contentEncoding.trim().equals(GZIP)) {
+            request.getRequestHeaders().remove(HttpHeaders.CONTENT_ENCODING);
+            try {
+                request.setEntityInputStream(new PooledGZIPInputStream(request.getEntityInputStream()));
+            } catch (IOException ex) {
+                throw new ContainerException(ex);
+            }
+        }
+        return request;
+    }
+
+    @Override
+    public ContainerResponse filter(ContainerRequest request, ContainerResponse response) {
+        if (response.getEntity() == null || response.getHttpHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)) {
+            return response;
+        }
+        String acceptEncoding = request.getRequestHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding != null && acceptEncoding.contains(GZIP)) {
+            EurekaServerConfig config = EurekaServerConfigurationManager.getInstance().getConfiguration();
+            response.setContainerResponseWriter(new Adapter(response.getContainerResponseWriter(),
+                    config.getGZipCompressionLevel(), config.getGZipMinCompressionSize()));
+        }
+        return response;
+    }
+
+    private static final class Adapter implements ContainerResponseWriter {
+        private final ContainerResponseWriter crw;
+        private final int level;
+        private final int threshold;
+
+        private GZIPThresholdOutputStream out;
+
+        Adapter(ContainerResponseWriter crw, int level, int threshold) {
+            this.crw = crw;
+            this.level = level;
+            this.threshold = threshold;
+        }
+
+        @Override
+        public OutputStream writeStatusAndHeaders(long contentLength, final ContainerResponse response) throws IOException {
+            if (contentLength >= 0 && contentLength < threshold) {
+                return crw.writeStatusAndHeaders(contentLength, response);
+            }
+            // entities of unknown length are held back until they reach the threshold
+            out = new GZIPThresholdOutputStream(level, contentLength < 0 ? threshold : 0) {
+                @Override
+                protected OutputStream openTarget(boolean compressed, long length) throws IOException {
+                    if (compressed) {
+                        response.getHttpHeaders().putSingle(HttpHeaders.CONTENT_ENCODING, GZIP);
+                    }
+                    return crw.writeStatusAndHeaders(length, response);
+                }
+            };
+            return out;
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (out != null) {
+                out.finish();
+            }
+            crw.finish();
+        }
+    }
+}
@@ -25,15 +25,22 @@ import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.netflix.appinfo.AbstractEurekaIdentity;
 import com.netflix.appinfo.EurekaClientIdentity;
+import com.netflix.eureka.resources.ResponseCache;
 import com.netflix.eureka.util.EurekaMonitors;
 import com.netflix.discovery.util.RateLimiter;
 import org.slf4j.Logger;
@@ -79,6 +86,13 @@ import org.slf4j.LoggerFactory;
  *     average rate - expected number of requests per second
  * </li>
  * </ul>
+ * <p>
+ * With {@link EurekaServerConfig#isRateLimiterPerClientEnabled()}, each client is also given its own pair of
+ * rate limiters, with the average rates shared fairly between the clients that fetched recently, so that one
+ * client fetching in a tight loop is throttled before it uses up the budget of the others. The clients are told
+ * when to come back in the Retry-After header of the 503 responses. With
+ * {@link EurekaServerConfig#isRateLimiterAdaptive()}, the average rates are lowered while the CPUs or the response
+ * cache of the server are loaded above their configured limits.
  *
  * @author Tomasz Bak
  */
@@ -92,6 +106,24 @@ public class RateLimitingFilter implements Filter {
 
     private static final Pattern TARGET_RE = Pattern.compile("^.*/apps(/[^/]*)?$");
 
+    private static final String HEADER_RETRY_AFTER = "Retry-After";
+
+    /**
+     * The clients that have not fetched for this long are forgotten, and no longer count for the fair share.
+     */
+    private static final long CLIENT_IDLE_TIMEOUT_MS = 60 * 1000;
+    private static final int MAX_TRACKED_CLIENTS = 10000;
+
+    /**
+     * How long the adaptive factor is reused before the load of the server is sampled again.
+     */
+    private static final long LOAD_SAMPLE_INTERVAL_MS = 1000;
+
+    /**
+     * Lowest fraction of the configured average rates an adaptive rate limiter goes down to.
+     */
+    private static final double MIN_ADAPTIVE_FACTOR = 0.1;
+
     enum Target {FullFetch, DeltaFetch, Application, Other}
 
     /**
@@ -104,6 +136,23 @@ public class RateLimitingFilter implements Filter {
      */
     private static final RateLimiter registryFullFetchRateLimiter = new RateLimiter(TimeUnit.SECONDS);
 
+    /**
+     * Rate limiters of the clients fetching recently. The fair share of a client is a fraction of the average
+     * rate per second, so the client rates are per minute.
+     */
+    private static final Cache<String, ClientRateLimiters> clientRateLimiters = CacheBuilder.newBuilder()
+            .maximumSize(MAX_TRACKED_CLIENTS)
+            .expireAfterAccess(CLIENT_IDLE_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+            .build();
+
+    private static volatile double adaptiveFactor = 1.0;
+    private static volatile long adaptiveFactorTime;
+
+    /**
+     * The response cache whose load time is sampled, if not the shared instance.
+     */
+    private static volatile ResponseCache responseCache;
+
     @Override
     public void init(FilterConfig filterConfig) throws ServletException {
     }
@@ -118,17 +167,20 @@ public class RateLimitingFilter implements Filter {
 
         HttpServletRequest httpRequest = (HttpServletRequest) request;
 
-        if (isRateLimited(httpRequest, target)) {
+        long retryAfterSecs = getRetryAfter(httpRequest, target);
+        if (retryAfterSecs > 0) {
             incrementStats(target);
             if (config().isRateLimiterEnabled()) {
-                ((HttpServletResponse) response).setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                HttpServletResponse httpResponse = (HttpServletResponse) response;
+                httpResponse.setHeader(HEADER_RETRY_AFTER, String.valueOf(retryAfterSecs));
+                httpResponse.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
                 return;
             }
         }
         chain.doFilter(request, response);
     }
 
-    private static Target getTarget(ServletRequest request) {
+    static Target getTarget(ServletRequest request) {
         Target target = Target.Other;
         if (request instanceof HttpServletRequest) {
             HttpServletRequest httpRequest = (HttpServletRequest) request;
@@ -153,17 +205,30 @@ public class RateLimitingFilter implements Filter {
         return target;
     }
 
-    private static boolean isRateLimited(HttpServletRequest request, Target target) {
+    /**
+     * @return the number of seconds after which the client should retry a rate limited request, or 0 if the
+     *         request is admitted
+     */
+    private static long getRetryAfter(HttpServletRequest request, Target target) {
         if (isPrivileged(request)) {
             logger.debug("Privileged {} request", target);
-            return false;
+            return 0;
         }
-        if (isOverloaded(target)) {
+        double factor = config().isRateLimiterAdaptive() ? getAdaptiveFactor() : 1.0;
+        if (config().isRateLimiterPerClientEnabled()) {
+            long retryAfterSecs = getClientRetryAfter(request, target, factor);
+            if (retryAfterSecs > 0) {
+                logger.debug("{} request over the fair share of its client; discarding it", target);
+                return retryAfterSecs;
+            }
+        }
+        if (isOverloaded(target, factor)) {
             logger.debug("Overloaded {} request; discarding it", target);
-            return true;
+            // the average rates are per second, so a token is back within a second
+            return 1;
         }
         logger.debug("{} request admitted", target);
-        return false;
+        return 0;
     }
 
     private static boolean isPrivileged(HttpServletRequest request) {
@@ -175,18 +240,118 @@ public class RateLimitingFilter implements Filter {
         return privilegedClients.contains(clientName) || DEFAULT_PRIVILEGED_CLIENTS.contains(clientName);
     }
 
-    private static boolean isOverloaded(Target target) {
+    private static boolean isOverloaded(Target target, double factor) {
         int maxInWindow = config().getRateLimiterBurstSize();
-        int fetchWindowSize = config().getRateLimiterRegistryFetchAverageRate();
+        long fetchWindowSize = adapt(config().getRateLimiterRegistryFetchAverageRate(), factor);
         boolean overloaded = !registryFetchRateLimiter.acquire(maxInWindow, fetchWindowSize);
 
         if (target == Target.FullFetch) {
-            int fullFetchWindowSize = config().getRateLimiterFullFetchAverageRate();
+            long fullFetchWindowSize = adapt(config().getRateLimiterFullFetchAverageRate(), factor);
             overloaded |= !registryFullFetchRateLimiter.acquire(maxInWindow, fullFetchWindowSize);
         }
         return overloaded;
     }
 
+    /**
+     * @return the number of seconds after which the client gets a token back if it is over its fair share, or 0
+     */
+    private static long getClientRetryAfter(HttpServletRequest request, Target target, double factor) {
+        ClientRateLimiters limiters = getClientRateLimiters(getClientKey(request));
+        // the size of the cache includes the idle clients not evicted yet, until it is cleaned up
+        clientRateLimiters.cleanUp();
+        // clients only count for the fair share once they fetched, so the share is never divided by zero
+        long activeClients = Math.max(1, clientRateLimiters.size());
+        int maxInWindow = config().getRateLimiterPerClientBurstSize();
+
+        long fetchShare = getFairShare(config().getRateLimiterRegistryFetchAverageRate(), factor, activeClients);
+        if (!limiters.fetchRateLimiter.acquire(maxInWindow, fetchShare)) {
+            return toRetryAfterSecs(fetchShare);
+        }
+        if (target == Target.FullFetch) {
+            long fullFetchShare = getFairShare(config().getRateLimiterFullFetchAverageRate(), factor, activeClients);
+            if (!limiters.fullFetchRateLimiter.acquire(maxInWindow, fullFetchShare)) {
+                return toRetryAfterSecs(fullFetchShare);
+            }
+        }
+        return 0;
+    }
+
+    private static ClientRateLimiters getClientRateLimiters(String clientKey) {
+        try {
+            return clientRateLimiters.get(clientKey, new Callable<ClientRateLimiters>() {
+                @Override
+                public ClientRateLimiters call() {
+                    return new ClientRateLimiters();
+                }
+            });
+        } catch (ExecutionException e) {
+            // cannot happen, creating the rate limiters does not throw
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Clients are told apart by their identity headers and by their address. The headers are set by the clients
+     * themselves, so the address is part of the key for a client not to use up the share of another one by
+     * sending its id.
+     */
+    private static String getClientKey(HttpServletRequest request) {
+        String clientName = request.getHeader(AbstractEurekaIdentity.AUTH_NAME_HEADER_KEY);
+        String clientId = request.getHeader(AbstractEurekaIdentity.AUTH_ID_HEADER_KEY);
+        return clientName + '/' + clientId + '@' + request.getRemoteAddr();
+    }
+
+    /**
+     * @return the share of one client of the average rate per second, as a rate per minute
+     */
+    private static long getFairShare(int averageRate, double factor, long activeClients) {
+        if (averageRate <= 0) {
+            return averageRate; // not limited
+        }
+        return Math.max(1, (long) (averageRate * factor * 60 / activeClients));
+    }
+
+    private static long toRetryAfterSecs(long ratePerMinute) {
+        return Math.max(1, (60 + ratePerMinute - 1) / ratePerMinute);
+    }
+
+    private static long adapt(int averageRate, double factor) {
+        if (averageRate <= 0 || factor >= 1.0) {
+            return averageRate;
+        }
+        return Math.max(1, (long) (averageRate * factor));
+    }
+
+    /**
+     * @return the fraction of the configured average rates to admit at the current load of the server; the
+     *         rates are lowered in proportion to how far the most loaded resource is over its limit
+     */
+    static double getAdaptiveFactor() {
+        long now = System.currentTimeMillis();
+        if (now - adaptiveFactorTime < LOAD_SAMPLE_INTERVAL_MS) {
+            return adaptiveFactor;
+        }
+        double pressure = 0;
+        double maxCpuLoad = config().getRateLimiterAdaptiveMaxCpuLoad();
+        OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
+        double loadAverage = osBean.getSystemLoadAverage();
+        if (maxCpuLoad > 0 && loadAverage >= 0) { // negative when the platform does not provide it
+            pressure = loadAverage / osBean.getAvailableProcessors() / maxCpuLoad;
+        }
+        long maxCacheLoadTimeMs = config().getRateLimiterAdaptiveMaxCacheLoadTimeMs();
+        if (maxCacheLoadTimeMs > 0) {
+            pressure = Math.max(pressure,
+                    (double) getResponseCache().getAverageLoadTimeMs() / maxCacheLoadTimeMs);
+        }
+        double factor = pressure <= 1.0 ? 1.0 : Math.max(MIN_ADAPTIVE_FACTOR, 1.0 / pressure);
+        if (factor != adaptiveFactor) {
+            logger.debug("Adapting the rate limits to {} of their configured rates", factor);
+        }
+        adaptiveFactor = factor;
+        adaptiveFactorTime = now;
+        return factor;
+    }
+
     private static void incrementStats(Target target) {
         if (config().isRateLimiterEnabled()) {
             EurekaMonitors.RATE_LIMITED.increment();
@@ -201,6 +366,11 @@ public class RateLimitingFilter implements Filter {
         }
     }
 
+    private static ResponseCache getResponseCache() {
+        ResponseCache cache = responseCache;
+        return cache == null ? ResponseCache.getInstance() : cache;
+    }
+
     private static EurekaServerConfig config() {
         return EurekaServerConfigurationManager.getInstance().getConfiguration();
     }
@@ -213,5 +383,19 @@ public class RateLimitingFilter implements Filter {
     static void reset() {
         registryFetchRateLimiter.reset();
         registryFullFetchRateLimiter.reset();
+        clientRateLimiters.invalidateAll();
+        adaptiveFactor = 1.0;
+        adaptiveFactorTime = 0;
+        responseCache = null;
+    }
+
+    // For testing purposes
+    static void setResponseCache(ResponseCache cache) {
+        responseCache = cache;
+    }
+
+    private static class ClientRateLimiters {
+        final RateLimiter fetchRateLimiter = new RateLimiter(TimeUnit.MINUTES);
+        final RateLimiter fullFetchRateLimiter = new RateLimiter(TimeUnit.MINUTES);
     }
 }
@@ -0,0 +1,180 @@
+package com.netflix.eureka;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.eureka.lease.Lease;
+
+/**
+ * Secondary indexes of the leases of {@link AbstractInstanceRegistry}, by VIP address, secure VIP address,
+ * instance id and ASG name, so that lookups by these attributes cost in proportion to the result, not to the
+ * size of the registry.
+ * <p>
+ * The index keys of a lease are taken from its {@link InstanceInfo} when it is added, and recorded with it, so
+ * that it is always removed from the same index entries it was added to. Updates happen on registration and
+ * cancellation only, and are serialized; lookups are lock free.
+ * <p>
+ * The registry map is updated before, and outside of, the index updates, so concurrent registrations and
+ * cancellations of an instance may reach the indexes in another order than the registry. A lease is therefore
+ * only indexed if it is still the registered one once the index lock is held: the index update of whatever
+ * replaced or removed it is then yet to come.
+ */
+class RegistryIndexes {
+
+    private final Map<String, IndexedLease> leases = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, Map<String, Lease<InstanceInfo>>> byVip = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Map<String, Lease<InstanceInfo>>> bySecureVip = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Map<String, Lease<InstanceInfo>>> byInstanceId = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Map<String, Lease<InstanceInfo>>> byAsgName = new ConcurrentHashMap<>();
+
+    /**
+     * Indexes the lease, replacing the lease previously registered for the same instance, if any.
+     *
+     * @param registered
+     *            the leases of the application of the instance, by instance id, in which the lease was put; the
+     *            lease is not indexed if it was replaced or removed there since.
+     */
+    synchronized void add(Lease<InstanceInfo> lease, Map<String, Lease<InstanceInfo>> registered) {
+        InstanceInfo info = lease.getHolder();
+        if (registered.get(info.getId()) != lease) {
+            return;
+        }
+        String leaseKey = leaseKey(info.getAppName(), info.getId());
+        IndexedLease indexed = new IndexedLease(lease, splitVips(info.getVIPAddress()),
+                splitVips(info.getSecureVipAddress()), info.getId(), info.getASGName());
+
+        IndexedLease previous = leases.put(leaseKey, indexed);
+        if (previous != null) {
+            unindex(leaseKey, previous);
+        }
+        for (String vip : indexed.vips) {
+            put(byVip, vip, leaseKey, lease);
+        }
+        for (String secureVip : indexed.secureVips) {
+            put(bySecureVip, secureVip, leaseKey, lease);
+        }
+        put(byInstanceId, indexed.instanceId, leaseKey, lease);
+        put(byAsgName, indexed.asgName, leaseKey, lease);
+    }
+
+    /**
+     * Removes the lease from the indexes, unless another lease was registered for the instance since.
+     */
+    synchronized void remove(Lease<InstanceInfo> lease) {
+        InstanceInfo info = lease.getHolder();
+        String leaseKey = leaseKey(info.getAppName(), info.getId());
+        IndexedLease indexed = leases.get(leaseKey);
+        if (indexed != null && indexed.lease == lease) {
+            leases.remove(leaseKey);
+            unindex(leaseKey, indexed);
+        }
+    }
+
+    synchronized void clear() {
+        leases.clear();
+        byVip.clear();
+        bySecureVip.clear();
+        byInstanceId.clear();
+        byAsgName.clear();
+    }
+
+    List<Lease<InstanceInfo>> getByVip(String vipAddress) {
+        return get(byVip, vipAddress);
+    }
+
+    List<Lease<InstanceInfo>> getBySecureVip(String secureVipAddress) {
+        return get(bySecureVip, secureVipAddress);
+    }
+
+    List<Lease<InstanceInfo>> getByInstanceId(String id) {
+        return get(byInstanceId, id);
+    }
+
+    List<Lease<InstanceInfo>> getByAsgName(String asgName) {
+        return get(byAsgName, asgName);
+    }
+
+    Set<String> getAsgNames() {
+        return Collections.unmodifiableSet(byAsgName.keySet());
+    }
+
+    private void unindex(String leaseKey, IndexedLease indexed) {
+        for (String vip : indexed.vips) {
+            remove(byVip, vip, leaseKey);
+        }
+        for (String secureVip : indexed.secureVips) {
+            remove(bySecureVip, secureVip, leaseKey);
+        }
+        remove(byInstanceId, indexed.instanceId, leaseKey);
+        remove(byAsgName, indexed.asgName, leaseKey);
+    }
+
+    private static void put(ConcurrentHashMap<String, Map<String, Lease<InstanceInfo>>> index,
+                            String indexKey, String leaseKey, Lease<InstanceInfo> lease) {
+        if (indexKey == null) {
+            return;
+        }
+        Map<String, Lease<InstanceInfo>> entry = index.get(indexKey);
+        if (entry == null) {
+            entry = new ConcurrentHashMap<>();
+            index.put(indexKey, entry);
+        }
+        entry.put(leaseKey, lease);
+    }
+
+    private static void remove(ConcurrentHashMap<String, Map<String, Lease<InstanceInfo>>> index,
+                               String indexKey, String leaseKey) {
+        if (indexKey == null) {
+            return;
+        }
+        Map<String, Lease<InstanceInfo>> entry = index.get(indexKey);
+        if (entry != null) {
+            entry.remove(leaseKey);
+            if (entry.isEmpty()) {
+                index.remove(indexKey);
+            }
+        }
+    }
+
+    private static List<Lease<InstanceInfo>> get(ConcurrentHashMap<String, Map<String, Lease<InstanceInfo>>> index,
+                                                 String indexKey) {
+        Map<String, Lease<InstanceInfo>> entry = indexKey == null ? null : index.get(indexKey);
+        if (entry == null) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(entry.values());
+    }
+
+    private static String leaseKey(String appName, String id) {
+        return appName + '/' + id;
+    }
+
+    /**
+     * Same matching as the VIP queries always had: the comma separated addresses are compared verbatim.
+     */
+    private static String[] splitVips(String vipAddress) {
+        return vipAddress == null ? new String[0] : vipAddress.split(",");
+    }
+
+    private static final class IndexedLease {
+        final Lease<InstanceInfo> lease;
+        final String[] vips;
+        final String[] secureVips;
+        final String instanceId;
+        final String asgName;
+
+        IndexedLease(Lease<InstanceInfo> lease, String[] vips, String[] secureVips, String instanceId, String asgName) {
+            this.lease = lease;
+            this.vips = vips;
+            this.secureVips = secureVips;
+            this.instanceId = instanceId;
+            this.asgName = asgName;
+        }
+    }
+}
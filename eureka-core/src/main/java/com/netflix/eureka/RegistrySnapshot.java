@@ -0,0 +1,47 @@
+package com.netflix.eureka;
+
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+
+/**
+ * A point in time view of the applications of the local region of {@link AbstractInstanceRegistry}, published
+ * by the registry and shared by all its readers (see {@link AbstractInstanceRegistry#getRegistrySnapshot()}).
+ * <p>
+ * A snapshot holds the registered instances as of its version, which is bumped by every registration,
+ * cancellation and status change. The instances themselves are the live ones of the registry, so their other
+ * attributes, such as the lease timestamps, are as current as they are when read.
+ * <p>
+ * The {@link Applications} and {@link Application}s of a snapshot are shared, and must not be modified.
+ * Readers that need to add to them copy them first.
+ */
+public final class RegistrySnapshot {
+
+    private final long version;
+    private final Applications applications;
+
+    RegistrySnapshot(long version, Applications applications) {
+        this.version = version;
+        this.applications = applications;
+    }
+
+    /**
+     * @return the version of the local registry this snapshot was taken at; the version only ever grows
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the applications of the snapshot, with their reconcile hash code set
+     */
+    public Applications getApplications() {
+        return applications;
+    }
+
+    /**
+     * @return the application or null if the snapshot has no instance of it
+     */
+    public Application getApplication(String appName) {
+        return applications.getRegisteredApplications(appName);
+    }
+}
@@ -35,6 +35,7 @@ import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.netflix.appinfo.InstanceInfo;
 import com.netflix.appinfo.InstanceInfo.ActionType;
 import com.netflix.discovery.EurekaIdentityHeaderFilter;
+import com.netflix.discovery.PooledGZIPContentEncodingFilter;
 import com.netflix.discovery.TimedSupervisorTask;
 import com.netflix.discovery.shared.Application;
 import com.netflix.discovery.shared.Applications;
@@ -44,7 +45,6 @@ import com.netflix.discovery.shared.LookupService;
 import com.netflix.servo.monitor.Monitors;
 import com.netflix.servo.monitor.Stopwatch;
 import com.sun.jersey.api.client.ClientResponse;
-import com.sun.jersey.api.client.filter.GZIPContentEncodingFilter;
 import com.sun.jersey.client.apache4.ApacheHttpClient4;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -111,7 +111,7 @@ public class RemoteRegionRegistry implements LookupService<String> {
             // compressed only if there exists a 'Content-Encoding' header
             // whose value is "gzip"
             discoveryApacheClient
-                    .addFilter(new GZIPContentEncodingFilter(false));
+                    .addFilter(new PooledGZIPContentEncodingFilter());
         }
 
         String ip = null;
@@ -0,0 +1,118 @@
+package com.netflix.eureka;
+
+import javax.annotation.Nullable;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.eureka.cluster.PeerEurekaNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Handles the lease renewals, {@code PUT /v2/apps/{appName}/{id}}, which are by far the most frequent
+ * requests, without going through the jersey resources. The URI is parsed in place and the lease renewed in the
+ * registry, as {@link com.netflix.eureka.resources.InstanceResource#renewLease} would.
+ * <p>
+ * The renewals that need more than that are passed on to the resources: those of instances whose last dirty
+ * timestamp differs from the registry one, which have to be reconciled, and those with encoded characters or
+ * matrix parameters in their path. The fast path can be turned off with {@link EurekaServerConfig#shouldUseRenewalFastPath()}.
+ */
+public class RenewalFastPathFilter implements Filter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RenewalFastPathFilter.class);
+
+    /**
+     * Status of the renewals the fast path does not handle.
+     */
+    public static final int FALL_BACK = 0;
+
+    private static final String APPS_PATH = "/v2/apps/";
+
+    private final PeerAwareInstanceRegistryImpl registry;
+
+    public RenewalFastPathFilter() {
+        this(PeerAwareInstanceRegistryImpl.getInstance());
+    }
+
+    /* For testing */ RenewalFastPathFilter(PeerAwareInstanceRegistryImpl registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        if (request instanceof HttpServletRequest && config().shouldUseRenewalFastPath()) {
+            HttpServletRequest httpRequest = (HttpServletRequest) request;
+            if ("PUT".equals(httpRequest.getMethod())) {
+                int status = renew(
+                        httpRequest.getRequestURI(),
+                        "true".equals(httpRequest.getHeader(PeerEurekaNode.HEADER_REPLICATION)),
+                        httpRequest.getParameter("lastDirtyTimestamp")
+                );
+                if (status != FALL_BACK) {
+                    ((HttpServletResponse) response).setStatus(status);
+                    return;
+                }
+            }
+        }
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * Renews the lease of the instance of a renewal request.
+     *
+     * @param requestUri
+     *            the URI of the PUT request.
+     * @param isReplication
+     *            true if the renewal is replicated from another eureka server.
+     * @param lastDirtyTimestamp
+     *            the last dirty timestamp of the instance sent with the renewal.
+     * @return the status of the renewal, or {@link #FALL_BACK} if the request is not a renewal, or must be
+     *         handled by the jersey resources
+     */
+    public int renew(String requestUri, boolean isReplication, @Nullable String lastDirtyTimestamp) {
+        int idStart = requestUri.lastIndexOf('/') + 1;
+        int appEnd = idStart - 1;
+        int appStart = requestUri.lastIndexOf('/', appEnd - 1) + 1;
+        if (idStart == requestUri.length() || appStart >= appEnd
+                || !requestUri.regionMatches(appStart - APPS_PATH.length(), APPS_PATH, 0, APPS_PATH.length())) {
+            return FALL_BACK;
+        }
+        if (requestUri.indexOf('%', appStart) >= 0 || requestUri.indexOf(';') >= 0) {
+            return FALL_BACK; // left to jersey to decode, or to strip the matrix parameters
+        }
+        String appName = requestUri.substring(appStart, appEnd).toUpperCase();
+        String id = requestUri.substring(idStart);
+
+        if (lastDirtyTimestamp != null && config().shouldSyncWhenTimestampDiffers()) {
+            InstanceInfo info = registry.getInstanceByAppAndId(appName, id, false);
+            if (info == null || !lastDirtyTimestamp.equals(String.valueOf(info.getLastDirtyTimestamp()))) {
+                return FALL_BACK;
+            }
+        }
+        if (!registry.renew(appName, id, isReplication)) {
+            logger.warn("Not Found (Renew): {} - {}", appName, id);
+            return HttpServletResponse.SC_NOT_FOUND;
+        }
+        return HttpServletResponse.SC_OK;
+    }
+
+    private static EurekaServerConfig config() {
+        return EurekaServerConfigurationManager.getInstance().getConfiguration();
+    }
+
+    @Override
+    public void destroy() {
+    }
+}
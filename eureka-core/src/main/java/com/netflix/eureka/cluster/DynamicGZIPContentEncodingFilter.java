@@ -3,9 +3,10 @@ package com.netflix.eureka.cluster;
 import javax.ws.rs.core.HttpHeaders;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
 
+import com.netflix.discovery.util.GZIPThresholdOutputStream;
+import com.netflix.discovery.util.PooledGZIPInputStream;
+import com.netflix.discovery.util.PooledGZIPOutputStream;
 import com.netflix.eureka.EurekaServerConfig;
 import com.sun.jersey.api.client.AbstractClientRequestAdapter;
 import com.sun.jersey.api.client.ClientHandlerException;
@@ -17,6 +18,11 @@ import com.sun.jersey.api.client.filter.ClientFilter;
 /**
  * This is a modified version of the standard jersey {@link com.sun.jersey.api.client.filter.GZIPContentEncodingFilter},
  * that supports dynamic configuration of request entity compression.
+ * <p>
+ * The entities are compressed, and the responses decompressed, with pooled deflaters and inflaters. When the
+ * compression is enabled, the request entities smaller than {@link EurekaServerConfig#getGZipMinCompressionSize()}
+ * are sent uncompressed; the content encoding header of the request is only set once the size is known, which
+ * relies on the entity being buffered by the client before the headers are written, as with the apache client.
  */
 public class DynamicGZIPContentEncodingFilter extends ClientFilter {
 
@@ -35,10 +41,10 @@ public class DynamicGZIPContentEncodingFilter extends ClientFilter {
         if (request.getEntity() != null) {
             Object o = request.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
             if (o != null && o.equals("gzip")) {
-                request.setAdapter(new Adapter(request.getAdapter()));
+                request.setAdapter(new Adapter(request.getAdapter(), config.getGZipCompressionLevel()));
             } else if (isCompressionEnabled()) {
-                request.getHeaders().add(HttpHeaders.CONTENT_ENCODING, "gzip");
-                request.setAdapter(new Adapter(request.getAdapter()));
+                request.setAdapter(new ThresholdAdapter(request.getAdapter(), config.getGZipCompressionLevel(),
+                        config.getGZipMinCompressionSize()));
             }
         }
 
@@ -51,7 +57,7 @@ public class DynamicGZIPContentEncodingFilter extends ClientFilter {
             if (encodings.equals("gzip")) {
                 response.getHeaders().remove(HttpHeaders.CONTENT_ENCODING);
                 try {
-                    response.setEntityInputStream(new GZIPInputStream(response.getEntityInputStream()));
+                    response.setEntityInputStream(new PooledGZIPInputStream(response.getEntityInputStream()));
                 } catch (IOException ex) {
                     throw new ClientHandlerException(ex);
                 }
@@ -66,12 +72,38 @@ public class DynamicGZIPContentEncodingFilter extends ClientFilter {
     }
 
     private static final class Adapter extends AbstractClientRequestAdapter {
-        Adapter(ClientRequestAdapter cra) {
+        private final int level;
+
+        Adapter(ClientRequestAdapter cra, int level) {
             super(cra);
+            this.level = level;
         }
 
         public OutputStream adapt(ClientRequest request, OutputStream out) throws IOException {
-            return new GZIPOutputStream(getAdapter().adapt(request, out));
+            return new PooledGZIPOutputStream(getAdapter().adapt(request, out), level);
+        }
+    }
+
+    private static final class ThresholdAdapter extends AbstractClientRequestAdapter {
+        private final int level;
+        private final int threshold;
+
+        ThresholdAdapter(ClientRequestAdapter cra, int level, int threshold) {
+            super(cra);
+            this.level = level;
+            this.threshold = threshold;
+        }
+
+        public OutputStream adapt(final ClientRequest request, final OutputStream out) throws IOException {
+            return new GZIPThresholdOutputStream(level, threshold) {
+                @Override
+                protected OutputStream openTarget(boolean compressed, long contentLength) throws IOException {
+                    if (compressed) {
+                        request.getHeaders().putSingle(HttpHeaders.CONTENT_ENCODING, "gzip");
+                    }
+                    return getAdapter().adapt(request, out);
+                }
+            };
         }
     }
 }
\ No newline at end of file
@@ -284,6 +284,20 @@ public class PeerEurekaNode {
         return true;
     }
 
+    /**
+     * Get the fill ratio of the fullest replication queue to this node, which gets to 1 when the replication
+     * falls so far behind that new tasks are dropped.
+     *
+     * @return the fraction of the capacity in use, from 0 to 1.
+     */
+    public double getReplicationQueueFillRatio() {
+        double fillRatio = heartBeatProcessor.getQueueFillRatio();
+        fillRatio = Math.max(fillRatio, registerProcessor.getQueueFillRatio());
+        fillRatio = Math.max(fillRatio, cancelProcessor.getQueueFillRatio());
+        fillRatio = Math.max(fillRatio, statusProcessor.getQueueFillRatio());
+        return Math.max(fillRatio, asgStatusProcessor.getQueueFillRatio());
+    }
+
     /**
      * Shuts down all resources used for peer replication.
      */
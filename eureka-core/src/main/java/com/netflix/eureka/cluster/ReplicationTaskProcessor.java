@@ -82,6 +82,13 @@ public class ReplicationTaskProcessor {
         return success;
     }
 
+    /**
+     * @return the fraction of the replication queue in use, see {@link MessageBatcher#getQueueFillRatio()}
+     */
+    public double getQueueFillRatio() {
+        return batcher.getQueueFillRatio();
+    }
+
     public void shutdown() {
         batcher.stop();
     }
@@ -75,13 +75,18 @@ public class ApplicationResource {
      * @param acceptHeader
      *            the accept header of the request to indicate whether to serve
      *            JSON or XML data.
+     * @param ifNoneMatch
+     *            the entity tags of the application payloads the client already
+     *            has; answered with a 304 Not Modified if the current payload
+     *            is one of them.
      * @return the response containing information about a particular
      *         application.
      */
     @GET
     public Response getApplication(@PathParam("version") String version,
                                    @HeaderParam("Accept") final String acceptHeader,
-                                   @HeaderParam(EurekaAccept.HTTP_X_EUREKA_ACCEPT) String eurekaAccept) {
+                                   @HeaderParam(EurekaAccept.HTTP_X_EUREKA_ACCEPT) String eurekaAccept,
+                                   @HeaderParam(EntityTags.HEADER_IF_NONE_MATCH) String ifNoneMatch) {
         if (!registry.shouldAllowAccess(false)) {
             return Response.status(Status.FORBIDDEN).build();
         }
@@ -102,11 +107,16 @@ public class ApplicationResource {
                 EurekaAccept.fromString(eurekaAccept)
         );
 
-        String payLoad = responseCache.get(cacheKey);
+        ResponseCache.Value value = responseCache.getValue(cacheKey);
+        String payLoad = value == null || value.getPayload().isEmpty() ? null : value.getPayload();
 
         if (payLoad != null) {
             logger.debug("Found: {}", appName);
-            return Response.ok(payLoad).build();
+            Response notModified = EntityTags.notModifiedResponse(ifNoneMatch, value);
+            if (notModified != null) {
+                return notModified;
+            }
+            return EntityTags.tag(Response.ok(payLoad), value).build();
         } else {
             logger.debug("Not Found: {}", appName);
             return Response.status(Status.NOT_FOUND).build();
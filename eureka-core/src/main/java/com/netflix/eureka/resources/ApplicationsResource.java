@@ -30,6 +30,7 @@ import javax.ws.rs.core.UriInfo;
 import java.util.Arrays;
 
 import com.netflix.appinfo.EurekaAccept;
+import com.netflix.discovery.converters.wrappers.CodecWrappers.JacksonSmile;
 import com.netflix.eureka.AbstractInstanceRegistry;
 import com.netflix.eureka.CurrentRequestVersion;
 import com.netflix.eureka.EurekaServerConfig;
@@ -39,6 +40,8 @@ import com.netflix.eureka.Version;
 import com.netflix.eureka.resources.ResponseCache.Key;
 import com.netflix.eureka.resources.ResponseCache.KeyType;
 import com.netflix.eureka.util.EurekaMonitors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * A <em>jersey</em> resource that handles request related to all
@@ -48,8 +51,10 @@ import com.netflix.eureka.util.EurekaMonitors;
  *
  */
 @Path("/{version}/apps")
-@Produces({"application/xml", "application/json"})
+@Produces({"application/xml", "application/json", JacksonSmile.SMILE_CONTENT_TYPE})
 public class ApplicationsResource {
+    private static final Logger logger = LoggerFactory.getLogger(ApplicationsResource.class);
+
     private static final String HEADER_ACCEPT = "Accept";
     private static final String HEADER_ACCEPT_ENCODING = "Accept-Encoding";
     private static final String HEADER_CONTENT_ENCODING = "Content-Encoding";
@@ -94,6 +99,8 @@ public class ApplicationsResource {
      * @param acceptHeader the accept header to indicate whether to serve JSON or XML data.
      * @param acceptEncoding the accept header to indicate whether to serve compressed or uncompressed data.
      * @param eurekaAccept an eureka accept extension, see {@link com.netflix.appinfo.EurekaAccept}
+     * @param ifNoneMatch the entity tags of the registry payloads the client already has; answered with a 304 Not
+     *                    Modified if the current payload is one of them.
      * @param uriInfo the {@link java.net.URI} information of the request made.
      * @param regionsStr A comma separated list of remote regions from which the instances will also be returned.
      *                   The applications returned from the remote region can be limited to the applications
@@ -107,6 +114,7 @@ public class ApplicationsResource {
                                   @HeaderParam(HEADER_ACCEPT) String acceptHeader,
                                   @HeaderParam(HEADER_ACCEPT_ENCODING) String acceptEncoding,
                                   @HeaderParam(EurekaAccept.HTTP_X_EUREKA_ACCEPT) String eurekaAccept,
+                                  @HeaderParam(EntityTags.HEADER_IF_NONE_MATCH) String ifNoneMatch,
                                   @Context UriInfo uriInfo,
                                   @Nullable @QueryParam("regions") String regionsStr) {
 
@@ -127,22 +135,14 @@ public class ApplicationsResource {
             return Response.status(Status.FORBIDDEN).build();
         }
         CurrentRequestVersion.set(Version.toEnum(version));
-        KeyType keyType = KeyType.JSON;
-        if (acceptHeader == null || !acceptHeader.contains(HEADER_JSON_VALUE)) {
-            keyType = KeyType.XML;
-        }
+        KeyType keyType = getKeyType(acceptHeader);
 
         Key cacheKey = new Key(Key.EntityType.Application,
                 ResponseCache.ALL_APPS,
                 keyType, CurrentRequestVersion.get(), EurekaAccept.fromString(eurekaAccept), regions
         );
 
-        if (acceptEncoding != null && acceptEncoding.contains(HEADER_GZIP_VALUE)) {
-            return Response.ok(responseCache.getGZIP(cacheKey))
-                    .header(HEADER_CONTENT_ENCODING, HEADER_GZIP_VALUE).build();
-        } else {
-            return Response.ok(responseCache.get(cacheKey)).build();
-        }
+        return buildResponse(cacheKey, acceptEncoding, ifNoneMatch);
     }
 
     /**
@@ -165,11 +165,23 @@ public class ApplicationsResource {
      * are expected to handle this duplicate information.
      * <p>
      *
+     * <p>
+     * If long polling is allowed by {@link EurekaServerConfig#shouldAllowDeltaLongPolling()} and the client passes
+     * the delta version it already has, the request is held until a delta with a different version is available
+     * or the requested wait (bounded by {@link EurekaServerConfig#getDeltaLongPollMaxTimeoutMs()}) elapses. This
+     * avoids answering idle polls with the same delta again and delivers changes as soon as they are cached.
+     * </p>
+     *
      * @param version the version of the request.
      * @param acceptHeader the accept header to indicate whether to serve  JSON or XML data.
      * @param acceptEncoding the accept header to indicate whether to serve compressed or uncompressed data.
      * @param eurekaAccept an eureka accept extension, see {@link com.netflix.appinfo.EurekaAccept}
+     * @param ifNoneMatch the entity tags of the delta payloads the client already has; answered with a 304 Not
+     *                    Modified if the current delta is one of them.
      * @param uriInfo  the {@link java.net.URI} information of the request made.
+     * @param regionsStr A comma separated list of remote regions from which the instances will also be returned.
+     * @param knownVersionStr the delta version the client already has; enables long polling if present.
+     * @param waitMsStr the maximum time in milliseconds the client is willing to have the request held.
      * @return response containing the delta information of the
      *         {@link AbstractInstanceRegistry}.
      */
@@ -180,7 +192,10 @@ public class ApplicationsResource {
             @HeaderParam(HEADER_ACCEPT) String acceptHeader,
             @HeaderParam(HEADER_ACCEPT_ENCODING) String acceptEncoding,
             @HeaderParam(EurekaAccept.HTTP_X_EUREKA_ACCEPT) String eurekaAccept,
-            @Context UriInfo uriInfo, @Nullable @QueryParam("regions") String regionsStr) {
+            @HeaderParam(EntityTags.HEADER_IF_NONE_MATCH) String ifNoneMatch,
+            @Context UriInfo uriInfo, @Nullable @QueryParam("regions") String regionsStr,
+            @Nullable @QueryParam("knownVersion") String knownVersionStr,
+            @Nullable @QueryParam("waitMs") String waitMsStr) {
 
         boolean isRemoteRegionRequested = null != regionsStr && !regionsStr.isEmpty();
 
@@ -201,23 +216,80 @@ public class ApplicationsResource {
         }
 
         CurrentRequestVersion.set(Version.toEnum(version));
-        KeyType keyType = KeyType.JSON;
-        if (acceptHeader == null || !acceptHeader.contains(HEADER_JSON_VALUE)) {
-            keyType = KeyType.XML;
-        }
+        KeyType keyType = getKeyType(acceptHeader);
 
         Key cacheKey = new Key(Key.EntityType.Application,
                 ResponseCache.ALL_APPS_DELTA,
                 keyType, CurrentRequestVersion.get(), EurekaAccept.fromString(eurekaAccept), regions
         );
 
-        if (acceptEncoding != null
-                && acceptEncoding.contains(HEADER_GZIP_VALUE)) {
-            return Response.ok(responseCache.getGZIP(cacheKey))
-                    .header(HEADER_CONTENT_ENCODING, HEADER_GZIP_VALUE).build();
+        if (knownVersionStr != null && waitMsStr != null && eurekaConfig.shouldAllowDeltaLongPolling()) {
+            awaitDeltaChange(cacheKey, knownVersionStr, waitMsStr);
+        }
+
+        return buildResponse(cacheKey, acceptEncoding, ifNoneMatch);
+    }
+
+    /**
+     * Binary (Smile) payloads are only served to clients asking for them explicitly, JSON and XML are
+     * negotiated as before.
+     */
+    private static KeyType getKeyType(String acceptHeader) {
+        if (acceptHeader == null) {
+            return KeyType.XML;
+        }
+        if (acceptHeader.contains(JacksonSmile.SMILE_CONTENT_TYPE)) {
+            return KeyType.SMILE;
+        }
+        return acceptHeader.contains(HEADER_JSON_VALUE) ? KeyType.JSON : KeyType.XML;
+    }
+
+    private Response buildResponse(Key cacheKey, String acceptEncoding, String ifNoneMatch) {
+        ResponseCache.Value value = responseCache.getValue(cacheKey);
+        Response notModified = EntityTags.notModifiedResponse(ifNoneMatch, value);
+        if (notModified != null) {
+            EurekaMonitors.GET_ALL_NOT_MODIFIED.increment();
+            return notModified;
+        }
+
+        String payload = value == null || value.getPayload().isEmpty() ? null : value.getPayload();
+        boolean binary = cacheKey.getType() == KeyType.SMILE;
+        Response.ResponseBuilder builder;
+        if (acceptEncoding != null && acceptEncoding.contains(HEADER_GZIP_VALUE)) {
+            builder = Response.ok(value == null ? null : value.getGzipped())
+                    .header(HEADER_CONTENT_ENCODING, HEADER_GZIP_VALUE);
+        } else if (binary) {
+            builder = Response.ok(payload == null ? null : KeyType.SMILE.toBytes(payload));
         } else {
-            return Response.ok(responseCache.get(cacheKey))
-                    .build();
+            builder = Response.ok(payload);
+        }
+        if (binary) {
+            builder.type(JacksonSmile.SMILE_MEDIA_TYPE);
+        }
+        return EntityTags.tag(builder, value).build();
+    }
+
+    private void awaitDeltaChange(Key cacheKey, String knownVersionStr, String waitMsStr) {
+        long knownVersion;
+        long waitMs;
+        try {
+            knownVersion = Long.parseLong(knownVersionStr);
+            waitMs = Long.parseLong(waitMsStr);
+        } catch (NumberFormatException e) {
+            logger.debug("Ignoring long poll request with invalid version {} or wait time {}", knownVersionStr, waitMsStr);
+            return;
+        }
+        waitMs = Math.min(waitMs, eurekaConfig.getDeltaLongPollMaxTimeoutMs());
+        if (waitMs <= 0) {
+            return;
+        }
+        EurekaMonitors.GET_ALL_DELTA_LONG_POLL.increment();
+        try {
+            if (!responseCache.awaitVersionChange(cacheKey, knownVersion, waitMs)) {
+                EurekaMonitors.GET_ALL_DELTA_LONG_POLL_TIMEOUT.increment();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 }
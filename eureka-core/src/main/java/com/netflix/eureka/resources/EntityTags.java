@@ -0,0 +1,57 @@
+package com.netflix.eureka.resources;
+
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Response;
+
+import com.netflix.eureka.resources.ResponseCache.Value;
+
+/**
+ * Conditional registry fetches: the cached payloads are served with an entity tag, and a client that sends back
+ * the tag of the payload it already has, in an If-None-Match header, gets a 304 Not Modified with no body
+ * instead of the same payload again.
+ * <p>
+ * The tags are weak, as the same tag is given to the plain and the gzip encodings of a payload.
+ */
+final class EntityTags {
+
+    static final String HEADER_IF_NONE_MATCH = "If-None-Match";
+
+    private EntityTags() {
+    }
+
+    /**
+     * @return the 304 response if the client has the payload of the value already, null otherwise
+     */
+    static Response notModifiedResponse(String ifNoneMatch, Value value) {
+        if (ifNoneMatch == null || value == null || value.getETag() == null) {
+            return null;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String opaqueTag = tag.trim();
+            if (opaqueTag.startsWith("W/")) {
+                opaqueTag = opaqueTag.substring(2);
+            }
+            if (opaqueTag.length() >= 2 && opaqueTag.startsWith("\"") && opaqueTag.endsWith("\"")) {
+                opaqueTag = opaqueTag.substring(1, opaqueTag.length() - 1);
+            }
+            if (opaqueTag.equals("*") || opaqueTag.equals(value.getETag())) {
+                return Response.notModified(toEntityTag(value)).build();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Tags the response with the entity tag of the value, if it has one.
+     */
+    static Response.ResponseBuilder tag(Response.ResponseBuilder builder, Value value) {
+        if (value != null && value.getETag() != null) {
+            builder.tag(toEntityTag(value));
+        }
+        return builder;
+    }
+
+    private static EntityTag toEntityTag(Value value) {
+        return new EntityTag(value.getETag(), true);
+    }
+}
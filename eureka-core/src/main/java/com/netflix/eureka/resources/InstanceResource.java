@@ -134,7 +134,7 @@ public class InstanceResource {
         } else {
             response = Response.ok().build();
         }
-        logger.debug("Found (Renew): {} - {}; reply status={}" + app.getName(), id, response.getStatus());
+        logger.debug("Found (Renew): {} - {}; reply status={}", app.getName(), id, response.getStatus());
         return response;
     }
 
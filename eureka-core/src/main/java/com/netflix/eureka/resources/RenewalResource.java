@@ -0,0 +1,71 @@
+package com.netflix.eureka.resources;
+
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+
+import com.netflix.discovery.shared.Renewal;
+import com.netflix.discovery.shared.RenewalList;
+import com.netflix.discovery.shared.RenewalListResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A <em>jersey</em> resource that renews the leases of many instances in one request, for the hosts that
+ * register several instances, such as the logical instances of a sidecar.
+ * <p>
+ * Each renewal is handled as a heartbeat of the instance would be, and gets the status code of that heartbeat
+ * in the {@link RenewalListResponse}.
+ */
+@Path("/{version}/renewals")
+@Produces({"application/xml", "application/json"})
+public class RenewalResource {
+
+    private static final Logger logger = LoggerFactory.getLogger(RenewalResource.class);
+
+    /**
+     * Renews the leases of the instances of the list.
+     *
+     * @param renewalList
+     *            the renewals of the instances.
+     * @return the status code of each renewal, in the order of the list.
+     */
+    @POST
+    public Response batchRenewal(RenewalList renewalList) {
+        try {
+            RenewalListResponse batchResponse = new RenewalListResponse();
+            for (Renewal renewal : renewalList.getRenewalList()) {
+                try {
+                    batchResponse.addStatusCode(renew(renewal));
+                } catch (Exception e) {
+                    batchResponse.addStatusCode(Status.INTERNAL_SERVER_ERROR.getStatusCode());
+                    logger.error("Renewal failed for batch item " + renewal.getAppName() + '/' + renewal.getId(), e);
+                }
+            }
+            return Response.ok(batchResponse).build();
+        } catch (Throwable e) {
+            logger.error("Cannot execute batch renewal", e);
+            return Response.status(Status.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    private int renew(Renewal renewal) {
+        InstanceResource resource = createInstanceResource(renewal);
+        Response response = resource.renewLease(null, null, toString(renewal.getStatus()),
+                toString(renewal.getLastDirtyTimestamp()));
+        return response.getStatus();
+    }
+
+    /* Visible for testing */ InstanceResource createInstanceResource(Renewal renewal) {
+        return new InstanceResource(new ApplicationResource(renewal.getAppName()), renewal.getId());
+    }
+
+    private static <T> String toString(T value) {
+        if (value == null) {
+            return null;
+        }
+        return value.toString();
+    }
+}
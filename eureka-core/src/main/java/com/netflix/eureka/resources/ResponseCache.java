@@ -17,22 +17,29 @@
 package com.netflix.eureka.resources;
 
 import javax.annotation.Nullable;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.TimerTask;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.zip.GZIPOutputStream;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Supplier;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
@@ -41,10 +48,10 @@ import com.google.common.cache.RemovalNotification;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
 import com.netflix.appinfo.EurekaAccept;
-import com.netflix.appinfo.InstanceInfo;
 import com.netflix.discovery.converters.wrappers.EncoderWrapper;
 import com.netflix.discovery.shared.Application;
 import com.netflix.discovery.shared.Applications;
+import com.netflix.discovery.util.PooledGZIPOutputStream;
 import com.netflix.eureka.AbstractInstanceRegistry;
 import com.netflix.eureka.CurrentRequestVersion;
 import com.netflix.eureka.EurekaServerConfig;
@@ -53,6 +60,7 @@ import com.netflix.eureka.PeerAwareInstanceRegistryImpl;
 import com.netflix.eureka.Version;
 import com.netflix.servo.annotations.DataSourceType;
 import com.netflix.servo.annotations.Monitor;
+import com.netflix.servo.monitor.Counter;
 import com.netflix.servo.monitor.Monitors;
 import com.netflix.servo.monitor.Stopwatch;
 import com.netflix.servo.monitor.Timer;
@@ -69,8 +77,8 @@ import org.slf4j.LoggerFactory;
  * applications. The compressed form is probably the most efficient in terms of
  * network traffic especially when querying all applications.
  *
- * The cache also maintains separate pay load for <em>JSON</em> and <em>XML</em>
- * formats and for multiple versions too.
+ * The cache also maintains separate pay load for <em>JSON</em>, <em>XML</em> and
+ * binary <em>Smile</em> formats and for multiple versions too.
  * </p>
  *
  * @author Karthik Ranganathan, Greg Kim
@@ -85,6 +93,9 @@ public class ResponseCache {
     private static final AtomicLong versionDelta = new AtomicLong(0);
     private static final AtomicLong versionDeltaWithRegions = new AtomicLong(0);
     private static final String EMPTY_PAYLOAD = "";
+    private static final Object NO_ENTITY = new Object();
+    // Weight of the latest load in the moving average of the load times
+    private static final double LOAD_TIME_SMOOTHING = 0.2;
 
     private static final java.util.Timer timer = new java.util.Timer("Eureka -CacheFillTimer", true);
 
@@ -101,9 +112,25 @@ public class ResponseCache {
     private final Timer serializeViptimer = Monitors.newTimer("serialize-one-vip");
     private final Timer compressPayloadTimer = Monitors
             .newTimer("compress-payload");
+    private final Timer loadJsonTimer = Monitors.newTimer("load-json");
+    private final Timer loadXmlTimer = Monitors.newTimer("load-xml");
+    private final Timer loadSmileTimer = Monitors.newTimer("load-smile");
+    private final Counter coalescedEntityLoads = Monitors.newCounter("coalesced-entity-loads");
 
     public enum KeyType {
-        JSON, XML
+        JSON, XML,
+        /**
+         * Binary (Smile) encoding of the JSON data model. The payload strings hold the binary document as
+         * ISO-8859-1 characters, one character per byte.
+         */
+        SMILE;
+
+        /**
+         * @return the bytes of a payload of this type, as sent to the clients
+         */
+        public byte[] toBytes(String payload) {
+            return this == SMILE ? payload.getBytes(StandardCharsets.ISO_8859_1) : payload.getBytes();
+        }
     }
 
     private final EurekaServerConfig eurekaConfig = EurekaServerConfigurationManager.getInstance().getConfiguration();
@@ -150,6 +177,28 @@ public class ResponseCache {
                         }
                     });
 
+    /**
+     * The registry entities (applications, deltas, VIP views) the payloads are encoded from, shared by the loads of
+     * all the formats of a key, so that concurrent and successive loads of the JSON, XML and Smile, full and
+     * compact, payloads of an entity query the registry once. Entities are keyed by the invalidation generation
+     * they were loaded in, so that no load after an invalidation gets an entity from before it, and are kept for
+     * at most one update interval of the read only cache, within which its refresh loads all the formats.
+     */
+    private final Cache<String, Object> sharedEntities;
+    private final AtomicLong entityGeneration = new AtomicLong(0);
+    private final AtomicInteger pendingEntityLoads = new AtomicInteger(0);
+    private final AtomicInteger activeEntityLoads = new AtomicInteger(0);
+
+    /**
+     * Bumped and signalled whenever a cached payload may have changed, so that long-polling delta requests
+     * can re-check the version of the payload they are waiting on.
+     */
+    private final AtomicLong changeGeneration = new AtomicLong(0);
+    private final Object changeMonitor = new Object();
+    private final AtomicInteger longPollWaiters = new AtomicInteger(0);
+    // Moving average of the payload load times; concurrent loads may drop an update, which only makes it lag
+    private volatile double averageLoadTimeMs;
+
     private final boolean shouldUseReadOnlyResponseCache;
     private final AbstractInstanceRegistry registry;
     private final ServerCodecs serverCodecs;
@@ -173,6 +222,9 @@ public class ResponseCache {
 
         this.registry = registry;
         this.serverCodecs = new ServerCodecs(eurekaConfig);
+        this.sharedEntities = CacheBuilder.newBuilder()
+                .expireAfterWrite(responseCacheUpdateIntervalMs, TimeUnit.MILLISECONDS)
+                .build();
 
         try {
             Monitors.registerObject(this);
@@ -200,6 +252,7 @@ public class ResponseCache {
                         Value currentCacheValue = readOnlyCacheMap.get(key);
                         if (cacheValue != currentCacheValue) {
                             readOnlyCacheMap.put(key, cacheValue);
+                            signalChange();
                         }
                     } catch (Throwable th) {
                         logger.error("Error while updating the client cache from response cache", th);
@@ -276,10 +329,16 @@ public class ResponseCache {
                         new Key(Key.EntityType.Application, ALL_APPS_DELTA, type, v, EurekaAccept.compact)
                 );
                 if (null != vipAddress) {
-                    invalidate(new Key(Key.EntityType.VIP, vipAddress, type, v, EurekaAccept.full));
+                    invalidate(
+                            new Key(Key.EntityType.VIP, vipAddress, type, v, EurekaAccept.full),
+                            new Key(Key.EntityType.VIP, vipAddress, type, v, EurekaAccept.compact)
+                    );
                 }
                 if (null != secureVipAddress) {
-                    invalidate(new Key(Key.EntityType.SVIP, secureVipAddress, type, v, EurekaAccept.full));
+                    invalidate(
+                            new Key(Key.EntityType.SVIP, secureVipAddress, type, v, EurekaAccept.full),
+                            new Key(Key.EntityType.SVIP, secureVipAddress, type, v, EurekaAccept.compact)
+                    );
                 }
             }
         }
@@ -293,19 +352,79 @@ public class ResponseCache {
      *            invalidated.
      */
     public void invalidate(Key... keys) {
+        // The shared entities are dropped first: a key reloaded while the others are still being invalidated
+        // must not be generated from an entity built before the change.
+        entityGeneration.incrementAndGet();
+        sharedEntities.invalidateAll();
         for (Key key : keys) {
-            logger.debug("Invalidating the response cache key : {} {} {} {}, {}",
-                    key.getEntityType(), key.getName(), key.getVersion(), key.getType(), key.getEurekaAccept());
-
-            readWriteCacheMap.invalidate(key);
-            Collection<Key> keysWithRegions = regionSpecificKeys.get(key);
-            if (null != keysWithRegions && !keysWithRegions.isEmpty()) {
-                for (Key keysWithRegion : keysWithRegions) {
-                    logger.debug("Invalidating the response cache key : {} {} {} {}, {}",
-                            key.getEntityType(), key.getName(), key.getVersion(), key.getType(), key.getEurekaAccept());
-                    readWriteCacheMap.invalidate(keysWithRegion);
+            invalidateKey(key);
+        }
+        signalChange();
+    }
+
+    /* test use */ void invalidateKey(Key key) {
+        logger.debug("Invalidating the response cache key : {} {} {} {}, {}",
+                key.getEntityType(), key.getName(), key.getVersion(), key.getType(), key.getEurekaAccept());
+
+        readWriteCacheMap.invalidate(key);
+        Collection<Key> keysWithRegions = regionSpecificKeys.get(key);
+        if (null != keysWithRegions && !keysWithRegions.isEmpty()) {
+            for (Key keysWithRegion : keysWithRegions) {
+                logger.debug("Invalidating the response cache key : {} {} {} {}, {}",
+                        key.getEntityType(), key.getName(), key.getVersion(), key.getType(), key.getEurekaAccept());
+                readWriteCacheMap.invalidate(keysWithRegion);
+            }
+        }
+    }
+
+    /**
+     * Hold the caller until the version of the payload cached for the given key differs from
+     * {@code knownVersion}, or until {@code timeoutMs} elapses, whichever comes first. This is used to
+     * long-poll the delta: a client passes the version of the last delta it applied and is answered as soon
+     * as a newer delta is available instead of receiving an empty one.
+     *
+     * <p>
+     * A cached version lower than {@code knownVersion} means the client got its version from another server,
+     * in which case it is not held at all.
+     * </p>
+     *
+     * @param key
+     *            the delta key the client is going to fetch.
+     * @param knownVersion
+     *            the delta version the client already has.
+     * @param timeoutMs
+     *            the maximum time to hold the caller.
+     * @return true if a different version is available, false if the wait timed out.
+     */
+    public boolean awaitVersionChange(Key key, long knownVersion, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        longPollWaiters.incrementAndGet();
+        try {
+            while (true) {
+                long generation = changeGeneration.get();
+                Value value = getValue(key, shouldUseReadOnlyResponseCache);
+                if (value == null || value.getVersion() != knownVersion) {
+                    return true;
+                }
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                synchronized (changeMonitor) {
+                    if (generation == changeGeneration.get()) {
+                        changeMonitor.wait(remaining);
+                    }
                 }
             }
+        } finally {
+            longPollWaiters.decrementAndGet();
+        }
+    }
+
+    private void signalChange() {
+        changeGeneration.incrementAndGet();
+        synchronized (changeMonitor) {
+            changeMonitor.notifyAll();
         }
     }
 
@@ -337,6 +456,48 @@ public class ResponseCache {
         return readWriteCacheMap.asMap().size();
     }
 
+    /**
+     * Get the number of delta requests currently held by long polling.
+     *
+     * @return int value representing the number of held requests.
+     */
+    @Monitor(name = "deltaLongPollWaiters", type = DataSourceType.GAUGE)
+    public int getLongPollWaiters() {
+        return longPollWaiters.get();
+    }
+
+    /**
+     * Get the number of payload loads currently waiting for the registry entity another load is querying.
+     *
+     * @return int value representing the number of waiting loads.
+     */
+    @Monitor(name = "responseCacheEntityLoadWaiters", type = DataSourceType.GAUGE)
+    public int getEntityLoadWaiters() {
+        return Math.max(0, pendingEntityLoads.get() - activeEntityLoads.get());
+    }
+
+    /**
+     * Get the moving average of the time it takes to load a payload into the cache, which grows with the size of
+     * the registry and with the load of the server.
+     *
+     * @return the average load time in milliseconds.
+     */
+    @Monitor(name = "responseCacheAverageLoadTime", type = DataSourceType.GAUGE)
+    public long getAverageLoadTimeMs() {
+        return Math.round(averageLoadTimeMs);
+    }
+
+    /**
+     * Get the cached payload of the key in both compressed and uncompressed form, with its entity tag.
+     *
+     * @param key
+     *            the key for which the cached information needs to be obtained.
+     * @return the cached payload, or null if it could not be generated.
+     */
+    public Value getValue(final Key key) {
+        return getValue(key, shouldUseReadOnlyResponseCache);
+    }
+
     /**
      * Get the payload in both compressed and uncompressed form.
      */
@@ -396,13 +557,26 @@ public class ResponseCache {
         }
     }
 
+    private static String computeETag(byte[] rawBytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(rawBytes);
+            return new BigInteger(1, digest).toString(16);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform supports SHA-1; payloads only go without a tag if one does not
+            logger.warn("Cannot compute the entity tags of the payloads", e);
+            return null;
+        }
+    }
+
     /*
      * Generate pay load for the given key.
      */
     private Value generatePayload(Key key) {
+        Stopwatch loadTracer = getLoadTimer(key.getType()).start();
         Stopwatch tracer = null;
         try {
             String payload;
+            long version = 0;
             switch (key.getEntityType()) {
                 case Application:
                     boolean isRemoteRegionRequested = key.hasRegions();
@@ -410,78 +584,121 @@ public class ResponseCache {
                     if (ALL_APPS.equals(key.getName())) {
                         if (isRemoteRegionRequested) {
                             tracer = serializeAllAppsWithRemoteRegionTimer.start();
-                            payload = getPayLoad(key, registry.getApplicationsFromMultipleRegions(key.getRegions()));
                         } else {
                             tracer = serializeAllAppsTimer.start();
-                            payload = getPayLoad(key, registry.getApplications());
                         }
+                        payload = getPayLoad(key, (Applications) getSharedEntity(key));
                     } else if (ALL_APPS_DELTA.equals(key.getName())) {
                         if (isRemoteRegionRequested) {
                             tracer = serializeDeltaAppsWithRemoteRegionTimer.start();
-                            versionDeltaWithRegions.incrementAndGet();
-                            payload = getPayLoad(key,
-                                    registry.getApplicationDeltasFromMultipleRegions(key.getRegions()));
                         } else {
                             tracer = serializeDeltaAppsTimer.start();
-                            versionDelta.incrementAndGet();
-                            payload = getPayLoad(key, registry.getApplicationDeltas());
                         }
+                        Applications deltas = (Applications) getSharedEntity(key);
+                        version = deltas.getVersion();
+                        payload = getPayLoad(key, deltas);
                     } else {
                         tracer = serializeOneApptimer.start();
-                        payload = getPayLoad(key, registry.getApplication(key.getName()));
+                        payload = getPayLoad(key, (Application) getSharedEntity(key));
                     }
                     break;
                 case VIP:
                 case SVIP:
                     tracer = serializeViptimer.start();
-                    payload = getPayLoad(key, getApplicationsForVip(key, registry));
+                    payload = getPayLoad(key, (Applications) getSharedEntity(key));
                     break;
                 default:
                     logger.error("Unidentified entity type: " + key.getEntityType() + " found in the cache key.");
                     payload = "";
                     break;
             }
-            return new Value(payload);
+            return new Value(payload, version, key.getType());
         } finally {
             if (tracer != null) {
                 tracer.stop();
             }
+            loadTracer.stop();
+            long loadTimeMs = loadTracer.getDuration(TimeUnit.MILLISECONDS);
+            averageLoadTimeMs += (loadTimeMs - averageLoadTimeMs) * LOAD_TIME_SMOOTHING;
         }
     }
 
-    private static Applications getApplicationsForVip(Key key, AbstractInstanceRegistry registry) {
-        Object[] args = {key.getEntityType(), key.getName(), key.getVersion(), key.getType()};
-        logger.debug(
-                "Retrieving applications from registry for key : {} {} {} {}",
-                args);
-        Applications toReturn = new Applications();
-        Applications applications = registry.getApplications();
-        for (Application application : applications.getRegisteredApplications()) {
-            Application appToAdd = null;
-            for (InstanceInfo instanceInfo : application.getInstances()) {
-                String vipAddress;
-                if (Key.EntityType.VIP.equals(key.getEntityType())) {
-                    vipAddress = instanceInfo.getVIPAddress();
-                } else if (Key.EntityType.SVIP.equals(key.getEntityType())) {
-                    vipAddress = instanceInfo.getSecureVipAddress();
-                } else {
-                    // should not happen, but just in case.
-                    continue;
-                }
+    private Timer getLoadTimer(KeyType type) {
+        switch (type) {
+            case XML:
+                return loadXmlTimer;
+            case SMILE:
+                return loadSmileTimer;
+            default:
+                return loadJsonTimer;
+        }
+    }
 
-                if (null != vipAddress) {
-                    String[] vipAddresses = vipAddress.split(",");
-                    Arrays.sort(vipAddresses);
-                    if (Arrays.binarySearch(vipAddresses, key.getName()) >= 0) {
-                        if (null == appToAdd) {
-                            appToAdd = new Application(application.getName());
-                            toReturn.addApplication(appToAdd);
-                        }
-                        appToAdd.addInstance(instanceInfo);
+    /*
+     * Get the registry entity of the key, loading it only if no load of another format of the key did since the
+     * last invalidation. Concurrent loads of the entity wait for the first one.
+     */
+    private Object getSharedEntity(final Key key) {
+        final boolean[] loaded = {false};
+        String entityKey = key.getEntityHashKey() + '@' + entityGeneration.get();
+        pendingEntityLoads.incrementAndGet();
+        try {
+            Object entity = sharedEntities.get(entityKey, new Callable<Object>() {
+                @Override
+                public Object call() {
+                    loaded[0] = true;
+                    activeEntityLoads.incrementAndGet();
+                    try {
+                        Object loadedEntity = loadEntity(key);
+                        return loadedEntity == null ? NO_ENTITY : loadedEntity;
+                    } finally {
+                        activeEntityLoads.decrementAndGet();
                     }
                 }
+            });
+            if (!loaded[0]) {
+                coalescedEntityLoads.increment();
             }
+            return entity == NO_ENTITY ? null : entity;
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        } finally {
+            pendingEntityLoads.decrementAndGet();
+        }
+    }
+
+    private Object loadEntity(Key key) {
+        switch (key.getEntityType()) {
+            case Application:
+                if (ALL_APPS.equals(key.getName())) {
+                    if (key.hasRegions()) {
+                        return registry.getApplicationsFromMultipleRegions(key.getRegions());
+                    }
+                    return registry.getApplications();
+                } else if (ALL_APPS_DELTA.equals(key.getName())) {
+                    if (key.hasRegions()) {
+                        versionDeltaWithRegions.incrementAndGet();
+                        return registry.getApplicationDeltasFromMultipleRegions(key.getRegions());
+                    }
+                    versionDelta.incrementAndGet();
+                    return registry.getApplicationDeltas();
+                }
+                return registry.getApplication(key.getName());
+            case VIP:
+            case SVIP:
+                return getApplicationsForVip(key, registry);
+            default:
+                return null;
         }
+    }
+
+    private static Applications getApplicationsForVip(Key key, AbstractInstanceRegistry registry) {
+        Object[] args = {key.getEntityType(), key.getName(), key.getVersion(), key.getType()};
+        logger.debug(
+                "Retrieving applications from registry for key : {} {} {} {}",
+                args);
+        boolean secure = Key.EntityType.SVIP.equals(key.getEntityType());
+        Applications toReturn = registry.getApplicationsForVip(key.getName(), secure);
         toReturn.setAppsHashCode(toReturn.getReconcileHashCode());
         args = new Object[]{key.getEntityType(), key.getName(), key.getVersion(), key.getType(),
                 toReturn.getReconcileHashCode()};
@@ -508,6 +725,7 @@ public class ResponseCache {
         private final KeyType requestType;
         private final Version requestVersion;
         private final String hashKey;
+        private final String entityHashKey;
         private final EntityType entityType;
         private final EurekaAccept eurekaAccept;
 
@@ -522,8 +740,8 @@ public class ResponseCache {
             this.requestType = type;
             this.requestVersion = v;
             this.eurekaAccept = eurekaAccept;
-            hashKey = this.entityType + this.entityName + (null != this.regions ? Arrays.toString(this.regions) : "")
-                    + requestType.name() + requestVersion.name() + this.eurekaAccept.name();
+            entityHashKey = this.entityType + this.entityName + (null != this.regions ? Arrays.toString(this.regions) : "");
+            hashKey = entityHashKey + requestType.name() + requestVersion.name() + this.eurekaAccept.name();
         }
 
         public String getName() {
@@ -534,6 +752,13 @@ public class ResponseCache {
             return hashKey;
         }
 
+        /**
+         * @return the part of the hash key that identifies the registry entity, the same for all its formats
+         */
+        String getEntityHashKey() {
+            return entityHashKey;
+        }
+
         public KeyType getType() {
             return requestType;
         }
@@ -594,22 +819,27 @@ public class ResponseCache {
      */
     public class Value {
         private final String payload;
+        private final long version;
+        private final String eTag;
         private byte[] gzipped;
 
         public Value(String payload) {
+            this(payload, 0);
+        }
+
+        public Value(String payload, long version) {
+            this(payload, version, KeyType.JSON);
+        }
+
+        public Value(String payload, long version, KeyType type) {
             this.payload = payload;
+            this.version = version;
             if (payload != EMPTY_PAYLOAD) {
+                byte[] rawBytes = type.toBytes(payload);
+                eTag = computeETag(rawBytes);
                 Stopwatch tracer = compressPayloadTimer.start();
                 try {
-                    ByteArrayOutputStream bos = new ByteArrayOutputStream();
-                    GZIPOutputStream out = new GZIPOutputStream(bos);
-                    byte[] rawBytes = payload.getBytes();
-                    out.write(rawBytes);
-                    // Finish creation of gzip file
-                    out.finish();
-                    out.close();
-                    bos.close();
-                    gzipped = bos.toByteArray();
+                    gzipped = PooledGZIPOutputStream.compress(rawBytes, eurekaConfig.getResponseCacheGZipCompressionLevel());
                 } catch (IOException e) {
                     gzipped = null;
                 } finally {
@@ -618,6 +848,7 @@ public class ResponseCache {
                     }
                 }
             } else {
+                eTag = null;
                 gzipped = null;
             }
         }
@@ -630,6 +861,21 @@ public class ResponseCache {
             return gzipped;
         }
 
+        /**
+         * The delta version carried by the payload, or 0 for payloads that are not deltas.
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * The entity tag of the payload, derived from its content so that equal payloads, whenever and wherever
+         * they are encoded, have the same tag. Null for empty payloads.
+         */
+        public String getETag() {
+            return eTag;
+        }
+
     }
 
 }
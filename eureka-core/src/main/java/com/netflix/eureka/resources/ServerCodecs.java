@@ -3,6 +3,8 @@ package com.netflix.eureka.resources;
 import com.netflix.appinfo.EurekaAccept;
 import com.netflix.discovery.converters.wrappers.CodecWrappers;
 import com.netflix.discovery.converters.wrappers.CodecWrappers.JacksonJsonMini;
+import com.netflix.discovery.converters.wrappers.CodecWrappers.JacksonSmile;
+import com.netflix.discovery.converters.wrappers.CodecWrappers.JacksonSmileMini;
 import com.netflix.discovery.converters.wrappers.CodecWrappers.JacksonXmlMini;
 import com.netflix.discovery.converters.wrappers.CodecWrappers.LegacyJacksonJson;
 import com.netflix.discovery.converters.wrappers.CodecWrappers.XStreamXml;
@@ -20,6 +22,9 @@ class ServerCodecs {
     private final EncoderWrapper fullXmlEncoder;
     private final EncoderWrapper miniXmlEncoder;
 
+    private final EncoderWrapper fullSmileEncoder;
+    private final EncoderWrapper miniSmileEncoder;
+
     public ServerCodecs(EurekaServerConfig config) {
         EncoderWrapper temp = CodecWrappers.getEncoder(config.getJsonCodecName());
         fullJsonEncoder = temp == null ? CodecWrappers.getEncoder(LegacyJacksonJson.class) : temp;
@@ -29,12 +34,17 @@ class ServerCodecs {
 
         miniJsonEncoder = CodecWrappers.getEncoder(JacksonJsonMini.class);
         miniXmlEncoder = CodecWrappers.getEncoder(JacksonXmlMini.class);
+
+        fullSmileEncoder = CodecWrappers.getEncoder(JacksonSmile.class);
+        miniSmileEncoder = CodecWrappers.getEncoder(JacksonSmileMini.class);
     }
 
     public EncoderWrapper getEncoder(ResponseCache.KeyType keyType, boolean compact) {
         switch (keyType) {
             case JSON:
                 return compact ? miniJsonEncoder : fullJsonEncoder;
+            case SMILE:
+                return compact ? miniSmileEncoder : fullSmileEncoder;
             case XML:
             default:
                 return compact ? miniXmlEncoder : fullXmlEncoder;
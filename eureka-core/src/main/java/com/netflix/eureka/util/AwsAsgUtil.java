@@ -63,8 +63,6 @@ import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.netflix.appinfo.InstanceInfo;
 import com.netflix.discovery.DiscoveryManager;
-import com.netflix.discovery.shared.Application;
-import com.netflix.discovery.shared.Applications;
 import com.netflix.eureka.EurekaServerConfig;
 import com.netflix.eureka.EurekaServerConfigurationManager;
 import com.netflix.servo.annotations.DataSourceType;
@@ -404,15 +402,11 @@ public class AwsAsgUtil {
      */
     private Set<CacheKey> getCacheKeys() {
         Set<CacheKey> cacheKeys = new HashSet<CacheKey>();
-        Applications apps = PeerAwareInstanceRegistryImpl.getInstance().getApplications(false);
-        for (Application app : apps.getRegisteredApplications()) {
-            for (InstanceInfo instanceInfo : app.getInstances()) {
+        PeerAwareInstanceRegistryImpl registry = PeerAwareInstanceRegistryImpl.getInstance();
+        for (String asgName : registry.getAsgNames()) {
+            for (InstanceInfo instanceInfo : registry.getInstancesByAsgName(asgName)) {
                 String localAccountId = getAccountId(instanceInfo, accountId);
-                String asgName = instanceInfo.getASGName();
-                if (asgName != null) {
-                    CacheKey key = new CacheKey(localAccountId, asgName);
-                    cacheKeys.add(key);
-                }
+                cacheKeys.add(new CacheKey(localAccountId, asgName));
             }
         }
 
@@ -421,23 +415,15 @@ public class AwsAsgUtil {
 
     /**
      * Get the AWS account id where an ASG is created.
-     * Warning: This is expensive as it loops through all instances currently registered.
      *
      * @param asgName The name of the ASG
      * @return the account id
      */
     private String getASGAccount(String asgName) {
-        Applications apps = PeerAwareInstanceRegistryImpl.getInstance().getApplications(false);
-
-        for (Application app : apps.getRegisteredApplications()) {
-            for (InstanceInfo instanceInfo : app.getInstances()) {
-                String thisAsgName = instanceInfo.getASGName();
-                if (thisAsgName != null && thisAsgName.equals(asgName)) {
-                    String localAccountId = getAccountId(instanceInfo, null);
-                    if (localAccountId != null) {
-                        return localAccountId;
-                    }
-                }
+        for (InstanceInfo instanceInfo : PeerAwareInstanceRegistryImpl.getInstance().getInstancesByAsgName(asgName)) {
+            String localAccountId = getAccountId(instanceInfo, null);
+            if (localAccountId != null) {
+                return localAccountId;
             }
         }
 
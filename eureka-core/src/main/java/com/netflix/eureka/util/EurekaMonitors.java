@@ -52,6 +52,11 @@ public enum EurekaMonitors {
     GET_ALL_DELTA("getAllDeltaCounter", "Number of total deltas since startup"),
     GET_ALL_DELTA_WITH_REMOTE_REGIONS("getAllDeltaWithRemoteRegionCounter",
             "Number of total deltas with remote regions since startup"),
+    GET_ALL_DELTA_LONG_POLL("getAllDeltaLongPollCounter", "Number of total long-polled delta queries since startup"),
+    GET_ALL_DELTA_LONG_POLL_TIMEOUT("getAllDeltaLongPollTimeoutCounter",
+            "Number of long-polled delta queries answered because the wait timed out, since startup"),
+    GET_ALL_NOT_MODIFIED("getAllNotModifiedCounter",
+            "Number of registry and delta queries answered with 304 Not Modified, since startup"),
     GET_ALL("getAllCounter", "Number of total registry queries seen since startup"),
     GET_ALL_WITH_REMOTE_REGIONS("getAllWithRemoteRegionCounter",
             "Number of total registry queries with remote regions, seen since startup"),
@@ -67,7 +72,10 @@ public enum EurekaMonitors {
     RATE_LIMITED("numOfRateLimitedRequests", "Number of requests discarded by the rate limiter"),
     RATE_LIMITED_CANDIDATES("numOfRateLimitedRequestCandidates", "Number of requests that would be discarded if the rate limiter's throttling is activated"),
     RATE_LIMITED_FULL_FETCH("numOfRateLimitedFullFetchRequests", "Number of full registry fetch requests discarded by the rate limiter"),
-    RATE_LIMITED_FULL_FETCH_CANDIDATES("numOfRateLimitedFullFetchRequestCandidates", "Number of full registry fetch requests that would be discarded if the rate limiter's throttling is activated");
+    RATE_LIMITED_FULL_FETCH_CANDIDATES("numOfRateLimitedFullFetchRequestCandidates", "Number of full registry fetch requests that would be discarded if the rate limiter's throttling is activated"),
+    SHED_FULL_FETCH("numOfShedFullFetchRequests", "Number of full registry fetch requests shed while the server was saturated"),
+    SHED_DELTA_FETCH("numOfShedDeltaFetchRequests", "Number of delta fetch requests shed while the server was saturated"),
+    SHED_APPLICATION_FETCH("numOfShedApplicationFetchRequests", "Number of application fetch requests shed while the server was saturated");
 
     private final String name;
 
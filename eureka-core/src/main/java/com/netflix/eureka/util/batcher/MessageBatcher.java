@@ -467,6 +467,19 @@ public class MessageBatcher<T> {
         }
     }
 
+    /**
+     * The fraction of the capacity of the queue in use, from 0 when it is empty to 1 when it is full and new
+     * messages are rejected or wait
+     */
+    public double getQueueFillRatio() {
+        if (queue == null) {
+            return 0;
+        }
+        int size = queue.size();
+        int capacity = size + queue.remainingCapacity();
+        return capacity == 0 ? 0 : (double) size / capacity;
+    }
+
     /**
      * Gets the statistics count of number of messages added to this batcher.
      */
@@ -0,0 +1,138 @@
+package com.netflix.eureka;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.netflix.config.ConfigurationManager;
+import com.netflix.eureka.util.EurekaMonitors;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AdmissionControlFilterTest {
+
+    private static final String FULL_FETCH = "base/apps";
+    private static final String DELTA_FETCH = "base/apps/delta";
+    private static final String RENEWAL = "base/apps/myAppId/myInstanceId";
+
+    @Mock
+    private HttpServletRequest outerRequest;
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    @Mock
+    private FilterChain outerChain;
+
+    @Mock
+    private FilterChain filterChain;
+
+    private final AdmissionControlFilter filter = new AdmissionControlFilter();
+
+    @Before
+    public void setUp() throws Exception {
+        ConfigurationManager.getConfigInstance().setProperty("eureka.admissionControl.enabled", true);
+        ConfigurationManager.getConfigInstance().setProperty("eureka.admissionControl.maxInFlightRequests", 2);
+        ConfigurationManager.getConfigInstance().setProperty("eureka.admissionControl.maxReplicationQueueFill", 0);
+        ConfigurationManager.getConfigInstance().setProperty("eureka.admissionControl.maxLatencyMs", 0);
+        ConfigurationManager.getConfigInstance().setProperty("eureka.admissionControl.retryAfterSecs", 5);
+
+        EurekaServerConfigurationManager.getInstance().setConfiguration(new DefaultEurekaServerConfig());
+
+        // The request under test is handled while another one is in progress
+        when(outerRequest.getMethod()).thenReturn("GET");
+        when(outerRequest.getRequestURI()).thenReturn(DELTA_FETCH);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                filter.doFilter(request, response, filterChain);
+                return null;
+            }
+        }).when(outerChain).doFilter(any(ServletRequest.class), any(ServletResponse.class));
+    }
+
+    @Test
+    public void testFullFetchesShedFirst() throws Exception {
+        long shedCounter = EurekaMonitors.SHED_FULL_FETCH.getCount();
+        whenRequest("GET", FULL_FETCH);
+        filter.doFilter(outerRequest, response, outerChain);
+
+        verify(filterChain, never()).doFilter(request, response);
+        verify(response, times(1)).setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        verify(response, times(1)).setHeader("Retry-After", "5");
+        assertEquals("Expected shed counter increase", shedCounter + 1, EurekaMonitors.SHED_FULL_FETCH.getCount());
+
+        // Not saturated enough to shed deltas
+        whenRequest("GET", DELTA_FETCH);
+        filter.doFilter(outerRequest, response, outerChain);
+
+        verify(filterChain, times(1)).doFilter(request, response);
+        assertEquals(0, filter.getInFlightRequests());
+    }
+
+    @Test
+    public void testRenewalsNeverShed() throws Exception {
+        ConfigurationManager.getConfigInstance().setProperty("eureka.admissionControl.maxInFlightRequests", 1);
+
+        whenRequest("PUT", RENEWAL);
+        filter.doFilter(outerRequest, response, outerChain);
+
+        verify(filterChain, times(1)).doFilter(request, response);
+        verify(response, never()).setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+    }
+
+    @Test
+    public void testDeltaLongPollsAreNotTracked() throws Exception {
+        ConfigurationManager.getConfigInstance().setProperty("eureka.deltaLongPoll.enabled", true);
+        final long parkTimeMs = 200;
+
+        // The request under test is handled while a delta long-poll is parked
+        when(outerRequest.getParameter("knownVersion")).thenReturn("1");
+        when(outerRequest.getParameter("waitMs")).thenReturn("30000");
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                Thread.sleep(parkTimeMs);
+                filter.doFilter(request, response, filterChain);
+                return null;
+            }
+        }).when(outerChain).doFilter(any(ServletRequest.class), any(ServletResponse.class));
+
+        try {
+            whenRequest("GET", FULL_FETCH);
+            filter.doFilter(outerRequest, response, outerChain);
+
+            verify(filterChain, times(1)).doFilter(request, response);
+            verify(response, never()).setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            assertTrue("Long-poll latency was sampled", filter.getLatencyPercentileMs() < parkTimeMs);
+            assertEquals(0, filter.getInFlightRequests());
+        } finally {
+            ConfigurationManager.getConfigInstance().clearProperty("eureka.deltaLongPoll.enabled");
+        }
+    }
+
+    private void whenRequest(String method, String path) {
+        when(request.getMethod()).thenReturn(method);
+        when(request.getRequestURI()).thenReturn(path);
+    }
+}
@@ -0,0 +1,116 @@
+package com.netflix.eureka;
+
+import javax.ws.rs.core.HttpHeaders;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+import com.netflix.config.ConfigurationManager;
+import com.sun.jersey.core.header.InBoundHeaders;
+import com.sun.jersey.core.header.OutBoundHeaders;
+import com.sun.jersey.spi.container.ContainerRequest;
+import com.sun.jersey.spi.container.ContainerResponse;
+import com.sun.jersey.spi.container.ContainerResponseWriter;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class GZIPContentEncodingContainerFilterTest {
+
+    private static final int MIN_COMPRESSION_SIZE = 100;
+
+    @Mock
+    private ContainerRequest request;
+
+    @Mock
+    private ContainerResponse response;
+
+    @Mock
+    private ContainerResponseWriter writer;
+
+    private final InBoundHeaders requestHeaders = new InBoundHeaders();
+    private final OutBoundHeaders responseHeaders = new OutBoundHeaders();
+    private final ByteArrayOutputStream sent = new ByteArrayOutputStream();
+
+    private final GZIPContentEncodingContainerFilter filter = new GZIPContentEncodingContainerFilter();
+
+    @Before
+    public void setUp() throws Exception {
+        ConfigurationManager.getConfigInstance().setProperty("eureka.gzip.minCompressionSize", MIN_COMPRESSION_SIZE);
+        EurekaServerConfigurationManager.getInstance().setConfiguration(new DefaultEurekaServerConfig());
+
+        when(request.getRequestHeaders()).thenReturn(requestHeaders);
+        when(response.getHttpHeaders()).thenReturn(responseHeaders);
+        when(response.getContainerResponseWriter()).thenReturn(writer);
+        when(response.getEntity()).thenReturn(new Object());
+        when(writer.writeStatusAndHeaders(-1, response)).thenReturn(sent);
+    }
+
+    @Test
+    public void testSmallResponsesAreSentUncompressed() throws Exception {
+        byte[] entity = new byte[MIN_COMPRESSION_SIZE - 1];
+        when(writer.writeStatusAndHeaders(entity.length, response)).thenReturn(sent);
+
+        requestHeaders.putSingle(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        writeEntity(entity);
+
+        assertNull(responseHeaders.getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(entity, sent.toByteArray());
+        verify(writer, never()).writeStatusAndHeaders(-1, response);
+    }
+
+    @Test
+    public void testLargeResponsesAreCompressed() throws Exception {
+        byte[] entity = new byte[10 * MIN_COMPRESSION_SIZE];
+        Arrays.fill(entity, (byte) 'a');
+
+        requestHeaders.putSingle(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        writeEntity(entity);
+
+        assertEquals("gzip", responseHeaders.getFirst(HttpHeaders.CONTENT_ENCODING));
+        ByteArrayOutputStream decompressed = new ByteArrayOutputStream();
+        InputStream in = new GZIPInputStream(new ByteArrayInputStream(sent.toByteArray()));
+        byte[] chunk = new byte[1000];
+        int count;
+        while ((count = in.read(chunk)) != -1) {
+            decompressed.write(chunk, 0, count);
+        }
+        assertArrayEquals(entity, decompressed.toByteArray());
+    }
+
+    @Test
+    public void testPreCompressedResponsesAreLeftUntouched() throws Exception {
+        requestHeaders.putSingle(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        responseHeaders.putSingle(HttpHeaders.CONTENT_ENCODING, "gzip");
+
+        filter.filter(request, response);
+
+        verify(response, never()).setContainerResponseWriter(any(ContainerResponseWriter.class));
+    }
+
+    private void writeEntity(byte[] entity) throws Exception {
+        filter.filter(request, response);
+
+        ArgumentCaptor<ContainerResponseWriter> adapter = ArgumentCaptor.forClass(ContainerResponseWriter.class);
+        verify(response).setContainerResponseWriter(adapter.capture());
+        OutputStream out = adapter.getValue().writeStatusAndHeaders(-1, response);
+        out.write(entity);
+        adapter.getValue().finish();
+        verify(writer).finish();
+    }
+}
@@ -1,18 +1,23 @@
 package com.netflix.eureka;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.netflix.appinfo.InstanceInfo;
 import com.netflix.appinfo.InstanceInfo.InstanceStatus;
 import com.netflix.discovery.shared.Application;
 import com.netflix.discovery.shared.Applications;
 import com.netflix.discovery.shared.Pair;
+import com.netflix.eureka.lease.Lease;
 import org.junit.Assert;
 import org.junit.Test;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 /**
@@ -149,6 +154,97 @@ public class InstanceRegistryTest extends AbstractTester {
         verifyLocalInstanceStatus(myInstance.getId(), InstanceStatus.UP);
     }
 
+    @Test
+    public void testIndexesFollowRegistrationAndCancellation() throws Exception {
+        InstanceInfo myInstance = createLocalInstance(LOCAL_REGION_INSTANCE_1_HOSTNAME);
+        InstanceInfo vipInstance = new InstanceInfo.Builder(myInstance)
+                .setVIPAddress("myvip,othervip")
+                .setSecureVIPAddress("mysecurevip")
+                .setASGName("myasg")
+                .build();
+        registerInstanceLocally(vipInstance);
+
+        assertThat(registry.getApplicationsForVip("myvip", false).getRegisteredApplications().size(), is(1));
+        assertThat(registry.getApplicationsForVip("othervip", false).getRegisteredApplications().size(), is(1));
+        assertThat(registry.getApplicationsForVip("mysecurevip", true).getRegisteredApplications().size(), is(1));
+        assertThat(registry.getApplicationsForVip("mysecurevip", false).getRegisteredApplications().size(), is(0));
+        assertThat(registry.getInstancesById(vipInstance.getId()).size(), is(1));
+        assertThat(registry.getAsgNames().contains("myasg"), is(true));
+        assertThat(registry.getInstancesByAsgName("myasg").size(), is(1));
+
+        registry.cancel(LOCAL_REGION_APP_NAME, vipInstance.getId(), false);
+
+        assertThat(registry.getApplicationsForVip("myvip", false).getRegisteredApplications().size(), is(0));
+        assertThat(registry.getInstancesById(vipInstance.getId()).size(), is(0));
+        assertThat(registry.getAsgNames().contains("myasg"), is(false));
+    }
+
+    @Test
+    public void testRegistrySnapshotIsSharedUntilTheRegistryChanges() throws Exception {
+        registerInstanceLocally(createLocalInstance(LOCAL_REGION_INSTANCE_1_HOSTNAME));
+        RegistrySnapshot snapshot = registry.getRegistrySnapshot();
+        assertThat(snapshot.getApplication(LOCAL_REGION_APP_NAME).getInstances().size(), is(1));
+        assertThat(registry.getRegistrySnapshot(), is(sameInstance(snapshot)));
+        assertThat(registry.getApplicationsFromLocalRegionOnly(), is(sameInstance(snapshot.getApplications())));
+
+        InstanceInfo secondInstance = createLocalInstance(LOCAL_REGION_INSTANCE_2_HOSTNAME);
+        registerInstanceLocally(secondInstance);
+        RegistrySnapshot changedSnapshot = registry.getRegistrySnapshot();
+        assertThat(changedSnapshot.getVersion() > snapshot.getVersion(), is(true));
+        assertThat(changedSnapshot.getApplication(LOCAL_REGION_APP_NAME).getInstances().size(), is(2));
+        assertThat(snapshot.getApplication(LOCAL_REGION_APP_NAME).getInstances().size(), is(1));
+
+        registry.statusUpdate(LOCAL_REGION_APP_NAME, secondInstance.getId(), InstanceStatus.OUT_OF_SERVICE, "0", false);
+        Applications afterStatusChange = registry.getRegistrySnapshot().getApplications();
+        assertThat(afterStatusChange.getAppsHashCode(), is(equalTo(afterStatusChange.getReconcileHashCode())));
+        assertThat(afterStatusChange.getAppsHashCode(), is(not(equalTo(changedSnapshot.getApplications().getAppsHashCode()))));
+    }
+
+    @Test
+    public void testIndexesFollowInterleavedRegistrations() throws Exception {
+        InstanceInfo instance = new InstanceInfo.Builder(createLocalInstance(LOCAL_REGION_INSTANCE_1_HOSTNAME))
+                .setVIPAddress("myvip")
+                .setASGName("myasg")
+                .build();
+        Lease<InstanceInfo> leaseA = new Lease<InstanceInfo>(instance, 90);
+        Lease<InstanceInfo> leaseB = new Lease<InstanceInfo>(instance, 90);
+        Map<String, Lease<InstanceInfo>> registered = new ConcurrentHashMap<String, Lease<InstanceInfo>>();
+        RegistryIndexes indexes = new RegistryIndexes();
+
+        // Two registrations of the instance update the registry and the indexes in opposite orders
+        registered.put(instance.getId(), leaseA);
+        registered.put(instance.getId(), leaseB);
+        indexes.add(leaseB, registered);
+        indexes.add(leaseA, registered);
+
+        assertThat(indexes.getByVip("myvip").size(), is(1));
+        assertThat(indexes.getByVip("myvip").get(0), is(sameInstance(leaseB)));
+
+        // The cancellation removes the lease left in the registry from the indexes
+        indexes.remove(registered.remove(instance.getId()));
+
+        assertThat(indexes.getByVip("myvip").size(), is(0));
+        assertThat(indexes.getByAsgName("myasg").size(), is(0));
+        assertThat(indexes.getByInstanceId(instance.getId()).size(), is(0));
+    }
+
+    @Test
+    public void testIndexesFollowCancellationDuringRegistration() throws Exception {
+        InstanceInfo instance = new InstanceInfo.Builder(createLocalInstance(LOCAL_REGION_INSTANCE_1_HOSTNAME))
+                .setVIPAddress("myvip")
+                .build();
+        Lease<InstanceInfo> lease = new Lease<InstanceInfo>(instance, 90);
+        Map<String, Lease<InstanceInfo>> registered = new ConcurrentHashMap<String, Lease<InstanceInfo>>();
+        RegistryIndexes indexes = new RegistryIndexes();
+
+        // The instance is cancelled before its registration reaches the indexes
+        registered.put(instance.getId(), lease);
+        indexes.remove(registered.remove(instance.getId()));
+        indexes.add(lease, registered);
+
+        assertThat(indexes.getByVip("myvip").size(), is(0));
+    }
+
     private void verifyLocalInstanceStatus(String id, InstanceStatus status) {
         InstanceInfo instanceInfo = registry.getApplication(LOCAL_REGION_APP_NAME).getByInstanceId(id);
         assertThat("InstanceInfo with id " + id + " not found", instanceInfo, is(notNullValue()));
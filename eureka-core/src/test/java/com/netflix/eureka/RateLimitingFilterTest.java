@@ -25,6 +25,7 @@ import com.netflix.appinfo.ApplicationInfoManager;
 import com.netflix.appinfo.EurekaClientIdentity;
 import com.netflix.appinfo.MyDataCenterInstanceConfig;
 import com.netflix.config.ConfigurationManager;
+import com.netflix.eureka.resources.ResponseCache;
 import com.netflix.eureka.util.EurekaMonitors;
 import org.junit.Before;
 import org.junit.Test;
@@ -33,6 +34,7 @@ import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -72,6 +74,9 @@ public class RateLimitingFilterTest {
         ConfigurationManager.getConfigInstance().setProperty("eureka.rateLimiter.registryFetchAverageRate", 1);
         ConfigurationManager.getConfigInstance().setProperty("eureka.rateLimiter.fullFetchAverageRate", 1);
         ConfigurationManager.getConfigInstance().setProperty("eureka.rateLimiter.throttleStandardClients", false);
+        ConfigurationManager.getConfigInstance().setProperty("eureka.rateLimiter.perClient.enabled", false);
+        ConfigurationManager.getConfigInstance().setProperty("eureka.rateLimiter.perClient.burstSize", 2);
+        ConfigurationManager.getConfigInstance().setProperty("eureka.rateLimiter.adaptive.enabled", false);
 
         ApplicationInfoManager.getInstance().initComponent(new MyDataCenterInstanceConfig());
 
@@ -151,6 +156,80 @@ public class RateLimitingFilterTest {
         verify(response, times(0)).setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
     }
 
+    @Test
+    public void testPerClientFairShare() throws Exception {
+        ConfigurationManager.getConfigInstance().setProperty("eureka.rateLimiter.perClient.enabled", true);
+        ConfigurationManager.getConfigInstance().setProperty("eureka.rateLimiter.burstSize", 10);
+
+        // The first instance of the custom client uses up its own burst only
+        whenRequest(FULL_FETCH, CUSTOM_CLIENT);
+        when(request.getHeader(AbstractEurekaIdentity.AUTH_ID_HEADER_KEY)).thenReturn("i-1");
+        filter.doFilter(request, response, filterChain);
+        filter.doFilter(request, response, filterChain);
+        filter.doFilter(request, response, filterChain);
+
+        verify(filterChain, times(2)).doFilter(request, response);
+        verify(response, times(1)).setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        verify(response, times(1)).setHeader("Retry-After", "1");
+
+        // Another instance still gets its share
+        when(request.getHeader(AbstractEurekaIdentity.AUTH_ID_HEADER_KEY)).thenReturn("i-2");
+        filter.doFilter(request, response, filterChain);
+
+        verify(filterChain, times(3)).doFilter(request, response);
+        verify(response, times(1)).setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+    }
+
+    @Test
+    public void testAdaptiveLimitsGoDownWithTheCacheLoadTime() throws Exception {
+        ConfigurationManager.getConfigInstance().setProperty("eureka.rateLimiter.perClient.enabled", true);
+        ConfigurationManager.getConfigInstance().setProperty("eureka.rateLimiter.burstSize", 10);
+        ConfigurationManager.getConfigInstance().setProperty("eureka.rateLimiter.adaptive.enabled", true);
+        ConfigurationManager.getConfigInstance().setProperty("eureka.rateLimiter.adaptive.maxCpuLoad", 0);
+        ConfigurationManager.getConfigInstance().setProperty("eureka.rateLimiter.adaptive.maxCacheLoadTimeMs", 100);
+
+        // The response cache loads ten times slower than its limit
+        ResponseCache responseCache = mock(ResponseCache.class);
+        when(responseCache.getAverageLoadTimeMs()).thenReturn(1000L);
+        RateLimitingFilter.setResponseCache(responseCache);
+
+        assertEquals(0.1, RateLimitingFilter.getAdaptiveFactor(), 0.001);
+
+        // The fair share of the client is a tenth of the unloaded one, so the client comes back ten times later
+        whenRequest(FULL_FETCH, CUSTOM_CLIENT);
+        when(request.getHeader(AbstractEurekaIdentity.AUTH_ID_HEADER_KEY)).thenReturn("i-1");
+        filter.doFilter(request, response, filterChain);
+        filter.doFilter(request, response, filterChain);
+        filter.doFilter(request, response, filterChain);
+
+        verify(filterChain, times(2)).doFilter(request, response);
+        verify(response, times(1)).setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        verify(response, times(1)).setHeader("Retry-After", "10");
+    }
+
+    @Test
+    public void testClientsWithTheSameIdAreToldApartByAddress() throws Exception {
+        ConfigurationManager.getConfigInstance().setProperty("eureka.rateLimiter.perClient.enabled", true);
+        ConfigurationManager.getConfigInstance().setProperty("eureka.rateLimiter.burstSize", 10);
+
+        whenRequest(FULL_FETCH, CUSTOM_CLIENT);
+        when(request.getHeader(AbstractEurekaIdentity.AUTH_ID_HEADER_KEY)).thenReturn("i-1");
+        when(request.getRemoteAddr()).thenReturn("10.0.0.1");
+        filter.doFilter(request, response, filterChain);
+        filter.doFilter(request, response, filterChain);
+        filter.doFilter(request, response, filterChain);
+
+        verify(filterChain, times(2)).doFilter(request, response);
+        verify(response, times(1)).setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+
+        // A client sending the id of another one does not use up the share of that other client
+        when(request.getRemoteAddr()).thenReturn("10.0.0.2");
+        filter.doFilter(request, response, filterChain);
+
+        verify(filterChain, times(3)).doFilter(request, response);
+        verify(response, times(1)).setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+    }
+
     private void whenRequest(String path, String client) {
         when(request.getMethod()).thenReturn("GET");
         when(request.getRequestURI()).thenReturn(path);
@@ -0,0 +1,147 @@
+package com.netflix.eureka;
+
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.config.ConfigurationManager;
+import com.netflix.eureka.cluster.PeerEurekaNode;
+import com.netflix.eureka.util.EurekaMonitors;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RenewalFastPathFilterTest extends AbstractTester {
+
+    private final InstanceInfo instanceInfo = createLocalInstance(LOCAL_REGION_INSTANCE_1_HOSTNAME);
+    private RenewalFastPathFilter filter;
+    private String renewalUri;
+
+    private final HttpServletRequest request = mock(HttpServletRequest.class);
+    private final HttpServletResponse response = mock(HttpServletResponse.class);
+    private final FilterChain filterChain = mock(FilterChain.class);
+
+    @Override
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        filter = new RenewalFastPathFilter(registry);
+        renewalUri = "/eureka/v2/apps/" + instanceInfo.getAppName().toLowerCase() + '/' + instanceInfo.getId();
+
+        when(request.getMethod()).thenReturn("PUT");
+        when(request.getRequestURI()).thenReturn(renewalUri);
+        when(request.getParameter("lastDirtyTimestamp")).thenReturn(instanceInfo.getLastDirtyTimestamp().toString());
+    }
+
+    @Test
+    public void testRenewalOfRegisteredInstance() throws Exception {
+        registry.register(instanceInfo, false);
+        long lastRenewalTimestamp = registry.getInstanceByAppAndId(instanceInfo.getAppName(), instanceInfo.getId())
+                .getLeaseInfo().getRenewalTimestamp();
+        Thread.sleep(2);
+
+        String lastDirtyTimestamp = instanceInfo.getLastDirtyTimestamp().toString();
+        assertThat(filter.renew(renewalUri, false, lastDirtyTimestamp), is(equalTo(200)));
+        assertThat(registry.getInstanceByAppAndId(instanceInfo.getAppName(), instanceInfo.getId())
+                .getLeaseInfo().getRenewalTimestamp() > lastRenewalTimestamp, is(true));
+    }
+
+    @Test
+    public void testRenewalOfUnknownInstance() throws Exception {
+        assertThat(filter.renew(renewalUri, false, null), is(equalTo(404)));
+    }
+
+    @Test
+    public void testReconciliationLeftToResources() throws Exception {
+        registry.register(instanceInfo, false);
+        String newerTimestamp = Long.toString(instanceInfo.getLastDirtyTimestamp() + 1);
+        assertThat(filter.renew(renewalUri, false, newerTimestamp), is(equalTo(RenewalFastPathFilter.FALL_BACK)));
+    }
+
+    @Test
+    public void testOtherRequestsLeftToResources() throws Exception {
+        registry.register(instanceInfo, false);
+        assertThat(filter.renew(renewalUri + "/status", false, null), is(equalTo(RenewalFastPathFilter.FALL_BACK)));
+        assertThat(filter.renew(renewalUri + '/', false, null), is(equalTo(RenewalFastPathFilter.FALL_BACK)));
+        assertThat(filter.renew("/eureka/v2/apps/" + instanceInfo.getAppName(), false, null),
+                is(equalTo(RenewalFastPathFilter.FALL_BACK)));
+    }
+
+    @Test
+    public void testMatrixParametersLeftToResources() throws Exception {
+        registry.register(instanceInfo, false);
+        assertThat(filter.renew(renewalUri + ";jsessionid=1", false, null), is(equalTo(RenewalFastPathFilter.FALL_BACK)));
+    }
+
+    @Test
+    public void testRenewalsAnsweredByTheFilter() throws Exception {
+        registry.register(instanceInfo, false);
+        long renewCount = EurekaMonitors.RENEW.getZoneSpecificCount();
+
+        filter.doFilter(request, response, filterChain);
+
+        verify(response).setStatus(HttpServletResponse.SC_OK);
+        verify(filterChain, never()).doFilter(request, response);
+        assertThat(EurekaMonitors.RENEW.getZoneSpecificCount(), is(equalTo(renewCount + 1)));
+    }
+
+    @Test
+    public void testReplicatedRenewals() throws Exception {
+        registry.register(instanceInfo, false);
+        when(request.getHeader(PeerEurekaNode.HEADER_REPLICATION)).thenReturn("true");
+        long renewCount = EurekaMonitors.RENEW.getCount();
+        long localRenewCount = EurekaMonitors.RENEW.getZoneSpecificCount();
+
+        filter.doFilter(request, response, filterChain);
+
+        verify(response).setStatus(HttpServletResponse.SC_OK);
+        assertThat(EurekaMonitors.RENEW.getCount(), is(equalTo(renewCount + 1)));
+        assertThat(EurekaMonitors.RENEW.getZoneSpecificCount(), is(equalTo(localRenewCount)));
+    }
+
+    @Test
+    public void testOtherMethodsPassedOn() throws Exception {
+        registry.register(instanceInfo, false);
+        when(request.getMethod()).thenReturn("GET");
+
+        filter.doFilter(request, response, filterChain);
+
+        verify(filterChain).doFilter(request, response);
+        verify(response, never()).setStatus(anyInt());
+    }
+
+    @Test
+    public void testFallBacksPassedOn() throws Exception {
+        registry.register(instanceInfo, false);
+        when(request.getParameter("lastDirtyTimestamp"))
+                .thenReturn(Long.toString(instanceInfo.getLastDirtyTimestamp() + 1));
+
+        filter.doFilter(request, response, filterChain);
+
+        verify(filterChain).doFilter(request, response);
+        verify(response, never()).setStatus(anyInt());
+    }
+
+    @Test
+    public void testFastPathSwitchedOff() throws Exception {
+        registry.register(instanceInfo, false);
+        ConfigurationManager.getConfigInstance().setProperty("eureka.renewalFastPath.enabled", false);
+        try {
+            filter.doFilter(request, response, filterChain);
+        } finally {
+            ConfigurationManager.getConfigInstance().clearProperty("eureka.renewalFastPath.enabled");
+        }
+
+        verify(filterChain).doFilter(request, response);
+        verify(response, never()).setStatus(anyInt());
+    }
+}
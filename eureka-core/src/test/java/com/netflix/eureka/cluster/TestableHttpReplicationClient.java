@@ -11,6 +11,8 @@ import java.util.concurrent.atomic.AtomicInteger;
 import com.netflix.appinfo.InstanceInfo;
 import com.netflix.appinfo.InstanceInfo.InstanceStatus;
 import com.netflix.discovery.shared.Applications;
+import com.netflix.discovery.shared.RenewalList;
+import com.netflix.discovery.shared.RenewalListResponse;
 import com.netflix.eureka.cluster.protocol.ReplicationInstanceResponse;
 import com.netflix.eureka.cluster.protocol.ReplicationList;
 import com.netflix.eureka.cluster.protocol.ReplicationListResponse;
@@ -97,16 +99,31 @@ public class TestableHttpReplicationClient implements HttpReplicationClient {
         return new HttpResponse<>(networkStatusCodes[callCounter.getAndIncrement()], null);
     }
 
+    @Override
+    public HttpResponse<RenewalListResponse> sendHeartBeats(RenewalList renewals) {
+        throw new IllegalStateException("method not supported");
+    }
+
     @Override
     public HttpResponse<Applications> getApplications() {
         throw new IllegalStateException("method not supported");
     }
 
+    @Override
+    public HttpResponse<Applications> getApplications(String ifNoneMatch) {
+        throw new IllegalStateException("method not supported");
+    }
+
     @Override
     public HttpResponse<Applications> getDelta() {
         throw new IllegalStateException("method not supported");
     }
 
+    @Override
+    public HttpResponse<Applications> getDelta(String ifNoneMatch) {
+        throw new IllegalStateException("method not supported");
+    }
+
     @Override
     public HttpResponse<InstanceInfo> getInstance(String appName, String id) {
         throw new IllegalStateException("method not supported");
@@ -46,7 +46,8 @@ public class ApplicationResourceTest extends AbstractTester {
         Response response = applicationResource.getApplication(
                 Version.V2.name(),
                 MediaType.APPLICATION_JSON,
-                EurekaAccept.full.name()
+                EurekaAccept.full.name(),
+                null  // If-None-Match
         );
 
         String json = String.valueOf(response.getEntity());
@@ -61,7 +62,8 @@ public class ApplicationResourceTest extends AbstractTester {
         Response response = applicationResource.getApplication(
                 Version.V2.name(),
                 MediaType.APPLICATION_JSON,
-                EurekaAccept.compact.name()
+                EurekaAccept.compact.name(),
+                null  // If-None-Match
         );
 
         String json = String.valueOf(response.getEntity());
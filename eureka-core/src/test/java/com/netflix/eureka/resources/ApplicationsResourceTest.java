@@ -13,10 +13,12 @@ import com.netflix.eureka.Version;
 import org.junit.Before;
 import org.junit.Test;
 
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 /**
@@ -51,6 +53,7 @@ public class ApplicationsResourceTest extends AbstractTester {
                 MediaType.APPLICATION_JSON,
                 null, // encoding
                 EurekaAccept.full.name(),
+                null,  // If-None-Match
                 null,  // uriInfo
                 null  // remote regions
         );
@@ -66,6 +69,44 @@ public class ApplicationsResourceTest extends AbstractTester {
         }
     }
 
+    @Test
+    public void testConditionalAppsGet() throws Exception {
+        Response response = applicationsResource.getContainers(
+                Version.V2.name(),
+                MediaType.APPLICATION_JSON,
+                null, // encoding
+                EurekaAccept.full.name(),
+                null,  // If-None-Match
+                null,  // uriInfo
+                null  // remote regions
+        );
+        EntityTag entityTag = (EntityTag) response.getMetadata().getFirst("ETag");
+        assertThat(entityTag.isWeak(), is(true));
+
+        Response notModified = applicationsResource.getContainers(
+                Version.V2.name(),
+                MediaType.APPLICATION_JSON,
+                null, // encoding
+                EurekaAccept.full.name(),
+                "W/\"" + entityTag.getValue() + "\"",
+                null,  // uriInfo
+                null  // remote regions
+        );
+        assertThat(notModified.getStatus(), is(304));
+        assertThat(notModified.getEntity(), is(nullValue()));
+
+        Response modified = applicationsResource.getContainers(
+                Version.V2.name(),
+                MediaType.APPLICATION_JSON,
+                null, // encoding
+                EurekaAccept.full.name(),
+                "W/\"outdated\"",
+                null,  // uriInfo
+                null  // remote regions
+        );
+        assertThat(modified.getStatus(), is(200));
+    }
+
     @Test
     public void testMiniAppsGet() throws Exception {
         Response response = applicationsResource.getContainers(
@@ -73,6 +114,7 @@ public class ApplicationsResourceTest extends AbstractTester {
                 MediaType.APPLICATION_JSON,
                 null, // encoding
                 EurekaAccept.compact.name(),
+                null,  // If-None-Match
                 null,  // uriInfo
                 null  // remote regions
         );
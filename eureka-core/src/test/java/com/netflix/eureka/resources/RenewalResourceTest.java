@@ -0,0 +1,55 @@
+package com.netflix.eureka.resources;
+
+import javax.ws.rs.core.Response;
+import java.util.Arrays;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.shared.Renewal;
+import com.netflix.discovery.shared.RenewalList;
+import com.netflix.discovery.shared.RenewalListResponse;
+import com.netflix.eureka.cluster.ClusterSampleData;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RenewalResourceTest {
+
+    private final InstanceResource registeredResource = mock(InstanceResource.class);
+    private final InstanceResource unknownResource = mock(InstanceResource.class);
+
+    private final InstanceInfo registeredInfo = ClusterSampleData.newInstanceInfo(0);
+    private final InstanceInfo unknownInfo = ClusterSampleData.newInstanceInfo(1);
+
+    private final RenewalResource renewalResource = new RenewalResource() {
+        @Override
+        InstanceResource createInstanceResource(Renewal renewal) {
+            return renewal.getId().equals(registeredInfo.getId()) ? registeredResource : unknownResource;
+        }
+    };
+
+    @Test
+    public void testEachRenewalGetsItsOwnStatus() throws Exception {
+        when(registeredResource.renewLease(anyString(), anyString(), anyString(), anyString())).thenReturn(Response.ok().build());
+        when(unknownResource.renewLease(anyString(), anyString(), anyString(), anyString()))
+                .thenReturn(Response.status(Response.Status.NOT_FOUND).build());
+
+        RenewalList renewalList = new RenewalList(Arrays.asList(new Renewal(registeredInfo), new Renewal(unknownInfo)));
+        Response response = renewalResource.batchRenewal(renewalList);
+
+        assertThat(response.getStatus(), is(equalTo(200)));
+        RenewalListResponse renewalResponse = (RenewalListResponse) response.getEntity();
+        assertThat(renewalResponse.getStatusCodeList(), is(equalTo(Arrays.asList(200, 404))));
+        verify(registeredResource).renewLease(
+                null,
+                null,
+                registeredInfo.getStatus().name(),
+                Long.toString(registeredInfo.getLastDirtyTimestamp())
+        );
+    }
+}
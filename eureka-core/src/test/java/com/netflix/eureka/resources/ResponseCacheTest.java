@@ -85,4 +85,81 @@ public class ResponseCacheTest extends AbstractTester {
         Assert.assertNull("Cache after invalidate did not return null.", cache.get(key1, true));
         Assert.assertNull("Cache after invalidate did not return null.", cache.get(key2, true));
     }
+
+    @Test
+    public void testInvalidateCompactVip() throws Exception {
+        ResponseCache cache = ResponseCache.getInstance();
+        ResponseCache.Key fullKey = new ResponseCache.Key(ResponseCache.Key.EntityType.VIP, "myvip",
+                ResponseCache.KeyType.JSON, Version.V1, EurekaAccept.full);
+        ResponseCache.Key compactKey = new ResponseCache.Key(ResponseCache.Key.EntityType.VIP, "myvip",
+                ResponseCache.KeyType.JSON, Version.V1, EurekaAccept.compact);
+
+        ResponseCache.Value fullValue = cache.getValue(fullKey, false);
+        ResponseCache.Value compactValue = cache.getValue(compactKey, false);
+        Assert.assertSame("Cache get was not cached.", fullValue, cache.getValue(fullKey, false));
+
+        cache.invalidate(REMOTE_REGION_APP_NAME, "myvip", null);
+
+        Assert.assertNotSame("Cache after invalidate returned the old value.", fullValue, cache.getValue(fullKey, false));
+        Assert.assertNotSame("Cache after invalidate returned the old value.", compactValue, cache.getValue(compactKey, false));
+    }
+
+    @Test
+    public void testFormatsOfAKeyShareOneRegistryEntity() throws Exception {
+        ResponseCache cache = ResponseCache.getInstance();
+        cache.invalidate(REMOTE_REGION_APP_NAME, null, null);
+        ResponseCache.Key jsonKey = new ResponseCache.Key(ResponseCache.Key.EntityType.Application,
+                ResponseCache.ALL_APPS_DELTA, ResponseCache.KeyType.JSON, Version.V1, EurekaAccept.full);
+        ResponseCache.Key xmlKey = new ResponseCache.Key(ResponseCache.Key.EntityType.Application,
+                ResponseCache.ALL_APPS_DELTA, ResponseCache.KeyType.XML, Version.V1, EurekaAccept.compact);
+
+        long jsonVersion = cache.getValue(jsonKey, false).getVersion();
+        Assert.assertEquals("Delta formats were loaded from different deltas.",
+                jsonVersion, cache.getValue(xmlKey, false).getVersion());
+
+        cache.invalidate(REMOTE_REGION_APP_NAME, null, null);
+        Assert.assertTrue("Delta loaded after invalidation was not a new one.",
+                cache.getValue(xmlKey, false).getVersion() > jsonVersion);
+    }
+
+    @Test
+    public void testKeyLoadedDuringInvalidationIsNotStale() throws Exception {
+        final ResponseCache.Key jsonKey = new ResponseCache.Key(ResponseCache.Key.EntityType.Application,
+                ResponseCache.ALL_APPS_DELTA, ResponseCache.KeyType.JSON, Version.V1, EurekaAccept.full);
+        ResponseCache.Key xmlKey = new ResponseCache.Key(ResponseCache.Key.EntityType.Application,
+                ResponseCache.ALL_APPS_DELTA, ResponseCache.KeyType.XML, Version.V1, EurekaAccept.compact);
+        final long[] versionLoadedDuringInvalidation = new long[1];
+        ResponseCache cache = new ResponseCache(registry) {
+            @Override
+            void invalidateKey(Key key) {
+                super.invalidateKey(key);
+                if (key.equals(jsonKey)) {
+                    // a fetch served while the remaining keys are still being invalidated
+                    versionLoadedDuringInvalidation[0] = getValue(jsonKey, false).getVersion();
+                }
+            }
+        };
+        long jsonVersion = cache.getValue(jsonKey, false).getVersion();
+        Assert.assertEquals(jsonVersion, cache.getValue(xmlKey, false).getVersion());
+
+        cache.invalidate(jsonKey, xmlKey);
+
+        Assert.assertTrue("Key loaded during the invalidation reused the entity built before it.",
+                versionLoadedDuringInvalidation[0] > jsonVersion);
+        Assert.assertEquals("Formats loaded during and after the invalidation differ.",
+                versionLoadedDuringInvalidation[0], cache.getValue(xmlKey, false).getVersion());
+    }
+
+    @Test
+    public void testAwaitVersionChange() throws Exception {
+        ResponseCache cache = ResponseCache.getInstance();
+        ResponseCache.Key key = new ResponseCache.Key(ResponseCache.Key.EntityType.Application,
+                ResponseCache.ALL_APPS_DELTA, ResponseCache.KeyType.JSON, Version.V1, EurekaAccept.full);
+        long currentVersion = cache.getValue(key, true).getVersion();
+
+        Assert.assertTrue("Wait on an outdated version should return immediately.",
+                cache.awaitVersionChange(key, currentVersion - 1, 10000));
+        Assert.assertFalse("Wait on the current version should time out.",
+                cache.awaitVersionChange(key, currentVersion, 100));
+    }
 }
@@ -11,10 +11,14 @@ import java.util.regex.Pattern;
 
 import com.netflix.appinfo.InstanceInfo;
 import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+import com.netflix.discovery.shared.Applications;
 import com.netflix.discovery.shared.EurekaHttpClient.HttpResponse;
 import com.netflix.discovery.shared.EurekaJerseyClient;
 import com.netflix.discovery.shared.EurekaJerseyClient.EurekaJerseyClientBuilder;
 import com.netflix.discovery.shared.JerseyEurekaHttpClient;
+import com.netflix.discovery.shared.Renewal;
+import com.netflix.discovery.shared.RenewalList;
+import com.netflix.discovery.shared.RenewalListResponse;
 import com.netflix.discovery.util.InstanceInfoGenerator;
 import com.netflix.eureka.EurekaServerConfig;
 import com.netflix.eureka.PeerAwareInstanceRegistryImpl.Action;
@@ -133,6 +137,22 @@ public class EurekaClientServerRestIntegrationTest {
         assertThat(heartBeatResponse.getEntity(), is(nullValue()));
     }
 
+    @Test
+    public void testBatchHeartbeat() throws Exception {
+        // Register the first instance only
+        InstanceInfo registeredInstance = instanceInfoIt.next();
+        jerseyEurekaClient.register(registeredInstance);
+        InstanceInfo unknownInstance = instanceInfoIt.next();
+
+        RenewalList renewals = new RenewalList();
+        renewals.addRenewal(new Renewal(registeredInstance));
+        renewals.addRenewal(new Renewal(unknownInstance));
+        HttpResponse<RenewalListResponse> heartBeatsResponse = jerseyEurekaClient.sendHeartBeats(renewals);
+
+        assertThat(heartBeatsResponse.getStatusCode(), is(equalTo(200)));
+        assertThat(heartBeatsResponse.getEntity().getStatusCodeList(), is(equalTo(Arrays.asList(200, 404))));
+    }
+
     @Test
     public void testMissedHeartbeat() throws Exception {
         InstanceInfo instanceInfo = instanceInfoIt.next();
@@ -204,6 +224,17 @@ public class EurekaClientServerRestIntegrationTest {
         assertThat(replicationListResponse.get(0).getStatusCode(), is(equalTo(200)));
     }
 
+    @Test
+    public void testConditionalRegistryFetch() throws Exception {
+        HttpResponse<Applications> registryResponse = jerseyEurekaClient.getApplications();
+        assertThat(registryResponse.getStatusCode(), is(equalTo(200)));
+        assertThat(registryResponse.getETag(), is(notNullValue()));
+
+        HttpResponse<Applications> notModifiedResponse = jerseyEurekaClient.getApplications(registryResponse.getETag());
+        assertThat(notModifiedResponse.getStatusCode(), is(equalTo(304)));
+        assertThat(notModifiedResponse.getEntity(), is(nullValue()));
+    }
+
     private static InstanceInfo expectInstanceInfoInRegistry(InstanceInfo instanceInfo) {
         HttpResponse<InstanceInfo> queryResponse = jerseyEurekaClient.getInstance(instanceInfo.getAppName(), instanceInfo.getId());
         assertThat(queryResponse.getStatusCode(), is(equalTo(200)));